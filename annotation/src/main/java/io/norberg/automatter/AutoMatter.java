@@ -12,6 +12,47 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Retention(RUNTIME)
 public @interface AutoMatter {
 
+  /**
+   * Compute the hash code of a value lazily, once, and cache it in the value.
+   */
+  boolean cacheHashCode() default false;
+
+  /**
+   * Generate {@code intern()} and {@code buildInterned()} methods on the builder, returning a
+   * canonical, weakly referenced instance of each distinct value.
+   */
+  boolean intern() default false;
+
+  /**
+   * Generate a {@code FoobarColumns} container that stores values as parallel arrays, one per field.
+   */
+  boolean columns() default false;
+
+  /**
+   * Generate a {@code FoobarFlyweight} implementation that reads fields directly from a
+   * {@link java.nio.ByteBuffer}. All fields must be primitive.
+   */
+  boolean flyweight() default false;
+
+  /**
+   * Generate a {@code FoobarCodec} with methods that encode values to and decode values from a
+   * compact binary format without reflection.
+   */
+  boolean codec() default false;
+
+  /**
+   * Generate a Jackson {@code FoobarJsonSerializer} and {@code FoobarJsonDeserializer} that are used
+   * by the {@code AutoMatterModule} in auto-matter-jackson instead of reflection. Requires
+   * jackson-databind.
+   */
+  boolean jackson() default false;
+
+  /**
+   * Generate a Gson {@code FoobarTypeAdapter} that is used by the {@code AutoMatterTypeAdapterFactory} in
+   * auto-matter-gson instead of reflection. Requires gson.
+   */
+  boolean gson() default false;
+
   @Target({PARAMETER, METHOD})
   @Retention(RUNTIME)
   @interface Field {
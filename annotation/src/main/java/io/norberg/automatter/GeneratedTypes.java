@@ -0,0 +1,132 @@
+package io.norberg.automatter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+/**
+ * Looks up classes generated by the processor for {@code @AutoMatter} types in the registry resources it writes to
+ * {@code META-INF/auto-matter/types/}. Shared by the Jackson and Gson modules, not intended for use by applications.
+ */
+public final class GeneratedTypes {
+
+  private static final String REGISTRY_PATH = "META-INF/auto-matter/types/";
+  private static final String INDEX_PATH = "META-INF/auto-matter/index";
+
+  private static final ConcurrentMap<Class<?>, Properties> registries =
+      new ConcurrentHashMap<Class<?>, Properties>();
+
+  private GeneratedTypes() {
+  }
+
+  /**
+   * Find the {@code @AutoMatter} type of a class, i.e. the class itself or an interface implemented by it, e.g. a
+   * generated value class.
+   */
+  public static Class<?> autoMatterType(final Class<?> cls) {
+    if (cls.isAnnotationPresent(AutoMatter.class)) {
+      return cls;
+    }
+    for (final Class<?> iface : cls.getInterfaces()) {
+      if (iface.isAnnotationPresent(AutoMatter.class)) {
+        return iface;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Instantiate the class registered for {@code type} under {@code key}, e.g. {@code jsonSerializer}.
+   */
+  public static <T> T instantiate(final Class<?> type, final String key, final Class<T> cls) {
+    final Class<?> generated = generatedClass(type, key);
+    if (generated == null) {
+      throw new IllegalArgumentException("No " + key + " found for @AutoMatter type: " + type.getName());
+    }
+    try {
+      return cls.cast(generated.newInstance());
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Load the class registered for {@code type} under {@code key}, e.g. {@code value}. Returns null if there is no
+   * such class, e.g. because the type was compiled by a processor that did not write a registry.
+   */
+  public static Class<?> generatedClass(final Class<?> type, final String key) {
+    final String name = registry(type).getProperty(key);
+    if (name == null) {
+      return null;
+    }
+    try {
+      return Class.forName(name, true, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Registered " + key + " not found for @AutoMatter type: " + type.getName(), e);
+    }
+  }
+
+  /**
+   * Load all {@code @AutoMatter} types listed in the indices visible to {@code loader}, written by the processor when
+   * it is run with {@code -Aautomatter.index=true}.
+   */
+  public static List<Class<?>> indexedTypes(final ClassLoader loader) {
+    final Set<String> names = new LinkedHashSet<String>();
+    try {
+      final Enumeration<URL> indices = loader.getResources(INDEX_PATH);
+      while (indices.hasMoreElements()) {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(indices.nextElement().openStream(), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+              names.add(line);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read @AutoMatter type index", e);
+    }
+
+    final List<Class<?>> types = new ArrayList<Class<?>>();
+    for (final String name : names) {
+      try {
+        types.add(Class.forName(name, false, loader));
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("Indexed @AutoMatter type not found: " + name, e);
+      }
+    }
+    return types;
+  }
+
+  private static Properties registry(final Class<?> type) {
+    final Properties cached = registries.get(type);
+    if (cached != null) {
+      return cached;
+    }
+
+    final Properties registry = new Properties();
+    try (InputStream in = type.getClassLoader().getResourceAsStream(REGISTRY_PATH + type.getName())) {
+      if (in != null) {
+        registry.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read registry for @AutoMatter type: " + type.getName(), e);
+    }
+
+    final Properties existing = registries.putIfAbsent(type, registry);
+    return (existing != null) ? existing : registry;
+  }
+}
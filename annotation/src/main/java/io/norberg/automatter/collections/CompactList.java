@@ -0,0 +1,70 @@
+package io.norberg.automatter.collections;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list without nulls, backed by an exact sized array.
+ */
+public final class CompactList<T> extends AbstractList<T> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Object[] values;
+
+  CompactList(final Object[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Empty and single element lists are copied into
+   * the compact forms of {@link Collections}, lists with nulls, only possible for nullable fields, into an
+   * unmodifiable array list.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> List<T> copyOf(final List<T> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (list.size() == 1) {
+      return Collections.singletonList(list.get(0));
+    }
+    final Object[] values = list.toArray();
+    for (Object value : values) {
+      if (value == null) {
+        return Collections.unmodifiableList(Arrays.asList((T[]) values));
+      }
+    }
+    return new CompactList<T>(values);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(final int index) {
+    return (T) values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    for (Object value : values) {
+      if (value == null) {
+        throw new InvalidObjectException("null element");
+      }
+    }
+  }
+}
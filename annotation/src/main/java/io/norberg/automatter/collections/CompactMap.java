@@ -0,0 +1,179 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map without null keys or values, backed by an open addressing hash table.
+ */
+public final class CompactMap<K, V> extends AbstractMap<K, V> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Object[] keys;
+  private final Object[] values;
+  private final int size;
+
+  private CompactMap(final Object[] keys, final Object[] values, final int size) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Copy a map into an immutable map, unless it already is one. Empty and single entry maps are copied into the
+   * compact forms of {@link Collections}, maps with nulls, only possible for nullable fields, into an unmodifiable
+   * hash map.
+   */
+  public static <K, V> Map<K, V> copyOf(final Map<K, V> map) {
+    if (ImmutableCollections.isImmutableMap(map)) {
+      return map;
+    }
+    if (map.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (map.size() == 1) {
+      final Map.Entry<K, V> entry = map.entrySet().iterator().next();
+      return Collections.singletonMap(entry.getKey(), entry.getValue());
+    }
+    final Object[] keys = new Object[Hashing.tableSize(map.size())];
+    final Object[] values = new Object[keys.length];
+    int size = 0;
+    for (Map.Entry<K, V> entry : map.entrySet()) {
+      if (entry.getKey() == null || entry.getValue() == null || size == keys.length - 1) {
+        return Collections.unmodifiableMap(new HashMap<K, V>(map));
+      }
+      if (insert(keys, values, entry.getKey(), entry.getValue())) {
+        size++;
+      }
+    }
+    return new CompactMap<K, V>(keys, values, size);
+  }
+
+  private static boolean insert(final Object[] keys, final Object[] values, final Object key, final Object value) {
+    final int mask = keys.length - 1;
+    int i = Hashing.index(key, mask);
+    while (keys[i] != null) {
+      if (keys[i].equals(key)) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(final Object key) {
+    if (key == null) {
+      return null;
+    }
+    final int mask = keys.length - 1;
+    for (int i = Hashing.index(key, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].equals(key)) {
+        return (V) values[i];
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+          private int index;
+          private int remaining = size;
+
+          @Override
+          public boolean hasNext() {
+            return remaining > 0;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, V> next() {
+            if (remaining == 0) {
+              throw new NoSuchElementException();
+            }
+            while (keys[index] == null) {
+              index++;
+            }
+            remaining--;
+            final int i = index++;
+            return new AbstractMap.SimpleImmutableEntry<K, V>((K) keys[i], (V) values[i]);
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  // As for CompactSet, only the entries are serialized and the table is rebuilt when deserializing.
+
+  private Object writeReplace() {
+    final Object[] entries = new Object[size * 2];
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        entries[j++] = keys[i];
+        entries[j++] = values[i];
+      }
+    }
+    return new SerializedForm(entries);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] entries;
+
+    private SerializedForm(final Object[] entries) {
+      this.entries = entries;
+    }
+
+    private Object readResolve() {
+      final Map<Object, Object> map = new HashMap<Object, Object>();
+      for (int i = 0; i < entries.length; i += 2) {
+        map.put(entries[i], entries[i + 1]);
+      }
+      return copyOf(map);
+    }
+  }
+}
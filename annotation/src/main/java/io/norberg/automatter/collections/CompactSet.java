@@ -0,0 +1,145 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set without nulls, backed by an open addressing hash table.
+ */
+public final class CompactSet<T> extends AbstractSet<T> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Object[] table;
+  private final int size;
+
+  private CompactSet(final Object[] table, final int size) {
+    this.table = table;
+    this.size = size;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Empty and single element sets are copied into the
+   * compact forms of {@link Collections}, sets with nulls, only possible for nullable fields, into an unmodifiable
+   * hash set.
+   */
+  public static <T> Set<T> copyOf(final Set<T> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.isEmpty()) {
+      return Collections.emptySet();
+    }
+    if (set.size() == 1) {
+      return Collections.singleton(set.iterator().next());
+    }
+    final Object[] table = new Object[Hashing.tableSize(set.size())];
+    int size = 0;
+    for (T element : set) {
+      if (element == null || size == table.length - 1) {
+        return Collections.unmodifiableSet(new HashSet<T>(set));
+      }
+      if (insert(table, element)) {
+        size++;
+      }
+    }
+    return new CompactSet<T>(table, size);
+  }
+
+  private static boolean insert(final Object[] table, final Object element) {
+    final int mask = table.length - 1;
+    int i = Hashing.index(element, mask);
+    while (table[i] != null) {
+      if (table[i].equals(element)) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    table[i] = element;
+    return true;
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    if (o == null) {
+      return false;
+    }
+    final int mask = table.length - 1;
+    for (int i = Hashing.index(o, mask); table[i] != null; i = (i + 1) & mask) {
+      if (table[i].equals(o)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private int index;
+      private int remaining = size;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T next() {
+        if (remaining == 0) {
+          throw new NoSuchElementException();
+        }
+        while (table[index] == null) {
+          index++;
+        }
+        remaining--;
+        return (T) table[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  // The table layout depends on hash codes, which may differ between JVMs, e.g. for enums. Only the elements are
+  // serialized and the table is rebuilt when deserializing.
+
+  private Object writeReplace() {
+    return new SerializedForm(toArray());
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] elements;
+
+    private SerializedForm(final Object[] elements) {
+      this.elements = elements;
+    }
+
+    private Object readResolve() {
+      return copyOf(new HashSet<Object>(Arrays.asList(elements)));
+    }
+  }
+}
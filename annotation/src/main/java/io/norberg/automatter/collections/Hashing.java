@@ -0,0 +1,49 @@
+package io.norberg.automatter.collections;
+
+/**
+ * Open addressing with linear probing over power of two sized tables, shared by the hash based collections.
+ */
+final class Hashing {
+
+  private Hashing() {
+  }
+
+  /**
+   * The size of an immutable table for {@code size} elements, at most two thirds full.
+   */
+  static int tableSize(final int size) {
+    return Integer.highestOneBit(size + (size >> 1)) << 1;
+  }
+
+  /**
+   * The size of a mutable table for {@code capacity} elements, which is rehashed when three quarters full.
+   */
+  static int mutableTableSize(final int capacity) {
+    return Math.max(Integer.highestOneBit(capacity + (capacity >> 1)) << 1, 8);
+  }
+
+  static int index(final Object o, final int mask) {
+    return spread(o.hashCode()) & mask;
+  }
+
+  static int index(final int value, final int mask) {
+    return spread(value) & mask;
+  }
+
+  static int index(final long value, final int mask) {
+    return spread((int) (value ^ (value >>> 32))) & mask;
+  }
+
+  static int index(final float value, final int mask) {
+    return spread(Float.floatToIntBits(value)) & mask;
+  }
+
+  static int index(final double value, final int mask) {
+    final long bits = Double.doubleToLongBits(value);
+    return spread((int) (bits ^ (bits >>> 32))) & mask;
+  }
+
+  private static int spread(final int h) {
+    return h ^ (h >>> 16);
+  }
+}
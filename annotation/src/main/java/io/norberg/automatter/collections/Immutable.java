@@ -0,0 +1,7 @@
+package io.norberg.automatter.collections;
+
+/**
+ * Marks the immutable collections of this package. These never contain nulls and can be shared between values.
+ */
+interface Immutable {
+}
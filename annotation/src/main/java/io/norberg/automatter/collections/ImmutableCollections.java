@@ -0,0 +1,58 @@
+package io.norberg.automatter.collections;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recognizes collections that are known to be immutable and free of nulls, which generated builders and values share
+ * instead of copying. These are the collections of this package, empty and single element collections from
+ * {@link Collections} and Guava's immutable collections.
+ */
+public final class ImmutableCollections {
+
+  private static final Class<?> SINGLETON_LIST = Collections.singletonList(null).getClass();
+  private static final Class<?> SINGLETON_SET = Collections.singleton(null).getClass();
+  private static final Class<?> SINGLETON_MAP = Collections.singletonMap(null, null).getClass();
+
+  // Guava is optional at runtime. Sorted collections are copied, they might not use equals() for their comparisons.
+  private static final Class<?> GUAVA_LIST = load("com.google.common.collect.ImmutableList");
+  private static final Class<?> GUAVA_SET = load("com.google.common.collect.ImmutableSet");
+  private static final Class<?> GUAVA_SORTED_SET = load("com.google.common.collect.ImmutableSortedSet");
+  private static final Class<?> GUAVA_MAP = load("com.google.common.collect.ImmutableMap");
+  private static final Class<?> GUAVA_SORTED_MAP = load("com.google.common.collect.ImmutableSortedMap");
+
+  private ImmutableCollections() {
+  }
+
+  public static boolean isImmutableList(final Collection<?> list) {
+    return (list instanceof Immutable && list instanceof List) ||
+           list == Collections.EMPTY_LIST ||
+           (list.getClass() == SINGLETON_LIST && !list.contains(null)) ||
+           (GUAVA_LIST != null && GUAVA_LIST.isInstance(list));
+  }
+
+  public static boolean isImmutableSet(final Collection<?> set) {
+    return (set instanceof Immutable && set instanceof Set) ||
+           set == Collections.EMPTY_SET ||
+           (set.getClass() == SINGLETON_SET && !set.contains(null)) ||
+           (GUAVA_SET != null && GUAVA_SET.isInstance(set) && !GUAVA_SORTED_SET.isInstance(set));
+  }
+
+  public static boolean isImmutableMap(final Map<?, ?> map) {
+    return map instanceof Immutable ||
+           map == Collections.EMPTY_MAP ||
+           (map.getClass() == SINGLETON_MAP && !map.containsKey(null) && !map.containsValue(null)) ||
+           (GUAVA_MAP != null && GUAVA_MAP.isInstance(map) && !GUAVA_SORTED_MAP.isInstance(map));
+  }
+
+  private static Class<?> load(final String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A mutable map with {@code byte} values without boxing, used by generated builders for {@code Map<K, Byte>} fields.
+ */
+public final class PrimitiveByteHashMap<K> extends AbstractMap<K, Byte> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final Object REMOVED = new Object();
+
+  Object[] keys;
+  byte[] values;
+  private int size;
+  private int used;
+
+  public PrimitiveByteHashMap() {
+    this(0);
+  }
+
+  public PrimitiveByteHashMap(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    this.keys = new Object[tableSize];
+    this.values = new byte[tableSize];
+  }
+
+  public PrimitiveByteHashMap(final Map<? extends K, ? extends Byte> map) {
+    this(map.size());
+    putAll(map);
+  }
+
+  private int find(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+    final int mask = keys.length - 1;
+    for (int i = Hashing.index(key, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Put a value without boxing it.
+   */
+  public void put(final K key, final byte value) {
+    final int mask = keys.length - 1;
+    int i = Hashing.index(key, mask);
+    int slot = -1;
+    while (keys[i] != null) {
+      if (keys[i] == REMOVED) {
+        if (slot < 0) {
+          slot = i;
+        }
+      } else if (keys[i].equals(key)) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    if (slot < 0) {
+      if (used + 1 > (keys.length >> 1) + (keys.length >> 2)) {
+        rehash(Hashing.mutableTableSize(size + 1));
+        put(key, value);
+        return;
+      }
+      slot = i;
+      used++;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  @Override
+  public Byte put(final K key, final Byte value) {
+    final Byte previous = get(key);
+    put(key, value.byteValue());
+    return previous;
+  }
+
+  @Override
+  public Byte get(final Object key) {
+    final int i = find(key);
+    return (i < 0) ? null : values[i];
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public Byte remove(final Object key) {
+    final int i = find(key);
+    if (i < 0) {
+      return null;
+    }
+    keys[i] = REMOVED;
+    size--;
+    return values[i];
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+    used = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, Byte>> entrySet() {
+    return new AbstractSet<Map.Entry<K, Byte>>() {
+      @Override
+      public Iterator<Map.Entry<K, Byte>> iterator() {
+        return new Iterator<Map.Entry<K, Byte>>() {
+          private int index;
+          private int last = -1;
+          private int remaining = size;
+
+          @Override
+          public boolean hasNext() {
+            return remaining > 0;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, Byte> next() {
+            if (remaining == 0) {
+              throw new NoSuchElementException();
+            }
+            while (keys[index] == null || keys[index] == REMOVED) {
+              index++;
+            }
+            remaining--;
+            final int slot = last = index++;
+            return new AbstractMap.SimpleEntry<K, Byte>((K) keys[slot], values[slot]) {
+              @Override
+              public Byte setValue(final Byte value) {
+                values[slot] = value;
+                return super.setValue(value);
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            if (last < 0) {
+              throw new IllegalStateException();
+            }
+            keys[last] = REMOVED;
+            size--;
+            last = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private void rehash(final int tableSize) {
+    final Object[] oldKeys = keys;
+    final byte[] oldValues = values;
+    keys = new Object[tableSize];
+    values = new byte[tableSize];
+    used = size;
+    final int mask = tableSize - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != null && oldKeys[j] != REMOVED) {
+        int i = Hashing.index(oldKeys[j], mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   * Make room for at least {@code capacity} entries without rehashing. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    if (tableSize > keys.length) {
+      rehash(tableSize);
+    }
+  }
+
+  // The removed marker does not survive serialization, so only the entries are serialized and the table is rebuilt.
+
+  private Object writeReplace() {
+    final Object[] entryKeys = new Object[size];
+    final byte[] entryValues = new byte[size];
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null && keys[i] != REMOVED) {
+        entryKeys[j] = keys[i];
+        entryValues[j++] = values[i];
+      }
+    }
+    return new SerializedForm(entryKeys, entryValues);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] keys;
+    private final byte[] values;
+
+    private SerializedForm(final Object[] keys, final byte[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    private Object readResolve() {
+      final PrimitiveByteHashMap<Object> map = new PrimitiveByteHashMap<Object>(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], values[i]);
+      }
+      return map;
+    }
+  }
+}
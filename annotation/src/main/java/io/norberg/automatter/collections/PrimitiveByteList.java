@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code byte} values, backed by an exact sized array.
+ */
+public final class PrimitiveByteList extends AbstractList<Byte> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final byte[] values;
+
+  PrimitiveByteList(final byte[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Byte> copyOf(final List<Byte> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveByteArrayList) {
+      final PrimitiveByteArrayList owned = (PrimitiveByteArrayList) list;
+      return new PrimitiveByteList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final byte[] values = new byte[list.size()];
+    int i = 0;
+    for (Byte value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveByteList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Byte> copyOf(final byte[] values) {
+    return new PrimitiveByteList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Byte get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code byte} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveByteSet extends AbstractSet<Byte> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final byte[] values;
+
+  private PrimitiveByteSet(final byte[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Byte> copyOf(final Set<Byte> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final byte[] values = new byte[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveByteHashSet) {
+      final PrimitiveByteHashSet owned = (PrimitiveByteHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveByteHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Byte value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveByteSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Byte && Arrays.binarySearch(values, (Byte) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Byte> iterator() {
+    return new Iterator<Byte>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Byte next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,251 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A mutable map with {@code char} values without boxing, used by generated builders for {@code Map<K, Character>} fields.
+ */
+public final class PrimitiveCharHashMap<K> extends AbstractMap<K, Character> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final Object REMOVED = new Object();
+
+  Object[] keys;
+  char[] values;
+  private int size;
+  private int used;
+
+  public PrimitiveCharHashMap() {
+    this(0);
+  }
+
+  public PrimitiveCharHashMap(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    this.keys = new Object[tableSize];
+    this.values = new char[tableSize];
+  }
+
+  public PrimitiveCharHashMap(final Map<? extends K, ? extends Character> map) {
+    this(map.size());
+    putAll(map);
+  }
+
+  private int find(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+    final int mask = keys.length - 1;
+    for (int i = Hashing.index(key, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Put a value without boxing it.
+   */
+  public void put(final K key, final char value) {
+    final int mask = keys.length - 1;
+    int i = Hashing.index(key, mask);
+    int slot = -1;
+    while (keys[i] != null) {
+      if (keys[i] == REMOVED) {
+        if (slot < 0) {
+          slot = i;
+        }
+      } else if (keys[i].equals(key)) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    if (slot < 0) {
+      if (used + 1 > (keys.length >> 1) + (keys.length >> 2)) {
+        rehash(Hashing.mutableTableSize(size + 1));
+        put(key, value);
+        return;
+      }
+      slot = i;
+      used++;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  @Override
+  public Character put(final K key, final Character value) {
+    final Character previous = get(key);
+    put(key, value.charValue());
+    return previous;
+  }
+
+  @Override
+  public Character get(final Object key) {
+    final int i = find(key);
+    return (i < 0) ? null : values[i];
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public Character remove(final Object key) {
+    final int i = find(key);
+    if (i < 0) {
+      return null;
+    }
+    keys[i] = REMOVED;
+    size--;
+    return values[i];
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+    used = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, Character>> entrySet() {
+    return new AbstractSet<Map.Entry<K, Character>>() {
+      @Override
+      public Iterator<Map.Entry<K, Character>> iterator() {
+        return new Iterator<Map.Entry<K, Character>>() {
+          private int index;
+          private int last = -1;
+          private int remaining = size;
+
+          @Override
+          public boolean hasNext() {
+            return remaining > 0;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, Character> next() {
+            if (remaining == 0) {
+              throw new NoSuchElementException();
+            }
+            while (keys[index] == null || keys[index] == REMOVED) {
+              index++;
+            }
+            remaining--;
+            final int slot = last = index++;
+            return new AbstractMap.SimpleEntry<K, Character>((K) keys[slot], values[slot]) {
+              @Override
+              public Character setValue(final Character value) {
+                values[slot] = value;
+                return super.setValue(value);
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            if (last < 0) {
+              throw new IllegalStateException();
+            }
+            keys[last] = REMOVED;
+            size--;
+            last = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private void rehash(final int tableSize) {
+    final Object[] oldKeys = keys;
+    final char[] oldValues = values;
+    keys = new Object[tableSize];
+    values = new char[tableSize];
+    used = size;
+    final int mask = tableSize - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != null && oldKeys[j] != REMOVED) {
+        int i = Hashing.index(oldKeys[j], mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   * Make room for at least {@code capacity} entries without rehashing. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    if (tableSize > keys.length) {
+      rehash(tableSize);
+    }
+  }
+
+  // The removed marker does not survive serialization, so only the entries are serialized and the table is rebuilt.
+
+  private Object writeReplace() {
+    final Object[] entryKeys = new Object[size];
+    final char[] entryValues = new char[size];
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null && keys[i] != REMOVED) {
+        entryKeys[j] = keys[i];
+        entryValues[j++] = values[i];
+      }
+    }
+    return new SerializedForm(entryKeys, entryValues);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] keys;
+    private final char[] values;
+
+    private SerializedForm(final Object[] keys, final char[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    private Object readResolve() {
+      final PrimitiveCharHashMap<Object> map = new PrimitiveCharHashMap<Object>(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], values[i]);
+      }
+      return map;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A mutable set of {@code char} values without boxing, used by generated builders for {@code Set<Character>} fields.
+ */
+public final class PrimitiveCharHashSet extends AbstractSet<Character> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final byte FREE = 0;
+  static final byte FULL = 1;
+  static final byte REMOVED = 2;
+
+  char[] values;
+  byte[] states;
+  private int size;
+  private int used;
+
+  public PrimitiveCharHashSet() {
+    this(0);
+  }
+
+  public PrimitiveCharHashSet(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    this.values = new char[tableSize];
+    this.states = new byte[tableSize];
+  }
+
+  public PrimitiveCharHashSet(final Collection<? extends Character> values) {
+    this(values.size());
+    addAll(values);
+  }
+
+  private int find(final char value) {
+    final int mask = states.length - 1;
+    for (int i = Hashing.index(value, mask); states[i] != FREE; i = (i + 1) & mask) {
+      if (states[i] == FULL && values[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Add a value without boxing it.
+   */
+  public boolean add(final char value) {
+    final int mask = states.length - 1;
+    int i = Hashing.index(value, mask);
+    int slot = -1;
+    while (states[i] != FREE) {
+      if (states[i] == FULL && values[i] == value) {
+        return false;
+      }
+      if (states[i] == REMOVED && slot < 0) {
+        slot = i;
+      }
+      i = (i + 1) & mask;
+    }
+    if (slot < 0) {
+      if (used + 1 > (states.length >> 1) + (states.length >> 2)) {
+        rehash(Hashing.mutableTableSize(size + 1));
+        return add(value);
+      }
+      slot = i;
+      used++;
+    }
+    values[slot] = value;
+    states[slot] = FULL;
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean add(final Character value) {
+    return add(value.charValue());
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Character && find((Character) o) >= 0;
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    final int i = (o instanceof Character) ? find((Character) o) : -1;
+    if (i < 0) {
+      return false;
+    }
+    states[i] = REMOVED;
+    size--;
+    return true;
+  }
+
+  @Override
+  public Iterator<Character> iterator() {
+    return new Iterator<Character>() {
+      private int index;
+      private int last = -1;
+      private int remaining = size;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      public Character next() {
+        if (remaining == 0) {
+          throw new NoSuchElementException();
+        }
+        while (states[index] != FULL) {
+          index++;
+        }
+        remaining--;
+        last = index++;
+        return values[last];
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        states[last] = REMOVED;
+        size--;
+        last = -1;
+      }
+    };
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(states, FREE);
+    size = 0;
+    used = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void rehash(final int tableSize) {
+    final char[] oldValues = values;
+    final byte[] oldStates = states;
+    values = new char[tableSize];
+    states = new byte[tableSize];
+    used = size;
+    final int mask = tableSize - 1;
+    for (int j = 0; j < oldStates.length; j++) {
+      if (oldStates[j] == FULL) {
+        int i = Hashing.index(oldValues[j], mask);
+        while (states[i] != FREE) {
+          i = (i + 1) & mask;
+        }
+        values[i] = oldValues[j];
+        states[i] = FULL;
+      }
+    }
+  }
+
+  /**
+   * Make room for at least {@code capacity} values without rehashing. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    if (tableSize > states.length) {
+      rehash(tableSize);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code char} values, backed by an exact sized array.
+ */
+public final class PrimitiveCharList extends AbstractList<Character> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final char[] values;
+
+  PrimitiveCharList(final char[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Character> copyOf(final List<Character> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveCharArrayList) {
+      final PrimitiveCharArrayList owned = (PrimitiveCharArrayList) list;
+      return new PrimitiveCharList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final char[] values = new char[list.size()];
+    int i = 0;
+    for (Character value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveCharList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Character> copyOf(final char[] values) {
+    return new PrimitiveCharList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Character get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
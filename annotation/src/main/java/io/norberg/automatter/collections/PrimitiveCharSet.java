@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code char} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveCharSet extends AbstractSet<Character> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final char[] values;
+
+  private PrimitiveCharSet(final char[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Character> copyOf(final Set<Character> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final char[] values = new char[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveCharHashSet) {
+      final PrimitiveCharHashSet owned = (PrimitiveCharHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveCharHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Character value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveCharSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Character && Arrays.binarySearch(values, (Character) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Character> iterator() {
+    return new Iterator<Character>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Character next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,120 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A mutable list of {@code double} values without boxing, used by generated builders for {@code List<Double>} fields.
+ */
+public final class PrimitiveDoubleArrayList extends AbstractList<Double> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  double[] values;
+  int size;
+
+  public PrimitiveDoubleArrayList() {
+    this(10);
+  }
+
+  public PrimitiveDoubleArrayList(final int capacity) {
+    this.values = new double[capacity];
+  }
+
+  public PrimitiveDoubleArrayList(final Collection<? extends Double> values) {
+    this(values.size());
+    addAll(values);
+  }
+
+  private static void checkIndex(final int index, final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  @Override
+  public Double get(final int index) {
+    checkIndex(index, size);
+    return values[index];
+  }
+
+  @Override
+  public Double set(final int index, final Double value) {
+    checkIndex(index, size);
+    final double previous = values[index];
+    values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append a value without boxing it.
+   */
+  public void add(final double value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(final Double value) {
+    add(value.doubleValue());
+    return true;
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends Double> values) {
+    if (!(values instanceof PrimitiveDoubleList)) {
+      return super.addAll(values);
+    }
+    final double[] source = ((PrimitiveDoubleList) values).values;
+    ensureCapacity(size + source.length);
+    System.arraycopy(source, 0, this.values, size, source.length);
+    size += source.length;
+    modCount++;
+    return source.length != 0;
+  }
+
+  @Override
+  public void add(final int index, final Double value) {
+    checkIndex(index, size + 1);
+    final double v = value;
+    ensureCapacity(size + 1);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    values[index] = v;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Double remove(final int index) {
+    checkIndex(index, size);
+    final double previous = values[index];
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Make room for at least {@code capacity} values. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+    }
+  }
+}
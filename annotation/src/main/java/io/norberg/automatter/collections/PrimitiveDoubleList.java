@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code double} values, backed by an exact sized array.
+ */
+public final class PrimitiveDoubleList extends AbstractList<Double> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final double[] values;
+
+  PrimitiveDoubleList(final double[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Double> copyOf(final List<Double> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveDoubleArrayList) {
+      final PrimitiveDoubleArrayList owned = (PrimitiveDoubleArrayList) list;
+      return new PrimitiveDoubleList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final double[] values = new double[list.size()];
+    int i = 0;
+    for (Double value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveDoubleList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Double> copyOf(final double[] values) {
+    return new PrimitiveDoubleList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Double get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code double} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveDoubleSet extends AbstractSet<Double> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final double[] values;
+
+  private PrimitiveDoubleSet(final double[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Double> copyOf(final Set<Double> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final double[] values = new double[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveDoubleHashSet) {
+      final PrimitiveDoubleHashSet owned = (PrimitiveDoubleHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveDoubleHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Double value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveDoubleSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Double && Arrays.binarySearch(values, (Double) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Double> iterator() {
+    return new Iterator<Double>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Double next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
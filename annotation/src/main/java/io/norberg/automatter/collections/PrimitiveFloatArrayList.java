@@ -0,0 +1,120 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A mutable list of {@code float} values without boxing, used by generated builders for {@code List<Float>} fields.
+ */
+public final class PrimitiveFloatArrayList extends AbstractList<Float> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  float[] values;
+  int size;
+
+  public PrimitiveFloatArrayList() {
+    this(10);
+  }
+
+  public PrimitiveFloatArrayList(final int capacity) {
+    this.values = new float[capacity];
+  }
+
+  public PrimitiveFloatArrayList(final Collection<? extends Float> values) {
+    this(values.size());
+    addAll(values);
+  }
+
+  private static void checkIndex(final int index, final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  @Override
+  public Float get(final int index) {
+    checkIndex(index, size);
+    return values[index];
+  }
+
+  @Override
+  public Float set(final int index, final Float value) {
+    checkIndex(index, size);
+    final float previous = values[index];
+    values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append a value without boxing it.
+   */
+  public void add(final float value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(final Float value) {
+    add(value.floatValue());
+    return true;
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends Float> values) {
+    if (!(values instanceof PrimitiveFloatList)) {
+      return super.addAll(values);
+    }
+    final float[] source = ((PrimitiveFloatList) values).values;
+    ensureCapacity(size + source.length);
+    System.arraycopy(source, 0, this.values, size, source.length);
+    size += source.length;
+    modCount++;
+    return source.length != 0;
+  }
+
+  @Override
+  public void add(final int index, final Float value) {
+    checkIndex(index, size + 1);
+    final float v = value;
+    ensureCapacity(size + 1);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    values[index] = v;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Float remove(final int index) {
+    checkIndex(index, size);
+    final float previous = values[index];
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Make room for at least {@code capacity} values. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code float} values, backed by an exact sized array.
+ */
+public final class PrimitiveFloatList extends AbstractList<Float> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final float[] values;
+
+  PrimitiveFloatList(final float[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Float> copyOf(final List<Float> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveFloatArrayList) {
+      final PrimitiveFloatArrayList owned = (PrimitiveFloatArrayList) list;
+      return new PrimitiveFloatList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final float[] values = new float[list.size()];
+    int i = 0;
+    for (Float value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveFloatList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Float> copyOf(final float[] values) {
+    return new PrimitiveFloatList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Float get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
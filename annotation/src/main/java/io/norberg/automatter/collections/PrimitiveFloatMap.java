@@ -0,0 +1,190 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map with {@code float} values and without null keys, backed by an open addressing hash table.
+ */
+public final class PrimitiveFloatMap<K> extends AbstractMap<K, Float> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Object[] keys;
+  private final float[] values;
+  private final int size;
+
+  private PrimitiveFloatMap(final Object[] keys, final float[] values, final int size) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Copy a map into an immutable map, unless it already is one. Maps with less than two entries or with nulls are
+   * copied by {@link CompactMap#copyOf(Map)}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <K> Map<K, Float> copyOf(final Map<K, Float> map) {
+    if (ImmutableCollections.isImmutableMap(map)) {
+      return map;
+    }
+    if (map.size() < 2) {
+      return CompactMap.copyOf(map);
+    }
+    final Object[] keys = new Object[Hashing.tableSize(map.size())];
+    final float[] values = new float[keys.length];
+    if (map instanceof PrimitiveFloatHashMap) {
+      final PrimitiveFloatHashMap<K> owned = (PrimitiveFloatHashMap<K>) map;
+      for (int i = 0; i < owned.keys.length; i++) {
+        if (owned.keys[i] != null && owned.keys[i] != PrimitiveFloatHashMap.REMOVED) {
+          insert(keys, values, owned.keys[i], owned.values[i]);
+        }
+      }
+      return new PrimitiveFloatMap<K>(keys, values, owned.size());
+    }
+    int size = 0;
+    for (Map.Entry<K, Float> entry : map.entrySet()) {
+      if (entry.getKey() == null || entry.getValue() == null || size == keys.length - 1) {
+        return CompactMap.copyOf(map);
+      }
+      if (insert(keys, values, entry.getKey(), entry.getValue())) {
+        size++;
+      }
+    }
+    return new PrimitiveFloatMap<K>(keys, values, size);
+  }
+
+  private static boolean insert(final Object[] keys, final float[] values, final Object key, final float value) {
+    final int mask = keys.length - 1;
+    int i = Hashing.index(key, mask);
+    while (keys[i] != null) {
+      if (keys[i].equals(key)) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    return true;
+  }
+
+  private int find(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+    final int mask = keys.length - 1;
+    for (int i = Hashing.index(key, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Float get(final Object key) {
+    final int i = find(key);
+    return (i < 0) ? null : values[i];
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, Float>> entrySet() {
+    return new AbstractSet<Map.Entry<K, Float>>() {
+      @Override
+      public Iterator<Map.Entry<K, Float>> iterator() {
+        return new Iterator<Map.Entry<K, Float>>() {
+          private int index;
+          private int remaining = size;
+
+          @Override
+          public boolean hasNext() {
+            return remaining > 0;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, Float> next() {
+            if (remaining == 0) {
+              throw new NoSuchElementException();
+            }
+            while (keys[index] == null) {
+              index++;
+            }
+            remaining--;
+            final int i = index++;
+            return new AbstractMap.SimpleImmutableEntry<K, Float>((K) keys[i], values[i]);
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  // As for CompactMap, only the entries are serialized and the table is rebuilt when deserializing.
+
+  private Object writeReplace() {
+    final Object[] entryKeys = new Object[size];
+    final float[] entryValues = new float[size];
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        entryKeys[j] = keys[i];
+        entryValues[j++] = values[i];
+      }
+    }
+    return new SerializedForm(entryKeys, entryValues);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] keys;
+    private final float[] values;
+
+    private SerializedForm(final Object[] keys, final float[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    private Object readResolve() {
+      final Map<Object, Float> map = new HashMap<Object, Float>();
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], values[i]);
+      }
+      return copyOf(map);
+    }
+  }
+}
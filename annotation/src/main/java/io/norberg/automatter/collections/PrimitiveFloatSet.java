@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code float} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveFloatSet extends AbstractSet<Float> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final float[] values;
+
+  private PrimitiveFloatSet(final float[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Float> copyOf(final Set<Float> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final float[] values = new float[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveFloatHashSet) {
+      final PrimitiveFloatHashSet owned = (PrimitiveFloatHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveFloatHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Float value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveFloatSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Float && Arrays.binarySearch(values, (Float) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Float> iterator() {
+    return new Iterator<Float>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Float next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,251 @@
+package io.norberg.automatter.collections;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A mutable map with {@code int} values without boxing, used by generated builders for {@code Map<K, Integer>} fields.
+ */
+public final class PrimitiveIntHashMap<K> extends AbstractMap<K, Integer> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final Object REMOVED = new Object();
+
+  Object[] keys;
+  int[] values;
+  private int size;
+  private int used;
+
+  public PrimitiveIntHashMap() {
+    this(0);
+  }
+
+  public PrimitiveIntHashMap(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    this.keys = new Object[tableSize];
+    this.values = new int[tableSize];
+  }
+
+  public PrimitiveIntHashMap(final Map<? extends K, ? extends Integer> map) {
+    this(map.size());
+    putAll(map);
+  }
+
+  private int find(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+    final int mask = keys.length - 1;
+    for (int i = Hashing.index(key, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Put a value without boxing it.
+   */
+  public void put(final K key, final int value) {
+    final int mask = keys.length - 1;
+    int i = Hashing.index(key, mask);
+    int slot = -1;
+    while (keys[i] != null) {
+      if (keys[i] == REMOVED) {
+        if (slot < 0) {
+          slot = i;
+        }
+      } else if (keys[i].equals(key)) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    if (slot < 0) {
+      if (used + 1 > (keys.length >> 1) + (keys.length >> 2)) {
+        rehash(Hashing.mutableTableSize(size + 1));
+        put(key, value);
+        return;
+      }
+      slot = i;
+      used++;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  @Override
+  public Integer put(final K key, final Integer value) {
+    final Integer previous = get(key);
+    put(key, value.intValue());
+    return previous;
+  }
+
+  @Override
+  public Integer get(final Object key) {
+    final int i = find(key);
+    return (i < 0) ? null : values[i];
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public Integer remove(final Object key) {
+    final int i = find(key);
+    if (i < 0) {
+      return null;
+    }
+    keys[i] = REMOVED;
+    size--;
+    return values[i];
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+    used = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, Integer>> entrySet() {
+    return new AbstractSet<Map.Entry<K, Integer>>() {
+      @Override
+      public Iterator<Map.Entry<K, Integer>> iterator() {
+        return new Iterator<Map.Entry<K, Integer>>() {
+          private int index;
+          private int last = -1;
+          private int remaining = size;
+
+          @Override
+          public boolean hasNext() {
+            return remaining > 0;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, Integer> next() {
+            if (remaining == 0) {
+              throw new NoSuchElementException();
+            }
+            while (keys[index] == null || keys[index] == REMOVED) {
+              index++;
+            }
+            remaining--;
+            final int slot = last = index++;
+            return new AbstractMap.SimpleEntry<K, Integer>((K) keys[slot], values[slot]) {
+              @Override
+              public Integer setValue(final Integer value) {
+                values[slot] = value;
+                return super.setValue(value);
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            if (last < 0) {
+              throw new IllegalStateException();
+            }
+            keys[last] = REMOVED;
+            size--;
+            last = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private void rehash(final int tableSize) {
+    final Object[] oldKeys = keys;
+    final int[] oldValues = values;
+    keys = new Object[tableSize];
+    values = new int[tableSize];
+    used = size;
+    final int mask = tableSize - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != null && oldKeys[j] != REMOVED) {
+        int i = Hashing.index(oldKeys[j], mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   * Make room for at least {@code capacity} entries without rehashing. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    final int tableSize = Hashing.mutableTableSize(capacity);
+    if (tableSize > keys.length) {
+      rehash(tableSize);
+    }
+  }
+
+  // The removed marker does not survive serialization, so only the entries are serialized and the table is rebuilt.
+
+  private Object writeReplace() {
+    final Object[] entryKeys = new Object[size];
+    final int[] entryValues = new int[size];
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null && keys[i] != REMOVED) {
+        entryKeys[j] = keys[i];
+        entryValues[j++] = values[i];
+      }
+    }
+    return new SerializedForm(entryKeys, entryValues);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] keys;
+    private final int[] values;
+
+    private SerializedForm(final Object[] keys, final int[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    private Object readResolve() {
+      final PrimitiveIntHashMap<Object> map = new PrimitiveIntHashMap<Object>(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], values[i]);
+      }
+      return map;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code int} values, backed by an exact sized array.
+ */
+public final class PrimitiveIntList extends AbstractList<Integer> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final int[] values;
+
+  PrimitiveIntList(final int[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Integer> copyOf(final List<Integer> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveIntArrayList) {
+      final PrimitiveIntArrayList owned = (PrimitiveIntArrayList) list;
+      return new PrimitiveIntList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final int[] values = new int[list.size()];
+    int i = 0;
+    for (Integer value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveIntList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Integer> copyOf(final int[] values) {
+    return new PrimitiveIntList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Integer get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code int} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveIntSet extends AbstractSet<Integer> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int[] values;
+
+  private PrimitiveIntSet(final int[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Integer> copyOf(final Set<Integer> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final int[] values = new int[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveIntHashSet) {
+      final PrimitiveIntHashSet owned = (PrimitiveIntHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveIntHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Integer value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveIntSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Integer && Arrays.binarySearch(values, (Integer) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return new Iterator<Integer>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Integer next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,120 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A mutable list of {@code long} values without boxing, used by generated builders for {@code List<Long>} fields.
+ */
+public final class PrimitiveLongArrayList extends AbstractList<Long> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  long[] values;
+  int size;
+
+  public PrimitiveLongArrayList() {
+    this(10);
+  }
+
+  public PrimitiveLongArrayList(final int capacity) {
+    this.values = new long[capacity];
+  }
+
+  public PrimitiveLongArrayList(final Collection<? extends Long> values) {
+    this(values.size());
+    addAll(values);
+  }
+
+  private static void checkIndex(final int index, final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  @Override
+  public Long get(final int index) {
+    checkIndex(index, size);
+    return values[index];
+  }
+
+  @Override
+  public Long set(final int index, final Long value) {
+    checkIndex(index, size);
+    final long previous = values[index];
+    values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append a value without boxing it.
+   */
+  public void add(final long value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(final Long value) {
+    add(value.longValue());
+    return true;
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends Long> values) {
+    if (!(values instanceof PrimitiveLongList)) {
+      return super.addAll(values);
+    }
+    final long[] source = ((PrimitiveLongList) values).values;
+    ensureCapacity(size + source.length);
+    System.arraycopy(source, 0, this.values, size, source.length);
+    size += source.length;
+    modCount++;
+    return source.length != 0;
+  }
+
+  @Override
+  public void add(final int index, final Long value) {
+    checkIndex(index, size + 1);
+    final long v = value;
+    ensureCapacity(size + 1);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    values[index] = v;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Long remove(final int index) {
+    checkIndex(index, size);
+    final long previous = values[index];
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Make room for at least {@code capacity} values. Never shrinks.
+   */
+  public void ensureCapacity(final int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code long} values, backed by an exact sized array.
+ */
+public final class PrimitiveLongList extends AbstractList<Long> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final long[] values;
+
+  PrimitiveLongList(final long[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Long> copyOf(final List<Long> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveLongArrayList) {
+      final PrimitiveLongArrayList owned = (PrimitiveLongArrayList) list;
+      return new PrimitiveLongList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final long[] values = new long[list.size()];
+    int i = 0;
+    for (Long value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveLongList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Long> copyOf(final long[] values) {
+    return new PrimitiveLongList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Long get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
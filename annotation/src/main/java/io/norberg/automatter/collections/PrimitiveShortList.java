@@ -0,0 +1,64 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@code short} values, backed by an exact sized array.
+ */
+public final class PrimitiveShortList extends AbstractList<Short> implements RandomAccess, Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final short[] values;
+
+  PrimitiveShortList(final short[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a list into an immutable list, unless it already is one. Lists with less than two elements or with nulls
+   * are copied by {@link CompactList#copyOf(List)}.
+   */
+  public static List<Short> copyOf(final List<Short> list) {
+    if (ImmutableCollections.isImmutableList(list)) {
+      return list;
+    }
+    if (list.size() < 2) {
+      return CompactList.copyOf(list);
+    }
+    if (list instanceof PrimitiveShortArrayList) {
+      final PrimitiveShortArrayList owned = (PrimitiveShortArrayList) list;
+      return new PrimitiveShortList(Arrays.copyOf(owned.values, owned.size));
+    }
+    final short[] values = new short[list.size()];
+    int i = 0;
+    for (Short value : list) {
+      if (value == null) {
+        return CompactList.copyOf(list);
+      }
+      values[i++] = value;
+    }
+    return new PrimitiveShortList(values);
+  }
+
+  /**
+   * Copy an array into an immutable list.
+   */
+  public static List<Short> copyOf(final short[] values) {
+    return new PrimitiveShortList(Arrays.copyOf(values, values.length));
+  }
+
+  @Override
+  public Short get(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,89 @@
+package io.norberg.automatter.collections;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of {@code short} values, backed by an exact sized sorted array.
+ */
+public final class PrimitiveShortSet extends AbstractSet<Short> implements Immutable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final short[] values;
+
+  private PrimitiveShortSet(final short[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Copy a set into an immutable set, unless it already is one. Sets with less than two elements or with nulls are
+   * copied by {@link CompactSet#copyOf(Set)}.
+   */
+  public static Set<Short> copyOf(final Set<Short> set) {
+    if (ImmutableCollections.isImmutableSet(set)) {
+      return set;
+    }
+    if (set.size() < 2) {
+      return CompactSet.copyOf(set);
+    }
+    final short[] values = new short[set.size()];
+    int i = 0;
+    if (set instanceof PrimitiveShortHashSet) {
+      final PrimitiveShortHashSet owned = (PrimitiveShortHashSet) set;
+      for (int j = 0; j < owned.states.length; j++) {
+        if (owned.states[j] == PrimitiveShortHashSet.FULL) {
+          values[i++] = owned.values[j];
+        }
+      }
+    } else {
+      for (Short value : set) {
+        if (value == null) {
+          return CompactSet.copyOf(set);
+        }
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return new PrimitiveShortSet(values);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return o instanceof Short && Arrays.binarySearch(values, (Short) o) >= 0;
+  }
+
+  @Override
+  public Iterator<Short> iterator() {
+    return new Iterator<Short>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < values.length;
+      }
+
+      @Override
+      public Short next() {
+        if (index == values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * Collection implementations used by generated builders and values. Not intended for use by applications.
+ */
+package io.norberg.automatter.collections;
@@ -0,0 +1,16 @@
+package io.norberg.automatter.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface CollectionFields {
+  List<String> strings();
+  Map<String, Integer> integers();
+  Set<Long> numbers();
+
+  CollectionFieldsBuilder builder();
+}
@@ -0,0 +1,87 @@
+package io.norberg.automatter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Benchmarks of a value with list, map and set fields.
+ */
+@State(Scope.Thread)
+public class CollectionFieldsBenchmark {
+
+  @Param({"4", "64"})
+  int size;
+
+  List<String> strings;
+  Map<String, Integer> integers;
+  Set<Long> numbers;
+
+  CollectionFields value;
+  CollectionFields equalValue;
+
+  @Setup
+  public void setUp() {
+    strings = new ArrayList<String>();
+    integers = new HashMap<String, Integer>();
+    numbers = new HashSet<Long>();
+    for (int i = 0; i < size; i++) {
+      strings.add("s" + i);
+      integers.put("i" + i, i);
+      numbers.add((long) i);
+    }
+    value = build();
+    equalValue = build();
+  }
+
+  @Benchmark
+  public CollectionFields build() {
+    return new CollectionFieldsBuilder()
+        .strings(strings)
+        .integers(integers)
+        .numbers(numbers)
+        .build();
+  }
+
+  @Benchmark
+  public CollectionFields buildByElement() {
+    final CollectionFieldsBuilder builder = new CollectionFieldsBuilder();
+    for (int i = 0; i < size; i++) {
+      builder.addString(strings.get(i));
+      builder.putInteger(strings.get(i), i);
+      builder.addNumber((long) i);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public CollectionFields modify() {
+    return value.builder()
+        .addString("s")
+        .build();
+  }
+
+  @Benchmark
+  public boolean equal() {
+    return value.equals(equalValue);
+  }
+
+  @Benchmark
+  public int hash() {
+    return value.hashCode();
+  }
+
+  @Benchmark
+  public String string() {
+    return value.toString();
+  }
+}
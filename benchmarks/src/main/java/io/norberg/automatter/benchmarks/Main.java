@@ -0,0 +1,21 @@
+package io.norberg.automatter.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, to report allocation rates along with timings. Takes the same arguments
+ * as the JMH runner.
+ */
+public class Main {
+
+  public static void main(final String... args) throws Exception {
+    new Runner(new OptionsBuilder()
+                   .parent(new CommandLineOptions(args))
+                   .addProfiler(GCProfiler.class)
+                   .build())
+        .run();
+  }
+}
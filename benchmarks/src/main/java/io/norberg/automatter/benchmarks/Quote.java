@@ -0,0 +1,16 @@
+package io.norberg.automatter.benchmarks;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface Quote {
+  long id();
+  String symbol();
+  String venue();
+  double bid();
+  double ask();
+  int size();
+  boolean firm();
+
+  QuoteBuilder builder();
+}
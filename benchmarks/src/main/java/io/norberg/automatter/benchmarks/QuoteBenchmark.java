@@ -0,0 +1,64 @@
+package io.norberg.automatter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of a value with scalar fields.
+ */
+@State(Scope.Thread)
+public class QuoteBenchmark {
+
+  long id = 4711;
+  String symbol = "FOO";
+  String venue = "XNAS";
+  double bid = 17.25;
+  double ask = 17.5;
+  int size = 100;
+
+  Quote quote;
+  Quote equalQuote;
+
+  @Setup
+  public void setUp() {
+    quote = build();
+    equalQuote = build();
+  }
+
+  @Benchmark
+  public Quote build() {
+    return new QuoteBuilder()
+        .id(id)
+        .symbol(symbol)
+        .venue(venue)
+        .bid(bid)
+        .ask(ask)
+        .size(size)
+        .firm(true)
+        .build();
+  }
+
+  @Benchmark
+  public Quote modify() {
+    return quote.builder()
+        .size(size)
+        .build();
+  }
+
+  @Benchmark
+  public boolean equal() {
+    return quote.equals(equalQuote);
+  }
+
+  @Benchmark
+  public int hash() {
+    return quote.hashCode();
+  }
+
+  @Benchmark
+  public String string() {
+    return quote.toString();
+  }
+}
@@ -0,0 +1,132 @@
+package io.norberg.automatter.benchmarks.compile;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import io.norberg.automatter.processor.AutoMatterProcessor;
+
+/**
+ * Compiles synthesized {@code @AutoMatter} interfaces in-process with the compiler API and reports, for each number
+ * of interfaces, the total compilation time, the time spent in the processor per interface and the peak heap usage.
+ *
+ * <p>Usage: {@code ProcessorScaling [count...]}, defaulting to 10, 1000 and 10000 interfaces. Each count is compiled
+ * {@code -Diterations=3} times. With {@code -DprocOnly=true} only annotation processing is run, without compiling the
+ * generated sources.
+ */
+public class ProcessorScaling {
+
+  private static final int ITERATIONS = Integer.getInteger("iterations", 3);
+  private static final boolean PROC_ONLY = Boolean.getBoolean("procOnly");
+
+  public static void main(final String... args) throws IOException {
+    final List<String> counts = args.length > 0 ? Arrays.asList(args) : Arrays.asList("10", "1000", "10000");
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("No system Java compiler, run on a JDK");
+    }
+
+    System.out.println("interfaces\titeration\ttotal ms\tprocessor ms\tprocessor us/interface\tpeak heap MB");
+    for (final String count : counts) {
+      final int n = Integer.parseInt(count);
+      final List<JavaFileObject> sources = Sources.interfaces(n);
+      for (int i = 0; i < ITERATIONS; i++) {
+        run(compiler, n, i, sources);
+      }
+    }
+  }
+
+  private static void run(final JavaCompiler compiler, final int n, final int iteration,
+                          final List<JavaFileObject> sources) throws IOException {
+    final Path output = Files.createTempDirectory("automatter-scaling");
+    try {
+      final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+      final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+      fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(output.toFile()));
+      fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(output.toFile()));
+
+      final List<String> options = new ArrayList<String>();
+      options.add("-classpath");
+      options.add(System.getProperty("java.class.path"));
+      if (PROC_ONLY) {
+        options.add("-proc:only");
+      }
+      final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                                                                 sources);
+      final TimingProcessor processor = new TimingProcessor(new AutoMatterProcessor());
+      task.setProcessors(Collections.singleton(processor));
+
+      System.gc();
+      resetPeakHeapUsage();
+      final long start = System.nanoTime();
+      final boolean success = task.call();
+      final long totalNanos = System.nanoTime() - start;
+      final long peakHeap = peakHeapUsage();
+      fileManager.close();
+
+      if (!success) {
+        throw new IllegalStateException("Compilation failed: " + diagnostics.getDiagnostics());
+      }
+
+      System.out.printf("%d\t%d\t%.1f\t%.1f\t%.1f\t%.1f%n",
+                        n, iteration,
+                        totalNanos / 1e6,
+                        processor.nanos() / 1e6,
+                        processor.nanos() / 1e3 / n,
+                        peakHeap / (1024.0 * 1024.0));
+    } finally {
+      delete(output);
+    }
+  }
+
+  private static void resetPeakHeapUsage() {
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long peakHeapUsage() {
+    long peak = 0;
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  private static void delete(final Path directory) throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+}
@@ -0,0 +1,77 @@
+package io.norberg.automatter.benchmarks.compile;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * Synthesizes {@code @AutoMatter} interfaces with a mix of field kinds.
+ */
+class Sources {
+
+  static final String PACKAGE = "bench";
+
+  private Sources() {
+  }
+
+  /**
+   * Synthesize {@code count} interfaces, each referring to the previous one, and the {@code Nullable} annotation they
+   * use.
+   */
+  static List<JavaFileObject> interfaces(final int count) {
+    final List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+    sources.add(source("Nullable",
+                       "package " + PACKAGE + ";\n" +
+                       "public @interface Nullable {}\n"));
+    for (int i = 0; i < count; i++) {
+      sources.add(source(name(i), valueInterface(i)));
+    }
+    return sources;
+  }
+
+  private static String valueInterface(final int i) {
+    final StringBuilder source = new StringBuilder()
+        .append("package ").append(PACKAGE).append(";\n")
+        .append("import io.norberg.automatter.AutoMatter;\n")
+        .append("import java.util.List;\n")
+        .append("import java.util.Map;\n")
+        .append("import java.util.Set;\n")
+        .append("@AutoMatter\n")
+        .append("public interface ").append(name(i)).append(" {\n")
+        .append("  long id();\n")
+        .append("  int count();\n")
+        .append("  double price();\n")
+        .append("  boolean active();\n")
+        .append("  String name();\n")
+        .append("  @Nullable String note();\n")
+        .append("  int[] samples();\n")
+        .append("  List<String> tags();\n")
+        .append("  Map<String, Integer> counts();\n")
+        .append("  Set<Long> ids();\n");
+    if (i > 0) {
+      source.append("  @Nullable ").append(name(i - 1)).append(" previous();\n");
+    }
+    return source
+        .append("  ").append(name(i)).append("Builder builder();\n")
+        .append("  ").append(name(i)).append(" withCount(int count);\n")
+        .append("}\n")
+        .toString();
+  }
+
+  private static String name(final int i) {
+    return "Value" + i;
+  }
+
+  private static JavaFileObject source(final String name, final String source) {
+    final URI uri = URI.create("string:///" + PACKAGE + "/" + name + JavaFileObject.Kind.SOURCE.extension);
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+  }
+}
@@ -0,0 +1,68 @@
+package io.norberg.automatter.benchmarks.compile;
+
+import java.util.Set;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Delegates to a processor and measures the time spent in it.
+ */
+class TimingProcessor implements Processor {
+
+  private final Processor delegate;
+  private long nanos;
+
+  TimingProcessor(final Processor delegate) {
+    this.delegate = delegate;
+  }
+
+  long nanos() {
+    return nanos;
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return delegate.getSupportedOptions();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return delegate.getSupportedAnnotationTypes();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return delegate.getSupportedSourceVersion();
+  }
+
+  @Override
+  public void init(final ProcessingEnvironment processingEnv) {
+    final long start = System.nanoTime();
+    delegate.init(processingEnv);
+    nanos += System.nanoTime() - start;
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final long start = System.nanoTime();
+    try {
+      return delegate.process(annotations, roundEnv);
+    } finally {
+      nanos += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public Iterable<? extends Completion> getCompletions(final Element element, final AnnotationMirror annotation,
+                                                       final ExecutableElement member, final String userText) {
+    return delegate.getCompletions(element, annotation, member, userText);
+  }
+}
@@ -0,0 +1,14 @@
+package io.norberg.automatter.benchmarks.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true, gson = true)
+public interface Bulk {
+  List<String> strings();
+  Map<String, Integer> integers();
+  Set<Long> numbers();
+}
@@ -0,0 +1,14 @@
+package io.norberg.automatter.benchmarks.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hand-written baseline for {@link Bulk}.
+ */
+public class BulkPojo {
+  public List<String> strings;
+  public Map<String, Integer> integers;
+  public Set<Long> numbers;
+}
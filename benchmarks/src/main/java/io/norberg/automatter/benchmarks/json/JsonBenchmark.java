@@ -0,0 +1,68 @@
+package io.norberg.automatter.benchmarks.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Steady state round trips through Jackson and Gson of values with generated adapters, equal values serialized
+ * reflectively and equal hand-written POJOs.
+ */
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+  @Param({"SMALL", "WIDE", "BULK"})
+  Shape shape;
+
+  ObjectMapper mapper;
+  Gson gson;
+  Object value;
+  Object reflective;
+  Object pojo;
+
+  @Setup
+  public void setUp() {
+    mapper = Shape.objectMapper();
+    gson = Shape.gson();
+    value = shape.value();
+    reflective = shape.reflective();
+    pojo = shape.pojo();
+  }
+
+  @Benchmark
+  public Object jackson() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(value), shape.valueType);
+  }
+
+  @Benchmark
+  public Object jacksonReflective() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(reflective), shape.reflectiveType);
+  }
+
+  @Benchmark
+  public Object jacksonPojo() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(pojo), shape.pojoType);
+  }
+
+  @Benchmark
+  public Object gson() {
+    return gson.fromJson(gson.toJson(value, shape.valueType), shape.valueType);
+  }
+
+  @Benchmark
+  public Object gsonReflective() {
+    return gson.fromJson(gson.toJson(reflective, shape.reflectiveType), shape.reflectiveType);
+  }
+
+  @Benchmark
+  public Object gsonPojo() {
+    return gson.fromJson(gson.toJson(pojo, shape.pojoType), shape.pojoType);
+  }
+}
@@ -0,0 +1,110 @@
+package io.norberg.automatter.benchmarks.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first serialization, and to the first round trip, of a type through a new Jackson or Gson instance, in
+ * a new JVM. Covers values with generated adapters, equal values serialized reflectively and equal hand-written POJOs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class JsonColdStartBenchmark {
+
+  @Param({"SMALL", "WIDE", "BULK"})
+  Shape shape;
+
+  ObjectMapper mapper;
+  Gson gson;
+  Object value;
+  Object reflective;
+  Object pojo;
+
+  @Setup
+  public void setUp() {
+    mapper = Shape.objectMapper();
+    gson = Shape.gson();
+    value = shape.value();
+    reflective = shape.reflective();
+    pojo = shape.pojo();
+  }
+
+  @Benchmark
+  public Object jacksonWrite() throws IOException {
+    return mapper.writeValueAsBytes(value);
+  }
+
+  @Benchmark
+  public Object jacksonReflectiveWrite() throws IOException {
+    return mapper.writeValueAsBytes(reflective);
+  }
+
+  @Benchmark
+  public Object jacksonPojoWrite() throws IOException {
+    return mapper.writeValueAsBytes(pojo);
+  }
+
+  @Benchmark
+  public Object jacksonRoundTrip() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(value), shape.valueType);
+  }
+
+  @Benchmark
+  public Object jacksonReflectiveRoundTrip() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(reflective), shape.reflectiveType);
+  }
+
+  @Benchmark
+  public Object jacksonPojoRoundTrip() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(pojo), shape.pojoType);
+  }
+
+  @Benchmark
+  public Object gsonWrite() {
+    return gson.toJson(value, shape.valueType);
+  }
+
+  @Benchmark
+  public Object gsonReflectiveWrite() {
+    return gson.toJson(reflective, shape.reflectiveType);
+  }
+
+  @Benchmark
+  public Object gsonPojoWrite() {
+    return gson.toJson(pojo, shape.pojoType);
+  }
+
+  @Benchmark
+  public Object gsonRoundTrip() {
+    return gson.fromJson(gson.toJson(value, shape.valueType), shape.valueType);
+  }
+
+  @Benchmark
+  public Object gsonReflectiveRoundTrip() {
+    return gson.fromJson(gson.toJson(reflective, shape.reflectiveType), shape.reflectiveType);
+  }
+
+  @Benchmark
+  public Object gsonPojoRoundTrip() {
+    return gson.fromJson(gson.toJson(pojo, shape.pojoType), shape.pojoType);
+  }
+}
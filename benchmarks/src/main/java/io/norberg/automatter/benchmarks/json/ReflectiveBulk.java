@@ -0,0 +1,17 @@
+package io.norberg.automatter.benchmarks.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.AutoMatter;
+
+/**
+ * Same fields as {@link Bulk}, without generated Jackson and Gson adapters.
+ */
+@AutoMatter
+public interface ReflectiveBulk {
+  List<String> strings();
+  Map<String, Integer> integers();
+  Set<Long> numbers();
+}
@@ -0,0 +1,12 @@
+package io.norberg.automatter.benchmarks.json;
+
+import io.norberg.automatter.AutoMatter;
+
+/**
+ * Same fields as {@link Small}, without generated Jackson and Gson adapters.
+ */
+@AutoMatter
+public interface ReflectiveSmall {
+  long id();
+  String name();
+}
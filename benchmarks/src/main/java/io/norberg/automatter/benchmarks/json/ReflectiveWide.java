@@ -0,0 +1,26 @@
+package io.norberg.automatter.benchmarks.json;
+
+import io.norberg.automatter.AutoMatter;
+
+/**
+ * Same fields as {@link Wide}, without generated Jackson and Gson adapters.
+ */
+@AutoMatter
+public interface ReflectiveWide {
+  long id();
+  long created();
+  long updated();
+  long version();
+  double bid();
+  double ask();
+  double low();
+  double high();
+  String symbol();
+  String venue();
+  String currency();
+  String description();
+  int size();
+  int lots();
+  boolean firm();
+  boolean active();
+}
@@ -0,0 +1,198 @@
+package io.norberg.automatter.benchmarks.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.gson.AutoMatterTypeAdapterFactory;
+import io.norberg.automatter.jackson.AutoMatterModule;
+
+/**
+ * The value types that are serialized, each with an @AutoMatter value with generated Jackson and Gson adapters, an
+ * equal @AutoMatter value without them, and an equal hand-written POJO.
+ */
+public enum Shape {
+
+  SMALL(Small.class, ReflectiveSmall.class, SmallPojo.class) {
+    @Override
+    Object value() {
+      return new SmallBuilder()
+          .id(4711)
+          .name("foobar")
+          .build();
+    }
+
+    @Override
+    Object reflective() {
+      return new ReflectiveSmallBuilder()
+          .id(4711)
+          .name("foobar")
+          .build();
+    }
+
+    @Override
+    Object pojo() {
+      final SmallPojo pojo = new SmallPojo();
+      pojo.id = 4711;
+      pojo.name = "foobar";
+      return pojo;
+    }
+  },
+
+  WIDE(Wide.class, ReflectiveWide.class, WidePojo.class) {
+    @Override
+    Object value() {
+      return new WideBuilder()
+          .id(4711)
+          .created(1234567890123L)
+          .updated(1234567890456L)
+          .version(17)
+          .bid(17.25)
+          .ask(17.5)
+          .low(16.75)
+          .high(18.0)
+          .symbol("FOO")
+          .venue("XNAS")
+          .currency("USD")
+          .description("Foo Corporation common stock")
+          .size(100)
+          .lots(4)
+          .firm(true)
+          .active(true)
+          .build();
+    }
+
+    @Override
+    Object reflective() {
+      return new ReflectiveWideBuilder()
+          .id(4711)
+          .created(1234567890123L)
+          .updated(1234567890456L)
+          .version(17)
+          .bid(17.25)
+          .ask(17.5)
+          .low(16.75)
+          .high(18.0)
+          .symbol("FOO")
+          .venue("XNAS")
+          .currency("USD")
+          .description("Foo Corporation common stock")
+          .size(100)
+          .lots(4)
+          .firm(true)
+          .active(true)
+          .build();
+    }
+
+    @Override
+    Object pojo() {
+      final WidePojo pojo = new WidePojo();
+      pojo.id = 4711;
+      pojo.created = 1234567890123L;
+      pojo.updated = 1234567890456L;
+      pojo.version = 17;
+      pojo.bid = 17.25;
+      pojo.ask = 17.5;
+      pojo.low = 16.75;
+      pojo.high = 18.0;
+      pojo.symbol = "FOO";
+      pojo.venue = "XNAS";
+      pojo.currency = "USD";
+      pojo.description = "Foo Corporation common stock";
+      pojo.size = 100;
+      pojo.lots = 4;
+      pojo.firm = true;
+      pojo.active = true;
+      return pojo;
+    }
+  },
+
+  BULK(Bulk.class, ReflectiveBulk.class, BulkPojo.class) {
+    @Override
+    Object value() {
+      return new BulkBuilder()
+          .strings(strings())
+          .integers(integers())
+          .numbers(numbers())
+          .build();
+    }
+
+    @Override
+    Object reflective() {
+      return new ReflectiveBulkBuilder()
+          .strings(strings())
+          .integers(integers())
+          .numbers(numbers())
+          .build();
+    }
+
+    @Override
+    Object pojo() {
+      final BulkPojo pojo = new BulkPojo();
+      pojo.strings = strings();
+      pojo.integers = integers();
+      pojo.numbers = numbers();
+      return pojo;
+    }
+  };
+
+  private static final int COLLECTION_SIZE = 32;
+
+  final Class<?> valueType;
+  final Class<?> reflectiveType;
+  final Class<?> pojoType;
+
+  Shape(final Class<?> valueType, final Class<?> reflectiveType, final Class<?> pojoType) {
+    this.valueType = valueType;
+    this.reflectiveType = reflectiveType;
+    this.pojoType = pojoType;
+  }
+
+  abstract Object value();
+
+  abstract Object reflective();
+
+  abstract Object pojo();
+
+  static ObjectMapper objectMapper() {
+    return new ObjectMapper()
+        .registerModule(new AutoMatterModule());
+  }
+
+  static Gson gson() {
+    return new GsonBuilder()
+        .registerTypeAdapterFactory(new AutoMatterTypeAdapterFactory())
+        .create();
+  }
+
+  private static List<String> strings() {
+    final List<String> strings = new ArrayList<String>();
+    for (int i = 0; i < COLLECTION_SIZE; i++) {
+      strings.add("s" + i);
+    }
+    return strings;
+  }
+
+  private static Map<String, Integer> integers() {
+    final Map<String, Integer> integers = new HashMap<String, Integer>();
+    for (int i = 0; i < COLLECTION_SIZE; i++) {
+      integers.put("i" + i, i);
+    }
+    return integers;
+  }
+
+  private static Set<Long> numbers() {
+    final Set<Long> numbers = new HashSet<Long>();
+    for (int i = 0; i < COLLECTION_SIZE; i++) {
+      numbers.add((long) i);
+    }
+    return numbers;
+  }
+}
@@ -0,0 +1,9 @@
+package io.norberg.automatter.benchmarks.json;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true, gson = true)
+public interface Small {
+  long id();
+  String name();
+}
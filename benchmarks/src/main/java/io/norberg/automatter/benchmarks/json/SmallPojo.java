@@ -0,0 +1,9 @@
+package io.norberg.automatter.benchmarks.json;
+
+/**
+ * Hand-written baseline for {@link Small}.
+ */
+public class SmallPojo {
+  public long id;
+  public String name;
+}
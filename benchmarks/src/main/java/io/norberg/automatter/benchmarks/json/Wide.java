@@ -0,0 +1,23 @@
+package io.norberg.automatter.benchmarks.json;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true, gson = true)
+public interface Wide {
+  long id();
+  long created();
+  long updated();
+  long version();
+  double bid();
+  double ask();
+  double low();
+  double high();
+  String symbol();
+  String venue();
+  String currency();
+  String description();
+  int size();
+  int lots();
+  boolean firm();
+  boolean active();
+}
@@ -0,0 +1,23 @@
+package io.norberg.automatter.benchmarks.json;
+
+/**
+ * Hand-written baseline for {@link Wide}.
+ */
+public class WidePojo {
+  public long id;
+  public long created;
+  public long updated;
+  public long version;
+  public double bid;
+  public double ask;
+  public double low;
+  public double high;
+  public String symbol;
+  public String venue;
+  public String currency;
+  public String description;
+  public int size;
+  public int lots;
+  public boolean firm;
+  public boolean active;
+}
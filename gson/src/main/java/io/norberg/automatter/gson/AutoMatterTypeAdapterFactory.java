@@ -9,6 +9,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.GeneratedTypes;
 
 public class AutoMatterTypeAdapterFactory implements TypeAdapterFactory {
 
@@ -17,9 +18,39 @@ public class AutoMatterTypeAdapterFactory implements TypeAdapterFactory {
   private final ConcurrentMap<TypeToken, TypeAdapter> adapters =
       new ConcurrentHashMap<TypeToken, TypeAdapter>();
 
+  private final boolean generatedAdapters;
+
+  /**
+   * Create a factory that uses the generated type adapters of {@code @AutoMatter(gson = true)} types. Generated
+   * adapters name properties after the fields and write longs as numbers. Gson does not expose its field naming and
+   * long serialization policies to factories, so they are ignored by generated adapters. Use {@link #reflective()}
+   * with a {@link Gson} that sets either.
+   */
+  public AutoMatterTypeAdapterFactory() {
+    this(true);
+  }
+
+  private AutoMatterTypeAdapterFactory(final boolean generatedAdapters) {
+    this.generatedAdapters = generatedAdapters;
+  }
+
+  /**
+   * Create a factory that serializes all {@code @AutoMatter} types reflectively, honoring the configuration of the
+   * {@link Gson} it is registered with.
+   */
+  public static AutoMatterTypeAdapterFactory reflective() {
+    return new AutoMatterTypeAdapterFactory(false);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    // Prefer a generated type adapter, also for the generated value class.
+    final Class<?> generated = GeneratedTypes.autoMatterType(type.getRawType());
+    if (generatedAdapters && generated != null && generated.getAnnotation(AutoMatter.class).gson()) {
+      return (TypeAdapter<T>) generatedAdapter(gson, generated);
+    }
+
     final AutoMatter annotation = type.getRawType().getAnnotation(AutoMatter.class);
     if (annotation == null) {
       // This was not an @AutoMatter type.
@@ -32,14 +63,19 @@ public class AutoMatterTypeAdapterFactory implements TypeAdapterFactory {
       return cached;
     }
 
-    // Look up and instantiate the value class
-    final String name = type.getRawType().getName();
-    final String valueName = name + VALUE_SUFFIX;
+    // Look up and instantiate the value class, falling back to its conventional name if the type has no registry
+    final Class<T> registered = (Class<T>) GeneratedTypes.generatedClass(type.getRawType(), "value");
     final Class<T> cls;
-    try {
-      cls = (Class<T>) Class.forName(valueName);
-    } catch (ClassNotFoundException e) {
-      throw new IllegalArgumentException("No builder found for @AutoMatter type: " + name, e);
+    if (registered != null) {
+      cls = registered;
+    } else {
+      final String name = type.getRawType().getName();
+      final String valueName = name + VALUE_SUFFIX;
+      try {
+        cls = (Class<T>) Class.forName(valueName);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalArgumentException("No builder found for @AutoMatter type: " + name, e);
+      }
     }
 
     final TypeAdapter<T> materialized = gson.getAdapter(cls);
@@ -48,4 +84,16 @@ public class AutoMatterTypeAdapterFactory implements TypeAdapterFactory {
     final TypeAdapter<T> existing = adapters.putIfAbsent(type, materialized);
     return (existing != null) ? existing : materialized;
   }
+
+  private static TypeAdapter<?> generatedAdapter(final Gson gson, final Class<?> type) {
+    final Class<?> cls = GeneratedTypes.generatedClass(type, "typeAdapter");
+    if (cls == null) {
+      throw new IllegalArgumentException("No typeAdapter found for @AutoMatter type: " + type.getName());
+    }
+    try {
+      return (TypeAdapter<?>) cls.getConstructor(Gson.class).newInstance(gson);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 }
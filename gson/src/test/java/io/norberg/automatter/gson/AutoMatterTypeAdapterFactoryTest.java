@@ -1,7 +1,11 @@
 package io.norberg.automatter.gson;
 
+import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+
+import io.norberg.automatter.AutoMatter;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -9,15 +13,33 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertThat;
 
 public class AutoMatterTypeAdapterFactoryTest {
 
+  @AutoMatter
+  interface Nested {
+    String foo();
+  }
+
   static final Foo FOO = new FooBuilder()
       .a(17)
       .b("foobar")
       .build();
 
+  static final Streamed STREAMED = new StreamedBuilder()
+      .a(17)
+      .b(Long.MAX_VALUE)
+      .aCamelCaseField(true)
+      .c('x')
+      .d("foobar")
+      .e(4711)
+      .list("foo", "bar")
+      .map("foo", FOO)
+      .build();
+
   Gson gson;
 
   @Before
@@ -34,4 +56,116 @@ public class AutoMatterTypeAdapterFactoryTest {
     assertThat(parsed, is(FOO));
   }
 
+  @Test
+  public void testStreamedTypeAdapter() throws IOException {
+    assertThat(gson.getAdapter(Streamed.class), is(instanceOf(StreamedTypeAdapter.class)));
+    assertThat(gson.getAdapter(STREAMED.getClass()), is(instanceOf(StreamedTypeAdapter.class)));
+
+    final String json = gson.toJson(STREAMED);
+    assertThat(json, is("{\"a\":17,\"b\":9223372036854775807,\"aCamelCaseField\":true,\"c\":\"x\"," +
+                        "\"d\":\"foobar\",\"e\":4711,\"list\":[\"foo\",\"bar\"]," +
+                        "\"map\":{\"foo\":{\"a\":17,\"b\":\"foobar\"}}}"));
+    assertThat(gson.fromJson(json, Streamed.class), is(STREAMED));
+  }
+
+  @Test
+  public void testStreamedTypeAdapterSkipsUnknownFields() {
+    final Streamed parsed = gson.fromJson("{\"quux\":[1,{\"a\":2}],\"d\":\"foobar\",\"e\":1,\"a\":null}",
+                                           Streamed.class);
+    assertThat(parsed, is(new StreamedBuilder().d("foobar").e(1).build()));
+    assertThat(parsed.list().isEmpty(), is(true));
+  }
+
+  @Test
+  public void verifyStreamedTypeAdapterRejectsMissingField() {
+    try {
+      gson.fromJson("{\"a\":17}", Streamed.class);
+    } catch (JsonSyntaxException e) {
+      assertThat(e.getMessage(), is("Missing required property 'd' of Streamed"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyStreamedTypeAdapterRejectsNullField() {
+    try {
+      gson.fromJson("{\"d\":\"foobar\",\"e\":null}", Streamed.class);
+    } catch (JsonSyntaxException e) {
+      assertThat(e.getMessage(), is("Null value for required property 'e' of Streamed"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyStreamedTypeAdapterRejectsNullElement() {
+    try {
+      gson.fromJson("{\"d\":\"foobar\",\"e\":1,\"list\":[null]}", Streamed.class);
+    } catch (JsonSyntaxException e) {
+      assertThat(e.getMessage(), is("Null value for required property 'list' of Streamed"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyStreamedTypeAdapterRejectsNullMapValue() {
+    try {
+      gson.fromJson("{\"d\":\"foobar\",\"e\":1,\"map\":{\"foo\":null}}", Streamed.class);
+    } catch (JsonSyntaxException e) {
+      assertThat(e.getMessage(), is("Null entry for required property 'map' of Streamed"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void verifyStreamedTypeAdapterRejectsMalformedNumber() {
+    gson.fromJson("{\"a\":\"foo\",\"d\":\"foobar\",\"e\":1}", Streamed.class);
+  }
+
+  @Test
+  public void testReflectiveNamingPolicy() {
+    final Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(AutoMatterTypeAdapterFactory.reflective())
+        .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)
+        .create();
+    assertThat(gson.getAdapter(Streamed.class), is(not(instanceOf(StreamedTypeAdapter.class))));
+
+    final String json = gson.toJson(STREAMED, Streamed.class);
+    assertThat(json.contains("\"ACamelCaseField\":true"), is(true));
+    assertThat(gson.fromJson(json, Streamed.class), is(STREAMED));
+  }
+
+  @Test
+  public void verifyBuilderOfReflectiveValueCopiesCollections() {
+    final Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(AutoMatterTypeAdapterFactory.reflective())
+        .create();
+    final Streamed parsed = gson.fromJson(gson.toJson(STREAMED, Streamed.class), Streamed.class);
+
+    final StreamedBuilder builder = StreamedBuilder.from(parsed);
+    builder.list().add("baz");
+    builder.map().clear();
+
+    assertThat(parsed, is(STREAMED));
+  }
+
+  @Test
+  public void testStreamedTypeAdapterIgnoresNamingPolicy() {
+    final Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(new AutoMatterTypeAdapterFactory())
+        .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)
+        .create();
+    assertThat(gson.getAdapter(Streamed.class), is(instanceOf(StreamedTypeAdapter.class)));
+    assertThat(gson.toJson(STREAMED, Streamed.class).contains("\"aCamelCaseField\":true"), is(true));
+  }
+
+  @Test
+  public void testNestedType() {
+    final Nested nested = new NestedBuilder().foo("bar").build();
+    final String json = gson.toJson(nested);
+    assertThat(gson.fromJson(json, Nested.class), is(nested));
+  }
 }
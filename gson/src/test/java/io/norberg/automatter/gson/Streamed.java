@@ -0,0 +1,18 @@
+package io.norberg.automatter.gson;
+
+import java.util.List;
+import java.util.Map;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(gson = true)
+public interface Streamed {
+  int a();
+  long b();
+  boolean aCamelCaseField();
+  char c();
+  String d();
+  Integer e();
+  List<String> list();
+  Map<String, Foo> map();
+}
@@ -0,0 +1,38 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+
+import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.GeneratedTypes;
+
+class AutoMatterDeserializers extends Deserializers.Base {
+
+  @Override
+  public JsonDeserializer<?> findBeanDeserializer(final JavaType type, final DeserializationConfig config,
+                                                  final BeanDescription beanDesc) {
+    final Class<?> rawClass = type.getRawClass();
+    final Class<?> autoMatterType = GeneratedTypes.autoMatterType(rawClass);
+    if (autoMatterType == null || !autoMatterType.getAnnotation(AutoMatter.class).jackson()) {
+      return null;
+    }
+
+    // The generated deserializer matches fixed property names and reads collections from arrays
+    // only. Fall back to reflection for configuration that changes that.
+    if (config.getPropertyNamingStrategy() != null ||
+        config.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES) ||
+        config.isEnabled(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY) ||
+        config.isEnabled(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS) ||
+        config.findMixInClassFor(rawClass) != null ||
+        config.findMixInClassFor(autoMatterType) != null) {
+      return null;
+    }
+
+    return GeneratedTypes.instantiate(autoMatterType, "jsonDeserializer", JsonDeserializer.class);
+  }
+}
@@ -9,5 +9,7 @@ public class AutoMatterModule extends SimpleModule {
     super.setupModule(context);
     context.addAbstractTypeResolver(new AutoMatterResolver());
     context.appendAnnotationIntrospector(new AutoMatterAnnotationIntrospector());
+    context.addSerializers(new AutoMatterSerializers());
+    context.addDeserializers(new AutoMatterDeserializers());
   }
 }
@@ -9,6 +9,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.GeneratedTypes;
 
 class AutoMatterResolver extends AbstractTypeResolver {
 
@@ -32,15 +33,20 @@ class AutoMatterResolver extends AbstractTypeResolver {
       return cached;
     }
 
-    // Look up and instantiate the value class
-    final String packageName = rawClass.getPackage().getName();
-    final String name = rawClass.getSimpleName();
-    final String valueName = packageName + '.' + name + VALUE_SUFFIX;
+    // Look up and instantiate the value class, falling back to its conventional name if the type has no registry
+    final Class<?> registered = GeneratedTypes.generatedClass(rawClass, "value");
     final Class<?> cls;
-    try {
-      cls = Class.forName(valueName);
-    } catch (ClassNotFoundException e) {
-      throw new IllegalArgumentException("No builder found for @AutoMatter type: " + name, e);
+    if (registered != null) {
+      cls = registered;
+    } else {
+      final String packageName = rawClass.getPackage().getName();
+      final String name = rawClass.getSimpleName();
+      final String valueName = packageName + '.' + name + VALUE_SUFFIX;
+      try {
+        cls = Class.forName(valueName);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalArgumentException("No builder found for @AutoMatter type: " + name, e);
+      }
     }
     final JavaType materialized = SimpleType.construct(cls);
 
@@ -0,0 +1,37 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.Serializers;
+
+import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.GeneratedTypes;
+
+class AutoMatterSerializers extends Serializers.Base {
+
+  @Override
+  public JsonSerializer<?> findSerializer(final SerializationConfig config, final JavaType type,
+                                          final BeanDescription beanDesc) {
+    final Class<?> rawClass = type.getRawClass();
+    final Class<?> autoMatterType = GeneratedTypes.autoMatterType(rawClass);
+    if (autoMatterType == null || !autoMatterType.getAnnotation(AutoMatter.class).jackson()) {
+      return null;
+    }
+
+    // The generated serializer writes fixed property names in declaration order. Fall back to
+    // reflection for configuration that changes that.
+    if (config.getPropertyNamingStrategy() != null ||
+        config.getSerializationInclusion() != JsonInclude.Include.ALWAYS ||
+        config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY) ||
+        config.findMixInClassFor(rawClass) != null ||
+        config.findMixInClassFor(autoMatterType) != null) {
+      return null;
+    }
+
+    return GeneratedTypes.instantiate(autoMatterType, "jsonSerializer", JsonSerializer.class);
+  }
+}
@@ -0,0 +1,88 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import io.norberg.automatter.GeneratedTypes;
+
+/**
+ * Builds and caches the deserializers and serializers of all {@code @AutoMatter} types up front, instead of on first
+ * use. Types are listed in the index written by the processor when it is run with {@code -Aautomatter.index=true}.
+ */
+public final class AutoMatterWarmUp {
+
+  private AutoMatterWarmUp() {
+  }
+
+  /**
+   * Warm up all indexed types visible to the context class loader on a mapper that has the {@link AutoMatterModule}
+   * registered.
+   *
+   * @return The types that were warmed up.
+   */
+  public static List<Class<?>> warmUp(final ObjectMapper mapper) {
+    final List<Class<?>> types = GeneratedTypes.indexedTypes(classLoader());
+    for (final Class<?> type : types) {
+      warmUp(mapper, type);
+    }
+    return types;
+  }
+
+  /**
+   * Warm up all indexed types visible to the context class loader on a mapper that has the {@link AutoMatterModule}
+   * registered, in parallel on an executor.
+   *
+   * @return The types that were warmed up.
+   */
+  public static List<Class<?>> warmUp(final ObjectMapper mapper, final ExecutorService executor)
+      throws InterruptedException {
+    final List<Class<?>> types = GeneratedTypes.indexedTypes(classLoader());
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (final Class<?> type : types) {
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          warmUp(mapper, type);
+          return null;
+        }
+      });
+    }
+    for (final Future<Void> future : executor.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+    return types;
+  }
+
+  private static void warmUp(final ObjectMapper mapper, final Class<?> type) {
+    mapper.canDeserialize(mapper.constructType(type));
+    mapper.canSerialize(type);
+
+    // Values are serialized by their runtime class, i.e. the generated value class.
+    final Class<?> value = GeneratedTypes.generatedClass(type, "value");
+    if (value != null) {
+      mapper.canSerialize(value);
+    }
+  }
+
+  private static ClassLoader classLoader() {
+    final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    return (loader != null) ? loader : AutoMatterWarmUp.class.getClassLoader();
+  }
+}
@@ -0,0 +1,227 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads newline delimited JSON files of values in parallel. Files are memory mapped and split into chunks on line
+ * boundaries, which are parsed in parallel on a fork-join pool.
+ *
+ * <p>Values are passed to a {@link Sink} as they are parsed, concurrently from the threads of the pool and in no
+ * particular order, so memory use is bounded by the chunk size and the parallelism of the pool.
+ */
+public final class NdjsonReader<T> {
+
+  public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+  private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Receives parsed values. Must be thread safe.
+   */
+  public interface Sink<T> {
+
+    void accept(T value);
+  }
+
+  private final ObjectReader reader;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * Create a reader of values of {@code type}, resolved by {@code mapper}, that parses chunks on {@code pool}.
+   */
+  public NdjsonReader(final ObjectMapper mapper, final Class<T> type, final ForkJoinPool pool) {
+    this(mapper, type, pool, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Create a reader of values of {@code type}, resolved by {@code mapper}, that parses chunks of about
+   * {@code chunkSize} bytes on {@code pool}. Lines longer than the chunk size are parsed as a single chunk.
+   */
+  public NdjsonReader(final ObjectMapper mapper, final Class<T> type, final ForkJoinPool pool, final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.reader = mapper.reader(type);
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Read all values in a file.
+   */
+  public void read(final Path path, final Sink<? super T> sink) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      read(channel, sink);
+    }
+  }
+
+  /**
+   * Read all values from the current position to the end of a channel. The position of the channel is not changed.
+   */
+  public void read(final FileChannel channel, final Sink<? super T> sink) throws IOException {
+    try {
+      pool.invoke(new ChunkTask(channel, sink, channel.position(), channel.size()));
+    } catch (ChunkException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Parses the lines in {@code [start, end)}, splitting ranges larger than the chunk size in two on a line boundary.
+   */
+  private final class ChunkTask extends RecursiveAction {
+
+    private final FileChannel channel;
+    private final Sink<? super T> sink;
+    private final long start;
+    private final long end;
+
+    private ChunkTask(final FileChannel channel, final Sink<? super T> sink, final long start, final long end) {
+      this.channel = channel;
+      this.sink = sink;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        if (end - start > chunkSize) {
+          final long split = nextLine(start + (end - start) / 2);
+          if (split < end) {
+            invokeAll(new ChunkTask(channel, sink, start, split),
+                      new ChunkTask(channel, sink, split, end));
+            return;
+          }
+        }
+        parse();
+      } catch (IOException e) {
+        throw new ChunkException(e);
+      }
+    }
+
+    private void parse() throws IOException {
+      if (start == end) {
+        return;
+      }
+      final InputStream in = new MappedInputStream(channel, start, end, MAP_WINDOW_SIZE);
+      final MappingIterator<T> values = reader.readValues(in);
+      while (values.hasNextValue()) {
+        sink.accept(values.nextValue());
+      }
+    }
+
+    /**
+     * Find the start of the first line after {@code position}, or the end of the range.
+     */
+    private long nextLine(final long position) throws IOException {
+      final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+      long offset = position;
+      while (offset < end) {
+        buffer.clear();
+        if (end - offset < buffer.capacity()) {
+          buffer.limit((int) (end - offset));
+        }
+        final int n = channel.read(buffer, offset);
+        if (n < 0) {
+          break;
+        }
+        for (int i = 0; i < n; i++) {
+          if (buffer.get(i) == '\n') {
+            return offset + i + 1;
+          }
+        }
+        offset += n;
+      }
+      return end;
+    }
+  }
+
+  /**
+   * Reads {@code [start, end)} of a channel, mapping at most {@code windowSize} bytes of it at a time. A single chunk
+   * can be larger than a mapping, e.g. a file without line breaks.
+   */
+  static final class MappedInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long end;
+    private final int windowSize;
+
+    private long position;
+    private ByteBuffer window = ByteBuffer.allocate(0);
+
+    MappedInputStream(final FileChannel channel, final long start, final long end, final int windowSize) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+      this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!nextWindow()) {
+        return -1;
+      }
+      return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!nextWindow()) {
+        return -1;
+      }
+      final int n = Math.min(len, window.remaining());
+      window.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return window.remaining();
+    }
+
+    /**
+     * Map the next window if the current one is exhausted. Returns false at the end of the range.
+     */
+    private boolean nextWindow() throws IOException {
+      if (window.hasRemaining()) {
+        return true;
+      }
+      if (position >= end) {
+        return false;
+      }
+      final long size = Math.min(end - position, windowSize);
+      window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      position += size;
+      return true;
+    }
+  }
+
+  private static class ChunkException extends RuntimeException {
+
+    private ChunkException(final IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+}
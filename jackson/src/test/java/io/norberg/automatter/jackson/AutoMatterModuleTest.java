@@ -1,19 +1,32 @@
 package io.norberg.automatter.jackson;
 
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.norberg.automatter.AutoMatter;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import static com.fasterxml.jackson.databind.PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertThat;
 
 public class AutoMatterModuleTest {
 
+  @AutoMatter
+  interface Nested {
+    String foo();
+  }
+
   static final Foo FOO = new FooBuilder()
       .a(17)
       .b("foobar")
@@ -35,6 +48,17 @@ public class AutoMatterModuleTest {
   static WithCollections WITH_COLLECTIONS = new WithCollectionsBuilder()
       .build();
 
+  static final Serialized SERIALIZED = new SerializedBuilder()
+      .a(17)
+      .b("foobar")
+      .aCamelCaseField(true)
+      .d(0.5)
+      .list("foo", "bar")
+      .numbers(1, 2)
+      .map(Collections.singletonMap("foo", FOO))
+      .isReallyFoobar(true)
+      .build();
+
   ObjectMapper mapper;
 
   @Before
@@ -102,4 +126,108 @@ public class AutoMatterModuleTest {
     assertThat(parsed.set().isEmpty(), is(true));
     assertThat(parsed.map().isEmpty(), is(true));
   }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void verifyParsedCollectionsAreImmutable() throws Exception {
+    final WithCollections parsed = mapper.readValue("{\"list\":[\"a\",\"b\"]}", WithCollections.class);
+    parsed.list().add("c");
+  }
+
+  @Test
+  public void testGeneratedSerializer() throws IOException {
+    final JsonSerializer<?> serializer = new AutoMatterSerializers().findSerializer(
+        mapper.getSerializationConfig(), mapper.constructType(SERIALIZED.getClass()), null);
+    assertThat(serializer, is(instanceOf(SerializedJsonSerializer.class)));
+
+    final String json = mapper.writeValueAsString(SERIALIZED);
+    assertThat(json, is("{\"a\":17,\"b\":\"foobar\",\"aCamelCaseField\":true,\"d\":0.5," +
+                        "\"list\":[\"foo\",\"bar\"],\"numbers\":[1,2]," +
+                        "\"map\":{\"foo\":{\"a\":17,\"b\":\"foobar\",\"aCamelCaseField\":true,\"foobar\":false}}," +
+                        "\"foobar\":true}"));
+    final Serialized parsed = mapper.readValue(json, Serialized.class);
+    assertThat(parsed, is(SERIALIZED));
+  }
+
+  @Test
+  public void testGeneratedSerializerNamingStrategyFallback() throws IOException {
+    mapper.setPropertyNamingStrategy(CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
+    final String json = mapper.writeValueAsString(SERIALIZED);
+    final JsonNode tree = mapper.readTree(json);
+    assertThat(tree.has("a_camel_case_field"), is(true));
+    final Serialized parsed = mapper.readValue(json, Serialized.class);
+    assertThat(parsed, is(SERIALIZED));
+  }
+
+  @Test
+  public void testGeneratedDeserializer() throws IOException {
+    final JsonDeserializer<?> deserializer = new AutoMatterDeserializers().findBeanDeserializer(
+        mapper.constructType(Serialized.class), mapper.getDeserializationConfig(), null);
+    assertThat(deserializer, is(instanceOf(SerializedJsonDeserializer.class)));
+
+    final Serialized parsed = mapper.readValue(
+        "{\"foobar\":true,\"a\":17,\"b\":\"foobar\",\"aCamelCaseField\":true,\"d\":\"0.5\"," +
+        "\"list\":[\"foo\",\"bar\"],\"numbers\":[1,2,2],\"map\":{\"foo\":{\"a\":17,\"b\":\"foobar\"," +
+        "\"aCamelCaseField\":true,\"foobar\":false}}}",
+        Serialized.class);
+    assertThat(parsed, is(SERIALIZED));
+  }
+
+  @Test
+  public void testGeneratedDeserializerDefaults() throws IOException {
+    final Serialized parsed = mapper.readValue("{\"b\":\"foobar\",\"list\":null}", Serialized.class);
+    assertThat(parsed.a(), is(0));
+    assertThat(parsed.list().isEmpty(), is(true));
+    assertThat(parsed.map().isEmpty(), is(true));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void verifyGeneratedDeserializerCollectionsAreImmutable() throws Exception {
+    final Serialized parsed = mapper.readValue("{\"b\":\"foobar\",\"list\":[\"a\",\"b\"]}", Serialized.class);
+    parsed.list().add("c");
+  }
+
+  @Test
+  public void verifyGeneratedDeserializerRejectsMissingField() throws Exception {
+    try {
+      mapper.readValue("{\"a\":17}", Serialized.class);
+    } catch (JsonMappingException e) {
+      assertThat(e.getMessage(), containsString("Missing required property 'b' of Serialized"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyGeneratedDeserializerRejectsNullField() throws Exception {
+    try {
+      mapper.readValue("{\"b\":null}", Serialized.class);
+    } catch (JsonMappingException e) {
+      assertThat(e.getMessage(), containsString("Null value for required property 'b' of Serialized"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyGeneratedDeserializerRejectsNullElement() throws Exception {
+    try {
+      mapper.readValue("{\"b\":\"foobar\",\"list\":[null]}", Serialized.class);
+    } catch (JsonMappingException e) {
+      assertThat(e.getMessage(), containsString("Null value for required property 'list' of Serialized"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void verifyGeneratedDeserializerRejectsUnknownField() throws Exception {
+    mapper.readValue("{\"b\":\"foobar\",\"quux\":17}", Serialized.class);
+  }
+
+  @Test
+  public void testNestedType() throws IOException {
+    final Nested nested = new NestedBuilder().foo("bar").build();
+    final String json = mapper.writeValueAsString(nested);
+    assertThat(mapper.readValue(json, Nested.class), is(nested));
+  }
 }
@@ -0,0 +1,45 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsCollectionContaining.hasItems;
+import static org.junit.Assert.assertThat;
+
+public class AutoMatterWarmUpTest {
+
+  ObjectMapper mapper;
+
+  @Before
+  public void setUp() {
+    mapper = new ObjectMapper()
+        .registerModule(new AutoMatterModule());
+  }
+
+  @Test
+  public void testWarmUp() throws Exception {
+    final List<Class<?>> types = AutoMatterWarmUp.warmUp(mapper);
+    assertThat(types, hasItems(Foo.class, Serialized.class, AutoMatterModuleTest.Nested.class));
+
+    final String json = mapper.writeValueAsString(AutoMatterModuleTest.SERIALIZED);
+    assertThat(mapper.readValue(json, Serialized.class), is(AutoMatterModuleTest.SERIALIZED));
+  }
+
+  @Test
+  public void testParallelWarmUp() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Class<?>> types = AutoMatterWarmUp.warmUp(mapper, executor);
+      assertThat(types, hasItems(Foo.class, Serialized.class, AutoMatterModuleTest.Nested.class));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
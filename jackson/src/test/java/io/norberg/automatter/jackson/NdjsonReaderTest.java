@@ -0,0 +1,137 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class NdjsonReaderTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  ObjectMapper mapper;
+  ForkJoinPool pool;
+
+  @Before
+  public void setUp() {
+    mapper = new ObjectMapper()
+        .registerModule(new AutoMatterModule());
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    final List<Foo> expected = new ArrayList<Foo>();
+    final StringBuilder json = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      final Foo foo = new FooBuilder()
+          .a(i)
+          .b("foo " + i)
+          .build();
+      expected.add(foo);
+      json.append(mapper.writeValueAsString(foo)).append('\n');
+      if (i % 100 == 0) {
+        json.append('\n');
+      }
+    }
+
+    final List<Foo> values = read(write(json.toString()), 256);
+    assertThat(sorted(values), is(expected));
+  }
+
+  @Test
+  public void testReadWithoutTrailingNewline() throws IOException {
+    final Path path = write("{\"a\":1,\"b\":\"foo\"}\n{\"a\":2,\"b\":\"bar\"}");
+    final List<Foo> values = sorted(read(path, 1));
+    assertThat(values.size(), is(2));
+    assertThat(values.get(1).b(), is("bar"));
+  }
+
+  @Test
+  public void testReadEmpty() throws IOException {
+    assertThat(read(write(""), 16).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testMappedInputStreamReadsAcrossWindows() throws IOException {
+    final byte[] bytes = new byte[1000];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    final Path path = folder.newFile().toPath();
+    Files.write(path, bytes);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         InputStream in = new NdjsonReader.MappedInputStream(channel, 10, 990, 64)) {
+      assertThat(in.read(), is(10));
+      final byte[] buffer = new byte[100];
+      int n;
+      while ((n = in.read(buffer, 0, buffer.length)) >= 0) {
+        assertThat(n <= 64, is(true));
+        out.write(buffer, 0, n);
+      }
+    }
+    assertThat(out.toByteArray(), is(Arrays.copyOfRange(bytes, 11, 990)));
+  }
+
+  @Test(expected = JsonProcessingException.class)
+  public void verifyInvalidJsonFails() throws IOException {
+    read(write("{\"a\":1,\"b\":\"foo\"}\n{\"a\":\n"), 1);
+  }
+
+  private Path write(final String json) throws IOException {
+    final Path path = folder.newFile().toPath();
+    Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    return path;
+  }
+
+  private List<Foo> read(final Path path, final int chunkSize) throws IOException {
+    final List<Foo> values = Collections.synchronizedList(new ArrayList<Foo>());
+    new NdjsonReader<Foo>(mapper, Foo.class, pool, chunkSize).read(path, new NdjsonReader.Sink<Foo>() {
+      @Override
+      public void accept(final Foo value) {
+        values.add(value);
+      }
+    });
+    return values;
+  }
+
+  private static List<Foo> sorted(final List<Foo> values) {
+    final List<Foo> sorted = new ArrayList<Foo>(values);
+    Collections.sort(sorted, new Comparator<Foo>() {
+      @Override
+      public int compare(final Foo o1, final Foo o2) {
+        return Integer.compare(o1.a(), o2.a());
+      }
+    });
+    return sorted;
+  }
+}
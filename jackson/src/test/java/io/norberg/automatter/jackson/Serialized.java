@@ -0,0 +1,23 @@
+package io.norberg.automatter.jackson;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true)
+public interface Serialized {
+  int a();
+  String b();
+  boolean aCamelCaseField();
+  double d();
+  List<String> list();
+  Set<Integer> numbers();
+  Map<String, Foo> map();
+
+  @JsonProperty("foobar")
+  boolean isReallyFoobar();
+}
@@ -1,9 +1,12 @@
 package io.norberg.automatter.processor;
 
 import com.google.auto.service.AutoService;
+import com.google.common.base.CaseFormat;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
@@ -15,8 +18,13 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
 import com.squareup.javapoet.WildcardTypeName;
 import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.collections.CompactList;
+import io.norberg.automatter.collections.CompactMap;
+import io.norberg.automatter.collections.CompactSet;
+import io.norberg.automatter.collections.ImmutableCollections;
 import org.modeshape.common.text.Inflector;
 
 import javax.annotation.Generated;
@@ -28,34 +36,57 @@ import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.element.Modifier.TRANSIENT;
 import static javax.lang.model.type.TypeKind.ARRAY;
 import static javax.lang.model.type.TypeKind.FLOAT;
 import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.WARNING;
 
 /**
  * An annotation processor that takes a value type defined as an interface with getter methods and
@@ -72,9 +103,30 @@ public final class AutoMatterProcessor extends AbstractProcessor {
       "final", "interface", "static", "void", "class", "finally", "long", "strictfp", "volatile",
       "const", "float", "native", "super", "while");
 
+  private static final int INTERNER_STRIPES = 16;
+  private static final String REGISTRY_PATH = "META-INF/auto-matter/types/";
+  private static final String INDEX_PATH = "META-INF/auto-matter/index";
+
+  /**
+   * Processor option that enables writing an index of all {@code @AutoMatter} types in the compilation to
+   * {@code META-INF/auto-matter/index}.
+   */
+  public static final String INDEX_OPTION = "automatter.index";
+
+  /**
+   * Gradle incremental processing categories. The processor is registered as dynamic in
+   * {@code META-INF/gradle/incremental.annotation.processors} and is isolating unless it writes the index, which
+   * aggregates all {@code @AutoMatter} types in the compilation.
+   */
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
   private Filer filer;
   private Elements elements;
   private Messager messager;
+  private boolean index;
+  private final Set<String> indexedTypes = new TreeSet<String>();
+  private final List<Element> indexedElements = new ArrayList<Element>();
   public static final Inflector INFLECTOR = new Inflector();
 
   @Override
@@ -83,6 +135,7 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     filer = processingEnv.getFiler();
     elements = processingEnv.getElementUtils();
     this.messager = processingEnv.getMessager();
+    this.index = Boolean.parseBoolean(processingEnv.getOptions().get(INDEX_OPTION));
   }
 
   @Override
@@ -98,6 +151,13 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         e.print(messager);
       }
     }
+    if (env.processingOver() && index && !indexedTypes.isEmpty()) {
+      try {
+        writeIndex();
+      } catch (IOException e) {
+        messager.printMessage(ERROR, e.getMessage());
+      }
+    }
     return false;
   }
 
@@ -109,6 +169,106 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .skipJavaLangImports(true)
         .build();
     javaFile.writeTo(filer);
+
+    registry(element, d);
+
+    if (index) {
+      indexedTypes.add(elements.getBinaryName((TypeElement) element).toString());
+      indexedElements.add(element);
+    }
+
+    if (d.columns()) {
+      JavaFile.builder(d.packageName(), columns(d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+    }
+
+    if (d.flyweight()) {
+      JavaFile.builder(d.packageName(), flyweight(d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+    }
+
+    if (d.codec()) {
+      JavaFile.builder(d.packageName(), codec(d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+    }
+
+    if (d.jackson()) {
+      JavaFile.builder(d.packageName(), jsonSerializer(element, d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+      JavaFile.builder(d.packageName(), jsonDeserializer(d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+    }
+
+    if (d.gson()) {
+      JavaFile.builder(d.packageName(), typeAdapter(d))
+          .skipJavaLangImports(true)
+          .build()
+          .writeTo(filer);
+    }
+  }
+
+  /**
+   * Write a registry resource named after the binary name of the {@code @AutoMatter} type that lists the classes
+   * generated for it, so that runtime integrations do not have to guess their names.
+   */
+  private void registry(final Element element, final Descriptor d) throws IOException {
+    final Map<String, String> entries = new LinkedHashMap<String, String>();
+    entries.put("builder", qualifiedName(d, d.builderName()));
+    entries.put("value", qualifiedName(d, d.builderName()) + "$Value");
+    if (d.columns()) {
+      entries.put("columns", qualifiedName(d, d.columnsName()));
+    }
+    if (d.flyweight()) {
+      entries.put("flyweight", qualifiedName(d, d.flyweightName()));
+    }
+    if (d.codec()) {
+      entries.put("codec", qualifiedName(d, d.codecName()));
+    }
+    if (d.jackson()) {
+      entries.put("jsonSerializer", qualifiedName(d, d.jsonSerializerName()));
+      entries.put("jsonDeserializer", qualifiedName(d, d.jsonDeserializerName()));
+    }
+    if (d.gson()) {
+      entries.put("typeAdapter", qualifiedName(d, d.typeAdapterName()));
+    }
+
+    final String binaryName = elements.getBinaryName((TypeElement) element).toString();
+    final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", REGISTRY_PATH + binaryName,
+                                                     element);
+    try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+      writer.write("# Generated by " + AutoMatterProcessor.class.getName() + "\n");
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+      }
+    }
+  }
+
+  /**
+   * Write the binary names of all {@code @AutoMatter} types in the compilation, one per line.
+   */
+  private void writeIndex() throws IOException {
+    final FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH,
+                                                     indexedElements.toArray(new Element[indexedElements.size()]));
+    try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+      writer.write("# Generated by " + AutoMatterProcessor.class.getName() + "\n");
+      for (String type : indexedTypes) {
+        writer.write(type + "\n");
+      }
+    }
+  }
+
+  private String qualifiedName(final Descriptor d, final String simpleName) {
+    return d.packageName().isEmpty() ? simpleName : d.packageName() + "." + simpleName;
   }
 
   private TypeSpec builder(final Descriptor d) throws AutoMatterProcessorException {
@@ -117,6 +277,7 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .build();
 
     TypeSpec.Builder builder = TypeSpec.classBuilder(d.builderName())
+        .addOriginatingElement(d.element())
         .addModifiers(FINAL)
         .addAnnotation(generatedAnnotation);
 
@@ -124,27 +285,65 @@ public final class AutoMatterProcessor extends AbstractProcessor {
       builder.addModifiers(PUBLIC);
     }
 
-    for (ExecutableElement field : d.fields()) {
-      builder.addField(FieldSpec.builder(fieldType(field), fieldName(field), PRIVATE).build());
+    // Columns read the fields of builders directly.
+    for (FieldDescriptor field : d.fields()) {
+      final FieldSpec.Builder fieldSpec = FieldSpec.builder(fieldType(field), fieldName(field));
+      if (!d.columns()) {
+        fieldSpec.addModifiers(PRIVATE);
+      }
+      builder.addField(fieldSpec.build());
+    }
+
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isCollection() || field.isMap()) {
+        builder.addField(FieldSpec.builder(TypeName.BOOLEAN, exposedName(field), PRIVATE).build());
+        if (hasReservedCapacity(field)) {
+          builder.addField(FieldSpec.builder(TypeName.INT, capacityName(field), PRIVATE).build());
+        }
+      }
     }
 
     builder.addMethod(defaultConstructor(d));
     builder.addMethod(copyValueConstructor(d));
+    if (hasCollections(d)) {
+      builder.addMethod(shareValueConstructor(d));
+    }
     builder.addMethod(copyBuilderConstructor(d));
 
     for (MethodSpec accessor : accessors(d)) {
       builder.addMethod(accessor);
     }
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isCollection() || field.isMap()) {
+        builder.addMethod(ownedCollection(d, field));
+      }
+    }
 
     if (d.hasToBuilder()) {
       builder.addMethod(toBuilder(d));
     }
 
+    final FieldDescriptor clearField = field(d, "clear");
+    if (clearField == null) {
+      builder.addMethod(clear(d));
+    } else {
+      messager.printMessage(WARNING, "@AutoMatter: no clear() method is generated for the builder, as it "
+                                     + "would conflict with the setter of the field clear", clearField.element());
+    }
     builder.addMethod(build(d));
+    if (d.intern()) {
+      builder.addMethod(buildInterned(d));
+    }
     builder.addMethod(fromValue(d));
     builder.addMethod(fromBuilder(d));
+    if (d.intern()) {
+      builder.addMethod(intern(d));
+    }
 
     builder.addType(valueClass(d));
+    if (d.intern()) {
+      builder.addType(internerClass(d));
+    }
 
     return builder.build();
   }
@@ -153,9 +352,9 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
         .addModifiers(PUBLIC);
 
-    for (ExecutableElement field : d.fields()) {
-      if (isOptional(field) && shouldEnforceNonNull(field)) {
-        ClassName type = ClassName.bestGuess(optionalType(field));
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isOptional() && shouldEnforceNonNull(field)) {
+        ClassName type = field.optionalType();
         constructor.addStatement("this.$N = $T.$L()", fieldName(field), type, optionalEmptyName(field));
       }
     }
@@ -168,15 +367,15 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .addModifiers(PRIVATE)
         .addParameter(valueType(d), "v");
 
-    for (ExecutableElement field : d.fields()) {
+    for (FieldDescriptor field : d.fields()) {
       String fieldName = fieldName(field);
       TypeName fieldType = fieldType(field);
 
-      if (isCollection(field) || isMap(field)) {
+      if (field.isCollection() || field.isMap()) {
         constructor.addStatement("$T _$N = v.$N()", fieldType, fieldName, fieldName);
         constructor.addStatement(
             "this.$N = (_$N == null) ? null : new $T(_$N)",
-            fieldName, fieldName, collectionImplType(field), fieldName);
+            fieldName, fieldName, builderCollectionType(d, field), fieldName);
       } else {
         constructor.addStatement("this.$N = v.$N()", fieldName, fieldName);
       }
@@ -185,6 +384,28 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return constructor.build();
   }
 
+  private MethodSpec shareValueConstructor(final Descriptor d) throws AutoMatterProcessorException {
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get(d.packageName(), d.builderName(), "Value"), "v");
+
+    // The collections of a built value are immutable and can be shared until mutated. Values filled reflectively,
+    // e.g. by Gson or by Jackson field access, might hold mutable collections though, those are copied.
+    for (FieldDescriptor field : d.fields()) {
+      String fieldName = fieldName(field);
+      if (field.isCollection() || field.isMap()) {
+        constructor.addStatement(
+            "this.$N = (v.$N == null || $T.isImmutable$L(v.$N)) ? v.$N : new $T(v.$N)",
+            fieldName, fieldName, ClassName.get(ImmutableCollections.class), field.collectionType(), fieldName,
+            fieldName, builderCollectionType(d, field), fieldName);
+      } else {
+        constructor.addStatement("this.$N = v.$N", fieldName, fieldName);
+      }
+    }
+
+    return constructor.build();
+  }
+
   private MethodSpec copyBuilderConstructor(final Descriptor d) {
     ClassName builderClass = builderType(d);
 
@@ -192,13 +413,11 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .addModifiers(PRIVATE)
         .addParameter(builderClass, "v");
 
-    for (ExecutableElement field : d.fields()) {
+    for (FieldDescriptor field : d.fields()) {
       String fieldName = fieldName(field);
 
-      if (isCollection(field) || isMap(field)) {
-        constructor.addStatement(
-            "this.$N = (v.$N == null) ? null : new $T(v.$N)",
-            fieldName, fieldName, collectionImplType(field), fieldName);
+      if (field.isCollection() || field.isMap()) {
+        sharedCollectionCopy(d, constructor, field);
       } else {
         constructor.addStatement("this.$N = v.$N", fieldName, fieldName);
       }
@@ -207,26 +426,42 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return constructor.build();
   }
 
+  private void sharedCollectionCopy(final Descriptor d, final MethodSpec.Builder spec, final FieldDescriptor field) {
+    // Collections that are not owned by a builder are immutable and can be shared until mutated.
+    final String fieldName = fieldName(field);
+    spec.addStatement(
+        "this.$N = (v.$N instanceof $T) ? new $T(v.$N) : v.$N",
+        fieldName, fieldName, builderCollectionRawType(d, field), builderCollectionType(d, field), fieldName, fieldName);
+  }
+
   private Set<MethodSpec> accessors(final Descriptor d) throws AutoMatterProcessorException {
     ImmutableSet.Builder<MethodSpec> result = ImmutableSet.builder();
-    for (ExecutableElement field : d.fields()) {
-      result.add(getter(field));
+    for (FieldDescriptor field : d.fields()) {
+      result.add(getter(d, field));
 
-      if (isOptional(field)) {
+      if (field.isOptional()) {
         result.add(optionalRawSetter(d, field));
         result.add(optionalSetter(d, field));
-      } else if (isCollection(field)) {
+      } else if (field.isCollection()) {
         result.add(collectionSetter(d, field));
         result.add(collectionCollectionSetter(d, field));
         result.add(collectionIterableSetter(d, field));
         result.add(collectionIteratorSetter(d, field));
         result.add(collectionVarargSetter(d, field));
+        if (primitiveElementType(field) != null) {
+          result.add(collectionPrimitiveArraySetter(d, field));
+        }
 
         MethodSpec adder = collectionAdder(d, field);
         if (adder != null) {
           result.add(adder);
         }
-      } else if (isMap(field)) {
+        MethodSpec primitiveAdder = collectionPrimitiveAdder(d, field);
+        if (primitiveAdder != null) {
+          result.add(primitiveAdder);
+        }
+        result.add(collectionCapacity(d, field));
+      } else if (field.isMap()) {
         result.add(mapSetter(d, field));
         for (int i = 1; i <= 5; i++) {
           result.add(mapSetterPairs(d, field, i));
@@ -236,6 +471,11 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         if (putter != null) {
           result.add(putter);
         }
+        MethodSpec primitivePutter = mapPrimitivePutter(d, field);
+        if (primitivePutter != null) {
+          result.add(primitivePutter);
+        }
+        result.add(collectionCapacity(d, field));
       } else {
         result.add(setter(d, field));
       }
@@ -243,26 +483,32 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return result.build();
   }
 
-  private MethodSpec getter(final ExecutableElement field) throws AutoMatterProcessorException {
+  private MethodSpec getter(final Descriptor d, final FieldDescriptor field) throws AutoMatterProcessorException {
     String fieldName = fieldName(field);
 
     MethodSpec.Builder getter = MethodSpec.methodBuilder(fieldName)
         .addModifiers(PUBLIC)
         .returns(fieldType(field));
 
-    if ((isCollection(field) || isMap(field)) && shouldEnforceNonNull(field)) {
-      getter.beginControlFlow("if (this.$N == null)", fieldName)
-          .addStatement("this.$N = new $T()", fieldName, collectionImplType(field))
-          .endControlFlow();
+    // The returned collection is mutable and might be retained by the caller after build().
+    if (field.isCollection() || field.isMap()) {
+      if (shouldEnforceNonNull(field)) {
+        getter.addStatement("this.$N = true", exposedName(field))
+            .addStatement("return $N()", ownedCollectionName(field));
+      } else {
+        getter.addStatement("this.$N = (this.$N != null)", exposedName(field), fieldName)
+            .addStatement("return (this.$N == null) ? null : $N()", fieldName, ownedCollectionName(field));
+      }
+      return getter.build();
     }
     getter.addStatement("return $N", fieldName);
 
     return getter.build();
   }
 
-  private MethodSpec optionalRawSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec optionalRawSetter(final Descriptor d, final FieldDescriptor field) {
     String fieldName = fieldName(field);
-    ClassName type = ClassName.bestGuess(optionalType(field));
+    ClassName type = field.optionalType();
     TypeName valueType = genericArgument(field, 0);
 
     return MethodSpec.methodBuilder(fieldName)
@@ -273,10 +519,10 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .build();
   }
 
-  private MethodSpec optionalSetter(final Descriptor d, final ExecutableElement field) throws AutoMatterProcessorException {
+  private MethodSpec optionalSetter(final Descriptor d, final FieldDescriptor field) throws AutoMatterProcessorException {
     String fieldName = fieldName(field);
     TypeName valueType = genericArgument(field, 0);
-    ClassName optionalType = ClassName.bestGuess(optionalType(field));
+    ClassName optionalType = field.optionalType();
     TypeName parameterType = ParameterizedTypeName.get(optionalType, WildcardTypeName.subtypeOf(valueType));
 
     MethodSpec.Builder setter = MethodSpec.methodBuilder(fieldName)
@@ -293,7 +539,7 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.addStatement("return this").build();
   }
 
-  private MethodSpec collectionSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionSetter(final Descriptor d, final FieldDescriptor field) {
     String fieldName = fieldName(field);
     ClassName collectionType = collectionRawType(field);
     TypeName itemType = genericArgument(field, 0);
@@ -307,7 +553,8 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .build();
   }
 
-  private MethodSpec collectionCollectionSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionCollectionSetter(final Descriptor d, final FieldDescriptor field)
+      throws AutoMatterProcessorException {
     String fieldName = fieldName(field);
     ClassName collectionType = ClassName.get(Collection.class);
     TypeName itemType = genericArgument(field, 0);
@@ -319,17 +566,23 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .returns(builderType(d));
 
     collectionNullGuard(setter, field);
+    setter.addAnnotation(suppressUncheckedWarnings())
+        .beginControlFlow("if ($T.isImmutable$L($N))", ClassName.get(ImmutableCollections.class),
+                          field.collectionType(), fieldName)
+        .addStatement("this.$N = ($T) $N", fieldName, fieldType(field), fieldName)
+        .nextControlFlow("else");
     if (shouldEnforceNonNull(field)) {
       setter.beginControlFlow("for ($T item : $N)", itemType, fieldName);
       assertNotNull(setter, "item", fieldName + ": null item");
       setter.endControlFlow();
     }
-
-    setter.addStatement("this.$N = new $T($N)", fieldName, collectionImplType(field), fieldName);
+    setter.addStatement("this.$N = new $T($N)", fieldName, builderCollectionType(d, field), fieldName)
+        .endControlFlow();
+    collectionReplaced(setter, field);
     return setter.addStatement("return this").build();
   }
 
-  private MethodSpec collectionIterableSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionIterableSetter(final Descriptor d, final FieldDescriptor field) {
     String fieldName = fieldName(field);
     ClassName iterableType = ClassName.get(Iterable.class);
     TypeName itemType = genericArgument(field, 0);
@@ -351,7 +604,7 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.build();
   }
 
-  private MethodSpec collectionIteratorSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionIteratorSetter(final Descriptor d, final FieldDescriptor field) {
     String fieldName = fieldName(field);
     ClassName iteratorType = ClassName.get(Iterator.class);
     TypeName itemType = genericArgument(field, 0);
@@ -364,8 +617,9 @@ public final class AutoMatterProcessor extends AbstractProcessor {
 
     collectionNullGuard(setter, field);
 
-    setter.addStatement("this.$N = new $T()", fieldName, collectionImplType(field))
-        .beginControlFlow("while ($N.hasNext())", fieldName)
+    setter.addStatement("this.$N = new $T()", fieldName, builderCollectionType(d, field));
+    collectionReplaced(setter, field);
+    setter.beginControlFlow("while ($N.hasNext())", fieldName)
         .addStatement("$T item = $N.next()", itemType, fieldName);
 
     if (shouldEnforceNonNull(field)) {
@@ -378,7 +632,7 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.addStatement("return this").build();
   }
 
-  private MethodSpec collectionVarargSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionVarargSetter(final Descriptor d, final FieldDescriptor field) {
     String fieldName = fieldName(field);
     TypeName itemType = genericArgument(field, 0);
 
@@ -394,9 +648,35 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.build();
   }
 
-  private MethodSpec collectionAdder(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec collectionPrimitiveArraySetter(final Descriptor d, final FieldDescriptor field) {
+    String fieldName = fieldName(field);
+    TypeName primitiveType = primitiveElementType(field);
+
+    MethodSpec.Builder setter = MethodSpec.methodBuilder(fieldName)
+        .addModifiers(PUBLIC)
+        .addParameter(ArrayTypeName.of(primitiveType), fieldName)
+        .returns(builderType(d));
+
+    collectionNullGuard(setter, field);
+
+    if (field.collectionType().equals("List")) {
+      setter.addStatement("this.$N = $T.copyOf($N)", fieldName, primitiveCollectionType(field), fieldName);
+    } else {
+      final String local = variableName("set", fieldName);
+      setter.addStatement("final $T $L = new $T($N.length)",
+                          builderCollectionType(d, field), local, builderCollectionType(d, field), fieldName)
+          .beginControlFlow("for ($T value : $N)", primitiveType, fieldName)
+          .addStatement("$L.add(value)", local)
+          .endControlFlow()
+          .addStatement("this.$N = $L", fieldName, local);
+    }
+    collectionReplaced(setter, field);
+    return setter.addStatement("return this").build();
+  }
+
+  private MethodSpec collectionAdder(final Descriptor d, final FieldDescriptor field) {
     final String fieldName = fieldName(field);
-    final String singular = singular(fieldName);
+    final String singular = field.singular();
     if (singular == null || singular.isEmpty()) {
       return null;
     }
@@ -411,33 +691,98 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     if (shouldEnforceNonNull(field)) {
       assertNotNull(adder, singular);
     }
-    lazyCollectionInitialization(adder, field);
+    adder.addStatement("$N().add($N)", ownedCollectionName(field), singular);
+    return adder.addStatement("return this").build();
+  }
+
+  private MethodSpec collectionPrimitiveAdder(final Descriptor d, final FieldDescriptor field) {
+    final String fieldName = fieldName(field);
+    final String singular = field.singular();
+    final TypeName primitiveType = primitiveElementType(field);
+    if (singular == null || singular.isEmpty() || primitiveType == null) {
+      return null;
+    }
 
+    MethodSpec.Builder adder = MethodSpec.methodBuilder("add" + capitalizeFirstLetter(singular))
+        .addModifiers(PUBLIC)
+        .addParameter(primitiveType, singular)
+        .returns(builderType(d));
 
-    adder.addStatement("$L.add($L)", fieldName, singular);
+    adder.addStatement("$N().add($N)", ownedCollectionName(field), singular);
     return adder.addStatement("return this").build();
   }
 
-  private void collectionNullGuard(final MethodSpec.Builder spec, final ExecutableElement field) {
+  private MethodSpec collectionCapacity(final Descriptor d, final FieldDescriptor field) {
+    final String fieldName = fieldName(field);
+
+    MethodSpec.Builder spec = MethodSpec.methodBuilder("ensure" + capitalizeFirstLetter(fieldName) + "Capacity")
+        .addModifiers(PUBLIC)
+        .addParameter(TypeName.INT, "capacity")
+        .returns(builderType(d));
+
+    if (field.collectionType().equals("List") || hasPrimitiveBuilderCollection(field)) {
+      spec.addStatement("$N().ensureCapacity(capacity)", ownedCollectionName(field));
+      return spec.addStatement("return this").build();
+    }
+
+    // Hash based collections cannot grow in place, so they are reallocated, but only when growing beyond the
+    // capacity reserved before or the current size. An exposed collection is kept as is, as the caller may still be
+    // holding on to it.
+    final String local = "_" + fieldName;
+    spec.beginControlFlow("if (this.$N instanceof $T && ($N || capacity <= $T.max(this.$N, this.$N.size())))",
+                          fieldName, builderCollectionRawType(d, field), exposedName(field), ClassName.get(Math.class),
+                          capacityName(field), fieldName)
+        .addStatement("return this")
+        .endControlFlow()
+        .addStatement("final $T $L = new $T($T.max((int) (capacity / .75f) + 1, 16))",
+                      builderCollectionType(d, field), local, builderCollectionType(d, field), ClassName.get(Math.class))
+        .beginControlFlow("if (this.$N != null)", fieldName)
+        .addStatement("$L.$L(this.$N)", local, field.isMap() ? "putAll" : "addAll", fieldName)
+        .endControlFlow()
+        .addStatement("this.$N = $L", fieldName, local)
+        .addStatement("this.$N = capacity", capacityName(field));
+    return spec.addStatement("return this").build();
+  }
+
+  private void collectionReplaced(final MethodSpec.Builder spec, final FieldDescriptor field) {
+    // A new collection has not been exposed, and has no capacity reserved by ensureCapacity().
+    spec.addStatement("this.$N = false", exposedName(field));
+    if (hasReservedCapacity(field)) {
+      spec.addStatement("this.$N = 0", capacityName(field));
+    }
+  }
+
+  private void collectionNullGuard(final MethodSpec.Builder spec, final FieldDescriptor field) {
     String fieldName = fieldName(field);
     if (shouldEnforceNonNull(field)) {
       assertNotNull(spec, fieldName);
     } else {
       spec.beginControlFlow("if ($N == null)", fieldName)
-          .addStatement("this.$N = null", fieldName)
-          .addStatement("return this")
+          .addStatement("this.$N = null", fieldName);
+      collectionReplaced(spec, field);
+      spec.addStatement("return this")
           .endControlFlow();
     }
   }
 
-  private void lazyCollectionInitialization(final MethodSpec.Builder spec, final ExecutableElement field) {
+  private MethodSpec ownedCollection(final Descriptor d, final FieldDescriptor field) {
+    // The builder only mutates collections that it created itself. Any other collection is immutable, e.g. shared
+    // with a value, and is copied before it is mutated.
     final String fieldName = fieldName(field);
-    spec.beginControlFlow("if (this.$N == null)", fieldName)
-        .addStatement("this.$N = new $T()", fieldName, collectionImplType(field))
-        .endControlFlow();
+    final TypeName type = builderCollectionType(d, field);
+    final MethodSpec.Builder spec = MethodSpec.methodBuilder(ownedCollectionName(field))
+        .addModifiers(PRIVATE)
+        .returns(type);
+    return spec.beginControlFlow("if (!(this.$N instanceof $T))", fieldName, builderCollectionRawType(d, field))
+        .addStatement("this.$N = (this.$N == null) ? new $T() : new $T(this.$N)",
+                      fieldName, fieldName, type, type, fieldName)
+        .endControlFlow()
+        .addStatement("return ($T) this.$N", type, fieldName)
+        .build();
   }
 
-  private MethodSpec mapSetter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec mapSetter(final Descriptor d, final FieldDescriptor field)
+      throws AutoMatterProcessorException {
     final String fieldName = fieldName(field);
     final TypeName keyType = WildcardTypeName.subtypeOf(genericArgument(field, 0));
     final TypeName valueType = WildcardTypeName.subtypeOf(genericArgument(field, 1));
@@ -448,28 +793,34 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .addParameter(paramType, fieldName)
         .returns(builderType(d));
 
+    collectionNullGuard(setter, field);
+    setter.addAnnotation(suppressUncheckedWarnings())
+        .beginControlFlow("if ($T.isImmutableMap($N))", ClassName.get(ImmutableCollections.class), fieldName)
+        .addStatement("this.$N = ($T) $N", fieldName, fieldType(field), fieldName)
+        .nextControlFlow("else");
     if (shouldEnforceNonNull(field)) {
       final String entryName = variableName("entry", fieldName);
-      assertNotNull(setter, fieldName);
       setter.beginControlFlow(
           "for ($T<$T, $T> $L : $N.entrySet())",
           ClassName.get(Map.Entry.class), keyType, valueType, entryName, fieldName);
       assertNotNull(setter, entryName + ".getKey()", fieldName + ": null key");
       assertNotNull(setter, entryName + ".getValue()", fieldName + ": null value");
       setter.endControlFlow();
-    } else {
-      setter.beginControlFlow("if ($N == null)", fieldName)
-          .addStatement("this.$N = null", fieldName)
-          .addStatement("return this")
-          .endControlFlow();
     }
-
-    setter.addStatement("this.$N = new $T($N)", fieldName, collectionImplType(field), fieldName);
+    setter.addStatement("this.$N = new $T($N)", fieldName, builderCollectionType(d, field), fieldName)
+        .endControlFlow();
+    collectionReplaced(setter, field);
 
     return setter.addStatement("return this").build();
   }
 
-  private MethodSpec mapSetterPairs(final Descriptor d, final ExecutableElement field, int entries) {
+  private AnnotationSpec suppressUncheckedWarnings() {
+    return AnnotationSpec.builder(SuppressWarnings.class)
+        .addMember("value", "$S", "unchecked")
+        .build();
+  }
+
+  private MethodSpec mapSetterPairs(final Descriptor d, final FieldDescriptor field, int entries) {
     checkArgument(entries > 0, "entries");
     final String fieldName = fieldName(field);
     final TypeName keyType = genericArgument(field, 0);
@@ -504,7 +855,8 @@ public final class AutoMatterProcessor extends AbstractProcessor {
 
     // Map instantiation
     if (entries == 1) {
-      setter.addStatement("$N = new $T()", fieldName, collectionImplType(field));
+      setter.addStatement("$N = new $T()", fieldName, builderCollectionType(d, field));
+      collectionReplaced(setter, field);
     }
 
     // Put
@@ -513,9 +865,9 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.addStatement("return this").build();
   }
 
-  private MethodSpec mapPutter(final Descriptor d, final ExecutableElement field) {
+  private MethodSpec mapPutter(final Descriptor d, final FieldDescriptor field) {
     final String fieldName = fieldName(field);
-    final String singular = singular(fieldName);
+    final String singular = field.singular();
     if (singular == null) {
       return null;
     }
@@ -537,20 +889,35 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     }
 
     // Put
-    lazMapInitialization(setter, field);
-    setter.addStatement("$N.put(key, value)", fieldName);
+    setter.addStatement("$N().put(key, value)", ownedCollectionName(field));
 
     return setter.addStatement("return this").build();
   }
 
-  private void lazMapInitialization(final MethodSpec.Builder spec, final ExecutableElement field) {
+  private MethodSpec mapPrimitivePutter(final Descriptor d, final FieldDescriptor field) {
     final String fieldName = fieldName(field);
-    spec.beginControlFlow("if (this.$N == null)", fieldName)
-        .addStatement("this.$N = new $T()", fieldName, collectionImplType(field))
-        .endControlFlow();
+    final String singular = field.singular();
+    final TypeName primitiveType = primitiveElementType(field);
+    if (singular == null || primitiveType == null) {
+      return null;
+    }
+
+    MethodSpec.Builder setter = MethodSpec.methodBuilder("put" + capitalizeFirstLetter(singular))
+        .addModifiers(PUBLIC)
+        .addParameter(genericArgument(field, 0), "key")
+        .addParameter(primitiveType, "value")
+        .returns(builderType(d));
+
+    if (shouldEnforceNonNull(field)) {
+      assertNotNull(setter, "key", singular + ": key");
+    }
+
+    setter.addStatement("$N().put(key, value)", ownedCollectionName(field));
+
+    return setter.addStatement("return this").build();
   }
 
-  private MethodSpec setter(final Descriptor d, final ExecutableElement field) throws AutoMatterProcessorException {
+  private MethodSpec setter(final Descriptor d, final FieldDescriptor field) throws AutoMatterProcessorException {
     String fieldName = fieldName(field);
 
     MethodSpec.Builder setter = MethodSpec.methodBuilder(fieldName)
@@ -566,6 +933,38 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return setter.addStatement("return this").build();
   }
 
+  private MethodSpec clear(final Descriptor d) {
+    MethodSpec.Builder clear = MethodSpec.methodBuilder("clear")
+        .addModifiers(PUBLIC)
+        .returns(builderType(d));
+
+    for (FieldDescriptor field : d.fields()) {
+      final String fieldName = fieldName(field);
+      if (field.isOptional() && shouldEnforceNonNull(field)) {
+        ClassName type = field.optionalType();
+        clear.addStatement("this.$N = $T.$L()", fieldName, type, optionalEmptyName(field));
+      } else if ((field.isCollection() || field.isMap()) && shouldEnforceNonNull(field)) {
+        // Keep the capacity of a collection that is owned by the builder and not exposed to anyone else.
+        clear.beginControlFlow("if (this.$N instanceof $T && !this.$N)",
+                               fieldName, builderCollectionRawType(d, field), exposedName(field))
+            .addStatement("this.$N.clear()", fieldName)
+            .nextControlFlow("else")
+            .addStatement("this.$N = null", fieldName);
+        collectionReplaced(clear, field);
+        clear.endControlFlow();
+      } else if (field.isCollection() || field.isMap()) {
+        clear.addStatement("this.$N = null", fieldName);
+        collectionReplaced(clear, field);
+      } else if (field.isPrimitive()) {
+        clear.addStatement("this.$N = $L", fieldName, field.type().getKind() == TypeKind.BOOLEAN ? "false" : "0");
+      } else {
+        clear.addStatement("this.$N = null", fieldName);
+      }
+    }
+
+    return clear.addStatement("return this").build();
+  }
+
   private MethodSpec toBuilder(final Descriptor d) {
     return MethodSpec.methodBuilder("builder")
         .addModifiers(PUBLIC)
@@ -579,62 +978,104 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .addModifiers(PUBLIC)
         .returns(valueType(d));
 
+    // The value copies the collections into exact sized immutable ones, so the builder keeps its own.
     final List<String> parameters = Lists.newArrayList();
-    for (ExecutableElement field : d.fields()) {
-      final String fieldName = fieldName(field);
-      final TypeName fieldType = fieldType(field);
-      final ClassName collections = ClassName.get(Collections.class);
-
-      if (isCollection(field)) {
-        final TypeName itemType = genericArgument(field, 0);
-
-        if (shouldEnforceNonNull(field)) {
-          build.addStatement(
-              "$T _$L = ($L != null) ? $T.$L(new $T($N)) : $T.<$T>$L()",
-              fieldType, fieldName, fieldName,
-              collections, unmodifiableCollection(field), collectionImplType(field), fieldName,
-              collections, itemType, emptyCollection(field));
-        } else {
-          build.addStatement(
-              "$T _$L = ($L != null) ? $T.$L(new $T($N)) : null",
-              fieldType, fieldName, fieldName,
-              collections, unmodifiableCollection(field), collectionImplType(field), fieldName);
-        }
+    for (FieldDescriptor field : d.fields()) {
+      parameters.add(fieldName(field));
+    }
+    return build.addStatement("return new Value($N)", Joiner.on(", ").join(parameters)).build();
+  }
 
-        parameters.add("_" + fieldName);
-      } else if (isMap(field)) {
-        final TypeName keyType = genericArgument(field, 0);
-        final TypeName valueType = genericArgument(field, 1);
-
-        if (shouldEnforceNonNull(field)) {
-          build.addStatement(
-              "$T _$L = ($L != null) ? $T.unmodifiableMap(new $T($N)) : $T.<$T, $T>emptyMap()",
-              fieldType, fieldName, fieldName,
-              collections, collectionImplType(field), fieldName,
-              collections, keyType, valueType);
-        } else {
-          build.addStatement(
-              "$T _$L = ($L != null) ? $T.unmodifiableMap(new $T($N)) : null",
-              fieldType, fieldName, fieldName,
-              collections, collectionImplType(field), fieldName);
-        }
+  private MethodSpec buildInterned(final Descriptor d) {
+    return MethodSpec.methodBuilder("buildInterned")
+        .addModifiers(PUBLIC)
+        .returns(valueType(d))
+        .addStatement("return Interner.intern((Value) build())")
+        .build();
+  }
 
-        parameters.add("_" + fieldName);
-      } else {
-        parameters.add(fieldName(field));
-      }
-    }
+  private MethodSpec intern(final Descriptor d) {
+    MethodSpec.Builder intern = MethodSpec.methodBuilder("intern")
+        .addModifiers(PUBLIC, STATIC)
+        .addParameter(valueType(d), "v")
+        .returns(valueType(d));
 
-    return build.addStatement("return new Value($N)", Joiner.on(", ").join(parameters)).build();
+    assertNotNull(intern, "v");
+
+    return intern.beginControlFlow("if (v instanceof Value)")
+        .addStatement("return Interner.intern((Value) v)")
+        .endControlFlow()
+        .addStatement("return Interner.intern((Value) new $T(v).build())", builderType(d))
+        .build();
+  }
+
+  private TypeSpec internerClass(final Descriptor d) {
+    final ClassName interner = ClassName.get(d.packageName(), d.builderName(), "Interner");
+    final ClassName value = ClassName.get(d.packageName(), d.builderName(), "Value");
+    final TypeName reference = ParameterizedTypeName.get(ClassName.get(WeakReference.class), value);
+    final TypeName map = ParameterizedTypeName.get(ClassName.get(WeakHashMap.class), value, reference);
+
+    // A canonicalizing map of weakly referenced values, striped on the value hash codes to reduce
+    // lock contention.
+
+    final MethodSpec stripes = MethodSpec.methodBuilder("stripes")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(TypeName.INT, "n")
+        .returns(ArrayTypeName.of(interner))
+        .addStatement("final $T[] stripes = new $T[n]", interner, interner)
+        .beginControlFlow("for (int i = 0; i < n; i++)")
+        .addStatement("stripes[i] = new $T()", interner)
+        .endControlFlow()
+        .addStatement("return stripes")
+        .build();
+
+    final MethodSpec intern = MethodSpec.methodBuilder("intern")
+        .addModifiers(STATIC)
+        .addParameter(value, "v")
+        .returns(value)
+        .beginControlFlow("if (v.interned)")
+        .addStatement("return v")
+        .endControlFlow()
+        .addStatement("final int h = v.hashCode()")
+        .addStatement("final $T stripe = STRIPES[(h ^ (h >>> 16)) & (STRIPES.length - 1)]", interner)
+        .beginControlFlow("synchronized (stripe)")
+        .addStatement("final $T ref = stripe.values.get(v)", reference)
+        .addStatement("final $T interned = (ref == null) ? null : ref.get()", value)
+        .beginControlFlow("if (interned != null)")
+        .addStatement("return interned")
+        .endControlFlow()
+        .addStatement("final $T canonical = new $T(v, true)", value, value)
+        .addStatement("stripe.values.put(canonical, new $T(canonical))", reference)
+        .addStatement("return canonical")
+        .endControlFlow()
+        .build();
+
+    return TypeSpec.classBuilder("Interner")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .addField(FieldSpec.builder(ArrayTypeName.of(interner), "STRIPES", PRIVATE, STATIC, FINAL)
+                      .initializer("stripes($L)", INTERNER_STRIPES)
+                      .build())
+        .addField(FieldSpec.builder(map, "values", PRIVATE, FINAL)
+                      .initializer("new $T()", map)
+                      .build())
+        .addMethod(stripes)
+        .addMethod(intern)
+        .build();
   }
 
   private MethodSpec fromValue(final Descriptor d) {
-    return MethodSpec.methodBuilder("from")
+    MethodSpec.Builder from = MethodSpec.methodBuilder("from")
         .addModifiers(PUBLIC, STATIC)
         .addParameter(valueType(d), "v")
-        .returns(builderType(d))
-        .addStatement("return new $T(v)", builderType(d))
-        .build();
+        .returns(builderType(d));
+
+    if (hasCollections(d)) {
+      from.beginControlFlow("if (v instanceof Value)")
+          .addStatement("return new $T((Value) v)", builderType(d))
+          .endControlFlow();
+    }
+
+    return from.addStatement("return new $T(v)", builderType(d)).build();
   }
 
   private MethodSpec fromBuilder(final Descriptor d) {
@@ -646,93 +1087,2228 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .build();
   }
 
-  private TypeSpec valueClass(final Descriptor d) throws AutoMatterProcessorException {
-    TypeSpec.Builder value = TypeSpec.classBuilder("Value")
-        .addModifiers(PRIVATE, STATIC, FINAL)
-        .addSuperinterface(valueType(d));
+  private TypeSpec columns(final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
 
-    for (ExecutableElement field : d.fields()) {
-      value.addField(FieldSpec.builder(fieldType(field), fieldName(field), PRIVATE, FINAL).build());
+    final ClassName columnsType = ClassName.get(d.packageName(), d.columnsName());
+    final Set<String> fieldNames = fieldNames(d);
+    for (String method : ImmutableSet.of("get", "view", "ensureCapacity")) {
+      if (fieldNames.contains(method)) {
+        throw fail("Field name " + method + " conflicts with " + d.columnsName() + "." + method + "(int)",
+                   d.fields().get(0).element());
+      }
     }
+    final String size = variableName("size", fieldNames);
+    final String capacity = variableName("capacity", fieldNames);
 
-    value.addMethod(valueConstructor(d));
+    TypeSpec.Builder columns = TypeSpec.classBuilder(d.columnsName())
+        .addOriginatingElement(d.element())
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation);
 
-    for (ExecutableElement field : d.fields()) {
-      value.addMethod(valueGetter(field));
+    if (d.isPublic()) {
+      columns.addModifiers(PUBLIC);
     }
-    value.addMethod(valueToBuilder(d));
-    value.addMethod(valueEquals(d));
-    value.addMethod(valueHashCode(d));
-    value.addMethod(valueToString(d));
 
-    return value.build();
-  }
+    for (FieldDescriptor field : d.fields()) {
+      columns.addField(columnType(field), fieldName(field), PRIVATE);
+    }
+    columns.addField(TypeName.INT, size, PRIVATE);
+    columns.addField(TypeName.INT, capacity, PRIVATE);
 
-  private MethodSpec valueConstructor(final Descriptor d) throws AutoMatterProcessorException {
-    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
-        .addModifiers(PRIVATE);
+    columns.addMethod(MethodSpec.constructorBuilder()
+                          .addModifiers(PUBLIC)
+                          .addStatement("this(16)")
+                          .build());
 
-    for (ExecutableElement field : d.fields()) {
-      if (shouldEnforceNonNull(field) && !isCollection(field) && !isMap(field)) {
-        assertNotNull(constructor, fieldName(field));
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addParameter(TypeName.INT, "capacity");
+    for (FieldDescriptor field : d.fields()) {
+      // new int[capacity][] for array fields
+      TypeName elementType = columnComponentType(field);
+      String dimensions = "";
+      while (elementType instanceof ArrayTypeName) {
+        elementType = ((ArrayTypeName) elementType).componentType;
+        dimensions += "[]";
       }
+      constructor.addStatement("this.$N = new $T[capacity]$L", fieldName(field), elementType, dimensions);
     }
+    columns.addMethod(constructor.addStatement("this.$N = capacity", capacity).build());
 
-    for (ExecutableElement field : d.fields()) {
-      String fieldName = fieldName(field);
-      AnnotationSpec annotation = AnnotationSpec.builder(AutoMatter.Field.class)
-          .addMember("value", "$S", fieldName)
-          .build();
-      ParameterSpec parameter = ParameterSpec.builder(fieldType(field), fieldName)
-          .addAnnotation(annotation)
-          .build();
-      constructor.addParameter(parameter);
+    columns.addMethod(MethodSpec.methodBuilder("size")
+                          .addModifiers(PUBLIC)
+                          .returns(TypeName.INT)
+                          .addStatement("return $N", size)
+                          .build());
 
-      final ClassName collectionsType = ClassName.get(Collections.class);
-      if (shouldEnforceNonNull(field) && isCollection(field)) {
-        final TypeName itemType = genericArgument(field, 0);
-        constructor.addStatement(
-            "this.$N = ($N != null) ? $N : $T.<$T>$L()",
-            fieldName, fieldName, fieldName, collectionsType, itemType, emptyCollection(field));
-      } else if (shouldEnforceNonNull(field) && isMap(field)) {
-        final TypeName keyType = genericArgument(field, 0);
-        final TypeName valueType = genericArgument(field, 1);
-        constructor.addStatement(
-            "this.$N = ($N != null) ? $N : $T.<$T, $T>emptyMap()",
-            fieldName, fieldName, fieldName, collectionsType, keyType, valueType);
-      } else {
-        constructor.addStatement("this.$N = $N", fieldName, fieldName);
+    MethodSpec.Builder addValue = MethodSpec.methodBuilder("add")
+        .addModifiers(PUBLIC)
+        .addParameter(valueType(d), "value")
+        .returns(columnsType)
+        .addStatement("ensureCapacity(this.$N + 1)", size);
+    for (FieldDescriptor field : d.fields()) {
+      addValue.addStatement("this.$N[this.$N] = value.$N()", fieldName(field), size, fieldName(field));
+    }
+    columns.addMethod(addValue.addStatement("this.$N++", size)
+                          .addStatement("return this")
+                          .build());
+
+    // Validates and copies the fields of the builder like build() does, without the intermediate value.
+    MethodSpec.Builder addBuilder = MethodSpec.methodBuilder("add")
+        .addModifiers(PUBLIC)
+        .addParameter(builderType(d), "builder")
+        .returns(columnsType);
+    for (FieldDescriptor field : d.fields()) {
+      if (shouldEnforceNonNull(field) && !field.isCollection() && !field.isMap()) {
+        addBuilder.beginControlFlow("if (builder.$N == null)", fieldName(field))
+            .addStatement("throw new $T($S)", ClassName.get(NullPointerException.class), fieldName(field))
+            .endControlFlow();
       }
     }
+    addBuilder.addStatement("ensureCapacity(this.$N + 1)", size);
+    for (FieldDescriptor field : d.fields()) {
+      addBuilder.addStatement("this.$N[this.$N] = $L", fieldName(field), size,
+                              valueField(field, code("builder.$N", fieldName(field))));
+    }
+    columns.addMethod(addBuilder.addStatement("this.$N++", size)
+                          .addStatement("return this")
+                          .build());
 
-    return constructor.build();
-  }
+    MethodSpec.Builder ensureCapacity = MethodSpec.methodBuilder("ensureCapacity")
+        .addModifiers(PUBLIC)
+        .addParameter(TypeName.INT, "capacity")
+        .beginControlFlow("if (capacity <= this.$N)", capacity)
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("final int newCapacity = $T.max(capacity, this.$N * 2)", ClassName.get(Math.class), capacity);
+    for (FieldDescriptor field : d.fields()) {
+      ensureCapacity.addStatement("this.$N = $T.copyOf(this.$N, newCapacity)",
+                                  fieldName(field), ClassName.get(Arrays.class), fieldName(field));
+    }
+    columns.addMethod(ensureCapacity.addStatement("this.$N = newCapacity", capacity).build());
 
-  private MethodSpec valueGetter(final ExecutableElement field) throws AutoMatterProcessorException {
-    String fieldName = fieldName(field);
+    MethodSpec.Builder clear = MethodSpec.methodBuilder("clear")
+        .addModifiers(PUBLIC);
+    for (FieldDescriptor field : d.fields()) {
+      if (!field.isPrimitive()) {
+        // Let go of references to removed values.
+        clear.addStatement("$T.fill(this.$N, 0, this.$N, null)", ClassName.get(Arrays.class), fieldName(field), size);
+      }
+    }
+    columns.addMethod(clear.addStatement("this.$N = 0", size).build());
+
+    for (FieldDescriptor field : d.fields()) {
+      MethodSpec.Builder getter = MethodSpec.methodBuilder(fieldName(field))
+          .addModifiers(PUBLIC)
+          .addParameter(TypeName.INT, "index")
+          .returns(fieldType(field));
+      columnIndexCheck(getter, size);
+      if (isGenericColumn(field)) {
+        getter.addAnnotation(suppressUncheckedWarnings())
+            .addStatement("return ($T) this.$N[index]", fieldType(field), fieldName(field));
+      } else {
+        getter.addStatement("return this.$N[index]", fieldName(field));
+      }
+      columns.addMethod(getter.build());
+    }
 
-    return MethodSpec.methodBuilder(fieldName)
-        .addAnnotation(AutoMatter.Field.class)
-        .addAnnotation(Override.class)
+    MethodSpec.Builder view = MethodSpec.methodBuilder("view")
+        .addJavadoc("Returns a view of the value at {@code index}, which reflects later changes to these columns.\n")
         .addModifiers(PUBLIC)
-        .returns(fieldType(field))
-        .addStatement("return $N", fieldName)
-        .build();
-  }
+        .addParameter(TypeName.INT, "index")
+        .returns(valueType(d));
+    columnIndexCheck(view, size);
+    columns.addMethod(view.addStatement("return new View(index)").build());
+
+    columns.addMethod(MethodSpec.methodBuilder("get")
+                          .addJavadoc("Returns a copy of the value at {@code index}.\n")
+                          .addModifiers(PUBLIC)
+                          .addParameter(TypeName.INT, "index")
+                          .returns(valueType(d))
+                          .addStatement("return $T.from(view(index)).build()", builderType(d))
+                          .build());
+
+    columns.addType(columnsView(d));
+
+    return columns.build();
+  }
+
+  private TypeSpec columnsView(final Descriptor d) throws AutoMatterProcessorException {
+    final String index = variableName("index", fieldNames(d));
+
+    TypeSpec.Builder view = TypeSpec.classBuilder("View")
+        .addModifiers(PRIVATE, FINAL)
+        .addSuperinterface(valueType(d))
+        .addField(TypeName.INT, index, PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+                       .addModifiers(PRIVATE)
+                       .addParameter(TypeName.INT, index)
+                       .addStatement("this.$N = $N", index, index)
+                       .build());
+
+    for (FieldDescriptor field : d.fields()) {
+      MethodSpec.Builder getter = MethodSpec.methodBuilder(fieldName(field))
+          .addAnnotation(Override.class)
+          .addModifiers(PUBLIC)
+          .returns(fieldType(field));
+      if (isGenericColumn(field)) {
+        getter.addAnnotation(suppressUncheckedWarnings())
+            .addStatement("return ($T) $N[$N]", fieldType(field), fieldName(field), index);
+      } else {
+        getter.addStatement("return $N[$N]", fieldName(field), index);
+      }
+      view.addMethod(getter.build());
+    }
 
-  private MethodSpec valueToBuilder(final Descriptor d) {
-    MethodSpec.Builder toBuilder = MethodSpec.methodBuilder("builder")
-        .addModifiers(PUBLIC)
-        .returns(builderType(d))
-        .addStatement("return new $T(this)", builderType(d));
+    for (FieldDescriptor field : d.fields()) {
+      final ExecutableElement wither = d.withers().get(fieldName(field));
+      if (wither != null) {
+        view.addMethod(MethodSpec.methodBuilder(wither.getSimpleName().toString())
+                           .addAnnotation(Override.class)
+                           .addModifiers(PUBLIC)
+                           .addParameter(fieldType(field), fieldName(field))
+                           .returns(valueType(d))
+                           .addStatement("return get($N).$N($N)",
+                                         index, wither.getSimpleName().toString(), fieldName(field))
+                           .build());
+      }
+    }
 
-    // Always emit toBuilder, but only annotate it with @Override if the target asked for it.
     if (d.hasToBuilder()) {
-      toBuilder.addAnnotation(Override.class);
+      view.addMethod(MethodSpec.methodBuilder("builder")
+                         .addAnnotation(Override.class)
+                         .addModifiers(PUBLIC)
+                         .returns(builderType(d))
+                         .addStatement("return $T.from(this)", builderType(d))
+                         .build());
     }
 
-    return toBuilder.build();
-  }
+    // Read the columns directly rather than copying the value.
+    final List<CodeBlock> values = Lists.newArrayList();
+    for (FieldDescriptor field : d.fields()) {
+      values.add(code("$N[$N]", fieldName(field), index));
+    }
+    view.addMethod(viewEquals(d, values));
+    view.addMethod(viewHashCode(d, values));
+    view.addMethod(toString(d, values));
+
+    return view.build();
+  }
+
+  private TypeSpec flyweight(final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
+
+    final ClassName flyweightType = ClassName.get(d.packageName(), d.flyweightName());
+    final ClassName byteBuffer = ClassName.get(ByteBuffer.class);
+
+    // Lay out fields by decreasing size to keep them aligned.
+    final List<FieldDescriptor> fields = Lists.newArrayList(d.fields());
+    Collections.sort(fields, new Comparator<FieldDescriptor>() {
+      @Override
+      public int compare(final FieldDescriptor a, final FieldDescriptor b) {
+        return flyweightFieldSize(b) - flyweightFieldSize(a);
+      }
+    });
+    final Map<FieldDescriptor, String> offsets = Maps.newHashMap();
+    int size = 0;
+    for (FieldDescriptor field : fields) {
+      offsets.put(field, size == 0 ? "offset" : "offset + " + size);
+      size += flyweightFieldSize(field);
+    }
+
+    TypeSpec.Builder flyweight = TypeSpec.classBuilder(d.flyweightName())
+        .addOriginatingElement(d.element())
+        .addJavadoc("A {@link $T} that reads its fields from a {@link $T}, in the byte order of the buffer.\n",
+                    valueType(d), byteBuffer)
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation)
+        .addSuperinterface(valueType(d))
+        .addField(FieldSpec.builder(TypeName.INT, "SIZE", PUBLIC, STATIC, FINAL)
+                      .addJavadoc("The number of bytes used by each value.\n")
+                      .initializer("$L", size)
+                      .build())
+        .addField(byteBuffer, "buffer", PRIVATE)
+        .addField(TypeName.INT, "offset", PRIVATE);
+
+    if (d.isPublic()) {
+      flyweight.addModifiers(PUBLIC);
+    }
+
+    flyweight.addMethod(MethodSpec.constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .build());
+
+    flyweight.addMethod(MethodSpec.constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(byteBuffer, "buffer")
+                            .addParameter(TypeName.INT, "offset")
+                            .addStatement("wrap(buffer, offset)")
+                            .build());
+
+    MethodSpec.Builder wrap = MethodSpec.methodBuilder("wrap")
+        .addJavadoc("Points this flyweight at the value stored at {@code offset} in {@code buffer}.\n")
+        .addModifiers(PUBLIC)
+        .addParameter(byteBuffer, "buffer")
+        .addParameter(TypeName.INT, "offset")
+        .returns(flyweightType);
+    flyweightOffsetCheck(wrap);
+    flyweight.addMethod(wrap.addStatement("this.buffer = buffer")
+                            .addStatement("this.offset = offset")
+                            .addStatement("return this")
+                            .build());
+
+    for (FieldDescriptor field : d.fields()) {
+      final String accessor = flyweightAccessor(field);
+      MethodSpec.Builder getter = MethodSpec.methodBuilder(fieldName(field))
+          .addAnnotation(Override.class)
+          .addModifiers(PUBLIC)
+          .returns(fieldType(field));
+      if (field.type().getKind() == TypeKind.BOOLEAN) {
+        getter.addStatement("return buffer.get($L) != 0", offsets.get(field));
+      } else {
+        getter.addStatement("return buffer.get$L($L)", accessor, offsets.get(field));
+      }
+      flyweight.addMethod(getter.build());
+    }
+
+    MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+        .addJavadoc("Writes {@code value} to {@code buffer} at {@code offset}, using {@link #SIZE} bytes.\n")
+        .addModifiers(PUBLIC, STATIC)
+        .addParameter(valueType(d), "value")
+        .addParameter(byteBuffer, "buffer")
+        .addParameter(TypeName.INT, "offset");
+    flyweightOffsetCheck(write);
+    for (FieldDescriptor field : d.fields()) {
+      if (field.type().getKind() == TypeKind.BOOLEAN) {
+        write.addStatement("buffer.put($L, (byte) (value.$N() ? 1 : 0))", offsets.get(field), fieldName(field));
+      } else {
+        write.addStatement("buffer.put$L($L, value.$N())",
+                           flyweightAccessor(field), offsets.get(field), fieldName(field));
+      }
+    }
+    flyweight.addMethod(write.build());
+
+    for (FieldDescriptor field : d.fields()) {
+      final ExecutableElement wither = d.withers().get(fieldName(field));
+      if (wither != null) {
+        flyweight.addMethod(MethodSpec.methodBuilder(wither.getSimpleName().toString())
+                                .addAnnotation(Override.class)
+                                .addModifiers(PUBLIC)
+                                .addParameter(fieldType(field), fieldName(field))
+                                .returns(valueType(d))
+                                .addStatement("return $T.from(this).$N($N).build()",
+                                              builderType(d), fieldName(field), fieldName(field))
+                                .build());
+      }
+    }
+
+    if (d.hasToBuilder()) {
+      flyweight.addMethod(MethodSpec.methodBuilder("builder")
+                              .addAnnotation(Override.class)
+                              .addModifiers(PUBLIC)
+                              .returns(builderType(d))
+                              .addStatement("return $T.from(this)", builderType(d))
+                              .build());
+    }
+
+    // The getters read each field from the buffer, without materializing a value.
+    final List<CodeBlock> values = Lists.newArrayList();
+    for (FieldDescriptor field : d.fields()) {
+      values.add(code("$N()", fieldName(field)));
+    }
+    flyweight.addMethod(viewEquals(d, values));
+    flyweight.addMethod(viewHashCode(d, values));
+    flyweight.addMethod(toString(d, values));
+
+    return flyweight.build();
+  }
+
+  private TypeSpec codec(final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
+
+    final Set<String> fieldNames = fieldNames(d);
+    final String value = variableName("value", fieldNames);
+    final String out = variableName("out", fieldNames);
+    final String in = variableName("in", fieldNames);
+    final String builder = variableName("builder", fieldNames);
+    final String presence = variableName("presence", fieldNames);
+
+    final ClassName output = ClassName.get(d.packageName(), d.codecName(), "Output");
+    final ClassName bufferOutput = ClassName.get(d.packageName(), d.codecName(), "BufferOutput");
+    final ClassName streamOutput = ClassName.get(d.packageName(), d.codecName(), "StreamOutput");
+    final ClassName input = ClassName.get(d.packageName(), d.codecName(), "Input");
+    final ClassName bufferInput = ClassName.get(d.packageName(), d.codecName(), "BufferInput");
+    final ClassName streamInput = ClassName.get(d.packageName(), d.codecName(), "StreamInput");
+    final ClassName byteBuffer = ClassName.get(ByteBuffer.class);
+    final ClassName ioException = ClassName.get(IOException.class);
+
+    // One presence bit for each @Nullable field and one for each Optional field.
+    final Map<FieldDescriptor, Integer> nullBits = Maps.newHashMap();
+    final Map<FieldDescriptor, Integer> optionalBits = Maps.newHashMap();
+    int bits = 0;
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isNullable()) {
+        nullBits.put(field, bits++);
+      }
+      if (field.isOptional()) {
+        optionalBits.put(field, bits++);
+      }
+      if (bits > 64) {
+        throw fail("@AutoMatter(codec = true) supports at most 64 @Nullable and Optional fields", field.element());
+      }
+    }
+
+    TypeSpec.Builder codec = TypeSpec.classBuilder(d.codecName())
+        .addOriginatingElement(d.element())
+        .addJavadoc("Encodes {@link $T} values to and decodes them from a compact binary format.\n", valueType(d))
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation);
+
+    if (d.isPublic()) {
+      codec.addModifiers(PUBLIC);
+    }
+
+    codec.addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(PRIVATE)
+                        .build());
+
+    codec.addMethod(MethodSpec.methodBuilder("writeTo")
+                        .addJavadoc("Writes {@code value} at the position of {@code buffer}. If the buffer does not have"
+                                    + " enough space\nremaining, a {@link $T} is thrown and the position of the buffer"
+                                    + " is left unchanged.\n", ClassName.get(BufferOverflowException.class))
+                        .addModifiers(PUBLIC, STATIC)
+                        .addParameter(valueType(d), "value")
+                        .addParameter(byteBuffer, "buffer")
+                        .addStatement("final int position = buffer.position()")
+                        .beginControlFlow("try")
+                        .addStatement("write(value, new $T(buffer))", bufferOutput)
+                        .addCode("$<} catch ($T e) {\n$>", ClassName.get(BufferOverflowException.class))
+                        .addStatement("buffer.position(position)")
+                        .addStatement("throw e")
+                        .nextControlFlow("catch (IOException e)")
+                        .addStatement("throw new $T(e)", ClassName.get(AssertionError.class))
+                        .endControlFlow()
+                        .build());
+
+    codec.addMethod(MethodSpec.methodBuilder("writeTo")
+                        .addJavadoc("Writes {@code value} to {@code stream}. Wrap unbuffered streams in a {@link $T}.\n",
+                                    ClassName.get(BufferedOutputStream.class))
+                        .addModifiers(PUBLIC, STATIC)
+                        .addParameter(valueType(d), "value")
+                        .addParameter(ClassName.get(OutputStream.class), "stream")
+                        .addException(ioException)
+                        .addStatement("write(value, new $T(stream))", streamOutput)
+                        .build());
+
+    codec.addMethod(MethodSpec.methodBuilder("readFrom")
+                        .addJavadoc("Reads a value at the position of {@code buffer}. Throws an {@link $T} if the buffer"
+                                    + " ends before\nthe value does, and an {@link IOException} if it does not hold a"
+                                    + " valid value.\n", ClassName.get(EOFException.class))
+                        .addModifiers(PUBLIC, STATIC)
+                        .addParameter(byteBuffer, "buffer")
+                        .returns(valueType(d))
+                        .addException(ioException)
+                        .addStatement("return read(new $T(buffer))", bufferInput)
+                        .build());
+
+    codec.addMethod(MethodSpec.methodBuilder("readFrom")
+                        .addJavadoc("Reads a value from {@code stream}, consuming exactly the bytes of the value. Wrap"
+                                    + " unbuffered\nstreams in a {@link $T}. Throws an {@link $T} if the stream ends"
+                                    + " before the value\ndoes, and an {@link IOException} if it does not hold a valid"
+                                    + " value.\n", ClassName.get(BufferedInputStream.class),
+                                    ClassName.get(EOFException.class))
+                        .addModifiers(PUBLIC, STATIC)
+                        .addParameter(ClassName.get(InputStream.class), "stream")
+                        .returns(valueType(d))
+                        .addException(ioException)
+                        .addStatement("return read(new $T(stream))", streamInput)
+                        .build());
+
+    MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(valueType(d), value)
+        .addParameter(output, out)
+        .addException(ioException);
+    for (FieldDescriptor field : d.fields()) {
+      if (nullBits.containsKey(field) || optionalBits.containsKey(field)) {
+        write.addStatement("final $T $N = $N.$N()", fieldType(field), fieldName(field), value, fieldName(field));
+      }
+    }
+    if (bits > 0) {
+      write.addStatement("long $N = 0", presence);
+      for (FieldDescriptor field : d.fields()) {
+        final String name = fieldName(field);
+        if (nullBits.containsKey(field)) {
+          write.beginControlFlow("if ($N != null)", name)
+              .addStatement("$N |= 1L << $L", presence, nullBits.get(field))
+              .endControlFlow();
+        }
+        if (optionalBits.containsKey(field)) {
+          if (nullBits.containsKey(field)) {
+            write.beginControlFlow("if ($N != null && $N.isPresent())", name, name);
+          } else {
+            write.beginControlFlow("if ($N.isPresent())", name);
+          }
+          write.addStatement("$N |= 1L << $L", presence, optionalBits.get(field))
+              .endControlFlow();
+        }
+      }
+      write.addStatement("$N.writeVarint($N)", out, presence);
+    }
+    for (FieldDescriptor field : d.fields()) {
+      final String name = fieldName(field);
+      final CodeBlock.Builder code = CodeBlock.builder();
+      if (optionalBits.containsKey(field)) {
+        code.beginControlFlow("if (($N & 1L << $L) != 0)", presence, optionalBits.get(field));
+        codecWrite(code, optionalArgument(field), name + ".get()", out, fieldNames, 0, field);
+        code.endControlFlow();
+      } else if (nullBits.containsKey(field)) {
+        code.beginControlFlow("if ($N != null)", name);
+        codecWrite(code, field.type(), name, out, fieldNames, 0, field);
+        code.endControlFlow();
+      } else {
+        codecWrite(code, field.type(), value + "." + name + "()", out, fieldNames, 0, field);
+      }
+      write.addCode(code.build());
+    }
+    codec.addMethod(write.build());
+
+    MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+        .addModifiers(PRIVATE, STATIC)
+        .addParameter(input, in)
+        .returns(valueType(d))
+        .addException(ioException);
+    if (bits > 0) {
+      read.addStatement("final long $N = $N.readVarint()", presence, in);
+    }
+    final Set<String> readScope = ImmutableSet.of(in, builder, presence);
+    read.addStatement("final $T $N = new $T()", builderType(d), builder, builderType(d));
+    for (FieldDescriptor field : d.fields()) {
+      final String name = fieldName(field);
+      final CodeBlock.Builder code = CodeBlock.builder();
+      if (optionalBits.containsKey(field)) {
+        final ClassName optional = field.optionalType();
+        if (nullBits.containsKey(field)) {
+          code.beginControlFlow("if (($N & 1L << $L) != 0)", presence, nullBits.get(field));
+        }
+        code.beginControlFlow("if (($N & 1L << $L) != 0)", presence, optionalBits.get(field));
+        final CodeBlock element = codecRead(code, optionalArgument(field), in, readScope, new int[1], field);
+        code.addStatement("$N.$N($T.of($L))", builder, name, optional, element);
+        if (nullBits.containsKey(field)) {
+          code.nextControlFlow("else")
+              .addStatement("$N.$N($T.<$T>$L())", builder, name, optional, TypeName.get(optionalArgument(field)),
+                            optionalEmptyName(field))
+              .endControlFlow();
+        }
+        code.endControlFlow();
+      } else if (nullBits.containsKey(field)) {
+        code.beginControlFlow("if (($N & 1L << $L) != 0)", presence, nullBits.get(field));
+        if (codecReadsDirectly(field)) {
+          codecCollectionRead(code, field, in, readScope, builder);
+        } else {
+          final CodeBlock element = codecRead(code, field.type(), in, readScope, new int[1], field);
+          code.addStatement("$N.$N($L)", builder, name, element);
+        }
+        code.endControlFlow();
+      } else if (codecReadsDirectly(field)) {
+        codecCollectionRead(code, field, in, readScope, builder);
+      } else {
+        final CodeBlock element = codecRead(code, field.type(), in, readScope, new int[1], field);
+        code.addStatement("$N.$N($L)", builder, name, element);
+      }
+      read.addCode(code.build());
+    }
+    codec.addMethod(read.addStatement("return $N.build()", builder).build());
+
+    codec.addType(codecOutput());
+    codec.addType(codecBufferOutput(output));
+    codec.addType(codecStreamOutput(output));
+    codec.addType(codecInput());
+    codec.addType(codecBufferInput(input));
+    codec.addType(codecStreamInput(input));
+
+    return codec.build();
+  }
+
+  private TypeSpec jsonSerializer(final Element element, final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
+
+    checkJacksonAnnotations(element, d);
+
+    final ClassName serializedString = ClassName.get("com.fasterxml.jackson.core.io", "SerializedString");
+    final ClassName jsonGenerator = ClassName.get("com.fasterxml.jackson.core", "JsonGenerator");
+    final ClassName serializerProvider = ClassName.get("com.fasterxml.jackson.databind", "SerializerProvider");
+    final ClassName stdSerializer = ClassName.get("com.fasterxml.jackson.databind.ser.std", "StdSerializer");
+
+    TypeSpec.Builder serializer = TypeSpec.classBuilder(d.jsonSerializerName())
+        .addOriginatingElement(d.element())
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation)
+        .superclass(ParameterizedTypeName.get(stdSerializer, valueType(d)));
+
+    if (d.isPublic()) {
+      serializer.addModifiers(PUBLIC);
+    }
+
+    // Property names are encoded once, up front.
+    final Map<FieldDescriptor, String> names = Maps.newHashMap();
+    final Set<String> constants = Sets.newHashSet();
+    for (FieldDescriptor field : d.fields()) {
+      final String name = variableName(CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, fieldName(field)),
+                                       constants);
+      constants.add(name);
+      names.put(field, name);
+      serializer.addField(FieldSpec.builder(serializedString, name, PRIVATE, STATIC, FINAL)
+                              .initializer("new $T($S)", serializedString, jsonName(field))
+                              .build());
+    }
+
+    serializer.addMethod(MethodSpec.constructorBuilder()
+                             .addModifiers(PUBLIC)
+                             .addStatement("super($T.class)", valueType(d))
+                             .build());
+
+    final Set<String> fieldNames = fieldNames(d);
+    final String value = variableName("value", fieldNames);
+    final String generator = variableName("generator", fieldNames);
+    final String provider = variableName("provider", fieldNames);
+
+    MethodSpec.Builder serialize = MethodSpec.methodBuilder("serialize")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(valueType(d), value)
+        .addParameter(jsonGenerator, generator)
+        .addParameter(serializerProvider, provider)
+        .addException(IOException.class)
+        .addStatement("$N.writeStartObject()", generator);
+    for (FieldDescriptor field : d.fields()) {
+      serialize.addStatement("$N.writeFieldName($N)", generator, names.get(field));
+      final String getter = value + "." + fieldName(field) + "()";
+      switch (field.type().getKind()) {
+        case BOOLEAN:
+          serialize.addStatement("$N.writeBoolean($L)", generator, getter);
+          break;
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          serialize.addStatement("$N.writeNumber($L)", generator, getter);
+          break;
+        default:
+          if (field.type().toString().equals("java.lang.String")) {
+            serialize.addStatement("final String $N = $L", fieldName(field), getter)
+                .beginControlFlow("if ($N == null)", fieldName(field))
+                .addStatement("$N.writeNull()", generator)
+                .nextControlFlow("else")
+                .addStatement("$N.writeString($N)", generator, fieldName(field))
+                .endControlFlow();
+          } else {
+            serialize.addStatement("$N.defaultSerializeValue($L, $N)", provider, getter, generator);
+          }
+      }
+    }
+    serializer.addMethod(serialize.addStatement("$N.writeEndObject()", generator).build());
+
+    return serializer.build();
+  }
+
+  private TypeSpec jsonDeserializer(final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
+
+    final ClassName jsonParser = ClassName.get("com.fasterxml.jackson.core", "JsonParser");
+    final ClassName jsonToken = ClassName.get("com.fasterxml.jackson.core", "JsonToken");
+    final ClassName typeReference = ClassName.get("com.fasterxml.jackson.core.type", "TypeReference");
+    final ClassName deserializationContext = ClassName.get("com.fasterxml.jackson.databind", "DeserializationContext");
+    final ClassName jsonDeserializer = ClassName.get("com.fasterxml.jackson.databind", "JsonDeserializer");
+    final ClassName keyDeserializer = ClassName.get("com.fasterxml.jackson.databind", "KeyDeserializer");
+    final ClassName jsonMappingException = ClassName.get("com.fasterxml.jackson.databind", "JsonMappingException");
+    final ClassName resolvableDeserializer = ClassName.get("com.fasterxml.jackson.databind.deser",
+                                                           "ResolvableDeserializer");
+    final ClassName stdDeserializer = ClassName.get("com.fasterxml.jackson.databind.deser.std", "StdDeserializer");
+    final TypeName objectDeserializer = ParameterizedTypeName.get(jsonDeserializer, ClassName.get(Object.class));
+
+    final Set<String> fieldNames = fieldNames(d);
+    final String parser = variableName("parser", fieldNames);
+    final String context = variableName("context", fieldNames);
+    final String token = variableName("token", fieldNames);
+    final String name = variableName("name", fieldNames);
+    final String builder = variableName("builder", fieldNames);
+
+    TypeSpec.Builder deserializer = TypeSpec.classBuilder(d.jsonDeserializerName())
+        .addOriginatingElement(d.element())
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation)
+        .superclass(ParameterizedTypeName.get(stdDeserializer, valueType(d)))
+        .addSuperinterface(resolvableDeserializer);
+
+    if (d.isPublic()) {
+      deserializer.addModifiers(PUBLIC);
+    }
+
+    // Jackson resolves deserializers for field and element types that are not read directly.
+    MethodSpec.Builder resolve = MethodSpec.methodBuilder("resolve")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(deserializationContext, "context")
+        .addException(jsonMappingException);
+    for (FieldDescriptor field : d.fields()) {
+      final List<TypeMirror> types = Lists.newArrayList();
+      if (field.isCollection()) {
+        types.add(field.typeArguments().get(0));
+      } else if (field.isMap()) {
+        final TypeMirror keyType = field.typeArguments().get(0);
+        if (!codecDeclaredName(keyType).equals("java.lang.String")) {
+          final String keyDeserializerName = fieldName(field) + "KeyDeserializer";
+          deserializer.addField(keyDeserializer, keyDeserializerName, PRIVATE);
+          resolve.addStatement("this.$N = context.findKeyDeserializer(context.getTypeFactory().constructType(" +
+                               "new $T<$T>() {}), null)", keyDeserializerName, typeReference, TypeName.get(keyType));
+        }
+        types.add(field.typeArguments().get(1));
+      } else {
+        types.add(field.type());
+      }
+      for (TypeMirror type : types) {
+        if (jsonScalarRead(type, parser, context, token) == null) {
+          final String deserializerName = fieldName(field) + "Deserializer";
+          deserializer.addField(objectDeserializer, deserializerName, PRIVATE);
+          resolve.addStatement("this.$N = context.findRootValueDeserializer(context.getTypeFactory().constructType(" +
+                               "new $T<$T>() {}))", deserializerName, typeReference, jsonBoxedTypeName(type));
+        }
+      }
+    }
+
+    deserializer.addMethod(MethodSpec.constructorBuilder()
+                               .addModifiers(PUBLIC)
+                               .addStatement("super($T.class)", valueType(d))
+                               .build());
+
+    deserializer.addMethod(resolve.build());
+
+    MethodSpec.Builder deserialize = MethodSpec.methodBuilder("deserialize")
+        .addAnnotation(Override.class)
+        .addAnnotation(suppressUncheckedWarnings())
+        .addModifiers(PUBLIC)
+        .addParameter(jsonParser, parser)
+        .addParameter(deserializationContext, context)
+        .returns(valueType(d))
+        .addException(IOException.class)
+        .addStatement("$T $N = $N.getCurrentToken()", jsonToken, token, parser)
+        .beginControlFlow("if ($N == $T.START_OBJECT)", token, jsonToken)
+        .addStatement("$N = $N.nextToken()", token, parser)
+        .endControlFlow()
+        .beginControlFlow("if ($N != $T.FIELD_NAME && $N != $T.END_OBJECT)", token, jsonToken, token, jsonToken)
+        .addStatement("throw $N.mappingException($T.class, $N)", context, valueType(d), token)
+        .endControlFlow()
+        .addStatement("final $T $N = new $T()", builderType(d), builder, builderType(d))
+        .beginControlFlow("for (; $N == $T.FIELD_NAME; $N = $N.nextToken())", token, jsonToken, token, parser)
+        .addStatement("final String $N = $N.getCurrentName()", name, parser)
+        .addStatement("$N = $N.nextToken()", token, parser)
+        .beginControlFlow("switch ($N)", name);
+    for (FieldDescriptor field : d.fields()) {
+      final CodeBlock.Builder code = CodeBlock.builder()
+          .add("case $S:\n", jsonName(field))
+          .indent();
+      if (field.isCollection() || field.isMap()) {
+        jsonCollectionRead(code, field, fieldNames, parser, context, token, builder, jsonToken);
+      } else {
+        CodeBlock read = jsonRead(field.type(), fieldName(field) + "Deserializer", parser, context, token, jsonToken);
+        if (!field.isNullable() && jsonNullable(field.type(), parser, context, token)) {
+          read = jsonRequired(read, field, context);
+        }
+        code.addStatement("$N.$N($L)", builder, fieldName(field), read);
+      }
+      deserialize.addCode(code.addStatement("break").unindent().build());
+    }
+    deserialize.addCode(CodeBlock.builder()
+                            .add("default:\n")
+                            .indent()
+                            .addStatement("handleUnknownProperty($N, $N, $T.class, $N)", parser, context,
+                                          valueType(d), name)
+                            .unindent()
+                            .build())
+        .endControlFlow()
+        .endControlFlow();
+    // Check required fields explicitly instead of letting build() throw, so that the error names the property.
+    for (FieldDescriptor field : d.fields()) {
+      if (shouldEnforceNonNull(field) && !field.isCollection() && !field.isMap()) {
+        deserialize.beginControlFlow("if ($N.$N() == null)", builder, fieldName(field))
+            .addStatement("throw $N.mappingException($S)", context,
+                          "Missing required property '" + jsonName(field) + "' of " + d.valueTypeName())
+            .endControlFlow();
+      }
+    }
+    deserialize.addStatement("return $N.build()", builder);
+    deserializer.addMethod(deserialize.build());
+
+    final TypeVariableName t = TypeVariableName.get("T");
+    deserializer.addMethod(MethodSpec.methodBuilder("required")
+                               .addModifiers(PRIVATE, STATIC)
+                               .addTypeVariable(t)
+                               .returns(t)
+                               .addParameter(t, "value")
+                               .addParameter(deserializationContext, "context")
+                               .addParameter(String.class, "property")
+                               .addException(jsonMappingException)
+                               .beginControlFlow("if (value == null)")
+                               .addStatement("throw context.mappingException($S + property + $S)",
+                                             "Null value for required property '", "' of " + d.valueTypeName())
+                               .endControlFlow()
+                               .addStatement("return value")
+                               .build());
+
+    return deserializer.build();
+  }
+
+  private void jsonCollectionRead(final CodeBlock.Builder code, final FieldDescriptor field,
+                                  final Set<String> fieldNames, final String parser, final String context,
+                                  final String token, final String builder, final ClassName jsonToken) throws AutoMatterProcessorException {
+    final String fieldName = fieldName(field);
+    final List<? extends TypeMirror> arguments = field.typeArguments();
+    final TypeMirror elementType = arguments.get(arguments.size() - 1);
+    final CodeBlock read = jsonRead(elementType, fieldName + "Deserializer", parser, context, token, jsonToken);
+    final CodeBlock element = shouldEnforceNonNull(field) ? jsonRequired(read, field, context) : read;
+    final String singular = field.singular();
+    final String key = variableName("key", fieldNames);
+    // Add elements to the builder directly, if possible. Otherwise collect them and set them at the end.
+    final boolean direct = singular != null && !singular.isEmpty() && shouldEnforceNonNull(field);
+
+    code.beginControlFlow("if ($N == $T.VALUE_NULL)", token, jsonToken);
+    if (field.isNullable()) {
+      code.addStatement("$N.$N(($T) null)", builder, fieldName, fieldType(field));
+    }
+    code.addStatement("break")
+        .endControlFlow();
+
+    if (field.isMap()) {
+      final TypeMirror keyType = arguments.get(0);
+      final CodeBlock keyRead = codecDeclaredName(keyType).equals("java.lang.String")
+          ? CodeBlock.builder().add("$N.getCurrentName()", parser).build()
+          : jsonRequired(CodeBlock.builder().add("($T) $NKeyDeserializer.deserializeKey($N.getCurrentName(), $N)",
+                                                 TypeName.get(keyType), fieldName, parser, context).build(),
+                         field, context);
+      code.beginControlFlow("if ($N != $T.START_OBJECT)", token, jsonToken)
+          .addStatement("throw $N.mappingException($T.class, $N)", context, ClassName.get(Map.class), token)
+          .endControlFlow();
+      if (!direct) {
+        code.addStatement("final $T $N = new $T()", fieldType(field), fieldName, collectionImplType(field));
+      }
+      code.beginControlFlow("for ($N = $N.nextToken(); $N == $T.FIELD_NAME; $N = $N.nextToken())",
+                            token, parser, token, jsonToken, token, parser)
+          .addStatement("final $T $N = $L", TypeName.get(keyType), key, keyRead)
+          .addStatement("$N = $N.nextToken()", token, parser);
+      if (direct) {
+        code.addStatement("$N.put$L($N, $L)", builder, capitalizeFirstLetter(singular), key, element);
+      } else {
+        code.addStatement("$N.put($N, $L)", fieldName, key, element);
+      }
+      code.endControlFlow();
+    } else {
+      code.beginControlFlow("if ($N != $T.START_ARRAY)", token, jsonToken)
+          .addStatement("throw $N.mappingException($T.class, $N)", context, collectionRawType(field), token)
+          .endControlFlow();
+      if (!direct) {
+        code.addStatement("final $T $N = new $T()", fieldType(field), fieldName, collectionImplType(field));
+      }
+      code.beginControlFlow("while (($N = $N.nextToken()) != $T.END_ARRAY)", token, parser, jsonToken);
+      if (direct) {
+        code.addStatement("$N.add$L($L)", builder, capitalizeFirstLetter(singular), element);
+      } else {
+        code.addStatement("$N.add($L)", fieldName, element);
+      }
+      code.endControlFlow();
+    }
+
+    if (!direct) {
+      code.addStatement("$N.$N($N)", builder, fieldName, fieldName);
+    }
+  }
+
+  /**
+   * Whether reading a value of {@code type} can produce null, i.e. it is not read as a Java primitive.
+   */
+  private boolean jsonNullable(final TypeMirror type, final String parser, final String context,
+                               final String token) {
+    return !type.getKind().isPrimitive()
+           || type.getKind() == TypeKind.BYTE
+           || jsonScalarRead(type, parser, context, token) == null;
+  }
+
+  private CodeBlock jsonRequired(final CodeBlock read, final FieldDescriptor field, final String context) {
+    return CodeBlock.builder().add("required($L, $N, $S)", read, context, jsonName(field)).build();
+  }
+
+  private CodeBlock jsonRead(final TypeMirror type, final String deserializer, final String parser,
+                             final String context, final String token, final ClassName jsonToken) {
+    final CodeBlock scalar = jsonScalarRead(type, parser, context, token);
+    if (scalar != null) {
+      return scalar;
+    }
+    return CodeBlock.builder()
+        .add("($T) ($N == $T.VALUE_NULL ? $N.getNullValue() : $N.deserialize($N, $N))",
+             jsonBoxedTypeName(type), token, jsonToken, deserializer, deserializer, parser, context)
+        .build();
+  }
+
+  private CodeBlock jsonScalarRead(final TypeMirror type, final String parser, final String context,
+                                   final String token) {
+    final String method;
+    switch (type.getKind()) {
+      case BOOLEAN:
+        method = "_parseBooleanPrimitive";
+        break;
+      case BYTE:
+        method = "_parseByte";
+        break;
+      case SHORT:
+        method = "_parseShortPrimitive";
+        break;
+      case INT:
+        method = "_parseIntPrimitive";
+        break;
+      case LONG:
+        method = "_parseLongPrimitive";
+        break;
+      case FLOAT:
+        method = "_parseFloatPrimitive";
+        break;
+      case DOUBLE:
+        method = "_parseDoublePrimitive";
+        break;
+      case DECLARED:
+        switch (codecDeclaredName(type)) {
+          case "java.lang.String":
+            return CodeBlock.builder()
+                .add("$N == $T.VALUE_NULL ? null : _parseString($N, $N)",
+                     token, ClassName.get("com.fasterxml.jackson.core", "JsonToken"), parser, context)
+                .build();
+          case "java.lang.Boolean":
+            method = "_parseBoolean";
+            break;
+          case "java.lang.Byte":
+            method = "_parseByte";
+            break;
+          case "java.lang.Short":
+            method = "_parseShort";
+            break;
+          case "java.lang.Integer":
+            method = "_parseInteger";
+            break;
+          case "java.lang.Long":
+            method = "_parseLong";
+            break;
+          case "java.lang.Float":
+            method = "_parseFloat";
+            break;
+          case "java.lang.Double":
+            method = "_parseDouble";
+            break;
+          default:
+            return null;
+        }
+        break;
+      default:
+        return null;
+    }
+    return CodeBlock.builder().add("$L($N, $N)", method, parser, context).build();
+  }
+
+  private TypeName jsonBoxedTypeName(final TypeMirror type) {
+    if (type.getKind() == TypeKind.CHAR) {
+      return ClassName.get(Character.class);
+    }
+    return TypeName.get(type);
+  }
+
+  private void checkJacksonAnnotations(final Element element, final Descriptor d) throws AutoMatterProcessorException {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (isJacksonAnnotation(annotation)) {
+        throw fail("@AutoMatter(jackson = true) does not support @" +
+                   annotation.getAnnotationType().asElement().getSimpleName(), element);
+      }
+    }
+    for (FieldDescriptor field : d.fields()) {
+      for (AnnotationMirror annotation : field.element().getAnnotationMirrors()) {
+        if (isJacksonAnnotation(annotation) && !isJsonProperty(annotation)) {
+          throw fail("@AutoMatter(jackson = true) does not support @" +
+                     annotation.getAnnotationType().asElement().getSimpleName(), field.element());
+        }
+      }
+    }
+  }
+
+  private boolean isJacksonAnnotation(final AnnotationMirror annotation) {
+    return annotation.getAnnotationType().toString().startsWith("com.fasterxml.jackson.");
+  }
+
+  private boolean isJsonProperty(final AnnotationMirror annotation) {
+    return annotation.getAnnotationType().toString().equals("com.fasterxml.jackson.annotation.JsonProperty");
+  }
+
+  private String jsonName(final FieldDescriptor field) {
+    for (AnnotationMirror annotation : field.element().getAnnotationMirrors()) {
+      if (!isJsonProperty(annotation)) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          annotation.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("value")) {
+          final String name = (String) entry.getValue().getValue();
+          if (!name.isEmpty()) {
+            return name;
+          }
+        }
+      }
+    }
+    return fieldName(field);
+  }
+
+  private TypeSpec typeAdapter(final Descriptor d) throws AutoMatterProcessorException {
+    AnnotationSpec generatedAnnotation = AnnotationSpec.builder(Generated.class)
+        .addMember("value", "$S", AutoMatterProcessor.class.getName())
+        .build();
+
+    final ClassName gson = ClassName.get("com.google.gson", "Gson");
+    final ClassName jsonSyntaxException = ClassName.get("com.google.gson", "JsonSyntaxException");
+    final ClassName typeAdapter = ClassName.get("com.google.gson", "TypeAdapter");
+    final ClassName typeToken = ClassName.get("com.google.gson.reflect", "TypeToken");
+    final ClassName jsonReader = ClassName.get("com.google.gson.stream", "JsonReader");
+    final ClassName jsonToken = ClassName.get("com.google.gson.stream", "JsonToken");
+    final ClassName jsonWriter = ClassName.get("com.google.gson.stream", "JsonWriter");
+
+    final Set<String> fieldNames = fieldNames(d);
+    final String in = variableName("in", fieldNames);
+    final String out = variableName("out", fieldNames);
+    final String value = variableName("value", fieldNames);
+    final String builder = variableName("builder", fieldNames);
+
+    TypeSpec.Builder adapter = TypeSpec.classBuilder(d.typeAdapterName())
+        .addOriginatingElement(d.element())
+        .addModifiers(FINAL)
+        .addAnnotation(generatedAnnotation)
+        .superclass(ParameterizedTypeName.get(typeAdapter, valueType(d)));
+
+    if (d.isPublic()) {
+      adapter.addModifiers(PUBLIC);
+    }
+
+    // Adapters for field and element types that are not read and written directly are looked up once.
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addParameter(gson, "gson");
+    for (FieldDescriptor field : d.fields()) {
+      final TypeMirror type;
+      if (field.isCollection()) {
+        type = field.typeArguments().get(0);
+      } else if (field.isMap() || !isGsonScalar(field.type())) {
+        type = field.type();
+      } else {
+        continue;
+      }
+      final TypeName typeName = jsonBoxedTypeName(type);
+      final String adapterName = fieldName(field) + "Adapter";
+      adapter.addField(ParameterizedTypeName.get(typeAdapter, typeName), adapterName, PRIVATE, FINAL);
+      if (typeName.toString().contains("<")) {
+        constructor.addStatement("this.$N = gson.getAdapter(new $T<$T>() {})", adapterName, typeToken, typeName);
+      } else {
+        constructor.addStatement("this.$N = gson.getAdapter($T.class)", adapterName, typeName);
+      }
+    }
+    adapter.addMethod(constructor.build());
+
+    MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(jsonWriter, out)
+        .addParameter(valueType(d), value)
+        .addException(IOException.class)
+        .beginControlFlow("if ($N == null)", value)
+        .addStatement("$N.nullValue()", out)
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("$N.beginObject()", out);
+    for (FieldDescriptor field : d.fields()) {
+      final String fieldName = fieldName(field);
+      final String adapterName = fieldName + "Adapter";
+      write.addStatement("$N.name($S)", out, fieldName);
+      if (field.isCollection()) {
+        final TypeMirror elementType = field.typeArguments().get(0);
+        final String element = variableName("element", fieldNames);
+        if (field.isNullable()) {
+          write.addStatement("final $T $N = $N.$N()", fieldType(field), fieldName, value, fieldName)
+              .beginControlFlow("if ($N == null)", fieldName)
+              .addStatement("$N.nullValue()", out)
+              .nextControlFlow("else");
+        }
+        write.addStatement("$N.beginArray()", out)
+            .beginControlFlow("for ($T $N : $L)", TypeName.get(elementType), element,
+                              field.isNullable() ? fieldName : value + "." + fieldName + "()")
+            .addStatement("$N.write($N, $N)", adapterName, out, element)
+            .endControlFlow()
+            .addStatement("$N.endArray()", out);
+        if (field.isNullable()) {
+          write.endControlFlow();
+        }
+      } else if (field.isMap() || !isGsonScalar(field.type())) {
+        write.addStatement("$N.write($N, $N.$N())", adapterName, out, value, fieldName);
+      } else {
+        write.addStatement("$N.value($N.$N())", out, value, fieldName);
+      }
+    }
+    adapter.addMethod(write.addStatement("$N.endObject()", out).build());
+
+    MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(jsonReader, in)
+        .returns(valueType(d))
+        .addException(IOException.class)
+        .beginControlFlow("if ($N.peek() == $T.NULL)", in, jsonToken)
+        .addStatement("$N.nextNull()", in)
+        .addStatement("return null")
+        .endControlFlow()
+        .addStatement("final $T $N = new $T()", builderType(d), builder, builderType(d))
+        .addStatement("$N.beginObject()", in)
+        .beginControlFlow("while ($N.hasNext())", in)
+        .beginControlFlow("switch ($N.nextName())", in);
+    for (FieldDescriptor field : d.fields()) {
+      final CodeBlock.Builder code = CodeBlock.builder()
+          .add("case $S:\n", fieldName(field))
+          .indent();
+      gsonRead(code, d, field, in, builder, jsonToken, jsonSyntaxException);
+      read.addCode(code.addStatement("break").unindent().build());
+    }
+    read.addCode(CodeBlock.builder()
+                     .add("default:\n")
+                     .indent()
+                     .addStatement("$N.skipValue()", in)
+                     .unindent()
+                     .build())
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("$N.endObject()", in);
+    // Check required fields explicitly instead of letting build() throw, so that the error names the property.
+    for (FieldDescriptor field : d.fields()) {
+      if (shouldEnforceNonNull(field) && !field.isCollection() && !field.isMap()) {
+        read.beginControlFlow("if ($N.$N() == null)", builder, fieldName(field))
+            .addStatement("throw new $T($S)", jsonSyntaxException,
+                          "Missing required property '" + fieldName(field) + "' of " + d.valueTypeName())
+            .endControlFlow();
+      }
+    }
+    adapter.addMethod(read.addStatement("return $N.build()", builder).build());
+
+    final TypeVariableName t = TypeVariableName.get("T");
+    adapter.addMethod(MethodSpec.methodBuilder("required")
+                          .addModifiers(PRIVATE, STATIC)
+                          .addTypeVariable(t)
+                          .returns(t)
+                          .addParameter(t, "value")
+                          .addParameter(String.class, "property")
+                          .beginControlFlow("if (value == null)")
+                          .addStatement("throw new $T($S + property + $S)", jsonSyntaxException,
+                                        "Null value for required property '", "' of " + d.valueTypeName())
+                          .endControlFlow()
+                          .addStatement("return value")
+                          .build());
+
+    if (hasRequiredMap(d)) {
+      final TypeVariableName m = TypeVariableName.get(
+          "M", ParameterizedTypeName.get(ClassName.get(Map.class), WildcardTypeName.subtypeOf(Object.class),
+                                         WildcardTypeName.subtypeOf(Object.class)));
+      adapter.addMethod(MethodSpec.methodBuilder("requiredEntries")
+                            .addModifiers(PRIVATE, STATIC)
+                            .addTypeVariable(m)
+                            .returns(m)
+                            .addParameter(m, "map")
+                            .addParameter(String.class, "property")
+                            .beginControlFlow("for ($T<?, ?> entry : map.entrySet())",
+                                              ClassName.get(Map.Entry.class))
+                            .beginControlFlow("if (entry.getKey() == null || entry.getValue() == null)")
+                            .addStatement("throw new $T($S + property + $S)", jsonSyntaxException,
+                                          "Null entry for required property '", "' of " + d.valueTypeName())
+                            .endControlFlow()
+                            .endControlFlow()
+                            .addStatement("return map")
+                            .build());
+    }
+
+    // JsonReader throws NumberFormatException for malformed numbers, report them like the adapters of Gson.
+    for (TypeName number : gsonNumbers(d)) {
+      final String method = "next" + capitalizeFirstLetter(number.toString());
+      adapter.addMethod(MethodSpec.methodBuilder(method)
+                            .addModifiers(PRIVATE, STATIC)
+                            .returns(number)
+                            .addParameter(jsonReader, "in")
+                            .addException(IOException.class)
+                            .beginControlFlow("try")
+                            .addStatement("return in.$N()", method)
+                            .addCode("$<} catch ($T e) {\n$>", ClassName.get(NumberFormatException.class))
+                            .addStatement("throw new $T(e)", jsonSyntaxException)
+                            .endControlFlow()
+                            .build());
+    }
+
+    return adapter.build();
+  }
+
+  private boolean hasRequiredMap(final Descriptor d) {
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isMap() && shouldEnforceNonNull(field)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The types of the JsonReader methods that scalar fields of {@code d} are read with, i.e. int, long or double.
+   */
+  private Set<TypeName> gsonNumbers(final Descriptor d) {
+    final Set<TypeName> numbers = Sets.newLinkedHashSet();
+    for (TypeName number : ImmutableSet.of(TypeName.INT, TypeName.LONG, TypeName.DOUBLE)) {
+      for (FieldDescriptor field : d.fields()) {
+        if (!field.isCollection() && !field.isMap() && gsonNumber(field.type()) == number) {
+          numbers.add(number);
+        }
+      }
+    }
+    return numbers;
+  }
+
+  private TypeName gsonNumber(final TypeMirror type) {
+    switch (type.getKind()) {
+      case BYTE:
+      case SHORT:
+      case INT:
+        return TypeName.INT;
+      case LONG:
+        return TypeName.LONG;
+      case FLOAT:
+      case DOUBLE:
+        return TypeName.DOUBLE;
+      default:
+        return null;
+    }
+  }
+
+  private void gsonRead(final CodeBlock.Builder code, final Descriptor d, final FieldDescriptor field,
+                        final String in, final String builder, final ClassName jsonToken,
+                        final ClassName jsonSyntaxException) throws AutoMatterProcessorException {
+    final String fieldName = fieldName(field);
+    final String adapterName = fieldName + "Adapter";
+    final TypeMirror type = field.type();
+    final boolean required = shouldEnforceNonNull(field);
+
+    if (!field.isCollection() && !field.isMap() && !type.getKind().isPrimitive() && !isGsonScalar(type)) {
+      if (required) {
+        code.addStatement("$N.$N(required($N.read($N), $S))", builder, fieldName, adapterName, in, fieldName);
+      } else {
+        code.addStatement("$N.$N($N.read($N))", builder, fieldName, adapterName, in);
+      }
+      return;
+    }
+
+    // A null leaves primitives and non-null collections at their defaults, as reflection would.
+    code.beginControlFlow("if ($N.peek() == $T.NULL)", in, jsonToken)
+        .addStatement("$N.nextNull()", in);
+    if (required && !field.isCollection() && !field.isMap()) {
+      code.addStatement("throw new $T($S)", jsonSyntaxException,
+                        "Null value for required property '" + fieldName + "' of " + d.valueTypeName());
+    } else {
+      if (field.isNullable()) {
+        code.addStatement("$N.$N(($T) null)", builder, fieldName, fieldType(field));
+      }
+      code.addStatement("break");
+    }
+    code.endControlFlow();
+
+    if (field.isMap() && required) {
+      code.addStatement("$N.$N(requiredEntries($N.read($N), $S))", builder, fieldName, adapterName, in, fieldName);
+    } else if (field.isMap() || type.getKind() == TypeKind.CHAR) {
+      code.addStatement("$N.$N($N.read($N))", builder, fieldName, adapterName, in);
+    } else if (field.isCollection()) {
+      final String singular = field.singular();
+      // Add elements to the builder directly, if possible. Otherwise collect them and set them at the end.
+      final boolean direct = singular != null && !singular.isEmpty() && shouldEnforceNonNull(field);
+      if (!direct) {
+        code.addStatement("final $T $N = new $T()", fieldType(field), fieldName, collectionImplType(field));
+      }
+      code.addStatement("$N.beginArray()", in)
+          .beginControlFlow("while ($N.hasNext())", in);
+      final CodeBlock element = required
+          ? CodeBlock.builder().add("required($N.read($N), $S)", adapterName, in, fieldName).build()
+          : CodeBlock.builder().add("$N.read($N)", adapterName, in).build();
+      if (direct) {
+        code.addStatement("$N.add$L($L)", builder, capitalizeFirstLetter(singular), element);
+      } else {
+        code.addStatement("$N.add($L)", fieldName, element);
+      }
+      code.endControlFlow()
+          .addStatement("$N.endArray()", in);
+      if (!direct) {
+        code.addStatement("$N.$N($N)", builder, fieldName, fieldName);
+      }
+    } else {
+      code.addStatement("$N.$N($L)", builder, fieldName, gsonScalarRead(type, in));
+    }
+  }
+
+  private boolean isGsonScalar(final TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      case DECLARED:
+        return codecDeclaredName(type).equals("java.lang.String");
+      default:
+        return false;
+    }
+  }
+
+  private CodeBlock gsonScalarRead(final TypeMirror type, final String in) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return CodeBlock.builder().add("$N.nextBoolean()", in).build();
+      case BYTE:
+        return CodeBlock.builder().add("(byte) nextInt($N)", in).build();
+      case SHORT:
+        return CodeBlock.builder().add("(short) nextInt($N)", in).build();
+      case INT:
+        return CodeBlock.builder().add("nextInt($N)", in).build();
+      case LONG:
+        return CodeBlock.builder().add("nextLong($N)", in).build();
+      case FLOAT:
+        return CodeBlock.builder().add("(float) nextDouble($N)", in).build();
+      case DOUBLE:
+        return CodeBlock.builder().add("nextDouble($N)", in).build();
+      default:
+        return CodeBlock.builder().add("$N.nextString()", in).build();
+    }
+  }
+
+  private TypeMirror optionalArgument(final FieldDescriptor field) {
+    return field.typeArguments().get(0);
+  }
+
+  private void codecWrite(final CodeBlock.Builder code, final TypeMirror type, final String expr, final String out,
+                          final Set<String> scope, final int depth, final FieldDescriptor field)
+      throws AutoMatterProcessorException {
+    final TypeKind kind = codecScalarKind(type);
+    if (kind != null) {
+      switch (kind) {
+        case BOOLEAN:
+          code.addStatement("$N.writeByte($L ? 1 : 0)", out, expr);
+          return;
+        case BYTE:
+          code.addStatement("$N.writeByte($L)", out, expr);
+          return;
+        case SHORT:
+        case INT:
+        case LONG:
+          code.addStatement("$N.writeZigZag($L)", out, expr);
+          return;
+        case CHAR:
+          code.addStatement("$N.writeVarint($L)", out, expr);
+          return;
+        case FLOAT:
+          code.addStatement("$N.writeFixed32($T.floatToRawIntBits($L))", out, ClassName.get(Float.class), expr);
+          return;
+        case DOUBLE:
+          code.addStatement("$N.writeFixed64($T.doubleToRawLongBits($L))", out, ClassName.get(Double.class), expr);
+          return;
+        default:
+          throw new AssertionError(kind);
+      }
+    }
+
+    final String element = variableName("e" + depth, scope);
+    if (type.getKind() == ARRAY) {
+      final TypeMirror component = ((ArrayType) type).getComponentType();
+      if (component.getKind() == TypeKind.BYTE) {
+        code.addStatement("$N.writeBytes($L)", out, expr);
+        return;
+      }
+      code.addStatement("$N.writeVarint($L.length)", out, expr)
+          .beginControlFlow("for ($T $N : $L)", TypeName.get(component), element, expr);
+      codecWrite(code, component, element, out, scope, depth + 1, field);
+      code.endControlFlow();
+      return;
+    }
+
+    final String name = codecDeclaredName(type);
+    if (name.equals("java.lang.String")) {
+      code.addStatement("$N.writeString($L)", out, expr);
+    } else if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+      code.addStatement("$N.writeString($L.name())", out, expr);
+    } else if (name.equals("java.util.List") || name.equals("java.util.Set")) {
+      final TypeMirror elementType = ((DeclaredType) type).getTypeArguments().get(0);
+      code.addStatement("$N.writeVarint($L.size())", out, expr)
+          .beginControlFlow("for ($T $N : $L)", codecTypeName(elementType, field), element, expr);
+      codecWrite(code, elementType, element, out, scope, depth + 1, field);
+      code.endControlFlow();
+    } else if (name.equals("java.util.Map")) {
+      final TypeMirror keyType = ((DeclaredType) type).getTypeArguments().get(0);
+      final TypeMirror valueType = ((DeclaredType) type).getTypeArguments().get(1);
+      final TypeName entryType = ParameterizedTypeName.get(
+          ClassName.get(Map.Entry.class), codecTypeName(keyType, field), codecTypeName(valueType, field));
+      code.addStatement("$N.writeVarint($L.size())", out, expr)
+          .beginControlFlow("for ($T $N : $L.entrySet())", entryType, element, expr);
+      codecWrite(code, keyType, element + ".getKey()", out, scope, depth + 1, field);
+      codecWrite(code, valueType, element + ".getValue()", out, scope, depth + 1, field);
+      code.endControlFlow();
+    } else {
+      throw fail("@AutoMatter(codec = true) does not support type " + type, field.element());
+    }
+  }
+
+  private CodeBlock codecRead(final CodeBlock.Builder code, final TypeMirror type, final String in,
+                              final Set<String> scope, final int[] locals, final FieldDescriptor field)
+      throws AutoMatterProcessorException {
+    final TypeKind kind = codecScalarKind(type);
+    if (kind != null) {
+      switch (kind) {
+        case BOOLEAN:
+          return CodeBlock.builder().add("$N.readByte() != 0", in).build();
+        case BYTE:
+          return CodeBlock.builder().add("$N.readByte()", in).build();
+        case SHORT:
+          return CodeBlock.builder().add("(short) $N.readZigZag()", in).build();
+        case INT:
+          return CodeBlock.builder().add("(int) $N.readZigZag()", in).build();
+        case LONG:
+          return CodeBlock.builder().add("$N.readZigZag()", in).build();
+        case CHAR:
+          return CodeBlock.builder().add("(char) $N.readVarint()", in).build();
+        case FLOAT:
+          return CodeBlock.builder().add("$T.intBitsToFloat($N.readFixed32())", ClassName.get(Float.class), in).build();
+        case DOUBLE:
+          return CodeBlock.builder().add("$T.longBitsToDouble($N.readFixed64())", ClassName.get(Double.class), in)
+              .build();
+        default:
+          throw new AssertionError(kind);
+      }
+    }
+
+    final String name = codecDeclaredName(type);
+    if (type.getKind() == ARRAY && ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE) {
+      return CodeBlock.builder().add("$N.readBytes()", in).build();
+    } else if (name.equals("java.lang.String")) {
+      return CodeBlock.builder().add("$N.readString()", in).build();
+    } else if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+      return CodeBlock.builder().add("$N.readEnum($T.class)", in, TypeName.get(type)).build();
+    }
+
+    // Name locals after the field, e.g. tags, tagsSize, tagsIndex and tags1 for nested collections.
+    final int local = locals[0]++;
+    final String base = fieldName(field) + (local > 0 ? local : "");
+    final String size = variableName(base + "Size", scope);
+    final String index = variableName(base + "Index", scope);
+    final String result = variableName(base, scope);
+    if (type.getKind() == ARRAY) {
+      final TypeMirror component = ((ArrayType) type).getComponentType();
+      // new String[n][] for arrays of arrays
+      TypeName elementType = codecTypeName(component, field);
+      String dimensions = "";
+      while (elementType instanceof ArrayTypeName) {
+        elementType = ((ArrayTypeName) elementType).componentType;
+        dimensions += "[]";
+      }
+      code.addStatement("final int $N = $N.readLength()", size, in)
+          .addStatement("$T $N = new $T[$N.capacity($N)]$L", TypeName.get(type), result, elementType, in, size,
+                        dimensions)
+          .beginControlFlow("for (int $N = 0; $N < $N; $N++)", index, index, size, index)
+          .beginControlFlow("if ($N == $N.length)", index, result)
+          .addStatement("$N = $T.copyOf($N, $T.min($N, $N.length * 2))",
+                        result, ClassName.get(Arrays.class), result, ClassName.get(Math.class), size, result)
+          .endControlFlow();
+      final CodeBlock element = codecRead(code, component, in, scope, locals, field);
+      code.addStatement("$N[$N] = $L", result, index, element)
+          .endControlFlow();
+      return CodeBlock.builder().add("$N", result).build();
+    }
+
+    if (name.equals("java.util.List") || name.equals("java.util.Set")) {
+      final TypeMirror elementType = ((DeclaredType) type).getTypeArguments().get(0);
+      final TypeName elementTypeName = codecTypeName(elementType, field);
+      code.addStatement("final int $N = $N.readLength()", size, in);
+      if (name.equals("java.util.List")) {
+        code.addStatement("final $T $N = new $T($N.capacity($N))",
+                          ParameterizedTypeName.get(ClassName.get(List.class), elementTypeName), result,
+                          ParameterizedTypeName.get(ClassName.get(ArrayList.class), elementTypeName), in, size);
+      } else {
+        code.addStatement("final $T $N = new $T($T.max((int) ($N.capacity($N) / .75f) + 1, 16))",
+                          ParameterizedTypeName.get(ClassName.get(Set.class), elementTypeName), result,
+                          ParameterizedTypeName.get(ClassName.get(HashSet.class), elementTypeName),
+                          ClassName.get(Math.class), in, size);
+      }
+      code.beginControlFlow("for (int $N = 0; $N < $N; $N++)", index, index, size, index);
+      final CodeBlock element = codecRead(code, elementType, in, scope, locals, field);
+      code.addStatement("$N.add($L)", result, element)
+          .endControlFlow();
+      return CodeBlock.builder().add("$N", result).build();
+    } else if (name.equals("java.util.Map")) {
+      final TypeMirror keyType = ((DeclaredType) type).getTypeArguments().get(0);
+      final TypeMirror valueType = ((DeclaredType) type).getTypeArguments().get(1);
+      final TypeName keyTypeName = codecTypeName(keyType, field);
+      final TypeName valueTypeName = codecTypeName(valueType, field);
+      final String key = variableName(base + "Key", scope);
+      code.addStatement("final int $N = $N.readLength()", size, in)
+          .addStatement("final $T $N = new $T($T.max((int) ($N.capacity($N) / .75f) + 1, 16))",
+                        ParameterizedTypeName.get(ClassName.get(Map.class), keyTypeName, valueTypeName), result,
+                        ParameterizedTypeName.get(ClassName.get(HashMap.class), keyTypeName, valueTypeName),
+                        ClassName.get(Math.class), in, size)
+          .beginControlFlow("for (int $N = 0; $N < $N; $N++)", index, index, size, index);
+      // Read the key before any statements that read the value.
+      code.addStatement("final $T $N = $L", keyTypeName, key, codecRead(code, keyType, in, scope, locals, field));
+      final CodeBlock element = codecRead(code, valueType, in, scope, locals, field);
+      code.addStatement("$N.put($N, $L)", result, key, element)
+          .endControlFlow();
+      return CodeBlock.builder().add("$N", result).build();
+    } else {
+      throw fail("@AutoMatter(codec = true) does not support type " + type, field.element());
+    }
+  }
+
+  /**
+   * Whether the elements of a collection field can be read straight into the adders of its builder.
+   */
+  private boolean codecReadsDirectly(final FieldDescriptor field) {
+    final String singular = field.singular();
+    return (field.isCollection() || field.isMap()) && singular != null && !singular.isEmpty();
+  }
+
+  /**
+   * Reads a collection field into {@code builder}, reserving capacity and then adding each element. Also sets
+   * empty collections of @Nullable fields, as reserving capacity creates the collection.
+   */
+  private void codecCollectionRead(final CodeBlock.Builder code, final FieldDescriptor field, final String in,
+                                   final Set<String> scope, final String builder)
+      throws AutoMatterProcessorException {
+    final String name = fieldName(field);
+    final String singular = capitalizeFirstLetter(field.singular());
+    final List<? extends TypeMirror> arguments = field.typeArguments();
+    final String size = variableName(name + "Size", scope);
+    final String index = variableName(name + "Index", scope);
+    // Nested collections are named after the field, e.g. tags1.
+    final int[] locals = {1};
+    code.addStatement("final int $N = $N.readLength()", size, in)
+        .addStatement("$N.ensure$LCapacity($N.capacity($N))", builder, capitalizeFirstLetter(name), in, size)
+        .beginControlFlow("for (int $N = 0; $N < $N; $N++)", index, index, size, index);
+    if (field.isMap()) {
+      final TypeMirror keyType = arguments.get(0);
+      final String key = variableName(name + "Key", scope);
+      // Read the key before any statements that read the value.
+      code.addStatement("final $T $N = $L", codecTypeName(keyType, field), key,
+                        codecRead(code, keyType, in, scope, locals, field));
+      final CodeBlock value = codecRead(code, arguments.get(1), in, scope, locals, field);
+      code.addStatement("$N.put$L($N, $L)", builder, singular, key, value);
+    } else {
+      final CodeBlock element = codecRead(code, arguments.get(0), in, scope, locals, field);
+      code.addStatement("$N.add$L($L)", builder, singular, element);
+    }
+    code.endControlFlow();
+  }
+
+  private TypeKind codecScalarKind(final TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return type.getKind();
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    switch (codecDeclaredName(type)) {
+      case "java.lang.Boolean":
+        return TypeKind.BOOLEAN;
+      case "java.lang.Byte":
+        return TypeKind.BYTE;
+      case "java.lang.Short":
+        return TypeKind.SHORT;
+      case "java.lang.Character":
+        return TypeKind.CHAR;
+      case "java.lang.Integer":
+        return TypeKind.INT;
+      case "java.lang.Long":
+        return TypeKind.LONG;
+      case "java.lang.Float":
+        return TypeKind.FLOAT;
+      case "java.lang.Double":
+        return TypeKind.DOUBLE;
+      default:
+        return null;
+    }
+  }
+
+  private String codecDeclaredName(final TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return "";
+    }
+    return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+  }
+
+  private TypeName codecTypeName(final TypeMirror type, final FieldDescriptor field)
+      throws AutoMatterProcessorException {
+    if (type.getKind() != TypeKind.DECLARED && type.getKind() != ARRAY && !type.getKind().isPrimitive()) {
+      throw fail("@AutoMatter(codec = true) does not support type " + type, field.element());
+    }
+    return TypeName.get(type);
+  }
+
+  private TypeSpec codecOutput() {
+    // Writes directly to the target, encoding a value does not need a buffer of its own.
+    final ClassName ioException = ClassName.get(IOException.class);
+    final ClassName charsets = ClassName.get(StandardCharsets.class);
+    return TypeSpec.classBuilder("Output")
+        .addModifiers(PRIVATE, STATIC, ABSTRACT)
+        .addMethod(MethodSpec.methodBuilder("writeByte")
+                       .addModifiers(ABSTRACT)
+                       .addParameter(TypeName.INT, "b")
+                       .addException(ioException)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeFully")
+                       .addModifiers(ABSTRACT)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addException(ioException)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeVarint")
+                       .addParameter(TypeName.LONG, "v")
+                       .addException(ioException)
+                       .beginControlFlow("while ((v & ~0x7FL) != 0)")
+                       .addStatement("writeByte((int) ((v & 0x7F) | 0x80))")
+                       .addStatement("v >>>= 7")
+                       .endControlFlow()
+                       .addStatement("writeByte((int) v)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeZigZag")
+                       .addParameter(TypeName.LONG, "v")
+                       .addException(ioException)
+                       .addStatement("writeVarint((v << 1) ^ (v >> 63))")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeFixed32")
+                       .addParameter(TypeName.INT, "v")
+                       .addException(ioException)
+                       .beginControlFlow("for (int i = 0; i < 32; i += 8)")
+                       .addStatement("writeByte(v >>> i)")
+                       .endControlFlow()
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeFixed64")
+                       .addParameter(TypeName.LONG, "v")
+                       .addException(ioException)
+                       .beginControlFlow("for (int i = 0; i < 64; i += 8)")
+                       .addStatement("writeByte((int) (v >>> i))")
+                       .endControlFlow()
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeBytes")
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addException(ioException)
+                       .addStatement("writeVarint(b.length)")
+                       .addStatement("writeFully(b)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeString")
+                       .addParameter(ClassName.get(String.class), "s")
+                       .addException(ioException)
+                       .addStatement("writeBytes(s.getBytes($T.UTF_8))", charsets)
+                       .build())
+        .build();
+  }
+
+  private TypeSpec codecBufferOutput(final ClassName output) {
+    final ClassName byteBuffer = ClassName.get(ByteBuffer.class);
+    return TypeSpec.classBuilder("BufferOutput")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(output)
+        .addField(byteBuffer, "buffer", PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+                       .addModifiers(PRIVATE)
+                       .addParameter(byteBuffer, "buffer")
+                       .addStatement("this.buffer = buffer")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeByte")
+                       .addAnnotation(Override.class)
+                       .addParameter(TypeName.INT, "b")
+                       .addStatement("buffer.put((byte) b)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeFully")
+                       .addAnnotation(Override.class)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addStatement("buffer.put(b)")
+                       .build())
+        .build();
+  }
+
+  private TypeSpec codecStreamOutput(final ClassName output) {
+    final ClassName ioException = ClassName.get(IOException.class);
+    final ClassName outputStream = ClassName.get(OutputStream.class);
+    return TypeSpec.classBuilder("StreamOutput")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(output)
+        .addField(outputStream, "stream", PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+                       .addModifiers(PRIVATE)
+                       .addParameter(outputStream, "stream")
+                       .addStatement("this.stream = stream")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeByte")
+                       .addAnnotation(Override.class)
+                       .addParameter(TypeName.INT, "b")
+                       .addException(ioException)
+                       .addStatement("stream.write(b)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("writeFully")
+                       .addAnnotation(Override.class)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addException(ioException)
+                       .addStatement("stream.write(b)")
+                       .build())
+        .build();
+  }
+
+  private TypeSpec codecInput() {
+    // Lengths read from the input are not trusted. Every element takes at least one byte, so a length cannot
+    // exceed the bytes remaining, and streams, where that is not known, are read in growing chunks.
+    final ClassName ioException = ClassName.get(IOException.class);
+    final ClassName eofException = ClassName.get(EOFException.class);
+    final ClassName charsets = ClassName.get(StandardCharsets.class);
+    final TypeVariableName e = TypeVariableName.get("E");
+    final TypeVariableName enumType = TypeVariableName.get(
+        "E", ParameterizedTypeName.get(ClassName.get(Enum.class), e));
+    return TypeSpec.classBuilder("Input")
+        .addModifiers(PRIVATE, STATIC, ABSTRACT)
+        .addMethod(MethodSpec.methodBuilder("readByte")
+                       .addModifiers(ABSTRACT)
+                       .returns(TypeName.BYTE)
+                       .addException(ioException)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readFully")
+                       .addModifiers(ABSTRACT)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addParameter(TypeName.INT, "offset")
+                       .addParameter(TypeName.INT, "length")
+                       .addException(ioException)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("remaining")
+                       .addJavadoc("The number of bytes remaining, or {@link Integer#MAX_VALUE} if not known.\n")
+                       .addModifiers(ABSTRACT)
+                       .returns(TypeName.INT)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("capacity")
+                       .addJavadoc("The initial capacity for {@code length} elements.\n")
+                       .addModifiers(ABSTRACT)
+                       .addParameter(TypeName.INT, "length")
+                       .returns(TypeName.INT)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readVarint")
+                       .returns(TypeName.LONG)
+                       .addException(ioException)
+                       .addStatement("long v = 0")
+                       .beginControlFlow("for (int shift = 0; shift < 64; shift += 7)")
+                       .addStatement("final byte b = readByte()")
+                       .addStatement("v |= (long) (b & 0x7F) << shift")
+                       .beginControlFlow("if (b >= 0)")
+                       .addStatement("return v")
+                       .endControlFlow()
+                       .endControlFlow()
+                       .addStatement("throw new $T(\"Malformed varint\")", ioException)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readZigZag")
+                       .returns(TypeName.LONG)
+                       .addException(ioException)
+                       .addStatement("final long v = readVarint()")
+                       .addStatement("return (v >>> 1) ^ -(v & 1)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readFixed32")
+                       .returns(TypeName.INT)
+                       .addException(ioException)
+                       .addStatement("int v = 0")
+                       .beginControlFlow("for (int i = 0; i < 32; i += 8)")
+                       .addStatement("v |= (readByte() & 0xFF) << i")
+                       .endControlFlow()
+                       .addStatement("return v")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readFixed64")
+                       .returns(TypeName.LONG)
+                       .addException(ioException)
+                       .addStatement("long v = 0")
+                       .beginControlFlow("for (int i = 0; i < 64; i += 8)")
+                       .addStatement("v |= (readByte() & 0xFFL) << i")
+                       .endControlFlow()
+                       .addStatement("return v")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readLength")
+                       .returns(TypeName.INT)
+                       .addException(ioException)
+                       .addStatement("final long n = readVarint()")
+                       .beginControlFlow("if (n < 0 || n > $T.MAX_VALUE)", ClassName.get(Integer.class))
+                       .addStatement("throw new $T(\"Invalid length: \" + n)", ioException)
+                       .endControlFlow()
+                       .beginControlFlow("if (n > remaining())")
+                       .addStatement("throw new $T(\"Length \" + n + \" exceeds the remaining input\")", eofException)
+                       .endControlFlow()
+                       .addStatement("return (int) n")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readBytes")
+                       .returns(ArrayTypeName.of(TypeName.BYTE))
+                       .addException(ioException)
+                       .addStatement("final int n = readLength()")
+                       .addStatement("byte[] b = new byte[capacity(n)]")
+                       .addStatement("readFully(b, 0, b.length)")
+                       .beginControlFlow("while (b.length < n)")
+                       .addStatement("final int offset = b.length")
+                       .addStatement("b = $T.copyOf(b, $T.min(n, offset * 2))",
+                                     ClassName.get(Arrays.class), ClassName.get(Math.class))
+                       .addStatement("readFully(b, offset, b.length - offset)")
+                       .endControlFlow()
+                       .addStatement("return b")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readString")
+                       .returns(ClassName.get(String.class))
+                       .addException(ioException)
+                       .addStatement("return new String(readBytes(), $T.UTF_8)", charsets)
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readEnum")
+                       .addTypeVariable(enumType)
+                       .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), e), "type")
+                       .returns(e)
+                       .addException(ioException)
+                       .addStatement("final String name = readString()")
+                       .beginControlFlow("try")
+                       .addStatement("return $T.valueOf(type, name)", ClassName.get(Enum.class))
+                       .addCode("$<} catch ($T ex) {\n$>", ClassName.get(IllegalArgumentException.class))
+                       .addStatement("throw new $T(\"Invalid \" + type.getSimpleName() + \": \" + name, ex)",
+                                     ioException)
+                       .endControlFlow()
+                       .build())
+        .build();
+  }
+
+  private TypeSpec codecBufferInput(final ClassName input) {
+    final ClassName byteBuffer = ClassName.get(ByteBuffer.class);
+    final ClassName ioException = ClassName.get(IOException.class);
+    final ClassName eofException = ClassName.get(EOFException.class);
+    return TypeSpec.classBuilder("BufferInput")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(input)
+        .addField(byteBuffer, "buffer", PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+                       .addModifiers(PRIVATE)
+                       .addParameter(byteBuffer, "buffer")
+                       .addStatement("this.buffer = buffer")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readByte")
+                       .addAnnotation(Override.class)
+                       .returns(TypeName.BYTE)
+                       .addException(ioException)
+                       .beginControlFlow("if (!buffer.hasRemaining())")
+                       .addStatement("throw new $T()", eofException)
+                       .endControlFlow()
+                       .addStatement("return buffer.get()")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readFully")
+                       .addAnnotation(Override.class)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addParameter(TypeName.INT, "offset")
+                       .addParameter(TypeName.INT, "length")
+                       .addException(ioException)
+                       .beginControlFlow("if (length > buffer.remaining())")
+                       .addStatement("throw new $T()", eofException)
+                       .endControlFlow()
+                       .addStatement("buffer.get(b, offset, length)")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("remaining")
+                       .addAnnotation(Override.class)
+                       .returns(TypeName.INT)
+                       .addStatement("return buffer.remaining()")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("capacity")
+                       .addAnnotation(Override.class)
+                       .addParameter(TypeName.INT, "length")
+                       .returns(TypeName.INT)
+                       .addStatement("return length")
+                       .build())
+        .build();
+  }
+
+  private TypeSpec codecStreamInput(final ClassName input) {
+    final ClassName ioException = ClassName.get(IOException.class);
+    final ClassName eofException = ClassName.get(EOFException.class);
+    final ClassName inputStream = ClassName.get(InputStream.class);
+    return TypeSpec.classBuilder("StreamInput")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .superclass(input)
+        .addField(inputStream, "stream", PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+                       .addModifiers(PRIVATE)
+                       .addParameter(inputStream, "stream")
+                       .addStatement("this.stream = stream")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readByte")
+                       .addAnnotation(Override.class)
+                       .returns(TypeName.BYTE)
+                       .addException(ioException)
+                       .addStatement("final int b = stream.read()")
+                       .beginControlFlow("if (b < 0)")
+                       .addStatement("throw new $T()", eofException)
+                       .endControlFlow()
+                       .addStatement("return (byte) b")
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("readFully")
+                       .addAnnotation(Override.class)
+                       .addParameter(ArrayTypeName.of(TypeName.BYTE), "b")
+                       .addParameter(TypeName.INT, "offset")
+                       .addParameter(TypeName.INT, "length")
+                       .addException(ioException)
+                       .beginControlFlow("for (int n = 0; n < length; )")
+                       .addStatement("final int read = stream.read(b, offset + n, length - n)")
+                       .beginControlFlow("if (read < 0)")
+                       .addStatement("throw new $T()", eofException)
+                       .endControlFlow()
+                       .addStatement("n += read")
+                       .endControlFlow()
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("remaining")
+                       .addAnnotation(Override.class)
+                       .returns(TypeName.INT)
+                       .addStatement("return $T.MAX_VALUE", ClassName.get(Integer.class))
+                       .build())
+        .addMethod(MethodSpec.methodBuilder("capacity")
+                       .addAnnotation(Override.class)
+                       .addParameter(TypeName.INT, "length")
+                       .returns(TypeName.INT)
+                       .addStatement("return $T.min(length, 1024)", ClassName.get(Math.class))
+                       .build())
+        .build();
+  }
+
+  private void flyweightOffsetCheck(final MethodSpec.Builder spec) {
+    spec.beginControlFlow("if (offset < 0 || offset > buffer.limit() - SIZE)")
+        .addStatement("throw new $T(\"offset: \" + offset + \", limit: \" + buffer.limit())",
+                      ClassName.get(IndexOutOfBoundsException.class))
+        .endControlFlow();
+  }
+
+  private int flyweightFieldSize(final FieldDescriptor field) {
+    switch (field.type().getKind()) {
+      case LONG:
+      case DOUBLE:
+        return 8;
+      case INT:
+      case FLOAT:
+        return 4;
+      case SHORT:
+      case CHAR:
+        return 2;
+      default:
+        return 1;
+    }
+  }
+
+  private String flyweightAccessor(final FieldDescriptor field) {
+    switch (field.type().getKind()) {
+      case LONG:
+        return "Long";
+      case DOUBLE:
+        return "Double";
+      case INT:
+        return "Int";
+      case FLOAT:
+        return "Float";
+      case SHORT:
+        return "Short";
+      case CHAR:
+        return "Char";
+      default:
+        return "";
+    }
+  }
+
+  private void columnIndexCheck(final MethodSpec.Builder spec, final String size) {
+    spec.beginControlFlow("if (index < 0 || index >= this.$N)", size)
+        .addStatement("throw new $T(\"index: \" + index + \", size: \" + this.$N)",
+                      ClassName.get(IndexOutOfBoundsException.class), size)
+        .endControlFlow();
+  }
+
+  private boolean isGenericColumn(final FieldDescriptor field) {
+    // Generic arrays cannot be created, these columns are stored as Object[].
+    return field.type().toString().contains("<");
+  }
+
+  private TypeName columnComponentType(final FieldDescriptor field) throws AutoMatterProcessorException {
+    return isGenericColumn(field) ? ClassName.get(Object.class) : fieldType(field);
+  }
+
+  private TypeName columnType(final FieldDescriptor field) throws AutoMatterProcessorException {
+    return ArrayTypeName.of(columnComponentType(field));
+  }
+
+  private TypeSpec valueClass(final Descriptor d) throws AutoMatterProcessorException {
+    TypeSpec.Builder value = TypeSpec.classBuilder("Value")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .addSuperinterface(valueType(d));
+
+    for (FieldDescriptor field : d.fields()) {
+      value.addField(FieldSpec.builder(fieldType(field), fieldName(field), PRIVATE, FINAL).build());
+    }
+
+    if (d.cacheHashCode()) {
+      value.addField(FieldSpec.builder(TypeName.INT, "hashCode", PRIVATE, TRANSIENT).build());
+    }
+
+    if (d.intern()) {
+      value.addField(FieldSpec.builder(TypeName.BOOLEAN, "interned", PRIVATE, FINAL, TRANSIENT).build());
+    }
+
+    value.addMethod(valueConstructor(d));
+    if (d.intern()) {
+      value.addMethod(valueInternedConstructor(d));
+    }
+
+    for (FieldDescriptor field : d.fields()) {
+      value.addMethod(valueGetter(field));
+    }
+    for (FieldDescriptor field : d.fields()) {
+      final ExecutableElement wither = d.withers().get(fieldName(field));
+      if (wither != null) {
+        value.addMethod(valueWither(d, field, wither));
+      }
+    }
+    value.addMethod(valueToBuilder(d));
+    value.addMethod(valueEquals(d));
+    value.addMethod(valueHashCode(d));
+    value.addMethod(valueToString(d));
+
+    return value.build();
+  }
+
+  private MethodSpec valueConstructor(final Descriptor d) throws AutoMatterProcessorException {
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE);
+
+    for (FieldDescriptor field : d.fields()) {
+      if (shouldEnforceNonNull(field) && !field.isCollection() && !field.isMap()) {
+        assertNotNull(constructor, fieldName(field));
+      }
+    }
+
+    for (FieldDescriptor field : d.fields()) {
+      String fieldName = fieldName(field);
+      AnnotationSpec annotation = AnnotationSpec.builder(AutoMatter.Field.class)
+          .addMember("value", "$S", fieldName)
+          .build();
+      ParameterSpec parameter = ParameterSpec.builder(fieldType(field), fieldName)
+          .addAnnotation(annotation)
+          .build();
+      constructor.addParameter(parameter);
+      constructor.addStatement("this.$N = $L", fieldName, valueField(field, code("$N", fieldName)));
+    }
+
+    if (d.intern()) {
+      constructor.addStatement("this.interned = false");
+    }
+
+    return constructor.build();
+  }
+
+  /**
+   * A constructor for canonical instances, which are never the instance passed to {@code intern()} so that
+   * values are not mutated after they have been published.
+   */
+  private MethodSpec valueInternedConstructor(final Descriptor d) {
+    final MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .addParameter(ClassName.get(d.packageName(), d.builderName(), "Value"), "v")
+        .addParameter(TypeName.BOOLEAN, "interned");
+    for (FieldDescriptor field : d.fields()) {
+      constructor.addStatement("this.$N = v.$N", fieldName(field), fieldName(field));
+    }
+    return constructor.addStatement("this.interned = interned").build();
+  }
+
+  private ClassName primitiveCollectionType(final FieldDescriptor field) {
+    return primitiveCollectionType(primitiveElementType(field), field.collectionType());
+  }
+
+  /**
+   * The runtime collection of {@code type}, e.g. {@code List} or {@code ArrayList}, for primitive elements.
+   */
+  private ClassName primitiveCollectionType(final TypeName primitiveType, final String type) {
+    return ClassName.get(ClassName.get(CompactList.class).packageName(),
+                         "Primitive" + capitalizeFirstLetter(primitiveType.toString()) + type);
+  }
+
+  /**
+   * The primitive type of the elements of a list or set, or of the values of a map, or {@code null} if they are
+   * not boxed primitives.
+   */
+  private TypeName primitiveElementType(final FieldDescriptor field) {
+    if (!field.isCollection() && !field.isMap()) {
+      return null;
+    }
+    switch (boxedElementType(field).toString()) {
+      case "java.lang.Byte":
+        return TypeName.BYTE;
+      case "java.lang.Short":
+        return TypeName.SHORT;
+      case "java.lang.Integer":
+        return TypeName.INT;
+      case "java.lang.Long":
+        return TypeName.LONG;
+      case "java.lang.Character":
+        return TypeName.CHAR;
+      case "java.lang.Float":
+        return TypeName.FLOAT;
+      case "java.lang.Double":
+        return TypeName.DOUBLE;
+      default:
+        return null;
+    }
+  }
+
+  private TypeName boxedElementType(final FieldDescriptor field) {
+    return genericArgument(field, field.isMap() ? 1 : 0);
+  }
+
+  /**
+   * Whether the builder records the capacity reserved for a field, i.e. whether it is a set or map kept in a
+   * {@code HashSet} or {@code HashMap}, which cannot grow in place.
+   */
+  private boolean hasReservedCapacity(final FieldDescriptor field) {
+    return (field.isMap() || field.collectionType().equals("Set")) && !hasPrimitiveBuilderCollection(field);
+  }
+
+  /**
+   * Whether the builder keeps the elements of a field unboxed. Nullable fields may have null elements, those use
+   * the regular collection classes.
+   */
+  private boolean hasPrimitiveBuilderCollection(final FieldDescriptor field) {
+    return primitiveElementType(field) != null && shouldEnforceNonNull(field);
+  }
+
+  /**
+   * The type of the collections owned by the builder.
+   */
+  private TypeName builderCollectionType(final Descriptor d, final FieldDescriptor field) {
+    if (!hasPrimitiveBuilderCollection(field)) {
+      return collectionImplType(field);
+    }
+    final ClassName type = builderCollectionRawType(d, field);
+    return field.isMap() ? ParameterizedTypeName.get(type, genericArgument(field, 0)) : type;
+  }
+
+  private ClassName builderCollectionRawType(final Descriptor d, final FieldDescriptor field) {
+    if (!hasPrimitiveBuilderCollection(field)) {
+      return collectionImplRawType(field);
+    }
+    return primitiveCollectionType(primitiveElementType(field), collectionImplRawType(field).simpleName());
+  }
+
+  /**
+   * Copies the value of a field into an immutable collection, unless it already is one.
+   */
+  private CodeBlock immutableCopy(final FieldDescriptor field, final CodeBlock value) {
+    if (primitiveElementType(field) != null) {
+      return code("$T.copyOf($L)", primitiveCollectionType(field), value);
+    }
+    return code("$T.copyOf($L)", compactCollectionType(field.collectionType()), value);
+  }
+
+  /**
+   * What a value stores for the validated {@code value} of a field, i.e. an immutable copy of a collection, or an
+   * empty one instead of null.
+   */
+  private CodeBlock valueField(final FieldDescriptor field, final CodeBlock value) {
+    final ClassName collectionsType = ClassName.get(Collections.class);
+    if (shouldEnforceNonNull(field) && field.isCollection()) {
+      return code("($L != null) ? $L : $T.<$T>$L()", value, immutableCopy(field, value), collectionsType,
+                  genericArgument(field, 0), emptyCollection(field));
+    } else if (shouldEnforceNonNull(field) && field.isMap()) {
+      return code("($L != null) ? $L : $T.<$T, $T>emptyMap()", value, immutableCopy(field, value), collectionsType,
+                  genericArgument(field, 0), genericArgument(field, 1));
+    } else if (field.isCollection() || field.isMap()) {
+      return code("($L != null) ? $L : null", value, immutableCopy(field, value));
+    }
+    return value;
+  }
+
+  private ClassName compactCollectionType(final String type) {
+    switch (type) {
+      case "List":
+        return ClassName.get(CompactList.class);
+      case "Set":
+        return ClassName.get(CompactSet.class);
+      case "Map":
+        return ClassName.get(CompactMap.class);
+      default:
+        throw new IllegalStateException("invalid collection type " + type);
+    }
+  }
+
+  private MethodSpec valueGetter(final FieldDescriptor field) throws AutoMatterProcessorException {
+    String fieldName = fieldName(field);
+
+    return MethodSpec.methodBuilder(fieldName)
+        .addAnnotation(AutoMatter.Field.class)
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(fieldType(field))
+        .addStatement("return $N", fieldName)
+        .build();
+  }
+
+  private MethodSpec valueWither(final Descriptor d, final FieldDescriptor field, final ExecutableElement wither)
+      throws AutoMatterProcessorException {
+    String fieldName = fieldName(field);
+
+    MethodSpec.Builder spec = MethodSpec.methodBuilder(wither.getSimpleName().toString())
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(fieldType(field), fieldName)
+        .returns(valueType(d));
+
+    // Collections go through the builder to be validated and copied, all other fields are shared.
+    if (field.isCollection() || field.isMap()) {
+      return spec.addStatement("return new $T(this).$N($N).build()", builderType(d), fieldName, fieldName)
+          .build();
+    }
+
+    final List<String> arguments = Lists.newArrayList();
+    for (FieldDescriptor f : d.fields()) {
+      arguments.add(fieldName(f));
+    }
+    return spec.addStatement("return new Value($L)", Joiner.on(", ").join(arguments))
+        .build();
+  }
+
+  private MethodSpec valueToBuilder(final Descriptor d) {
+    MethodSpec.Builder toBuilder = MethodSpec.methodBuilder("builder")
+        .addModifiers(PUBLIC)
+        .returns(builderType(d))
+        .addStatement("return new $T(this)", builderType(d));
+
+    // Always emit toBuilder, but only annotate it with @Override if the target asked for it.
+    if (d.hasToBuilder()) {
+      toBuilder.addAnnotation(Override.class);
+    }
+
+    return toBuilder.build();
+  }
 
   private MethodSpec valueEquals(final Descriptor d) throws AutoMatterProcessorException {
     MethodSpec.Builder equals = MethodSpec.methodBuilder("equals")
@@ -749,21 +3325,39 @@ public final class AutoMatterProcessor extends AbstractProcessor {
         .addStatement("return false")
         .endControlFlow();
 
+    // There is only one interned instance of each distinct value.
+    if (d.intern()) {
+      equals.beginControlFlow("if (interned && o instanceof Value && ((Value) o).interned)")
+          .addStatement("return false")
+          .endControlFlow();
+    }
+
+    // Values of this class cache their hash code, so comparing them first is cheap.
+    if (d.cacheHashCode()) {
+      equals.beginControlFlow("if (o instanceof Value && hashCode() != o.hashCode())")
+          .addStatement("return false")
+          .endControlFlow();
+    }
+
     if (!d.fields().isEmpty()) {
       equals.addStatement("final $T that = ($T) o", valueType(d), valueType(d));
 
-      for (ExecutableElement field : d.fields()) {
-        equals.addCode(fieldNotEqualCheck(field));
+      for (FieldDescriptor field : d.fields()) {
+        equals.addCode(fieldNotEqualCheck(field, code("$N", fieldName(field))));
       }
     }
 
     return equals.addStatement("return true").build();
   }
 
-  private CodeBlock fieldNotEqualCheck(final ExecutableElement field) throws AutoMatterProcessorException {
+  /**
+   * Returns false if {@code value}, the value of a field of this, differs from that of {@code that}.
+   */
+  private CodeBlock fieldNotEqualCheck(final FieldDescriptor field, final CodeBlock value)
+      throws AutoMatterProcessorException {
     final String name = fieldName(field);
     final CodeBlock.Builder result = CodeBlock.builder();
-    final TypeMirror returnType = field.getReturnType();
+    final TypeMirror returnType = field.type();
     switch (returnType.getKind()) {
       case LONG:
       case INT:
@@ -771,26 +3365,26 @@ public final class AutoMatterProcessor extends AbstractProcessor {
       case BYTE:
       case SHORT:
       case CHAR:
-        result.beginControlFlow("if ($L != that.$L())", name, name);
+        result.beginControlFlow("if ($L != that.$L())", value, name);
         break;
       case FLOAT:
       case DOUBLE:
         // Boxing is available in javapoet master but not released yet (as of 1.0.0).
         final TypeName boxed = ClassName.get(returnType.getKind() == FLOAT ? Float.class : Double.class);
-        result.beginControlFlow("if ($T.compare($L, that.$L()) != 0)", boxed, name, name);
+        result.beginControlFlow("if ($T.compare($L, that.$L()) != 0)", boxed, value, name);
         break;
       case ARRAY:
-        result.beginControlFlow("if (!$T.equals($L, that.$L()))", ClassName.get(Arrays.class), name, name);
+        result.beginControlFlow("if (!$T.equals($L, that.$L()))", ClassName.get(Arrays.class), value, name);
         break;
       case DECLARED:
         result.beginControlFlow(
             "if ($L != null ? !$L.equals(that.$L()) : that.$L() != null)",
-            name, name, name, name);
+            value, value, name, name);
         break;
       case ERROR:
-        throw fail("Cannot resolve type, might be missing import: " + returnType, field);
+        throw fail("Cannot resolve type, might be missing import: " + returnType, field.element());
       default:
-        throw fail("Unsupported type: " + returnType, field);
+        throw fail("Unsupported type: " + returnType, field.element());
     }
 
     result.addStatement("return false").endControlFlow();
@@ -801,55 +3395,132 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     MethodSpec.Builder hashcode = MethodSpec.methodBuilder("hashCode")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
-        .returns(TypeName.INT)
-        .addStatement("int result = 1")
-        .addStatement("long temp");
+        .returns(TypeName.INT);
+
+    // Racy single-check: the hash code is a pure function of the final fields, so it is safe to
+    // let concurrent callers compute it more than once.
+    if (d.cacheHashCode()) {
+      hashcode.addStatement("int result = hashCode")
+          .beginControlFlow("if (result != 0)")
+          .addStatement("return result")
+          .endControlFlow()
+          .addStatement("result = 1");
+    } else {
+      hashcode.addStatement("int result = 1");
+    }
+    hashcode.addStatement("long temp");
 
-    for (ExecutableElement field : d.fields()) {
-      final String name = fieldName(field);
-      final TypeMirror type = field.getReturnType();
-      switch (type.getKind()) {
-        case LONG:
-          hashcode.addStatement("result = 31 * result + (int) ($N ^ ($N >>> 32))", name, name);
-          break;
-        case INT:
-          hashcode.addStatement("result = 31 * result + $N", name);
-          break;
-        case BOOLEAN:
-          hashcode.addStatement("result = 31 * result + ($N ? 1231 : 1237)", name);
-          break;
-        case BYTE:
-        case SHORT:
-        case CHAR:
-          hashcode.addStatement("result = 31 * result + (int) $N", name);
-          break;
-        case FLOAT:
-          hashcode.addStatement(
-              "result = 31 * result + ($N != +0.0f ? $T.floatToIntBits($N) : 0)",
-              name, ClassName.get(Float.class), name);
-          break;
-        case DOUBLE:
-          hashcode.addStatement("temp = $T.doubleToLongBits($N)", ClassName.get(Double.class), name);
-          hashcode.addStatement("result = 31 * result + (int) (temp ^ (temp >>> 32))");
-          break;
-        case ARRAY:
-          hashcode.addStatement(
-              "result = 31 * result + ($N != null ? $T.hashCode($N) : 0)",
-              name, ClassName.get(Arrays.class), name);
-          break;
-        case DECLARED:
-          hashcode.addStatement("result = 31 * result + ($N != null ? $N.hashCode() : 0)", name, name);
-          break;
-        case ERROR:
-          throw fail("Cannot resolve type, might be missing import: " + type, field);
-        default:
-          throw fail("Unsupported type: " + type, field);
-      }
+    for (FieldDescriptor field : d.fields()) {
+      hashcode.addCode(fieldHashCode(field, code("$N", fieldName(field))));
+    }
+
+    if (d.cacheHashCode()) {
+      hashcode.addStatement("hashCode = result");
     }
+
     return hashcode.addStatement("return result").build();
   }
 
+  /**
+   * Adds the hash code of {@code value}, the value of a field, to {@code result}. Uses {@code temp} for doubles.
+   */
+  private CodeBlock fieldHashCode(final FieldDescriptor field, final CodeBlock value)
+      throws AutoMatterProcessorException {
+    final CodeBlock.Builder hashCode = CodeBlock.builder();
+    final TypeMirror type = field.type();
+    switch (type.getKind()) {
+      case LONG:
+        hashCode.addStatement("result = 31 * result + (int) ($L ^ ($L >>> 32))", value, value);
+        break;
+      case INT:
+        hashCode.addStatement("result = 31 * result + $L", value);
+        break;
+      case BOOLEAN:
+        hashCode.addStatement("result = 31 * result + ($L ? 1231 : 1237)", value);
+        break;
+      case BYTE:
+      case SHORT:
+      case CHAR:
+        hashCode.addStatement("result = 31 * result + (int) $L", value);
+        break;
+      case FLOAT:
+        hashCode.addStatement(
+            "result = 31 * result + ($L != +0.0f ? $T.floatToIntBits($L) : 0)",
+            value, ClassName.get(Float.class), value);
+        break;
+      case DOUBLE:
+        hashCode.addStatement("temp = $T.doubleToLongBits($L)", ClassName.get(Double.class), value);
+        hashCode.addStatement("result = 31 * result + (int) (temp ^ (temp >>> 32))");
+        break;
+      case ARRAY:
+        hashCode.addStatement(
+            "result = 31 * result + ($L != null ? $T.hashCode($L) : 0)",
+            value, ClassName.get(Arrays.class), value);
+        break;
+      case DECLARED:
+        hashCode.addStatement("result = 31 * result + ($L != null ? $L.hashCode() : 0)", value, value);
+        break;
+      case ERROR:
+        throw fail("Cannot resolve type, might be missing import: " + type, field.element());
+      default:
+        throw fail("Unsupported type: " + type, field.element());
+    }
+    return hashCode.build();
+  }
+
   private MethodSpec valueToString(final Descriptor d) {
+    final List<CodeBlock> values = Lists.newArrayList();
+    for (FieldDescriptor field : d.fields()) {
+      values.add(code("$N", fieldName(field)));
+    }
+    return toString(d, values);
+  }
+
+  /**
+   * Field-wise equals() of a view of a value, e.g. a row of columns, given {@code values} of its fields.
+   */
+  private MethodSpec viewEquals(final Descriptor d, final List<CodeBlock> values) throws AutoMatterProcessorException {
+    MethodSpec.Builder equals = MethodSpec.methodBuilder("equals")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(ClassName.get(Object.class), "o")
+        .returns(TypeName.BOOLEAN);
+
+    equals.beginControlFlow("if (this == o)")
+        .addStatement("return true")
+        .endControlFlow()
+        .beginControlFlow("if (!(o instanceof $T))", valueType(d))
+        .addStatement("return false")
+        .endControlFlow();
+
+    if (!d.fields().isEmpty()) {
+      equals.addStatement("final $T that = ($T) o", valueType(d), valueType(d));
+      for (int i = 0; i < d.fields().size(); i++) {
+        equals.addCode(fieldNotEqualCheck(d.fields().get(i), values.get(i)));
+      }
+    }
+
+    return equals.addStatement("return true").build();
+  }
+
+  /**
+   * Field-wise hashCode() of a view of a value, equal to that of the value.
+   */
+  private MethodSpec viewHashCode(final Descriptor d, final List<CodeBlock> values)
+      throws AutoMatterProcessorException {
+    MethodSpec.Builder hashCode = MethodSpec.methodBuilder("hashCode")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(TypeName.INT)
+        .addStatement("int result = 1")
+        .addStatement("long temp");
+    for (int i = 0; i < d.fields().size(); i++) {
+      hashCode.addCode(fieldHashCode(d.fields().get(i), values.get(i)));
+    }
+    return hashCode.addStatement("return result").build();
+  }
+
+  private MethodSpec toString(final Descriptor d, final List<CodeBlock> values) {
     MethodSpec.Builder toString = MethodSpec.methodBuilder("toString")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
@@ -858,14 +3529,14 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     toString.addCode("return \"$L{\" +\n", d.valueTypeName());
 
     for (int i=0; i<d.fields().size(); i++) {
-      final ExecutableElement field = d.fields().get(i);
+      final FieldDescriptor field = d.fields().get(i);
       final String comma = (i == 0) ? "" : ", ";
       final String name = fieldName(field);
 
-      if (field.getReturnType().getKind() == ARRAY) {
-        toString.addCode("\"$L$L=\" + $T.toString($L) +\n", comma, name, ClassName.get(Arrays.class), name);
+      if (field.type().getKind() == ARRAY) {
+        toString.addCode("\"$L$L=\" + $T.toString($L) +\n", comma, name, ClassName.get(Arrays.class), values.get(i));
       } else {
-        toString.addCode("\"$L$L=\" + $L +\n", comma, name, name);
+        toString.addCode("\"$L$L=\" + $L +\n", comma, name, values.get(i));
       }
     }
 
@@ -873,6 +3544,10 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return toString.build();
   }
 
+  private static CodeBlock code(final String format, final Object... args) {
+    return CodeBlock.builder().add(format, args).build();
+  }
+
   private void assertNotNull(MethodSpec.Builder spec, String name) {
     assertNotNull(spec, name, name);
   }
@@ -891,139 +3566,100 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return ClassName.get(d.packageName(), d.valueTypeName());
   }
 
-  private TypeName fieldType(final ExecutableElement field) throws AutoMatterProcessorException {
-    TypeMirror returnType = field.getReturnType();
-    if (returnType.getKind() == TypeKind.ERROR) {
-      throw fail("Cannot resolve type, might be missing import: " + returnType, field);
+  private TypeName fieldType(final FieldDescriptor field) throws AutoMatterProcessorException {
+    final TypeName typeName = field.typeName();
+    if (typeName == null) {
+      throw fail("Cannot resolve type, might be missing import: " + field.type(), field.element());
     }
-    return TypeName.get(returnType);
+    return typeName;
   }
 
-  private TypeName genericArgument(final ExecutableElement field, int index) {
-    final DeclaredType type = (DeclaredType) field.getReturnType();
-    checkArgument(type.getTypeArguments().size() >= index);
-    return TypeName.get(type.getTypeArguments().get(index));
+  private TypeName genericArgument(final FieldDescriptor field, int index) {
+    checkArgument(field.typeArgumentNames().size() >= index);
+    return field.typeArgumentNames().get(index);
   }
 
-  private TypeName collectionImplType(final ExecutableElement field) {
-    switch (collectionType(field)) {
-      case "List":
+  private TypeName collectionImplType(final FieldDescriptor field) {
+    switch (field.kind()) {
+      case LIST:
         return ParameterizedTypeName.get(
             ClassName.get(ArrayList.class),
             genericArgument(field, 0));
-      case "Set":
+      case SET:
         return ParameterizedTypeName.get(
             ClassName.get(HashSet.class),
             genericArgument(field, 0));
-      case "Map":
+      case MAP:
         return ParameterizedTypeName.get(
             ClassName.get(HashMap.class),
             genericArgument(field, 0), genericArgument(field, 1));
       default:
-        throw new IllegalStateException("invalid collection type " + field);
+        throw new IllegalStateException("invalid collection type " + field.element());
     }
   }
 
-  private ClassName collectionRawType(final ExecutableElement field) {
-    final DeclaredType type = (DeclaredType) field.getReturnType();
-    return ClassName.get("java.util", type.asElement().getSimpleName().toString());
-  }
-
-  private static String optionalEmptyName(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    if (returnType.startsWith("com.google.common.base.Optional<")) {
-      return "absent";
+  private ClassName collectionImplRawType(final FieldDescriptor field) {
+    switch (field.kind()) {
+      case LIST:
+        return ClassName.get(ArrayList.class);
+      case SET:
+        return ClassName.get(HashSet.class);
+      case MAP:
+        return ClassName.get(HashMap.class);
+      default:
+        throw new IllegalStateException("invalid collection type " + field.element());
     }
-    return "empty";
   }
 
-  private static String optionalMaybeName(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    if (returnType.startsWith("com.google.common.base.Optional<")) {
-      return "fromNullable";
-    }
-    return "ofNullable";
+  private ClassName collectionRawType(final FieldDescriptor field) {
+    return ClassName.get("java.util", field.collectionType());
   }
 
-  private boolean isCollection(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    return returnType.startsWith("java.util.List<") ||
-        returnType.startsWith("java.util.Set<");
+  private static String optionalEmptyName(final FieldDescriptor field) {
+    return field.isGuavaOptional() ? "absent" : "empty";
   }
 
-  private String unmodifiableCollection(final ExecutableElement field) {
-    final String type = collectionType(field);
-    if (type.equals("List")) {
-      return "unmodifiableList";
-    } else if (type.equals("Set")) {
-      return "unmodifiableSet";
-    } else if (type.endsWith("Map")) {
-      return "unmodifiableMap";
-    } else {
-      throw new AssertionError();
-    }
+  private static String optionalMaybeName(final FieldDescriptor field) {
+    return field.isGuavaOptional() ? "fromNullable" : "ofNullable";
   }
 
-  private String emptyCollection(final ExecutableElement field) {
-    final String type = collectionType(field);
-    if (type.equals("List")) {
-      return "emptyList";
-    } else if (type.equals("Set")) {
-      return "emptySet";
-    } else if (type.equals("Map")) {
-      return "emptyMap";
-    } else {
-      throw new AssertionError();
+  private String emptyCollection(final FieldDescriptor field) {
+    switch (field.kind()) {
+      case LIST:
+        return "emptyList";
+      case SET:
+        return "emptySet";
+      case MAP:
+        return "emptyMap";
+      default:
+        throw new AssertionError();
     }
   }
 
-  private String collectionType(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    if (returnType.startsWith("java.util.List<")) {
-      return "List";
-    } else if (returnType.startsWith("java.util.Set<")) {
-      return "Set";
-    } else if (returnType.startsWith("java.util.Map<")) {
-      return "Map";
-    } else {
-      throw new AssertionError();
+  private Set<String> fieldNames(final Descriptor d) {
+    final Set<String> names = Sets.newHashSet();
+    for (FieldDescriptor field : d.fields()) {
+      names.add(fieldName(field));
     }
+    return names;
   }
 
-  private String optionalType(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    if (returnType.startsWith("java.util.Optional<")) {
-      return "java.util.Optional";
-    } else if (returnType.startsWith("com.google.common.base.Optional<")) {
-      return "com.google.common.base.Optional";
+  private FieldDescriptor field(final Descriptor d, final String name) {
+    for (FieldDescriptor field : d.fields()) {
+      if (fieldName(field).equals(name)) {
+        return field;
+      }
     }
-    return returnType;
-  }
-
-  private boolean isMap(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    return returnType.startsWith("java.util.Map<");
-  }
-
-  private boolean isPrimitive(final ExecutableElement field) {
-    return field.getReturnType().getKind().isPrimitive();
-  }
-
-  private boolean isOptional(final ExecutableElement field) {
-    final String returnType = field.getReturnType().toString();
-    return returnType.startsWith("java.util.Optional<") ||
-        returnType.startsWith("com.google.common.base.Optional<");
+    return null;
   }
 
-  private String singular(final String name) {
-    final String singular = INFLECTOR.singularize(name);
-    if (KEYWORDS.contains(singular)) {
-      return null;
-    }
-    if (elements.getTypeElement("java.lang." + singular) != null) {
-      return null;
+  private boolean hasCollections(final Descriptor d) {
+    for (FieldDescriptor field : d.fields()) {
+      if (field.isCollection() || field.isMap()) {
+        return true;
+      }
     }
-    return name.equals(singular) ? null : singular;
+    return false;
   }
 
   private String variableName(final String name, final String... scope) {
@@ -1037,8 +3673,20 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return variableName("_" + name, scope);
   }
 
-  private String fieldName(final ExecutableElement field) {
-    return field.getSimpleName().toString();
+  private String fieldName(final FieldDescriptor field) {
+    return field.name();
+  }
+
+  private String exposedName(final FieldDescriptor field) {
+    return "_" + fieldName(field) + "Exposed";
+  }
+
+  private String capacityName(final FieldDescriptor field) {
+    return "_" + fieldName(field) + "Capacity";
+  }
+
+  private String ownedCollectionName(final FieldDescriptor field) {
+    return "_owned" + capitalizeFirstLetter(fieldName(field));
   }
 
   @Override
@@ -1046,21 +3694,13 @@ public final class AutoMatterProcessor extends AbstractProcessor {
     return ImmutableSet.of(AutoMatter.class.getName());
   }
 
-  private boolean shouldEnforceNonNull(final ExecutableElement field) {
-    return !isPrimitive(field) && !isNullableAnnotated(field);
-  }
-
-  private boolean isNullableAnnotated(final ExecutableElement field) {
-    return nullableAnnotation(field) != null;
+  @Override
+  public Set<String> getSupportedOptions() {
+    return ImmutableSet.of(INDEX_OPTION, index ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
   }
 
-  private AnnotationMirror nullableAnnotation(final ExecutableElement field) {
-    for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
-      if (annotation.getAnnotationType().asElement().getSimpleName().contentEquals("Nullable")) {
-        return annotation;
-      }
-    }
-    return null;
+  private boolean shouldEnforceNonNull(final FieldDescriptor field) {
+    return !field.isPrimitive() && !field.isNullable();
   }
 
   private AutoMatterProcessorException fail(final String msg, final Element element)
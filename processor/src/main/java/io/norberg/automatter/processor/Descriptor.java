@@ -2,9 +2,13 @@ package io.norberg.automatter.processor;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
+import io.norberg.automatter.AutoMatter;
+
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.lang.model.element.Element;
@@ -23,12 +27,27 @@ import static javax.lang.model.element.Modifier.STATIC;
  */
 class Descriptor {
 
+  private final Element element;
   private final String packageName;
   private final String valueTypeName;
   private final String builderName;
-  private final List<ExecutableElement> fields;
+  private final String columnsName;
+  private final String flyweightName;
+  private final String codecName;
+  private final String jsonSerializerName;
+  private final String jsonDeserializerName;
+  private final String typeAdapterName;
+  private final List<FieldDescriptor> fields;
+  private final Map<String, ExecutableElement> withers;
   private final boolean isPublic;
   private final boolean toBuilder;
+  private final boolean cacheHashCode;
+  private final boolean intern;
+  private final boolean columns;
+  private final boolean flyweight;
+  private final boolean codec;
+  private final boolean jackson;
+  private final boolean gson;
 
   public static Descriptor from(final Element element, final Elements elements) throws AutoMatterProcessorException {
     if (!element.getKind().isInterface()) {
@@ -40,9 +59,17 @@ class Descriptor {
 
     final String interfaceName = element.getSimpleName().toString();
     final String builderName = interfaceName + "Builder";
+    final String columnsName = interfaceName + "Columns";
+    final String flyweightName = interfaceName + "Flyweight";
+    final String codecName = interfaceName + "Codec";
+    final String jsonSerializerName = interfaceName + "JsonSerializer";
+    final String jsonDeserializerName = interfaceName + "JsonDeserializer";
+    final String typeAdapterName = interfaceName + "TypeAdapter";
     final String fullyQualifiedName = fullyQualifedName(packageName, builderName);
+    final String fullyQualifiedValueTypeName = fullyQualifedName(packageName, valueTypeName);
 
     final ImmutableList.Builder<ExecutableElement> fields = ImmutableList.builder();
+    final List<ExecutableElement> witherMethods = Lists.newArrayList();
     boolean toBuilder = false;
     for (final Element member : element.getEnclosedElements()) {
       if (member.getKind().equals(ElementKind.METHOD)) {
@@ -58,13 +85,82 @@ class Descriptor {
           toBuilder = true;
           continue;
         }
+        if (isWither(executable)) {
+          final String type = executable.getReturnType().toString();
+          if (!type.equals(valueTypeName) && !type.equals(fullyQualifiedValueTypeName)) {
+            throw new AutoMatterProcessorException(
+                executable.getSimpleName() + "() return type must be " + valueTypeName, element);
+          }
+          witherMethods.add(executable);
+          continue;
+        }
         fields.add(executable);
       }
     }
 
+    final ImmutableMap.Builder<String, ExecutableElement> withers = ImmutableMap.builder();
+    for (final ExecutableElement wither : witherMethods) {
+      final ExecutableElement field = witherField(wither, fields.build());
+      if (field == null) {
+        throw new AutoMatterProcessorException(
+            wither.getSimpleName() + "() does not match any field", element);
+      }
+      final String fieldType = field.getReturnType().toString();
+      final String parameterType = wither.getParameters().get(0).asType().toString();
+      if (!parameterType.equals(fieldType)) {
+        throw new AutoMatterProcessorException(
+            wither.getSimpleName() + "() parameter type must be " + fieldType, element);
+      }
+      withers.put(field.getSimpleName().toString(), wither);
+    }
+
     final boolean isPublic = element.getModifiers().contains(PUBLIC);
+    final AutoMatter annotation = element.getAnnotation(AutoMatter.class);
+    final boolean cacheHashCode = annotation != null && annotation.cacheHashCode();
+    final boolean intern = annotation != null && annotation.intern();
+    final boolean columns = annotation != null && annotation.columns();
+    final boolean flyweight = annotation != null && annotation.flyweight();
+    final boolean codec = annotation != null && annotation.codec();
+    final boolean jackson = annotation != null && annotation.jackson();
+    final boolean gson = annotation != null && annotation.gson();
+
+    if (flyweight) {
+      for (final ExecutableElement field : fields.build()) {
+        if (!field.getReturnType().getKind().isPrimitive()) {
+          throw new AutoMatterProcessorException(
+              "@AutoMatter(flyweight = true) field " + field.getSimpleName() + "() must be primitive", element);
+        }
+      }
+    }
 
-    return new Descriptor(packageName, valueTypeName, builderName, fields.build(), isPublic, toBuilder);
+    final ImmutableList.Builder<FieldDescriptor> fieldDescriptors = ImmutableList.builder();
+    for (final ExecutableElement field : fields.build()) {
+      fieldDescriptors.add(FieldDescriptor.from(field, elements));
+    }
+
+    return new Descriptor(element, packageName, valueTypeName, builderName, columnsName, flyweightName,
+                          codecName, jsonSerializerName, jsonDeserializerName, typeAdapterName,
+                          fieldDescriptors.build(), withers.build(), isPublic, toBuilder, cacheHashCode, intern,
+                          columns, flyweight, codec, jackson, gson);
+  }
+
+  private static boolean isWither(final ExecutableElement method) {
+    final String name = method.getSimpleName().toString();
+    return name.length() > "with".length() &&
+           name.startsWith("with") &&
+           method.getParameters().size() == 1;
+  }
+
+  private static ExecutableElement witherField(final ExecutableElement wither, final List<ExecutableElement> fields) {
+    final String suffix = wither.getSimpleName().toString().substring("with".length());
+    for (final ExecutableElement field : fields) {
+      final String name = field.getSimpleName().toString();
+      if (name.equals(suffix) ||
+          name.equals(Character.toLowerCase(suffix.charAt(0)) + suffix.substring(1))) {
+        return field;
+      }
+    }
+    return null;
   }
 
   private static boolean isStaticOrDefault(final Element member) {
@@ -81,14 +177,40 @@ class Descriptor {
     return false;
   }
 
-  private Descriptor(String packageName, String valueTypeName, String builderName, List<ExecutableElement> fields,
-                     boolean isPublic, boolean toBuilder) {
+  private Descriptor(Element element, String packageName, String valueTypeName, String builderName,
+                     String columnsName, String flyweightName, String codecName, String jsonSerializerName,
+                     String jsonDeserializerName, String typeAdapterName, List<FieldDescriptor> fields,
+                     Map<String, ExecutableElement> withers, boolean isPublic, boolean toBuilder,
+                     boolean cacheHashCode, boolean intern, boolean columns, boolean flyweight, boolean codec,
+                     boolean jackson, boolean gson) {
+    this.element = element;
     this.packageName = packageName;
     this.valueTypeName = valueTypeName;
     this.builderName = builderName;
+    this.columnsName = columnsName;
+    this.flyweightName = flyweightName;
+    this.codecName = codecName;
+    this.jsonSerializerName = jsonSerializerName;
+    this.jsonDeserializerName = jsonDeserializerName;
+    this.typeAdapterName = typeAdapterName;
     this.fields = fields;
+    this.withers = withers;
     this.isPublic = isPublic;
     this.toBuilder = toBuilder;
+    this.cacheHashCode = cacheHashCode;
+    this.intern = intern;
+    this.columns = columns;
+    this.flyweight = flyweight;
+    this.codec = codec;
+    this.jackson = jackson;
+    this.gson = gson;
+  }
+
+  /**
+   * The annotated interface, used as the originating element of all generated files.
+   */
+  public Element element() {
+    return this.element;
   }
 
   public String packageName() {
@@ -99,6 +221,30 @@ class Descriptor {
     return this.builderName;
   }
 
+  public String columnsName() {
+    return this.columnsName;
+  }
+
+  public String flyweightName() {
+    return this.flyweightName;
+  }
+
+  public String codecName() {
+    return this.codecName;
+  }
+
+  public String jsonSerializerName() {
+    return this.jsonSerializerName;
+  }
+
+  public String jsonDeserializerName() {
+    return this.jsonDeserializerName;
+  }
+
+  public String typeAdapterName() {
+    return this.typeAdapterName;
+  }
+
   public String valueTypeName() {
     return this.valueTypeName;
   }
@@ -107,14 +253,46 @@ class Descriptor {
     return this.isPublic;
   }
 
-  public List<ExecutableElement> fields() {
+  public List<FieldDescriptor> fields() {
     return this.fields;
   }
 
+  public Map<String, ExecutableElement> withers() {
+    return this.withers;
+  }
+
   public boolean hasToBuilder() {
     return this.toBuilder;
   }
 
+  public boolean cacheHashCode() {
+    return this.cacheHashCode;
+  }
+
+  public boolean intern() {
+    return this.intern;
+  }
+
+  public boolean columns() {
+    return this.columns;
+  }
+
+  public boolean flyweight() {
+    return this.flyweight;
+  }
+
+  public boolean codec() {
+    return this.codec;
+  }
+
+  public boolean jackson() {
+    return this.jackson;
+  }
+
+  public boolean gson() {
+    return this.gson;
+  }
+
   private static String nestedName(final Element element) {
     final List<Element> classes = enclosingClasses(element);
     final List<String> names = Lists.newArrayList();
@@ -0,0 +1,213 @@
+package io.norberg.automatter.processor;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import java.util.List;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+
+import static io.norberg.automatter.processor.AutoMatterProcessor.INFLECTOR;
+import static io.norberg.automatter.processor.AutoMatterProcessor.KEYWORDS;
+
+/**
+ * Holds information about a field of an automatter annotated interface. Computed once per field so that the
+ * generators do not have to repeatedly inspect the return type of the field method.
+ */
+class FieldDescriptor {
+
+  enum Kind {
+    VALUE, LIST, SET, MAP, OPTIONAL
+  }
+
+  private static final String GUAVA_OPTIONAL = "com.google.common.base.Optional";
+  private static final String JAVA_OPTIONAL = "java.util.Optional";
+
+  private final ExecutableElement element;
+  private final String name;
+  private final TypeMirror type;
+  private final TypeName typeName;
+  private final Kind kind;
+  private final String rawTypeName;
+  private final List<TypeMirror> typeArguments;
+  private final List<TypeName> typeArgumentNames;
+  private final AnnotationMirror nullableAnnotation;
+  private final String singular;
+
+  public static FieldDescriptor from(final ExecutableElement element, final Elements elements) {
+    final String name = element.getSimpleName().toString();
+    final TypeMirror type = element.getReturnType();
+    final TypeName typeName = type.getKind() == TypeKind.ERROR ? null : TypeName.get(type);
+
+    Kind kind = Kind.VALUE;
+    String rawTypeName = null;
+    final ImmutableList.Builder<TypeMirror> typeArguments = ImmutableList.builder();
+    final ImmutableList.Builder<TypeName> typeArgumentNames = ImmutableList.builder();
+    if (type.getKind() == TypeKind.DECLARED) {
+      final DeclaredType declaredType = (DeclaredType) type;
+      rawTypeName = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+      for (final TypeMirror argument : declaredType.getTypeArguments()) {
+        typeArguments.add(argument);
+        typeArgumentNames.add(TypeName.get(argument));
+      }
+      if (!declaredType.getTypeArguments().isEmpty()) {
+        kind = kind(rawTypeName);
+      }
+    }
+
+    final String singular = (kind == Kind.LIST || kind == Kind.SET || kind == Kind.MAP)
+                            ? singular(name, elements)
+                            : null;
+
+    return new FieldDescriptor(element, name, type, typeName, kind, rawTypeName, typeArguments.build(),
+                               typeArgumentNames.build(), nullableAnnotation(element), singular);
+  }
+
+  private static Kind kind(final String rawTypeName) {
+    switch (rawTypeName) {
+      case "java.util.List":
+        return Kind.LIST;
+      case "java.util.Set":
+        return Kind.SET;
+      case "java.util.Map":
+        return Kind.MAP;
+      case JAVA_OPTIONAL:
+      case GUAVA_OPTIONAL:
+        return Kind.OPTIONAL;
+      default:
+        return Kind.VALUE;
+    }
+  }
+
+  private static String singular(final String name, final Elements elements) {
+    final String singular = INFLECTOR.singularize(name);
+    if (name.equals(singular)) {
+      return null;
+    }
+    if (KEYWORDS.contains(singular)) {
+      return null;
+    }
+    if (elements.getTypeElement("java.lang." + singular) != null) {
+      return null;
+    }
+    return singular;
+  }
+
+  private static AnnotationMirror nullableAnnotation(final ExecutableElement element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (annotation.getAnnotationType().asElement().getSimpleName().contentEquals("Nullable")) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private FieldDescriptor(ExecutableElement element, String name, TypeMirror type, TypeName typeName, Kind kind,
+                          String rawTypeName, List<TypeMirror> typeArguments, List<TypeName> typeArgumentNames,
+                          AnnotationMirror nullableAnnotation, String singular) {
+    this.element = element;
+    this.name = name;
+    this.type = type;
+    this.typeName = typeName;
+    this.kind = kind;
+    this.rawTypeName = rawTypeName;
+    this.typeArguments = typeArguments;
+    this.typeArgumentNames = typeArgumentNames;
+    this.nullableAnnotation = nullableAnnotation;
+    this.singular = singular;
+  }
+
+  public ExecutableElement element() {
+    return this.element;
+  }
+
+  public String name() {
+    return this.name;
+  }
+
+  public TypeMirror type() {
+    return this.type;
+  }
+
+  /**
+   * The JavaPoet type of the field, or {@code null} if the type could not be resolved.
+   */
+  public TypeName typeName() {
+    return this.typeName;
+  }
+
+  public Kind kind() {
+    return this.kind;
+  }
+
+  public boolean isPrimitive() {
+    return this.type.getKind().isPrimitive();
+  }
+
+  public boolean isCollection() {
+    return this.kind == Kind.LIST || this.kind == Kind.SET;
+  }
+
+  public boolean isMap() {
+    return this.kind == Kind.MAP;
+  }
+
+  public boolean isOptional() {
+    return this.kind == Kind.OPTIONAL;
+  }
+
+  public boolean isGuavaOptional() {
+    return GUAVA_OPTIONAL.equals(this.rawTypeName);
+  }
+
+  /**
+   * The simple name of the collection interface, i.e. {@code List}, {@code Set} or {@code Map}.
+   */
+  public String collectionType() {
+    switch (this.kind) {
+      case LIST:
+        return "List";
+      case SET:
+        return "Set";
+      case MAP:
+        return "Map";
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  public ClassName optionalType() {
+    return ClassName.bestGuess(this.rawTypeName);
+  }
+
+  public List<TypeMirror> typeArguments() {
+    return this.typeArguments;
+  }
+
+  public List<TypeName> typeArgumentNames() {
+    return this.typeArgumentNames;
+  }
+
+  public AnnotationMirror nullableAnnotation() {
+    return this.nullableAnnotation;
+  }
+
+  public boolean isNullable() {
+    return this.nullableAnnotation != null;
+  }
+
+  /**
+   * The singular form of the field name used for adders and putters, or {@code null} if there is no usable
+   * singular form.
+   */
+  public String singular() {
+    return this.singular;
+  }
+}
@@ -98,6 +98,66 @@ public class AutoMatterProcessorTest {
         .withErrorContaining("builder() return type must be BadBuilderReturnTypeBuilder");
   }
 
+  @Test
+  public void verifyBadWitherReturnTypeFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/BadWitherReturnType.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("withFoo() return type must be BadWitherReturnType");
+  }
+
+  @Test
+  public void verifyBadWitherParameterTypeFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/BadWitherParameterType.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("withFoo() parameter type must be java.lang.String");
+  }
+
+  @Test
+  public void verifyNonPrimitiveFlyweightFieldFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/NonPrimitiveFlyweightField.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("@AutoMatter(flyweight = true) field name() must be primitive");
+  }
+
+  @Test
+  public void verifyUnsupportedCodecFieldFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/UnsupportedCodecField.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("@AutoMatter(codec = true) does not support type java.util.Date");
+  }
+
+  @Test
+  public void verifyTooManyCodecPresenceFieldsFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/TooManyCodecPresenceFields.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("@AutoMatter(codec = true) supports at most 64 @Nullable and Optional fields");
+  }
+
+  @Test
+  public void verifyUnsupportedJacksonAnnotationFails() {
+    final JavaFileObject source = JavaFileObjects.forResource("bad/UnsupportedJacksonAnnotation.java");
+    assert_().about(javaSource())
+        .that(source)
+        .processedWith(new AutoMatterProcessor())
+        .failsToCompile()
+        .withErrorContaining("@AutoMatter(jackson = true) does not support @JsonIgnore");
+  }
+
   @Test
   public void testNullableFields() {
     assert_().about(javaSources())
@@ -131,6 +191,76 @@ public class AutoMatterProcessorTest {
         JavaFileObjects.forResource("expected/NullableCollectionFieldsBuilder.java"));
   }
 
+  @Test
+  public void testWithers() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/Withers.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/WithersBuilder.java"));
+  }
+
+  @Test
+  public void testColumns() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/Columns.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/ColumnsColumns.java"));
+  }
+
+  @Test
+  public void testFlyweight() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/Flyweight.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/FlyweightFlyweight.java"));
+  }
+
+  @Test
+  public void testCodec() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/Codec.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/CodecCodec.java"));
+  }
+
+  @Test
+  public void testJacksonFields() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/JacksonFields.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/JacksonFieldsJsonSerializer.java"),
+        JavaFileObjects.forResource("expected/JacksonFieldsJsonDeserializer.java"));
+  }
+
+  @Test
+  public void testGsonFields() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/GsonFields.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(JavaFileObjects.forResource("expected/GsonFieldsTypeAdapter.java"));
+  }
+
+  @Test
+  public void testPrimitiveCollectionFields() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/PrimitiveCollectionFields.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/PrimitiveCollectionFieldsBuilder.java"));
+  }
+
   @Test
   public void testSingularCollectionFields() {
     assert_().about(javaSource())
@@ -147,6 +277,26 @@ public class AutoMatterProcessorTest {
         .compilesWithoutError();
   }
 
+  @Test
+  public void testCachedHashCode() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/CachedHashCode.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/CachedHashCodeBuilder.java"));
+  }
+
+  @Test
+  public void testInterned() {
+    assert_().about(javaSource())
+        .that(JavaFileObjects.forResource("good/Interned.java"))
+        .processedWith(new AutoMatterProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(
+        JavaFileObjects.forResource("expected/InternedBuilder.java"));
+  }
+
   @Test
   public void testGuavaOptionalFields() {
     assert_().about(javaSource())
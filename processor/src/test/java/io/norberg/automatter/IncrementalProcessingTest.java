@@ -0,0 +1,175 @@
+package io.norberg.automatter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+import io.norberg.automatter.processor.AutoMatterProcessor;
+
+import static com.google.common.truth.Truth.assert_;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Verifies that the processor satisfies the requirements of Gradle incremental annotation processing.
+ */
+public class IncrementalProcessingTest {
+
+  private static final List<JavaFileObject> SOURCES = ImmutableList.of(
+      JavaFileObjects.forResource("good/Foo.java"),
+      JavaFileObjects.forResource("good/Columns.java"),
+      JavaFileObjects.forResource("good/Flyweight.java"),
+      JavaFileObjects.forResource("good/Codec.java"),
+      JavaFileObjects.forResource("good/JacksonFields.java"),
+      JavaFileObjects.forResource("good/GsonFields.java"));
+
+  private static final Map<String, String> ORIGINS = ImmutableMap.<String, String>builder()
+      .put("foo.FooBuilder", "foo.Foo")
+      .put("foo.ColumnsBuilder", "foo.Columns")
+      .put("foo.ColumnsColumns", "foo.Columns")
+      .put("foo.FlyweightBuilder", "foo.Flyweight")
+      .put("foo.FlyweightFlyweight", "foo.Flyweight")
+      .put("foo.CodecBuilder", "foo.Codec")
+      .put("foo.CodecCodec", "foo.Codec")
+      .put("foo.JacksonFieldsBuilder", "foo.JacksonFields")
+      .put("foo.JacksonFieldsJsonSerializer", "foo.JacksonFields")
+      .put("foo.JacksonFieldsJsonDeserializer", "foo.JacksonFields")
+      .put("foo.GsonFieldsBuilder", "foo.GsonFields")
+      .put("foo.GsonFieldsTypeAdapter", "foo.GsonFields")
+      .build();
+
+  @Test
+  public void verifyGeneratedSourcesHaveOneOriginatingElement() {
+    final RecordingProcessor processor = new RecordingProcessor(new AutoMatterProcessor());
+    assert_().about(javaSources())
+        .that(SOURCES)
+        .processedWith(processor)
+        .compilesWithoutError();
+
+    assertThat(processor.sources.keySet(), is(ORIGINS.keySet()));
+    for (Map.Entry<String, List<String>> entry : processor.sources.entrySet()) {
+      final List<String> expected = ImmutableList.of(ORIGINS.get(entry.getKey()));
+      assertThat(entry.getKey(), entry.getValue(), is(expected));
+    }
+  }
+
+  @Test
+  public void verifyIsolatingByDefault() {
+    final RecordingProcessor processor = new RecordingProcessor(new AutoMatterProcessor());
+    assert_().about(javaSources())
+        .that(SOURCES)
+        .processedWith(processor)
+        .compilesWithoutError();
+
+    assertThat(processor.getSupportedOptions(), hasItem("org.gradle.annotation.processing.isolating"));
+  }
+
+  @Test
+  public void verifyAggregatingWithIndex() {
+    final AutoMatterProcessor processor = new AutoMatterProcessor();
+    processor.init(environment(ImmutableMap.of(AutoMatterProcessor.INDEX_OPTION, "true")));
+    assertThat(processor.getSupportedOptions(), hasItem("org.gradle.annotation.processing.aggregating"));
+    assertThat(processor.getSupportedOptions().size(), is(2));
+  }
+
+  private static ProcessingEnvironment environment(final Map<String, String> options) {
+    return proxy(ProcessingEnvironment.class, new InvocationHandler() {
+      @Override
+      public Object invoke(final Object proxy, final Method method, final Object[] args) {
+        return method.getName().equals("getOptions") ? options : null;
+      }
+    });
+  }
+
+  private static <T> T proxy(final Class<T> cls, final InvocationHandler handler) {
+    return cls.cast(Proxy.newProxyInstance(cls.getClassLoader(), new Class<?>[]{cls}, handler));
+  }
+
+  /**
+   * Delegates to a processor, recording the originating elements of the source files it creates.
+   */
+  private static class RecordingProcessor extends AbstractProcessor {
+
+    private final AbstractProcessor delegate;
+    private final Map<String, List<String>> sources = new LinkedHashMap<String, List<String>>();
+
+    RecordingProcessor(final AbstractProcessor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void init(final ProcessingEnvironment env) {
+      super.init(env);
+      final Filer filer = proxy(Filer.class, new InvocationHandler() {
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+          if (method.getName().equals("createSourceFile")) {
+            final List<String> origins = new ArrayList<String>();
+            for (Element element : (Element[]) args[1]) {
+              origins.add(((TypeElement) element).getQualifiedName().toString());
+            }
+            sources.put(args[0].toString(), origins);
+          }
+          return forward(method, env.getFiler(), args);
+        }
+      });
+      delegate.init(proxy(ProcessingEnvironment.class, new InvocationHandler() {
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+          return method.getName().equals("getFiler") ? filer : forward(method, env, args);
+        }
+      }));
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment env) {
+      return delegate.process(annotations, env);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    private static Object forward(final Method method, final Object target, final Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,7 @@
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface BadWitherParameterType {
+  String foo();
+  BadWitherParameterType withFoo(int foo);
+}
@@ -0,0 +1,7 @@
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface BadWitherReturnType {
+  String foo();
+  String withFoo(String foo);
+}
@@ -0,0 +1,9 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(flyweight = true)
+public interface NonPrimitiveFlyweightField {
+  long id();
+  String name();
+}
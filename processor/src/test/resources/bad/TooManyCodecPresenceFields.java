@@ -0,0 +1,74 @@
+package foo;
+
+import javax.annotation.Nullable;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(codec = true)
+public interface TooManyCodecPresenceFields {
+  @Nullable String f00();
+  @Nullable String f01();
+  @Nullable String f02();
+  @Nullable String f03();
+  @Nullable String f04();
+  @Nullable String f05();
+  @Nullable String f06();
+  @Nullable String f07();
+  @Nullable String f08();
+  @Nullable String f09();
+  @Nullable String f10();
+  @Nullable String f11();
+  @Nullable String f12();
+  @Nullable String f13();
+  @Nullable String f14();
+  @Nullable String f15();
+  @Nullable String f16();
+  @Nullable String f17();
+  @Nullable String f18();
+  @Nullable String f19();
+  @Nullable String f20();
+  @Nullable String f21();
+  @Nullable String f22();
+  @Nullable String f23();
+  @Nullable String f24();
+  @Nullable String f25();
+  @Nullable String f26();
+  @Nullable String f27();
+  @Nullable String f28();
+  @Nullable String f29();
+  @Nullable String f30();
+  @Nullable String f31();
+  @Nullable String f32();
+  @Nullable String f33();
+  @Nullable String f34();
+  @Nullable String f35();
+  @Nullable String f36();
+  @Nullable String f37();
+  @Nullable String f38();
+  @Nullable String f39();
+  @Nullable String f40();
+  @Nullable String f41();
+  @Nullable String f42();
+  @Nullable String f43();
+  @Nullable String f44();
+  @Nullable String f45();
+  @Nullable String f46();
+  @Nullable String f47();
+  @Nullable String f48();
+  @Nullable String f49();
+  @Nullable String f50();
+  @Nullable String f51();
+  @Nullable String f52();
+  @Nullable String f53();
+  @Nullable String f54();
+  @Nullable String f55();
+  @Nullable String f56();
+  @Nullable String f57();
+  @Nullable String f58();
+  @Nullable String f59();
+  @Nullable String f60();
+  @Nullable String f61();
+  @Nullable String f62();
+  @Nullable String f63();
+  @Nullable String f64();
+}
@@ -0,0 +1,10 @@
+package foo;
+
+import java.util.Date;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(codec = true)
+public interface UnsupportedCodecField {
+  Date date();
+}
@@ -0,0 +1,11 @@
+package foo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true)
+public interface UnsupportedJacksonAnnotation {
+  String foo();
+  @JsonIgnore String bar();
+}
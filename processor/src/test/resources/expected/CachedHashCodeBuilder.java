@@ -0,0 +1,142 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class CachedHashCodeBuilder {
+
+  private int foo;
+  private String bar;
+
+  public CachedHashCodeBuilder() {
+  }
+
+  private CachedHashCodeBuilder(CachedHashCode v) {
+    this.foo = v.foo();
+    this.bar = v.bar();
+  }
+
+  private CachedHashCodeBuilder(CachedHashCodeBuilder v) {
+    this.foo = v.foo;
+    this.bar = v.bar;
+  }
+
+  public int foo() {
+    return foo;
+  }
+
+  public CachedHashCodeBuilder foo(int foo) {
+    this.foo = foo;
+    return this;
+  }
+
+  public String bar() {
+    return bar;
+  }
+
+  public CachedHashCodeBuilder bar(String bar) {
+    if (bar == null) {
+      throw new NullPointerException("bar");
+    }
+    this.bar = bar;
+    return this;
+  }
+
+  public CachedHashCodeBuilder clear() {
+    this.foo = 0;
+    this.bar = null;
+    return this;
+  }
+
+  public CachedHashCode build() {
+    return new Value(foo, bar);
+  }
+
+  public static CachedHashCodeBuilder from(CachedHashCode v) {
+    return new CachedHashCodeBuilder(v);
+  }
+
+  public static CachedHashCodeBuilder from(CachedHashCodeBuilder v) {
+    return new CachedHashCodeBuilder(v);
+  }
+
+  private static final class Value
+      implements CachedHashCode {
+
+    private final int foo;
+    private final String bar;
+    private transient int hashCode;
+
+    private Value(@AutoMatter.Field("foo") int foo,
+                  @AutoMatter.Field("bar") String bar) {
+      if (bar == null) {
+        throw new NullPointerException("bar");
+      }
+      this.foo = foo;
+      this.bar = bar;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public int foo() {
+      return foo;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public String bar() {
+      return bar;
+    }
+
+    public CachedHashCodeBuilder builder() {
+      return new CachedHashCodeBuilder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CachedHashCode)) {
+        return false;
+      }
+      if (o instanceof Value && hashCode() != o.hashCode()) {
+        return false;
+      }
+
+      final CachedHashCode that = (CachedHashCode) o;
+
+      if (foo != that.foo()) {
+        return false;
+      }
+      if (bar != null ? !bar.equals(that.bar()) : that.bar() != null) {
+        return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = hashCode;
+      if (result != 0) {
+        return result;
+      }
+      result = 1;
+      long temp;
+      result = 31 * result + foo;
+      result = 31 * result + (bar != null ? bar.hashCode() : 0);
+      hashCode = result;
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "CachedHashCode{" +
+             "foo=" + foo +
+             ", bar=" + bar +
+             '}';
+    }
+  }
+}
@@ -0,0 +1,376 @@
+package foo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Generated;
+
+/**
+ * Encodes {@link Codec} values to and decodes them from a compact binary format.
+ */
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class CodecCodec {
+
+  private CodecCodec() {
+  }
+
+  /**
+   * Writes {@code value} at the position of {@code buffer}. If the buffer does not have enough space
+   * remaining, a {@link BufferOverflowException} is thrown and the position of the buffer is left unchanged.
+   */
+  public static void writeTo(Codec value, ByteBuffer buffer) {
+    final int position = buffer.position();
+    try {
+      write(value, new BufferOutput(buffer));
+    } catch (BufferOverflowException e) {
+      buffer.position(position);
+      throw e;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Writes {@code value} to {@code stream}. Wrap unbuffered streams in a {@link java.io.BufferedOutputStream}.
+   */
+  public static void writeTo(Codec value, OutputStream stream) throws IOException {
+    write(value, new StreamOutput(stream));
+  }
+
+  /**
+   * Reads a value at the position of {@code buffer}. Throws an {@link EOFException} if the buffer ends before
+   * the value does, and an {@link IOException} if it does not hold a valid value.
+   */
+  public static Codec readFrom(ByteBuffer buffer) throws IOException {
+    return read(new BufferInput(buffer));
+  }
+
+  /**
+   * Reads a value from {@code stream}, consuming exactly the bytes of the value. Wrap unbuffered
+   * streams in a {@link java.io.BufferedInputStream}. Throws an {@link EOFException} if the stream ends before the value
+   * does, and an {@link IOException} if it does not hold a valid value.
+   */
+  public static Codec readFrom(InputStream stream) throws IOException {
+    return read(new StreamInput(stream));
+  }
+
+  private static void write(Codec value, Output out) throws IOException {
+    final String description = value.description();
+    final Optional<Long> version = value.version();
+    long presence = 0;
+    if (description != null) {
+      presence |= 1L << 0;
+    }
+    if (version.isPresent()) {
+      presence |= 1L << 1;
+    }
+    out.writeVarint(presence);
+    out.writeZigZag(value.id());
+    out.writeFixed64(Double.doubleToRawLongBits(value.score()));
+    out.writeByte(value.active() ? 1 : 0);
+    out.writeString(value.name());
+    if (description != null) {
+      out.writeString(description);
+    }
+    if ((presence & 1L << 1) != 0) {
+      out.writeZigZag(version.get());
+    }
+    out.writeString(value.kind().name());
+    out.writeBytes(value.payload());
+    out.writeVarint(value.counts().size());
+    for (Integer e0 : value.counts()) {
+      out.writeZigZag(e0);
+    }
+    out.writeVarint(value.tags().size());
+    for (Map.Entry<String, List<String>> e0 : value.tags().entrySet()) {
+      out.writeString(e0.getKey());
+      out.writeVarint(e0.getValue().size());
+      for (String e1 : e0.getValue()) {
+        out.writeString(e1);
+      }
+    }
+  }
+
+  private static Codec read(Input in) throws IOException {
+    final long presence = in.readVarint();
+    final CodecBuilder builder = new CodecBuilder();
+    builder.id((int) in.readZigZag());
+    builder.score(Double.longBitsToDouble(in.readFixed64()));
+    builder.active(in.readByte() != 0);
+    builder.name(in.readString());
+    if ((presence & 1L << 0) != 0) {
+      builder.description(in.readString());
+    }
+    if ((presence & 1L << 1) != 0) {
+      builder.version(Optional.of(in.readZigZag()));
+    }
+    builder.kind(in.readEnum(Codec.Kind.class));
+    builder.payload(in.readBytes());
+    final int countsSize = in.readLength();
+    builder.ensureCountsCapacity(in.capacity(countsSize));
+    for (int countsIndex = 0; countsIndex < countsSize; countsIndex++) {
+      builder.addCount((int) in.readZigZag());
+    }
+    final int tagsSize = in.readLength();
+    builder.ensureTagsCapacity(in.capacity(tagsSize));
+    for (int tagsIndex = 0; tagsIndex < tagsSize; tagsIndex++) {
+      final String tagsKey = in.readString();
+      final int tags1Size = in.readLength();
+      final List<String> tags1 = new ArrayList<String>(in.capacity(tags1Size));
+      for (int tags1Index = 0; tags1Index < tags1Size; tags1Index++) {
+        tags1.add(in.readString());
+      }
+      builder.putTag(tagsKey, tags1);
+    }
+    return builder.build();
+  }
+
+  private abstract static class Output {
+    abstract void writeByte(int b) throws IOException;
+
+    abstract void writeFully(byte[] b) throws IOException;
+
+    void writeVarint(long v) throws IOException {
+      while ((v & ~0x7FL) != 0) {
+        writeByte((int) ((v & 0x7F) | 0x80));
+        v >>>= 7;
+      }
+      writeByte((int) v);
+    }
+
+    void writeZigZag(long v) throws IOException {
+      writeVarint((v << 1) ^ (v >> 63));
+    }
+
+    void writeFixed32(int v) throws IOException {
+      for (int i = 0; i < 32; i += 8) {
+        writeByte(v >>> i);
+      }
+    }
+
+    void writeFixed64(long v) throws IOException {
+      for (int i = 0; i < 64; i += 8) {
+        writeByte((int) (v >>> i));
+      }
+    }
+
+    void writeBytes(byte[] b) throws IOException {
+      writeVarint(b.length);
+      writeFully(b);
+    }
+
+    void writeString(String s) throws IOException {
+      writeBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static final class BufferOutput
+      extends Output {
+
+    private final ByteBuffer buffer;
+
+    private BufferOutput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    void writeByte(int b) {
+      buffer.put((byte) b);
+    }
+
+    @Override
+    void writeFully(byte[] b) {
+      buffer.put(b);
+    }
+  }
+
+  private static final class StreamOutput
+      extends Output {
+
+    private final OutputStream stream;
+
+    private StreamOutput(OutputStream stream) {
+      this.stream = stream;
+    }
+
+    @Override
+    void writeByte(int b) throws IOException {
+      stream.write(b);
+    }
+
+    @Override
+    void writeFully(byte[] b) throws IOException {
+      stream.write(b);
+    }
+  }
+
+  private abstract static class Input {
+    abstract byte readByte() throws IOException;
+
+    abstract void readFully(byte[] b, int offset, int length) throws IOException;
+
+    /**
+     * The number of bytes remaining, or {@link Integer#MAX_VALUE} if not known.
+     */
+    abstract int remaining();
+
+    /**
+     * The initial capacity for {@code length} elements.
+     */
+    abstract int capacity(int length);
+
+    long readVarint() throws IOException {
+      long v = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final byte b = readByte();
+        v |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return v;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    long readZigZag() throws IOException {
+      final long v = readVarint();
+      return (v >>> 1) ^ -(v & 1);
+    }
+
+    int readFixed32() throws IOException {
+      int v = 0;
+      for (int i = 0; i < 32; i += 8) {
+        v |= (readByte() & 0xFF) << i;
+      }
+      return v;
+    }
+
+    long readFixed64() throws IOException {
+      long v = 0;
+      for (int i = 0; i < 64; i += 8) {
+        v |= (readByte() & 0xFFL) << i;
+      }
+      return v;
+    }
+
+    int readLength() throws IOException {
+      final long n = readVarint();
+      if (n < 0 || n > Integer.MAX_VALUE) {
+        throw new IOException("Invalid length: " + n);
+      }
+      if (n > remaining()) {
+        throw new EOFException("Length " + n + " exceeds the remaining input");
+      }
+      return (int) n;
+    }
+
+    byte[] readBytes() throws IOException {
+      final int n = readLength();
+      byte[] b = new byte[capacity(n)];
+      readFully(b, 0, b.length);
+      while (b.length < n) {
+        final int offset = b.length;
+        b = Arrays.copyOf(b, Math.min(n, offset * 2));
+        readFully(b, offset, b.length - offset);
+      }
+      return b;
+    }
+
+    String readString() throws IOException {
+      return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+      final String name = readString();
+      try {
+        return Enum.valueOf(type, name);
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Invalid " + type.getSimpleName() + ": " + name, ex);
+      }
+    }
+  }
+
+  private static final class BufferInput
+      extends Input {
+
+    private final ByteBuffer buffer;
+
+    private BufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    byte readByte() throws IOException {
+      if (!buffer.hasRemaining()) {
+        throw new EOFException();
+      }
+      return buffer.get();
+    }
+
+    @Override
+    void readFully(byte[] b, int offset, int length) throws IOException {
+      if (length > buffer.remaining()) {
+        throw new EOFException();
+      }
+      buffer.get(b, offset, length);
+    }
+
+    @Override
+    int remaining() {
+      return buffer.remaining();
+    }
+
+    @Override
+    int capacity(int length) {
+      return length;
+    }
+  }
+
+  private static final class StreamInput
+      extends Input {
+
+    private final InputStream stream;
+
+    private StreamInput(InputStream stream) {
+      this.stream = stream;
+    }
+
+    @Override
+    byte readByte() throws IOException {
+      final int b = stream.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      return (byte) b;
+    }
+
+    @Override
+    void readFully(byte[] b, int offset, int length) throws IOException {
+      for (int n = 0; n < length; ) {
+        final int read = stream.read(b, offset + n, length - n);
+        if (read < 0) {
+          throw new EOFException();
+        }
+        n += read;
+      }
+    }
+
+    @Override
+    int remaining() {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    int capacity(int length) {
+      return Math.min(length, 1024);
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package foo;
 
 import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.collections.CompactList;
+import io.norberg.automatter.collections.ImmutableCollections;
+import io.norberg.automatter.collections.PrimitiveIntHashMap;
+import io.norberg.automatter.collections.PrimitiveIntMap;
+import io.norberg.automatter.collections.PrimitiveLongHashSet;
+import io.norberg.automatter.collections.PrimitiveLongSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -17,8 +21,11 @@ import javax.annotation.Generated;
 public final class CollectionFieldsBuilder {
 
   private List<String> strings;
-  private Map<String,Integer> integers;
+  private Map<String, Integer> integers;
   private Set<Long> numbers;
+  private boolean _stringsExposed;
+  private boolean _integersExposed;
+  private boolean _numbersExposed;
 
   public CollectionFieldsBuilder() {
   }
@@ -26,39 +33,49 @@ public final class CollectionFieldsBuilder {
   private CollectionFieldsBuilder(CollectionFields v) {
     List<String> _strings = v.strings();
     this.strings = (_strings == null) ? null : new ArrayList<String>(_strings);
-    Map<String,Integer> _integers = v.integers();
-    this.integers = (_integers == null) ? null : new HashMap<String,Integer>(_integers);
+    Map<String, Integer> _integers = v.integers();
+    this.integers = (_integers == null) ? null : new PrimitiveIntHashMap<String>(_integers);
     Set<Long> _numbers = v.numbers();
-    this.numbers = (_numbers == null) ? null : new HashSet<Long>(_numbers);
+    this.numbers = (_numbers == null) ? null : new PrimitiveLongHashSet(_numbers);
+  }
+
+  private CollectionFieldsBuilder(Value v) {
+    this.strings = (v.strings == null || ImmutableCollections.isImmutableList(v.strings)) ? v.strings : new ArrayList<String>(v.strings);
+    this.integers = (v.integers == null || ImmutableCollections.isImmutableMap(v.integers)) ? v.integers : new PrimitiveIntHashMap<String>(v.integers);
+    this.numbers = (v.numbers == null || ImmutableCollections.isImmutableSet(v.numbers)) ? v.numbers : new PrimitiveLongHashSet(v.numbers);
   }
 
   private CollectionFieldsBuilder(CollectionFieldsBuilder v) {
-    this.strings = (v.strings == null) ? null : new ArrayList<String>(v.strings);
-    this.integers = (v.integers == null) ? null : new HashMap<String,Integer>(v.integers);
-    this.numbers = (v.numbers == null) ? null : new HashSet<Long>(v.numbers);
+    this.strings = (v.strings instanceof ArrayList) ? new ArrayList<String>(v.strings) : v.strings;
+    this.integers = (v.integers instanceof PrimitiveIntHashMap) ? new PrimitiveIntHashMap<String>(v.integers) : v.integers;
+    this.numbers = (v.numbers instanceof PrimitiveLongHashSet) ? new PrimitiveLongHashSet(v.numbers) : v.numbers;
   }
 
   public List<String> strings() {
-    if (this.strings == null) {
-      this.strings = new ArrayList<String>();
-    }
-    return strings;
+    this._stringsExposed = true;
+    return _ownedStrings();
   }
 
   public CollectionFieldsBuilder strings(List<? extends String> strings) {
     return strings((Collection<? extends String>) strings);
   }
 
+  @SuppressWarnings("unchecked")
   public CollectionFieldsBuilder strings(Collection<? extends String> strings) {
     if (strings == null) {
       throw new NullPointerException("strings");
     }
-    for (String item : strings) {
-      if (item == null) {
-        throw new NullPointerException("strings: null item");
+    if (ImmutableCollections.isImmutableList(strings)) {
+      this.strings = (List<String>) strings;
+    } else {
+      for (String item : strings) {
+        if (item == null) {
+          throw new NullPointerException("strings: null item");
+        }
       }
+      this.strings = new ArrayList<String>(strings);
     }
-    this.strings = new ArrayList<String>(strings);
+    this._stringsExposed = false;
     return this;
   }
 
@@ -76,8 +93,8 @@ public final class CollectionFieldsBuilder {
     if (strings == null) {
       throw new NullPointerException("strings");
     }
-
     this.strings = new ArrayList<String>();
+    this._stringsExposed = false;
     while (strings.hasNext()) {
       String item = strings.next();
       if (item == null) {
@@ -99,33 +116,39 @@ public final class CollectionFieldsBuilder {
     if (string == null) {
       throw new NullPointerException("string");
     }
-    if (this.strings == null) {
-      this.strings = new ArrayList<String>();
-    }
-    strings.add(string);
+    _ownedStrings().add(string);
     return this;
   }
 
-  public Map<String,Integer> integers() {
-    if (this.integers == null) {
-      this.integers = new HashMap<String,Integer>();
-    }
-    return integers;
+  public CollectionFieldsBuilder ensureStringsCapacity(int capacity) {
+    _ownedStrings().ensureCapacity(capacity);
+    return this;
+  }
+
+  public Map<String, Integer> integers() {
+    this._integersExposed = true;
+    return _ownedIntegers();
   }
 
-  public CollectionFieldsBuilder integers(Map<? extends String,? extends Integer> integers) {
+  @SuppressWarnings("unchecked")
+  public CollectionFieldsBuilder integers(Map<? extends String, ? extends Integer> integers) {
     if (integers == null) {
       throw new NullPointerException("integers");
     }
-    for (Map.Entry<? extends String,? extends Integer> entry : integers.entrySet()) {
-      if (entry.getKey() == null) {
-        throw new NullPointerException("integers: null key");
-      }
-      if (entry.getValue() == null) {
-        throw new NullPointerException("integers: null value");
+    if (ImmutableCollections.isImmutableMap(integers)) {
+      this.integers = (Map<String, Integer>) integers;
+    } else {
+      for (Map.Entry<? extends String, ? extends Integer> entry : integers.entrySet()) {
+        if (entry.getKey() == null) {
+          throw new NullPointerException("integers: null key");
+        }
+        if (entry.getValue() == null) {
+          throw new NullPointerException("integers: null value");
+        }
       }
+      this.integers = new PrimitiveIntHashMap<String>(integers);
     }
-    this.integers = new HashMap<String,Integer>(integers);
+    this._integersExposed = false;
     return this;
   }
 
@@ -136,7 +159,8 @@ public final class CollectionFieldsBuilder {
     if (v1 == null) {
       throw new NullPointerException("integers: v1");
     }
-    integers = new HashMap<String,Integer>();
+    integers = new PrimitiveIntHashMap<String>();
+    this._integersExposed = false;
     integers.put(k1, v1);
     return this;
   }
@@ -206,34 +230,48 @@ public final class CollectionFieldsBuilder {
     if (value == null) {
       throw new NullPointerException("integer: value");
     }
-    if (this.integers == null) {
-      this.integers = new HashMap<String,Integer>();
+    _ownedIntegers().put(key, value);
+    return this;
+  }
+
+  public CollectionFieldsBuilder putInteger(String key, int value) {
+    if (key == null) {
+      throw new NullPointerException("integer: key");
     }
-    integers.put(key, value);
+    _ownedIntegers().put(key, value);
+    return this;
+  }
+
+  public CollectionFieldsBuilder ensureIntegersCapacity(int capacity) {
+    _ownedIntegers().ensureCapacity(capacity);
     return this;
   }
 
   public Set<Long> numbers() {
-    if (this.numbers == null) {
-      this.numbers = new HashSet<Long>();
-    }
-    return numbers;
+    this._numbersExposed = true;
+    return _ownedNumbers();
   }
 
   public CollectionFieldsBuilder numbers(Set<? extends Long> numbers) {
     return numbers((Collection<? extends Long>) numbers);
   }
 
+  @SuppressWarnings("unchecked")
   public CollectionFieldsBuilder numbers(Collection<? extends Long> numbers) {
     if (numbers == null) {
       throw new NullPointerException("numbers");
     }
-    for (Long item : numbers) {
-      if (item == null) {
-        throw new NullPointerException("numbers: null item");
+    if (ImmutableCollections.isImmutableSet(numbers)) {
+      this.numbers = (Set<Long>) numbers;
+    } else {
+      for (Long item : numbers) {
+        if (item == null) {
+          throw new NullPointerException("numbers: null item");
+        }
       }
+      this.numbers = new PrimitiveLongHashSet(numbers);
     }
-    this.numbers = new HashSet<Long>(numbers);
+    this._numbersExposed = false;
     return this;
   }
 
@@ -251,7 +289,8 @@ public final class CollectionFieldsBuilder {
     if (numbers == null) {
       throw new NullPointerException("numbers");
     }
-    this.numbers = new HashSet<Long>();
+    this.numbers = new PrimitiveLongHashSet();
+    this._numbersExposed = false;
     while (numbers.hasNext()) {
       Long item = numbers.next();
       if (item == null) {
@@ -269,25 +308,88 @@ public final class CollectionFieldsBuilder {
     return numbers(Arrays.asList(numbers));
   }
 
+  public CollectionFieldsBuilder numbers(long[] numbers) {
+    if (numbers == null) {
+      throw new NullPointerException("numbers");
+    }
+    final PrimitiveLongHashSet set = new PrimitiveLongHashSet(numbers.length);
+    for (long value : numbers) {
+      set.add(value);
+    }
+    this.numbers = set;
+    this._numbersExposed = false;
+    return this;
+  }
+
   public CollectionFieldsBuilder addNumber(Long number) {
     if (number == null) {
       throw new NullPointerException("number");
     }
-    if (this.numbers == null) {
-      this.numbers = new HashSet<Long>();
+    _ownedNumbers().add(number);
+    return this;
+  }
+
+  public CollectionFieldsBuilder addNumber(long number) {
+    _ownedNumbers().add(number);
+    return this;
+  }
+
+  public CollectionFieldsBuilder ensureNumbersCapacity(int capacity) {
+    _ownedNumbers().ensureCapacity(capacity);
+    return this;
+  }
+
+  private ArrayList<String> _ownedStrings() {
+    if (!(this.strings instanceof ArrayList)) {
+      this.strings = (this.strings == null) ? new ArrayList<String>() : new ArrayList<String>(this.strings);
+    }
+    return (ArrayList<String>) this.strings;
+  }
+
+  private PrimitiveIntHashMap<String> _ownedIntegers() {
+    if (!(this.integers instanceof PrimitiveIntHashMap)) {
+      this.integers = (this.integers == null) ? new PrimitiveIntHashMap<String>() : new PrimitiveIntHashMap<String>(this.integers);
+    }
+    return (PrimitiveIntHashMap<String>) this.integers;
+  }
+
+  private PrimitiveLongHashSet _ownedNumbers() {
+    if (!(this.numbers instanceof PrimitiveLongHashSet)) {
+      this.numbers = (this.numbers == null) ? new PrimitiveLongHashSet() : new PrimitiveLongHashSet(this.numbers);
+    }
+    return (PrimitiveLongHashSet) this.numbers;
+  }
+
+  public CollectionFieldsBuilder clear() {
+    if (this.strings instanceof ArrayList && !this._stringsExposed) {
+      this.strings.clear();
+    } else {
+      this.strings = null;
+      this._stringsExposed = false;
+    }
+    if (this.integers instanceof PrimitiveIntHashMap && !this._integersExposed) {
+      this.integers.clear();
+    } else {
+      this.integers = null;
+      this._integersExposed = false;
+    }
+    if (this.numbers instanceof PrimitiveLongHashSet && !this._numbersExposed) {
+      this.numbers.clear();
+    } else {
+      this.numbers = null;
+      this._numbersExposed = false;
     }
-    numbers.add(number);
     return this;
   }
 
   public CollectionFields build() {
-    List<String> _strings = (strings != null) ? Collections.unmodifiableList(new ArrayList<String>(strings)) : Collections.<String>emptyList();
-    Map<String, Integer> _integers = (integers != null) ? Collections.unmodifiableMap(new HashMap<String, Integer>(integers)) : Collections.<String, Integer>emptyMap();
-    Set<Long> _numbers = (numbers != null) ? Collections.unmodifiableSet(new HashSet<Long>(numbers)) : Collections.<Long>emptySet();
-    return new Value(_strings, _integers, _numbers);
+    return new Value(strings, integers, numbers);
   }
 
   public static CollectionFieldsBuilder from(CollectionFields v) {
+    if (v instanceof Value) {
+      return new CollectionFieldsBuilder((Value) v);
+    }
     return new CollectionFieldsBuilder(v);
   }
 
@@ -299,15 +401,15 @@ public final class CollectionFieldsBuilder {
       implements CollectionFields {
 
     private final List<String> strings;
-    private final Map<String,Integer> integers;
+    private final Map<String, Integer> integers;
     private final Set<Long> numbers;
 
     private Value(@AutoMatter.Field("strings") List<String> strings,
-                  @AutoMatter.Field("integers") Map<String,Integer> integers,
+                  @AutoMatter.Field("integers") Map<String, Integer> integers,
                   @AutoMatter.Field("numbers") Set<Long> numbers) {
-      this.strings = (strings != null) ? strings : Collections.<String>emptyList();
-      this.integers = (integers != null) ? integers : Collections.<String,Integer>emptyMap();
-      this.numbers = (numbers != null) ? numbers : Collections.<Long>emptySet();
+      this.strings = (strings != null) ? CompactList.copyOf(strings) : Collections.<String>emptyList();
+      this.integers = (integers != null) ? PrimitiveIntMap.copyOf(integers) : Collections.<String, Integer>emptyMap();
+      this.numbers = (numbers != null) ? PrimitiveLongSet.copyOf(numbers) : Collections.<Long>emptySet();
     }
 
     @AutoMatter.Field
@@ -318,7 +420,7 @@ public final class CollectionFieldsBuilder {
 
     @AutoMatter.Field
     @Override
-    public Map<String,Integer> integers() {
+    public Map<String, Integer> integers() {
       return integers;
     }
 
@@ -0,0 +1,226 @@
+package foo;
+
+import io.norberg.automatter.collections.CompactList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class ColumnsColumns {
+
+  private long[] id;
+  private double[] px;
+  private String[] sym;
+  private Object[] tags;
+  private int[][] counts;
+  private int size;
+  private int capacity;
+
+  public ColumnsColumns() {
+    this(16);
+  }
+
+  public ColumnsColumns(int capacity) {
+    this.id = new long[capacity];
+    this.px = new double[capacity];
+    this.sym = new String[capacity];
+    this.tags = new Object[capacity];
+    this.counts = new int[capacity][];
+    this.capacity = capacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public ColumnsColumns add(Columns value) {
+    ensureCapacity(this.size + 1);
+    this.id[this.size] = value.id();
+    this.px[this.size] = value.px();
+    this.sym[this.size] = value.sym();
+    this.tags[this.size] = value.tags();
+    this.counts[this.size] = value.counts();
+    this.size++;
+    return this;
+  }
+
+  public ColumnsColumns add(ColumnsBuilder builder) {
+    if (builder.sym == null) {
+      throw new NullPointerException("sym");
+    }
+    if (builder.counts == null) {
+      throw new NullPointerException("counts");
+    }
+    ensureCapacity(this.size + 1);
+    this.id[this.size] = builder.id;
+    this.px[this.size] = builder.px;
+    this.sym[this.size] = builder.sym;
+    this.tags[this.size] = (builder.tags != null) ? CompactList.copyOf(builder.tags) : Collections.<String>emptyList();
+    this.counts[this.size] = builder.counts;
+    this.size++;
+    return this;
+  }
+
+  public void ensureCapacity(int capacity) {
+    if (capacity <= this.capacity) {
+      return;
+    }
+    final int newCapacity = Math.max(capacity, this.capacity * 2);
+    this.id = Arrays.copyOf(this.id, newCapacity);
+    this.px = Arrays.copyOf(this.px, newCapacity);
+    this.sym = Arrays.copyOf(this.sym, newCapacity);
+    this.tags = Arrays.copyOf(this.tags, newCapacity);
+    this.counts = Arrays.copyOf(this.counts, newCapacity);
+    this.capacity = newCapacity;
+  }
+
+  public void clear() {
+    Arrays.fill(this.sym, 0, this.size, null);
+    Arrays.fill(this.tags, 0, this.size, null);
+    Arrays.fill(this.counts, 0, this.size, null);
+    this.size = 0;
+  }
+
+  public long id(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return this.id[index];
+  }
+
+  public double px(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return this.px[index];
+  }
+
+  public String sym(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return this.sym[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<String> tags(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return (List<String>) this.tags[index];
+  }
+
+  public int[] counts(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return this.counts[index];
+  }
+
+  /**
+   * Returns a view of the value at {@code index}, which reflects later changes to these columns.
+   */
+  public Columns view(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+    }
+    return new View(index);
+  }
+
+  /**
+   * Returns a copy of the value at {@code index}.
+   */
+  public Columns get(int index) {
+    return ColumnsBuilder.from(view(index)).build();
+  }
+
+  private final class View implements Columns {
+
+    private final int index;
+
+    private View(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public long id() {
+      return id[index];
+    }
+
+    @Override
+    public double px() {
+      return px[index];
+    }
+
+    @Override
+    public String sym() {
+      return sym[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> tags() {
+      return (List<String>) tags[index];
+    }
+
+    @Override
+    public int[] counts() {
+      return counts[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Columns)) {
+        return false;
+      }
+
+      final Columns that = (Columns) o;
+
+      if (id[index] != that.id()) {
+        return false;
+      }
+      if (Double.compare(px[index], that.px()) != 0) {
+        return false;
+      }
+      if (sym[index] != null ? !sym[index].equals(that.sym()) : that.sym() != null) {
+        return false;
+      }
+      if (tags[index] != null ? !tags[index].equals(that.tags()) : that.tags() != null) {
+        return false;
+      }
+      if (!Arrays.equals(counts[index], that.counts())) {
+        return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = 1;
+      long temp;
+      result = 31 * result + (int) (id[index] ^ (id[index] >>> 32));
+      temp = Double.doubleToLongBits(px[index]);
+      result = 31 * result + (int) (temp ^ (temp >>> 32));
+      result = 31 * result + (sym[index] != null ? sym[index].hashCode() : 0);
+      result = 31 * result + (tags[index] != null ? tags[index].hashCode() : 0);
+      result = 31 * result + (counts[index] != null ? Arrays.hashCode(counts[index]) : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "Columns{" +
+             "id=" + id[index] +
+             ", px=" + px[index] +
+             ", sym=" + sym[index] +
+             ", tags=" + tags[index] +
+             ", counts=" + Arrays.toString(counts[index]) +
+             '}';
+    }
+  }
+}
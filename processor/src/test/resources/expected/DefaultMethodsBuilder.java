@@ -31,6 +31,11 @@ public final class DefaultMethodsBuilder {
     return this;
   }
 
+  public DefaultMethodsBuilder clear() {
+    this.foo = null;
+    return this;
+  }
+
   public DefaultMethods build() {
     return new Value(foo);
   }
@@ -0,0 +1,134 @@
+package foo;
+
+import java.nio.ByteBuffer;
+import javax.annotation.Generated;
+
+/**
+ * A {@link Flyweight} that reads its fields from a {@link ByteBuffer}, in the byte order of the buffer.
+ */
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class FlyweightFlyweight implements Flyweight {
+
+  /**
+   * The number of bytes used by each value.
+   */
+  public static final int SIZE = 23;
+  private ByteBuffer buffer;
+  private int offset;
+
+  public FlyweightFlyweight() {
+  }
+
+  public FlyweightFlyweight(ByteBuffer buffer, int offset) {
+    wrap(buffer, offset);
+  }
+
+  /**
+   * Points this flyweight at the value stored at {@code offset} in {@code buffer}.
+   */
+  public FlyweightFlyweight wrap(ByteBuffer buffer, int offset) {
+    if (offset < 0 || offset > buffer.limit() - SIZE) {
+      throw new IndexOutOfBoundsException("offset: " + offset + ", limit: " + buffer.limit());
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    return this;
+  }
+
+  @Override
+  public boolean active() {
+    return buffer.get(offset + 22) != 0;
+  }
+
+  @Override
+  public int count() {
+    return buffer.getInt(offset + 16);
+  }
+
+  @Override
+  public long id() {
+    return buffer.getLong(offset);
+  }
+
+  @Override
+  public char grade() {
+    return buffer.getChar(offset + 20);
+  }
+
+  @Override
+  public double price() {
+    return buffer.getDouble(offset + 8);
+  }
+
+  /**
+   * Writes {@code value} to {@code buffer} at {@code offset}, using {@link #SIZE} bytes.
+   */
+  public static void write(Flyweight value, ByteBuffer buffer, int offset) {
+    if (offset < 0 || offset > buffer.limit() - SIZE) {
+      throw new IndexOutOfBoundsException("offset: " + offset + ", limit: " + buffer.limit());
+    }
+    buffer.put(offset + 22, (byte) (value.active() ? 1 : 0));
+    buffer.putInt(offset + 16, value.count());
+    buffer.putLong(offset, value.id());
+    buffer.putChar(offset + 20, value.grade());
+    buffer.putDouble(offset + 8, value.price());
+  }
+
+  @Override
+  public Flyweight withPrice(double price) {
+    return FlyweightBuilder.from(this).price(price).build();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Flyweight)) {
+      return false;
+    }
+
+    final Flyweight that = (Flyweight) o;
+
+    if (active() != that.active()) {
+      return false;
+    }
+    if (count() != that.count()) {
+      return false;
+    }
+    if (id() != that.id()) {
+      return false;
+    }
+    if (grade() != that.grade()) {
+      return false;
+    }
+    if (Double.compare(price(), that.price()) != 0) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    long temp;
+    result = 31 * result + (active() ? 1231 : 1237);
+    result = 31 * result + count();
+    result = 31 * result + (int) (id() ^ (id() >>> 32));
+    result = 31 * result + (int) grade();
+    temp = Double.doubleToLongBits(price());
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "Flyweight{" +
+           "active=" + active() +
+           ", count=" + count() +
+           ", id=" + id() +
+           ", grade=" + grade() +
+           ", price=" + price() +
+           '}';
+  }
+}
@@ -147,6 +147,20 @@ public final class FooBuilder {
     return new FooBuilder(this);
   }
 
+  public FooBuilder clear() {
+    this.aBoolean = false;
+    this.aByte = 0;
+    this.aShort = 0;
+    this.aInt = 0;
+    this.aLong = 0;
+    this.aChar = 0;
+    this.aFloat = 0;
+    this.aDouble = 0;
+    this.object = null;
+    this.array = null;
+    return this;
+  }
+
   public Foo build() {
     return new Value(
         aBoolean,
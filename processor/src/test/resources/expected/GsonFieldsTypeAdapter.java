@@ -0,0 +1,229 @@
+package foo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class GsonFieldsTypeAdapter extends TypeAdapter<GsonFields> {
+
+  private final TypeAdapter<Character> cAdapter;
+  private final TypeAdapter<Date> dateAdapter;
+  private final TypeAdapter<String> tagsAdapter;
+  private final TypeAdapter<Integer> numbersAdapter;
+  private final TypeAdapter<Map<Long, Date>> datesAdapter;
+  private final TypeAdapter<String> aliasesAdapter;
+
+  public GsonFieldsTypeAdapter(Gson gson) {
+    this.cAdapter = gson.getAdapter(Character.class);
+    this.dateAdapter = gson.getAdapter(Date.class);
+    this.tagsAdapter = gson.getAdapter(String.class);
+    this.numbersAdapter = gson.getAdapter(Integer.class);
+    this.datesAdapter = gson.getAdapter(new TypeToken<Map<Long, Date>>() {});
+    this.aliasesAdapter = gson.getAdapter(String.class);
+  }
+
+  @Override
+  public void write(JsonWriter out, GsonFields value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("a");
+    out.value(value.a());
+    out.name("b");
+    out.value(value.b());
+    out.name("aCamelCaseField");
+    out.value(value.aCamelCaseField());
+    out.name("c");
+    cAdapter.write(out, value.c());
+    out.name("name");
+    out.value(value.name());
+    out.name("note");
+    out.value(value.note());
+    out.name("date");
+    dateAdapter.write(out, value.date());
+    out.name("tags");
+    out.beginArray();
+    for (String element : value.tags()) {
+      tagsAdapter.write(out, element);
+    }
+    out.endArray();
+    out.name("numbers");
+    out.beginArray();
+    for (Integer element : value.numbers()) {
+      numbersAdapter.write(out, element);
+    }
+    out.endArray();
+    out.name("dates");
+    datesAdapter.write(out, value.dates());
+    out.name("aliases");
+    final List<String> aliases = value.aliases();
+    if (aliases == null) {
+      out.nullValue();
+    } else {
+      out.beginArray();
+      for (String element : aliases) {
+        aliasesAdapter.write(out, element);
+      }
+      out.endArray();
+    }
+    out.endObject();
+  }
+
+  @Override
+  public GsonFields read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    final GsonFieldsBuilder builder = new GsonFieldsBuilder();
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "a":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          builder.a(nextInt(in));
+          break;
+        case "b":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          builder.b(nextDouble(in));
+          break;
+        case "aCamelCaseField":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          builder.aCamelCaseField(in.nextBoolean());
+          break;
+        case "c":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          builder.c(cAdapter.read(in));
+          break;
+        case "name":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            throw new JsonSyntaxException("Null value for required property 'name' of GsonFields");
+          }
+          builder.name(in.nextString());
+          break;
+        case "note":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            builder.note((String) null);
+            break;
+          }
+          builder.note(in.nextString());
+          break;
+        case "date":
+          builder.date(required(dateAdapter.read(in), "date"));
+          break;
+        case "tags":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          in.beginArray();
+          while (in.hasNext()) {
+            builder.addTag(required(tagsAdapter.read(in), "tags"));
+          }
+          in.endArray();
+          break;
+        case "numbers":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          in.beginArray();
+          while (in.hasNext()) {
+            builder.addNumber(required(numbersAdapter.read(in), "numbers"));
+          }
+          in.endArray();
+          break;
+        case "dates":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            break;
+          }
+          builder.dates(requiredEntries(datesAdapter.read(in), "dates"));
+          break;
+        case "aliases":
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            builder.aliases((List<String>) null);
+            break;
+          }
+          final List<String> aliases = new ArrayList<String>();
+          in.beginArray();
+          while (in.hasNext()) {
+            aliases.add(aliasesAdapter.read(in));
+          }
+          in.endArray();
+          builder.aliases(aliases);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+    if (builder.name() == null) {
+      throw new JsonSyntaxException("Missing required property 'name' of GsonFields");
+    }
+    if (builder.date() == null) {
+      throw new JsonSyntaxException("Missing required property 'date' of GsonFields");
+    }
+    return builder.build();
+  }
+
+  private static <T> T required(T value, String property) {
+    if (value == null) {
+      throw new JsonSyntaxException("Null value for required property '" + property + "' of GsonFields");
+    }
+    return value;
+  }
+
+  private static <M extends Map<?, ?>> M requiredEntries(M map, String property) {
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (entry.getKey() == null || entry.getValue() == null) {
+        throw new JsonSyntaxException("Null entry for required property '" + property + "' of GsonFields");
+      }
+    }
+    return map;
+  }
+
+  private static int nextInt(JsonReader in) throws IOException {
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  private static double nextDouble(JsonReader in) throws IOException {
+    try {
+      return in.nextDouble();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+}
@@ -53,6 +53,12 @@ public final class GuavaOptionalFieldsBuilder {
     return this;
   }
 
+  public GuavaOptionalFieldsBuilder clear() {
+    this.foo = Optional.absent();
+    this.bar = null;
+    return this;
+  }
+
   public GuavaOptionalFields build() {
     return new Value(foo, bar);
   }
@@ -0,0 +1,193 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class InternedBuilder {
+
+  private int foo;
+  private String bar;
+
+  public InternedBuilder() {
+  }
+
+  private InternedBuilder(Interned v) {
+    this.foo = v.foo();
+    this.bar = v.bar();
+  }
+
+  private InternedBuilder(InternedBuilder v) {
+    this.foo = v.foo;
+    this.bar = v.bar;
+  }
+
+  public int foo() {
+    return foo;
+  }
+
+  public InternedBuilder foo(int foo) {
+    this.foo = foo;
+    return this;
+  }
+
+  public String bar() {
+    return bar;
+  }
+
+  public InternedBuilder bar(String bar) {
+    if (bar == null) {
+      throw new NullPointerException("bar");
+    }
+    this.bar = bar;
+    return this;
+  }
+
+  public InternedBuilder clear() {
+    this.foo = 0;
+    this.bar = null;
+    return this;
+  }
+
+  public Interned build() {
+    return new Value(foo, bar);
+  }
+
+  public Interned buildInterned() {
+    return Interner.intern((Value) build());
+  }
+
+  public static InternedBuilder from(Interned v) {
+    return new InternedBuilder(v);
+  }
+
+  public static InternedBuilder from(InternedBuilder v) {
+    return new InternedBuilder(v);
+  }
+
+  public static Interned intern(Interned v) {
+    if (v == null) {
+      throw new NullPointerException("v");
+    }
+    if (v instanceof Value) {
+      return Interner.intern((Value) v);
+    }
+    return Interner.intern((Value) new InternedBuilder(v).build());
+  }
+
+  private static final class Value
+      implements Interned {
+
+    private final int foo;
+    private final String bar;
+    private final transient boolean interned;
+
+    private Value(@AutoMatter.Field("foo") int foo,
+                  @AutoMatter.Field("bar") String bar) {
+      if (bar == null) {
+        throw new NullPointerException("bar");
+      }
+      this.foo = foo;
+      this.bar = bar;
+      this.interned = false;
+    }
+
+    private Value(Value v, boolean interned) {
+      this.foo = v.foo;
+      this.bar = v.bar;
+      this.interned = interned;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public int foo() {
+      return foo;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public String bar() {
+      return bar;
+    }
+
+    public InternedBuilder builder() {
+      return new InternedBuilder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Interned)) {
+        return false;
+      }
+      if (interned && o instanceof Value && ((Value) o).interned) {
+        return false;
+      }
+
+      final Interned that = (Interned) o;
+
+      if (foo != that.foo()) {
+        return false;
+      }
+      if (bar != null ? !bar.equals(that.bar()) : that.bar() != null) {
+        return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = 1;
+      long temp;
+      result = 31 * result + foo;
+      result = 31 * result + (bar != null ? bar.hashCode() : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "Interned{" +
+             "foo=" + foo +
+             ", bar=" + bar +
+             '}';
+    }
+  }
+
+  private static final class Interner {
+
+    private static final Interner[] STRIPES = stripes(16);
+    private final WeakHashMap<Value, WeakReference<Value>> values =
+        new WeakHashMap<Value, WeakReference<Value>>();
+
+    private static Interner[] stripes(int n) {
+      final Interner[] stripes = new Interner[n];
+      for (int i = 0; i < n; i++) {
+        stripes[i] = new Interner();
+      }
+      return stripes;
+    }
+
+    static Value intern(Value v) {
+      if (v.interned) {
+        return v;
+      }
+      final int h = v.hashCode();
+      final Interner stripe = STRIPES[(h ^ (h >>> 16)) & (STRIPES.length - 1)];
+      synchronized (stripe) {
+        final WeakReference<Value> ref = stripe.values.get(v);
+        final Value interned = (ref == null) ? null : ref.get();
+        if (interned != null) {
+          return interned;
+        }
+        final Value canonical = new Value(v, true);
+        stripe.values.put(canonical, new WeakReference<Value>(canonical));
+        return canonical;
+      }
+    }
+  }
+}
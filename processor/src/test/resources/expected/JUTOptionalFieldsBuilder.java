@@ -53,6 +53,12 @@ public final class JUTOptionalFieldsBuilder {
     return this;
   }
 
+  public JUTOptionalFieldsBuilder clear() {
+    this.foo = Optional.empty();
+    this.bar = null;
+    return this;
+  }
+
   public JUTOptionalFields build() {
     return new Value(foo, bar);
   }
@@ -0,0 +1,147 @@
+package foo;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class JacksonFieldsJsonDeserializer extends StdDeserializer<JacksonFields> implements ResolvableDeserializer {
+
+  private JsonDeserializer<Object> cDeserializer;
+  private JsonDeserializer<Object> dateDeserializer;
+  private KeyDeserializer datesKeyDeserializer;
+  private JsonDeserializer<Object> datesDeserializer;
+
+  public JacksonFieldsJsonDeserializer() {
+    super(JacksonFields.class);
+  }
+
+  @Override
+  public void resolve(DeserializationContext context) throws JsonMappingException {
+    this.cDeserializer = context.findRootValueDeserializer(context.getTypeFactory().constructType(new TypeReference<Character>() {}));
+    this.dateDeserializer = context.findRootValueDeserializer(context.getTypeFactory().constructType(new TypeReference<Date>() {}));
+    this.datesKeyDeserializer = context.findKeyDeserializer(context.getTypeFactory().constructType(new TypeReference<Long>() {}), null);
+    this.datesDeserializer = context.findRootValueDeserializer(context.getTypeFactory().constructType(new TypeReference<Date>() {}));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public JacksonFields deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    }
+    if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+      throw context.mappingException(JacksonFields.class, token);
+    }
+    final JacksonFieldsBuilder builder = new JacksonFieldsBuilder();
+    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+      final String _name = parser.getCurrentName();
+      token = parser.nextToken();
+      switch (_name) {
+        case "a":
+          builder.a(_parseIntPrimitive(parser, context));
+          break;
+        case "b":
+          builder.b(_parseDoublePrimitive(parser, context));
+          break;
+        case "aCamelCaseField":
+          builder.aCamelCaseField(_parseBooleanPrimitive(parser, context));
+          break;
+        case "c":
+          builder.c(required((Character) (token == JsonToken.VALUE_NULL ? cDeserializer.getNullValue() : cDeserializer.deserialize(parser, context)), context, "c"));
+          break;
+        case "name":
+          builder.name(required(token == JsonToken.VALUE_NULL ? null : _parseString(parser, context), context, "name"));
+          break;
+        case "note":
+          builder.note(token == JsonToken.VALUE_NULL ? null : _parseString(parser, context));
+          break;
+        case "date":
+          builder.date(required((Date) (token == JsonToken.VALUE_NULL ? dateDeserializer.getNullValue() : dateDeserializer.deserialize(parser, context)), context, "date"));
+          break;
+        case "tags":
+          if (token == JsonToken.VALUE_NULL) {
+            break;
+          }
+          if (token != JsonToken.START_ARRAY) {
+            throw context.mappingException(List.class, token);
+          }
+          while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            builder.addTag(required(token == JsonToken.VALUE_NULL ? null : _parseString(parser, context), context, "tags"));
+          }
+          break;
+        case "numbers":
+          if (token == JsonToken.VALUE_NULL) {
+            break;
+          }
+          if (token != JsonToken.START_ARRAY) {
+            throw context.mappingException(Set.class, token);
+          }
+          while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            builder.addNumber(required(_parseInteger(parser, context), context, "numbers"));
+          }
+          break;
+        case "dates":
+          if (token == JsonToken.VALUE_NULL) {
+            break;
+          }
+          if (token != JsonToken.START_OBJECT) {
+            throw context.mappingException(Map.class, token);
+          }
+          for (token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            final Long key = required((Long) datesKeyDeserializer.deserializeKey(parser.getCurrentName(), context), context, "dates");
+            token = parser.nextToken();
+            builder.putDate(key, required((Date) (token == JsonToken.VALUE_NULL ? datesDeserializer.getNullValue() : datesDeserializer.deserialize(parser, context)), context, "dates"));
+          }
+          break;
+        case "aliases":
+          if (token == JsonToken.VALUE_NULL) {
+            builder.aliases((List<String>) null);
+            break;
+          }
+          if (token != JsonToken.START_ARRAY) {
+            throw context.mappingException(List.class, token);
+          }
+          final List<String> aliases = new ArrayList<String>();
+          while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            aliases.add(token == JsonToken.VALUE_NULL ? null : _parseString(parser, context));
+          }
+          builder.aliases(aliases);
+          break;
+        case "foobar":
+          builder.isReallyFoobar(_parseBooleanPrimitive(parser, context));
+          break;
+        default:
+          handleUnknownProperty(parser, context, JacksonFields.class, _name);
+      }
+    }
+    if (builder.name() == null) {
+      throw context.mappingException("Missing required property 'name' of JacksonFields");
+    }
+    if (builder.date() == null) {
+      throw context.mappingException("Missing required property 'date' of JacksonFields");
+    }
+    return builder.build();
+  }
+
+  private static <T> T required(T value, DeserializationContext context, String property) throws JsonMappingException {
+    if (value == null) {
+      throw context.mappingException("Null value for required property '" + property + "' of JacksonFields");
+    }
+    return value;
+  }
+}
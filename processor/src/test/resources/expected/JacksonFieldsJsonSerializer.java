@@ -0,0 +1,71 @@
+package foo;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class JacksonFieldsJsonSerializer extends StdSerializer<JacksonFields> {
+
+  private static final SerializedString A = new SerializedString("a");
+  private static final SerializedString B = new SerializedString("b");
+  private static final SerializedString A_CAMEL_CASE_FIELD =
+      new SerializedString("aCamelCaseField");
+  private static final SerializedString C = new SerializedString("c");
+  private static final SerializedString NAME = new SerializedString("name");
+  private static final SerializedString NOTE = new SerializedString("note");
+  private static final SerializedString DATE = new SerializedString("date");
+  private static final SerializedString TAGS = new SerializedString("tags");
+  private static final SerializedString NUMBERS = new SerializedString("numbers");
+  private static final SerializedString DATES = new SerializedString("dates");
+  private static final SerializedString ALIASES = new SerializedString("aliases");
+  private static final SerializedString IS_REALLY_FOOBAR = new SerializedString("foobar");
+
+  public JacksonFieldsJsonSerializer() {
+    super(JacksonFields.class);
+  }
+
+  @Override
+  public void serialize(JacksonFields value, JsonGenerator generator, SerializerProvider provider)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName(A);
+    generator.writeNumber(value.a());
+    generator.writeFieldName(B);
+    generator.writeNumber(value.b());
+    generator.writeFieldName(A_CAMEL_CASE_FIELD);
+    generator.writeBoolean(value.aCamelCaseField());
+    generator.writeFieldName(C);
+    provider.defaultSerializeValue(value.c(), generator);
+    generator.writeFieldName(NAME);
+    final String name = value.name();
+    if (name == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(name);
+    }
+    generator.writeFieldName(NOTE);
+    final String note = value.note();
+    if (note == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(note);
+    }
+    generator.writeFieldName(DATE);
+    provider.defaultSerializeValue(value.date(), generator);
+    generator.writeFieldName(TAGS);
+    provider.defaultSerializeValue(value.tags(), generator);
+    generator.writeFieldName(NUMBERS);
+    provider.defaultSerializeValue(value.numbers(), generator);
+    generator.writeFieldName(DATES);
+    provider.defaultSerializeValue(value.dates(), generator);
+    generator.writeFieldName(ALIASES);
+    provider.defaultSerializeValue(value.aliases(), generator);
+    generator.writeFieldName(IS_REALLY_FOOBAR);
+    generator.writeBoolean(value.isReallyFoobar());
+    generator.writeEndObject();
+  }
+}
@@ -12,6 +12,10 @@ public final class NestedFoobarBuilder {
   private NestedFoobarBuilder(NestedFoobarBuilder v) {
   }
 
+  public NestedFoobarBuilder clear() {
+    return this;
+  }
+
   public Nested.NestedFoobar build() {
     return new Value();
   }
@@ -14,6 +14,10 @@ final class NestedPackageLocalFoobarBuilder {
   private NestedPackageLocalFoobarBuilder(NestedPackageLocalFoobarBuilder v) {
   }
 
+  public NestedPackageLocalFoobarBuilder clear() {
+    return this;
+  }
+
   public NestedPackageLocal.NestedPackageLocalFoobar build() {
     return new Value();
   }
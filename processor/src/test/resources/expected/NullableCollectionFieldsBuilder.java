@@ -1,10 +1,13 @@
 package foo;
 
 import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.collections.CompactList;
+import io.norberg.automatter.collections.ImmutableCollections;
+import io.norberg.automatter.collections.PrimitiveIntMap;
+import io.norberg.automatter.collections.PrimitiveLongSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -17,8 +20,13 @@ import javax.annotation.Generated;
 public final class NullableCollectionFieldsBuilder {
 
   private List<String> strings;
-  private Map<String,Integer> integers;
+  private Map<String, Integer> integers;
   private Set<Long> numbers;
+  private boolean _stringsExposed;
+  private boolean _integersExposed;
+  private int _integersCapacity;
+  private boolean _numbersExposed;
+  private int _numbersCapacity;
 
   public NullableCollectionFieldsBuilder() {
   }
@@ -26,38 +34,53 @@ public final class NullableCollectionFieldsBuilder {
   private NullableCollectionFieldsBuilder(NullableCollectionFields v) {
     List<String> _strings = v.strings();
     this.strings = (_strings == null) ? null : new ArrayList<String>(_strings);
-    Map<String,Integer> _integers = v.integers();
-    this.integers = (_integers == null) ? null : new HashMap<String,Integer>(_integers);
+    Map<String, Integer> _integers = v.integers();
+    this.integers = (_integers == null) ? null : new HashMap<String, Integer>(_integers);
     Set<Long> _numbers = v.numbers();
     this.numbers = (_numbers == null) ? null : new HashSet<Long>(_numbers);
   }
 
+  private NullableCollectionFieldsBuilder(Value v) {
+    this.strings = (v.strings == null || ImmutableCollections.isImmutableList(v.strings)) ? v.strings : new ArrayList<String>(v.strings);
+    this.integers = (v.integers == null || ImmutableCollections.isImmutableMap(v.integers)) ? v.integers : new HashMap<String, Integer>(v.integers);
+    this.numbers = (v.numbers == null || ImmutableCollections.isImmutableSet(v.numbers)) ? v.numbers : new HashSet<Long>(v.numbers);
+  }
+
   private NullableCollectionFieldsBuilder(NullableCollectionFieldsBuilder v) {
-    this.strings = (v.strings == null) ? null : new ArrayList<String>(v.strings);
-    this.integers = (v.integers == null) ? null : new HashMap<String,Integer>(v.integers);
-    this.numbers = (v.numbers == null) ? null : new HashSet<Long>(v.numbers);
+    this.strings = (v.strings instanceof ArrayList) ? new ArrayList<String>(v.strings) : v.strings;
+    this.integers = (v.integers instanceof HashMap) ? new HashMap<String, Integer>(v.integers) : v.integers;
+    this.numbers = (v.numbers instanceof HashSet) ? new HashSet<Long>(v.numbers) : v.numbers;
   }
 
   public List<String> strings() {
-    return strings;
+    this._stringsExposed = (this.strings != null);
+    return (this.strings == null) ? null : _ownedStrings();
   }
 
   public NullableCollectionFieldsBuilder strings(List<? extends String> strings) {
     return strings((Collection<? extends String>) strings);
   }
 
+  @SuppressWarnings("unchecked")
   public NullableCollectionFieldsBuilder strings(Collection<? extends String> strings) {
     if (strings == null) {
       this.strings = null;
+      this._stringsExposed = false;
       return this;
     }
-    this.strings = new ArrayList<String>(strings);
+    if (ImmutableCollections.isImmutableList(strings)) {
+      this.strings = (List<String>) strings;
+    } else {
+      this.strings = new ArrayList<String>(strings);
+    }
+    this._stringsExposed = false;
     return this;
   }
 
   public NullableCollectionFieldsBuilder strings(Iterable<? extends String> strings) {
     if (strings == null) {
       this.strings = null;
+      this._stringsExposed = false;
       return this;
     }
     if (strings instanceof Collection) {
@@ -69,9 +92,11 @@ public final class NullableCollectionFieldsBuilder {
   public NullableCollectionFieldsBuilder strings(Iterator<? extends String> strings) {
     if (strings == null) {
       this.strings = null;
+      this._stringsExposed = false;
       return this;
     }
     this.strings = new ArrayList<String>();
+    this._stringsExposed = false;
     while (strings.hasNext()) {
       String item = strings.next();
       this.strings.add(item);
@@ -82,100 +107,142 @@ public final class NullableCollectionFieldsBuilder {
   public NullableCollectionFieldsBuilder strings(String... strings) {
     if (strings == null) {
       this.strings = null;
+      this._stringsExposed = false;
       return this;
     }
     return strings(Arrays.asList(strings));
   }
 
   public NullableCollectionFieldsBuilder addString(String string) {
-    if (this.strings == null) {
-      this.strings = new ArrayList<String>();
-    }
-    strings.add(string);
+    _ownedStrings().add(string);
+    return this;
+  }
+
+  public NullableCollectionFieldsBuilder ensureStringsCapacity(int capacity) {
+    _ownedStrings().ensureCapacity(capacity);
     return this;
   }
 
-  public Map<String,Integer> integers() {
-    return integers;
+  public Map<String, Integer> integers() {
+    this._integersExposed = (this.integers != null);
+    return (this.integers == null) ? null : _ownedIntegers();
   }
 
-  public NullableCollectionFieldsBuilder integers(Map<? extends String,? extends Integer> integers) {
+  @SuppressWarnings("unchecked")
+  public NullableCollectionFieldsBuilder integers(Map<? extends String, ? extends Integer> integers) {
     if (integers == null) {
       this.integers = null;
+      this._integersExposed = false;
+      this._integersCapacity = 0;
       return this;
     }
-    this.integers = new HashMap<String,Integer>(integers);
+    if (ImmutableCollections.isImmutableMap(integers)) {
+      this.integers = (Map<String, Integer>) integers;
+    } else {
+      this.integers = new HashMap<String, Integer>(integers);
+    }
+    this._integersExposed = false;
+    this._integersCapacity = 0;
     return this;
   }
 
   public NullableCollectionFieldsBuilder integers(String k1, Integer v1) {
-    integers = new HashMap<String,Integer>();
+    integers = new HashMap<String, Integer>();
+    this._integersExposed = false;
+    this._integersCapacity = 0;
     integers.put(k1, v1);
     return this;
   }
 
   public NullableCollectionFieldsBuilder integers(String k1, Integer v1,
-                                          String k2, Integer v2) {
+                                                  String k2, Integer v2) {
     integers(k1, v1);
     integers.put(k2, v2);
     return this;
   }
 
   public NullableCollectionFieldsBuilder integers(String k1, Integer v1,
-                                          String k2, Integer v2,
-                                          String k3, Integer v3) {
+                                                  String k2, Integer v2,
+                                                  String k3, Integer v3) {
     integers(k1, v1, k2, v2);
     integers.put(k3, v3);
     return this;
   }
 
   public NullableCollectionFieldsBuilder integers(String k1, Integer v1,
-                                          String k2, Integer v2,
-                                          String k3, Integer v3,
-                                          String k4, Integer v4) {
+                                                  String k2, Integer v2,
+                                                  String k3, Integer v3,
+                                                  String k4, Integer v4) {
     integers(k1, v1, k2, v2, k3, v3);
     integers.put(k4, v4);
     return this;
   }
 
   public NullableCollectionFieldsBuilder integers(String k1, Integer v1,
-                                          String k2, Integer v2,
-                                          String k3, Integer v3,
-                                          String k4, Integer v4,
-                                          String k5, Integer v5) {
+                                                  String k2, Integer v2,
+                                                  String k3, Integer v3,
+                                                  String k4, Integer v4,
+                                                  String k5, Integer v5) {
     integers(k1, v1, k2, v2, k3, v3, k4, v4);
     integers.put(k5, v5);
     return this;
   }
 
   public NullableCollectionFieldsBuilder putInteger(String key, Integer value) {
-    if (this.integers == null) {
-      this.integers = new HashMap<String,Integer>();
+    _ownedIntegers().put(key, value);
+    return this;
+  }
+
+  public NullableCollectionFieldsBuilder putInteger(String key, int value) {
+    _ownedIntegers().put(key, value);
+    return this;
+  }
+
+  public NullableCollectionFieldsBuilder ensureIntegersCapacity(int capacity) {
+    if (this.integers instanceof HashMap && (_integersExposed || capacity <= Math.max(this._integersCapacity, this.integers.size()))) {
+      return this;
     }
-    integers.put(key, value);
+    final HashMap<String, Integer> _integers = new HashMap<String, Integer>(Math.max((int) (capacity / .75f) + 1, 16));
+    if (this.integers != null) {
+      _integers.putAll(this.integers);
+    }
+    this.integers = _integers;
+    this._integersCapacity = capacity;
     return this;
   }
 
   public Set<Long> numbers() {
-    return numbers;
+    this._numbersExposed = (this.numbers != null);
+    return (this.numbers == null) ? null : _ownedNumbers();
   }
 
   public NullableCollectionFieldsBuilder numbers(Set<? extends Long> numbers) {
     return numbers((Collection<? extends Long>) numbers);
   }
 
+  @SuppressWarnings("unchecked")
   public NullableCollectionFieldsBuilder numbers(Collection<? extends Long> numbers) {
     if (numbers == null) {
       this.numbers = null;
+      this._numbersExposed = false;
+      this._numbersCapacity = 0;
       return this;
     }
-    this.numbers = new HashSet<Long>(numbers);
+    if (ImmutableCollections.isImmutableSet(numbers)) {
+      this.numbers = (Set<Long>) numbers;
+    } else {
+      this.numbers = new HashSet<Long>(numbers);
+    }
+    this._numbersExposed = false;
+    this._numbersCapacity = 0;
     return this;
   }
 
   public NullableCollectionFieldsBuilder numbers(Iterable<? extends Long> numbers) {
     if (numbers == null) {
       this.numbers = null;
+      this._numbersExposed = false;
+      this._numbersCapacity = 0;
       return this;
     }
     if (numbers instanceof Collection) {
@@ -187,9 +254,13 @@ public final class NullableCollectionFieldsBuilder {
   public NullableCollectionFieldsBuilder numbers(Iterator<? extends Long> numbers) {
     if (numbers == null) {
       this.numbers = null;
+      this._numbersExposed = false;
+      this._numbersCapacity = 0;
       return this;
     }
     this.numbers = new HashSet<Long>();
+    this._numbersExposed = false;
+    this._numbersCapacity = 0;
     while (numbers.hasNext()) {
       Long item = numbers.next();
       this.numbers.add(item);
@@ -200,27 +271,94 @@ public final class NullableCollectionFieldsBuilder {
   public NullableCollectionFieldsBuilder numbers(Long... numbers) {
     if (numbers == null) {
       this.numbers = null;
+      this._numbersExposed = false;
+      this._numbersCapacity = 0;
       return this;
     }
     return numbers(Arrays.asList(numbers));
   }
 
+  public NullableCollectionFieldsBuilder numbers(long[] numbers) {
+    if (numbers == null) {
+      this.numbers = null;
+      this._numbersExposed = false;
+      this._numbersCapacity = 0;
+      return this;
+    }
+    final HashSet<Long> set = new HashSet<Long>(numbers.length);
+    for (long value : numbers) {
+      set.add(value);
+    }
+    this.numbers = set;
+    this._numbersExposed = false;
+    this._numbersCapacity = 0;
+    return this;
+  }
+
   public NullableCollectionFieldsBuilder addNumber(Long number) {
-    if (this.numbers == null) {
-      this.numbers = new HashSet<Long>();
+    _ownedNumbers().add(number);
+    return this;
+  }
+
+  public NullableCollectionFieldsBuilder addNumber(long number) {
+    _ownedNumbers().add(number);
+    return this;
+  }
+
+  public NullableCollectionFieldsBuilder ensureNumbersCapacity(int capacity) {
+    if (this.numbers instanceof HashSet && (_numbersExposed || capacity <= Math.max(this._numbersCapacity, this.numbers.size()))) {
+      return this;
     }
-    numbers.add(number);
+    final HashSet<Long> _numbers = new HashSet<Long>(Math.max((int) (capacity / .75f) + 1, 16));
+    if (this.numbers != null) {
+      _numbers.addAll(this.numbers);
+    }
+    this.numbers = _numbers;
+    this._numbersCapacity = capacity;
+    return this;
+  }
+
+  private ArrayList<String> _ownedStrings() {
+    if (!(this.strings instanceof ArrayList)) {
+      this.strings = (this.strings == null) ? new ArrayList<String>() : new ArrayList<String>(this.strings);
+    }
+    return (ArrayList<String>) this.strings;
+  }
+
+  private HashMap<String, Integer> _ownedIntegers() {
+    if (!(this.integers instanceof HashMap)) {
+      this.integers = (this.integers == null) ? new HashMap<String, Integer>() : new HashMap<String, Integer>(this.integers);
+    }
+    return (HashMap<String, Integer>) this.integers;
+  }
+
+  private HashSet<Long> _ownedNumbers() {
+    if (!(this.numbers instanceof HashSet)) {
+      this.numbers = (this.numbers == null) ? new HashSet<Long>() : new HashSet<Long>(this.numbers);
+    }
+    return (HashSet<Long>) this.numbers;
+  }
+
+  public NullableCollectionFieldsBuilder clear() {
+    this.strings = null;
+    this._stringsExposed = false;
+    this.integers = null;
+    this._integersExposed = false;
+    this._integersCapacity = 0;
+    this.numbers = null;
+    this._numbersExposed = false;
+    this._numbersCapacity = 0;
     return this;
   }
 
   public NullableCollectionFields build() {
-    List<String> _strings = (strings != null) ? Collections.unmodifiableList(new ArrayList<String>(strings)) : null;
-    Map<String, Integer> _integers = (integers != null) ? Collections.unmodifiableMap(new HashMap<String, Integer>(integers)) : null;
-    Set<Long> _numbers = (numbers != null) ? Collections.unmodifiableSet(new HashSet<Long>(numbers)) : null;
-    return new Value(_strings, _integers, _numbers);
+    return new Value(strings, integers, numbers);
   }
 
   public static NullableCollectionFieldsBuilder from(NullableCollectionFields v) {
+    if (v instanceof Value) {
+      return new NullableCollectionFieldsBuilder((Value) v);
+    }
     return new NullableCollectionFieldsBuilder(v);
   }
 
@@ -232,15 +370,15 @@ public final class NullableCollectionFieldsBuilder {
       implements NullableCollectionFields {
 
     private final List<String> strings;
-    private final Map<String,Integer> integers;
+    private final Map<String, Integer> integers;
     private final Set<Long> numbers;
 
     private Value(@AutoMatter.Field("strings") List<String> strings,
-                  @AutoMatter.Field("integers") Map<String,Integer> integers,
+                  @AutoMatter.Field("integers") Map<String, Integer> integers,
                   @AutoMatter.Field("numbers") Set<Long> numbers) {
-      this.strings = strings;
-      this.integers = integers;
-      this.numbers = numbers;
+      this.strings = (strings != null) ? CompactList.copyOf(strings) : null;
+      this.integers = (integers != null) ? PrimitiveIntMap.copyOf(integers) : null;
+      this.numbers = (numbers != null) ? PrimitiveLongSet.copyOf(numbers) : null;
     }
 
     @AutoMatter.Field
@@ -251,7 +389,7 @@ public final class NullableCollectionFieldsBuilder {
 
     @AutoMatter.Field
     @Override
-    public Map<String,Integer> integers() {
+    public Map<String, Integer> integers() {
       return integers;
     }
 
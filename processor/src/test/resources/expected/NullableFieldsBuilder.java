@@ -67,6 +67,14 @@ public final class NullableFieldsBuilder {
     return this;
   }
 
+  public NullableFieldsBuilder clear() {
+    this.nullableFoo = null;
+    this.customNullableBar = null;
+    this.nonNullQuux = null;
+    this.nonNullPrimitive = 0;
+    return this;
+  }
+
   public NullableFields build() {
     return new Value(
         nullableFoo,
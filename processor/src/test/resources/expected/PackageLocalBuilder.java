@@ -14,6 +14,10 @@ final class PackageLocalBuilder {
   private PackageLocalBuilder(PackageLocalBuilder v) {
   }
 
+  public PackageLocalBuilder clear() {
+    return this;
+  }
+
   public PackageLocal build() {
     return new Value();
   }
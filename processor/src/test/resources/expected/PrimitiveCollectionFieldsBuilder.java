@@ -0,0 +1,714 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.collections.ImmutableCollections;
+import io.norberg.automatter.collections.PrimitiveIntHashSet;
+import io.norberg.automatter.collections.PrimitiveIntSet;
+import io.norberg.automatter.collections.PrimitiveLongArrayList;
+import io.norberg.automatter.collections.PrimitiveLongHashMap;
+import io.norberg.automatter.collections.PrimitiveLongList;
+import io.norberg.automatter.collections.PrimitiveLongMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class PrimitiveCollectionFieldsBuilder {
+
+  private List<Long> longs;
+  private Set<Integer> ints;
+  private List<Long> timestamps;
+  private Set<Integer> tags;
+  private Map<String, Long> counts;
+  private boolean _longsExposed;
+  private boolean _intsExposed;
+  private boolean _timestampsExposed;
+  private boolean _tagsExposed;
+  private boolean _countsExposed;
+
+  public PrimitiveCollectionFieldsBuilder() {
+  }
+
+  private PrimitiveCollectionFieldsBuilder(PrimitiveCollectionFields v) {
+    List<Long> _longs = v.longs();
+    this.longs = (_longs == null) ? null : new PrimitiveLongArrayList(_longs);
+    Set<Integer> _ints = v.ints();
+    this.ints = (_ints == null) ? null : new PrimitiveIntHashSet(_ints);
+    List<Long> _timestamps = v.timestamps();
+    this.timestamps = (_timestamps == null) ? null : new PrimitiveLongArrayList(_timestamps);
+    Set<Integer> _tags = v.tags();
+    this.tags = (_tags == null) ? null : new PrimitiveIntHashSet(_tags);
+    Map<String, Long> _counts = v.counts();
+    this.counts = (_counts == null) ? null : new PrimitiveLongHashMap<String>(_counts);
+  }
+
+  private PrimitiveCollectionFieldsBuilder(Value v) {
+    this.longs = (v.longs == null || ImmutableCollections.isImmutableList(v.longs)) ? v.longs : new PrimitiveLongArrayList(v.longs);
+    this.ints = (v.ints == null || ImmutableCollections.isImmutableSet(v.ints)) ? v.ints : new PrimitiveIntHashSet(v.ints);
+    this.timestamps = (v.timestamps == null || ImmutableCollections.isImmutableList(v.timestamps)) ? v.timestamps : new PrimitiveLongArrayList(v.timestamps);
+    this.tags = (v.tags == null || ImmutableCollections.isImmutableSet(v.tags)) ? v.tags : new PrimitiveIntHashSet(v.tags);
+    this.counts = (v.counts == null || ImmutableCollections.isImmutableMap(v.counts)) ? v.counts : new PrimitiveLongHashMap<String>(v.counts);
+  }
+
+  private PrimitiveCollectionFieldsBuilder(PrimitiveCollectionFieldsBuilder v) {
+    this.longs = (v.longs instanceof PrimitiveLongArrayList) ? new PrimitiveLongArrayList(v.longs) : v.longs;
+    this.ints = (v.ints instanceof PrimitiveIntHashSet) ? new PrimitiveIntHashSet(v.ints) : v.ints;
+    this.timestamps = (v.timestamps instanceof PrimitiveLongArrayList) ? new PrimitiveLongArrayList(v.timestamps) : v.timestamps;
+    this.tags = (v.tags instanceof PrimitiveIntHashSet) ? new PrimitiveIntHashSet(v.tags) : v.tags;
+    this.counts = (v.counts instanceof PrimitiveLongHashMap) ? new PrimitiveLongHashMap<String>(v.counts) : v.counts;
+  }
+
+  public List<Long> longs() {
+    this._longsExposed = true;
+    return _ownedLongs();
+  }
+
+  public PrimitiveCollectionFieldsBuilder longs(List<? extends Long> longs) {
+    return longs((Collection<? extends Long>) longs);
+  }
+
+  @SuppressWarnings("unchecked")
+  public PrimitiveCollectionFieldsBuilder longs(Collection<? extends Long> longs) {
+    if (longs == null) {
+      throw new NullPointerException("longs");
+    }
+    if (ImmutableCollections.isImmutableList(longs)) {
+      this.longs = (List<Long>) longs;
+    } else {
+      for (Long item : longs) {
+        if (item == null) {
+          throw new NullPointerException("longs: null item");
+        }
+      }
+      this.longs = new PrimitiveLongArrayList(longs);
+    }
+    this._longsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder longs(Iterable<? extends Long> longs) {
+    if (longs == null) {
+      throw new NullPointerException("longs");
+    }
+    if (longs instanceof Collection) {
+      return longs((Collection<? extends Long>) longs);
+    }
+    return longs(longs.iterator());
+  }
+
+  public PrimitiveCollectionFieldsBuilder longs(Iterator<? extends Long> longs) {
+    if (longs == null) {
+      throw new NullPointerException("longs");
+    }
+    this.longs = new PrimitiveLongArrayList();
+    this._longsExposed = false;
+    while (longs.hasNext()) {
+      Long item = longs.next();
+      if (item == null) {
+        throw new NullPointerException("longs: null item");
+      }
+      this.longs.add(item);
+    }
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder longs(Long... longs) {
+    if (longs == null) {
+      throw new NullPointerException("longs");
+    }
+    return longs(Arrays.asList(longs));
+  }
+
+  public PrimitiveCollectionFieldsBuilder longs(long[] longs) {
+    if (longs == null) {
+      throw new NullPointerException("longs");
+    }
+    this.longs = PrimitiveLongList.copyOf(longs);
+    this._longsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ensureLongsCapacity(int capacity) {
+    _ownedLongs().ensureCapacity(capacity);
+    return this;
+  }
+
+  public Set<Integer> ints() {
+    this._intsExposed = true;
+    return _ownedInts();
+  }
+
+  public PrimitiveCollectionFieldsBuilder ints(Set<? extends Integer> ints) {
+    return ints((Collection<? extends Integer>) ints);
+  }
+
+  @SuppressWarnings("unchecked")
+  public PrimitiveCollectionFieldsBuilder ints(Collection<? extends Integer> ints) {
+    if (ints == null) {
+      throw new NullPointerException("ints");
+    }
+    if (ImmutableCollections.isImmutableSet(ints)) {
+      this.ints = (Set<Integer>) ints;
+    } else {
+      for (Integer item : ints) {
+        if (item == null) {
+          throw new NullPointerException("ints: null item");
+        }
+      }
+      this.ints = new PrimitiveIntHashSet(ints);
+    }
+    this._intsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ints(Iterable<? extends Integer> ints) {
+    if (ints == null) {
+      throw new NullPointerException("ints");
+    }
+    if (ints instanceof Collection) {
+      return ints((Collection<? extends Integer>) ints);
+    }
+    return ints(ints.iterator());
+  }
+
+  public PrimitiveCollectionFieldsBuilder ints(Iterator<? extends Integer> ints) {
+    if (ints == null) {
+      throw new NullPointerException("ints");
+    }
+    this.ints = new PrimitiveIntHashSet();
+    this._intsExposed = false;
+    while (ints.hasNext()) {
+      Integer item = ints.next();
+      if (item == null) {
+        throw new NullPointerException("ints: null item");
+      }
+      this.ints.add(item);
+    }
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ints(Integer... ints) {
+    if (ints == null) {
+      throw new NullPointerException("ints");
+    }
+    return ints(Arrays.asList(ints));
+  }
+
+  public PrimitiveCollectionFieldsBuilder ints(int[] ints) {
+    if (ints == null) {
+      throw new NullPointerException("ints");
+    }
+    final PrimitiveIntHashSet set = new PrimitiveIntHashSet(ints.length);
+    for (int value : ints) {
+      set.add(value);
+    }
+    this.ints = set;
+    this._intsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ensureIntsCapacity(int capacity) {
+    _ownedInts().ensureCapacity(capacity);
+    return this;
+  }
+
+  public List<Long> timestamps() {
+    this._timestampsExposed = true;
+    return _ownedTimestamps();
+  }
+
+  public PrimitiveCollectionFieldsBuilder timestamps(List<? extends Long> timestamps) {
+    return timestamps((Collection<? extends Long>) timestamps);
+  }
+
+  @SuppressWarnings("unchecked")
+  public PrimitiveCollectionFieldsBuilder timestamps(Collection<? extends Long> timestamps) {
+    if (timestamps == null) {
+      throw new NullPointerException("timestamps");
+    }
+    if (ImmutableCollections.isImmutableList(timestamps)) {
+      this.timestamps = (List<Long>) timestamps;
+    } else {
+      for (Long item : timestamps) {
+        if (item == null) {
+          throw new NullPointerException("timestamps: null item");
+        }
+      }
+      this.timestamps = new PrimitiveLongArrayList(timestamps);
+    }
+    this._timestampsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder timestamps(Iterable<? extends Long> timestamps) {
+    if (timestamps == null) {
+      throw new NullPointerException("timestamps");
+    }
+    if (timestamps instanceof Collection) {
+      return timestamps((Collection<? extends Long>) timestamps);
+    }
+    return timestamps(timestamps.iterator());
+  }
+
+  public PrimitiveCollectionFieldsBuilder timestamps(Iterator<? extends Long> timestamps) {
+    if (timestamps == null) {
+      throw new NullPointerException("timestamps");
+    }
+    this.timestamps = new PrimitiveLongArrayList();
+    this._timestampsExposed = false;
+    while (timestamps.hasNext()) {
+      Long item = timestamps.next();
+      if (item == null) {
+        throw new NullPointerException("timestamps: null item");
+      }
+      this.timestamps.add(item);
+    }
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder timestamps(Long... timestamps) {
+    if (timestamps == null) {
+      throw new NullPointerException("timestamps");
+    }
+    return timestamps(Arrays.asList(timestamps));
+  }
+
+  public PrimitiveCollectionFieldsBuilder timestamps(long[] timestamps) {
+    if (timestamps == null) {
+      throw new NullPointerException("timestamps");
+    }
+    this.timestamps = PrimitiveLongList.copyOf(timestamps);
+    this._timestampsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder addTimestamp(Long timestamp) {
+    if (timestamp == null) {
+      throw new NullPointerException("timestamp");
+    }
+    _ownedTimestamps().add(timestamp);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder addTimestamp(long timestamp) {
+    _ownedTimestamps().add(timestamp);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ensureTimestampsCapacity(int capacity) {
+    _ownedTimestamps().ensureCapacity(capacity);
+    return this;
+  }
+
+  public Set<Integer> tags() {
+    this._tagsExposed = true;
+    return _ownedTags();
+  }
+
+  public PrimitiveCollectionFieldsBuilder tags(Set<? extends Integer> tags) {
+    return tags((Collection<? extends Integer>) tags);
+  }
+
+  @SuppressWarnings("unchecked")
+  public PrimitiveCollectionFieldsBuilder tags(Collection<? extends Integer> tags) {
+    if (tags == null) {
+      throw new NullPointerException("tags");
+    }
+    if (ImmutableCollections.isImmutableSet(tags)) {
+      this.tags = (Set<Integer>) tags;
+    } else {
+      for (Integer item : tags) {
+        if (item == null) {
+          throw new NullPointerException("tags: null item");
+        }
+      }
+      this.tags = new PrimitiveIntHashSet(tags);
+    }
+    this._tagsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder tags(Iterable<? extends Integer> tags) {
+    if (tags == null) {
+      throw new NullPointerException("tags");
+    }
+    if (tags instanceof Collection) {
+      return tags((Collection<? extends Integer>) tags);
+    }
+    return tags(tags.iterator());
+  }
+
+  public PrimitiveCollectionFieldsBuilder tags(Iterator<? extends Integer> tags) {
+    if (tags == null) {
+      throw new NullPointerException("tags");
+    }
+    this.tags = new PrimitiveIntHashSet();
+    this._tagsExposed = false;
+    while (tags.hasNext()) {
+      Integer item = tags.next();
+      if (item == null) {
+        throw new NullPointerException("tags: null item");
+      }
+      this.tags.add(item);
+    }
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder tags(Integer... tags) {
+    if (tags == null) {
+      throw new NullPointerException("tags");
+    }
+    return tags(Arrays.asList(tags));
+  }
+
+  public PrimitiveCollectionFieldsBuilder tags(int[] tags) {
+    if (tags == null) {
+      throw new NullPointerException("tags");
+    }
+    final PrimitiveIntHashSet set = new PrimitiveIntHashSet(tags.length);
+    for (int value : tags) {
+      set.add(value);
+    }
+    this.tags = set;
+    this._tagsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder addTag(Integer tag) {
+    if (tag == null) {
+      throw new NullPointerException("tag");
+    }
+    _ownedTags().add(tag);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder addTag(int tag) {
+    _ownedTags().add(tag);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ensureTagsCapacity(int capacity) {
+    _ownedTags().ensureCapacity(capacity);
+    return this;
+  }
+
+  public Map<String, Long> counts() {
+    this._countsExposed = true;
+    return _ownedCounts();
+  }
+
+  @SuppressWarnings("unchecked")
+  public PrimitiveCollectionFieldsBuilder counts(Map<? extends String, ? extends Long> counts) {
+    if (counts == null) {
+      throw new NullPointerException("counts");
+    }
+    if (ImmutableCollections.isImmutableMap(counts)) {
+      this.counts = (Map<String, Long>) counts;
+    } else {
+      for (Map.Entry<? extends String, ? extends Long> entry : counts.entrySet()) {
+        if (entry.getKey() == null) {
+          throw new NullPointerException("counts: null key");
+        }
+        if (entry.getValue() == null) {
+          throw new NullPointerException("counts: null value");
+        }
+      }
+      this.counts = new PrimitiveLongHashMap<String>(counts);
+    }
+    this._countsExposed = false;
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder counts(String k1, Long v1) {
+    if (k1 == null) {
+      throw new NullPointerException("counts: k1");
+    }
+    if (v1 == null) {
+      throw new NullPointerException("counts: v1");
+    }
+    counts = new PrimitiveLongHashMap<String>();
+    this._countsExposed = false;
+    counts.put(k1, v1);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder counts(String k1, Long v1,
+                                                 String k2, Long v2) {
+    counts(k1, v1);
+    if (k2 == null) {
+      throw new NullPointerException("counts: k2");
+    }
+    if (v2 == null) {
+      throw new NullPointerException("counts: v2");
+    }
+    counts.put(k2, v2);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder counts(String k1, Long v1,
+                                                 String k2, Long v2,
+                                                 String k3, Long v3) {
+    counts(k1, v1, k2, v2);
+    if (k3 == null) {
+      throw new NullPointerException("counts: k3");
+    }
+    if (v3 == null) {
+      throw new NullPointerException("counts: v3");
+    }
+    counts.put(k3, v3);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder counts(String k1, Long v1,
+                                                 String k2, Long v2,
+                                                 String k3, Long v3,
+                                                 String k4, Long v4) {
+    counts(k1, v1, k2, v2, k3, v3);
+    if (k4 == null) {
+      throw new NullPointerException("counts: k4");
+    }
+    if (v4 == null) {
+      throw new NullPointerException("counts: v4");
+    }
+    counts.put(k4, v4);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder counts(String k1, Long v1,
+                                                 String k2, Long v2,
+                                                 String k3, Long v3,
+                                                 String k4, Long v4,
+                                                 String k5, Long v5) {
+    counts(k1, v1, k2, v2, k3, v3, k4, v4);
+    if (k5 == null) {
+      throw new NullPointerException("counts: k5");
+    }
+    if (v5 == null) {
+      throw new NullPointerException("counts: v5");
+    }
+    counts.put(k5, v5);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder putCount(String key, Long value) {
+    if (key == null) {
+      throw new NullPointerException("count: key");
+    }
+    if (value == null) {
+      throw new NullPointerException("count: value");
+    }
+    _ownedCounts().put(key, value);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder putCount(String key, long value) {
+    if (key == null) {
+      throw new NullPointerException("count: key");
+    }
+    _ownedCounts().put(key, value);
+    return this;
+  }
+
+  public PrimitiveCollectionFieldsBuilder ensureCountsCapacity(int capacity) {
+    _ownedCounts().ensureCapacity(capacity);
+    return this;
+  }
+
+  private PrimitiveLongArrayList _ownedLongs() {
+    if (!(this.longs instanceof PrimitiveLongArrayList)) {
+      this.longs = (this.longs == null) ? new PrimitiveLongArrayList() : new PrimitiveLongArrayList(this.longs);
+    }
+    return (PrimitiveLongArrayList) this.longs;
+  }
+
+  private PrimitiveIntHashSet _ownedInts() {
+    if (!(this.ints instanceof PrimitiveIntHashSet)) {
+      this.ints = (this.ints == null) ? new PrimitiveIntHashSet() : new PrimitiveIntHashSet(this.ints);
+    }
+    return (PrimitiveIntHashSet) this.ints;
+  }
+
+  private PrimitiveLongArrayList _ownedTimestamps() {
+    if (!(this.timestamps instanceof PrimitiveLongArrayList)) {
+      this.timestamps = (this.timestamps == null) ? new PrimitiveLongArrayList() : new PrimitiveLongArrayList(this.timestamps);
+    }
+    return (PrimitiveLongArrayList) this.timestamps;
+  }
+
+  private PrimitiveIntHashSet _ownedTags() {
+    if (!(this.tags instanceof PrimitiveIntHashSet)) {
+      this.tags = (this.tags == null) ? new PrimitiveIntHashSet() : new PrimitiveIntHashSet(this.tags);
+    }
+    return (PrimitiveIntHashSet) this.tags;
+  }
+
+  private PrimitiveLongHashMap<String> _ownedCounts() {
+    if (!(this.counts instanceof PrimitiveLongHashMap)) {
+      this.counts = (this.counts == null) ? new PrimitiveLongHashMap<String>() : new PrimitiveLongHashMap<String>(this.counts);
+    }
+    return (PrimitiveLongHashMap<String>) this.counts;
+  }
+
+  public PrimitiveCollectionFieldsBuilder clear() {
+    if (this.longs instanceof PrimitiveLongArrayList && !this._longsExposed) {
+      this.longs.clear();
+    } else {
+      this.longs = null;
+      this._longsExposed = false;
+    }
+    if (this.ints instanceof PrimitiveIntHashSet && !this._intsExposed) {
+      this.ints.clear();
+    } else {
+      this.ints = null;
+      this._intsExposed = false;
+    }
+    if (this.timestamps instanceof PrimitiveLongArrayList && !this._timestampsExposed) {
+      this.timestamps.clear();
+    } else {
+      this.timestamps = null;
+      this._timestampsExposed = false;
+    }
+    if (this.tags instanceof PrimitiveIntHashSet && !this._tagsExposed) {
+      this.tags.clear();
+    } else {
+      this.tags = null;
+      this._tagsExposed = false;
+    }
+    if (this.counts instanceof PrimitiveLongHashMap && !this._countsExposed) {
+      this.counts.clear();
+    } else {
+      this.counts = null;
+      this._countsExposed = false;
+    }
+    return this;
+  }
+
+  public PrimitiveCollectionFields build() {
+    return new Value(longs, ints, timestamps, tags, counts);
+  }
+
+  public static PrimitiveCollectionFieldsBuilder from(PrimitiveCollectionFields v) {
+    if (v instanceof Value) {
+      return new PrimitiveCollectionFieldsBuilder((Value) v);
+    }
+    return new PrimitiveCollectionFieldsBuilder(v);
+  }
+
+  public static PrimitiveCollectionFieldsBuilder from(PrimitiveCollectionFieldsBuilder v) {
+    return new PrimitiveCollectionFieldsBuilder(v);
+  }
+
+  private static final class Value
+      implements PrimitiveCollectionFields {
+
+    private final List<Long> longs;
+    private final Set<Integer> ints;
+    private final List<Long> timestamps;
+    private final Set<Integer> tags;
+    private final Map<String, Long> counts;
+
+    private Value(@AutoMatter.Field("longs") List<Long> longs,
+                  @AutoMatter.Field("ints") Set<Integer> ints,
+                  @AutoMatter.Field("timestamps") List<Long> timestamps,
+                  @AutoMatter.Field("tags") Set<Integer> tags,
+                  @AutoMatter.Field("counts") Map<String, Long> counts) {
+      this.longs = (longs != null) ? PrimitiveLongList.copyOf(longs) : Collections.<Long>emptyList();
+      this.ints = (ints != null) ? PrimitiveIntSet.copyOf(ints) : Collections.<Integer>emptySet();
+      this.timestamps = (timestamps != null) ? PrimitiveLongList.copyOf(timestamps) : Collections.<Long>emptyList();
+      this.tags = (tags != null) ? PrimitiveIntSet.copyOf(tags) : Collections.<Integer>emptySet();
+      this.counts = (counts != null) ? PrimitiveLongMap.copyOf(counts) : Collections.<String, Long>emptyMap();
+    }
+
+    @AutoMatter.Field
+    @Override
+    public List<Long> longs() {
+      return longs;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public Set<Integer> ints() {
+      return ints;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public List<Long> timestamps() {
+      return timestamps;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public Set<Integer> tags() {
+      return tags;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public Map<String, Long> counts() {
+      return counts;
+    }
+
+    public PrimitiveCollectionFieldsBuilder builder() {
+      return new PrimitiveCollectionFieldsBuilder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PrimitiveCollectionFields)) {
+        return false;
+      }
+
+      final PrimitiveCollectionFields that = (PrimitiveCollectionFields) o;
+
+      if (longs != null ? !longs.equals(that.longs()) : that.longs() != null) {
+        return false;
+      }
+      if (ints != null ? !ints.equals(that.ints()) : that.ints() != null) {
+        return false;
+      }
+      if (timestamps != null ? !timestamps.equals(that.timestamps()) : that.timestamps() != null) {
+        return false;
+      }
+      if (tags != null ? !tags.equals(that.tags()) : that.tags() != null) {
+        return false;
+      }
+      if (counts != null ? !counts.equals(that.counts()) : that.counts() != null) {
+        return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = 1;
+      long temp;
+      result = 31 * result + (longs != null ? longs.hashCode() : 0);
+      result = 31 * result + (ints != null ? ints.hashCode() : 0);
+      result = 31 * result + (timestamps != null ? timestamps.hashCode() : 0);
+      result = 31 * result + (tags != null ? tags.hashCode() : 0);
+      result = 31 * result + (counts != null ? counts.hashCode() : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "PrimitiveCollectionFields{" +
+             "longs=" + longs +
+             ", ints=" + ints +
+             ", timestamps=" + timestamps +
+             ", tags=" + tags +
+             ", counts=" + counts +
+             '}';
+    }
+  }
+}
@@ -12,6 +12,10 @@ public final class TopLevelBuilder {
   private TopLevelBuilder(TopLevelBuilder v) {
   }
 
+  public TopLevelBuilder clear() {
+    return this;
+  }
+
   public TopLevel build() {
     return new Value();
   }
@@ -0,0 +1,271 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+import io.norberg.automatter.collections.CompactList;
+import io.norberg.automatter.collections.ImmutableCollections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Generated;
+
+@Generated("io.norberg.automatter.processor.AutoMatterProcessor")
+public final class WithersBuilder {
+
+  private int foo;
+  private String bar;
+  private List<String> strings;
+  private boolean _stringsExposed;
+
+  public WithersBuilder() {
+  }
+
+  private WithersBuilder(Withers v) {
+    this.foo = v.foo();
+    this.bar = v.bar();
+    List<String> _strings = v.strings();
+    this.strings = (_strings == null) ? null : new ArrayList<String>(_strings);
+  }
+
+  private WithersBuilder(Value v) {
+    this.foo = v.foo;
+    this.bar = v.bar;
+    this.strings = (v.strings == null || ImmutableCollections.isImmutableList(v.strings)) ? v.strings : new ArrayList<String>(v.strings);
+  }
+
+  private WithersBuilder(WithersBuilder v) {
+    this.foo = v.foo;
+    this.bar = v.bar;
+    this.strings = (v.strings instanceof ArrayList) ? new ArrayList<String>(v.strings) : v.strings;
+  }
+
+  public int foo() {
+    return foo;
+  }
+
+  public WithersBuilder foo(int foo) {
+    this.foo = foo;
+    return this;
+  }
+
+  public String bar() {
+    return bar;
+  }
+
+  public WithersBuilder bar(String bar) {
+    if (bar == null) {
+      throw new NullPointerException("bar");
+    }
+    this.bar = bar;
+    return this;
+  }
+
+  public List<String> strings() {
+    this._stringsExposed = true;
+    return _ownedStrings();
+  }
+
+  public WithersBuilder strings(List<? extends String> strings) {
+    return strings((Collection<? extends String>) strings);
+  }
+
+  @SuppressWarnings("unchecked")
+  public WithersBuilder strings(Collection<? extends String> strings) {
+    if (strings == null) {
+      throw new NullPointerException("strings");
+    }
+    if (ImmutableCollections.isImmutableList(strings)) {
+      this.strings = (List<String>) strings;
+    } else {
+      for (String item : strings) {
+        if (item == null) {
+          throw new NullPointerException("strings: null item");
+        }
+      }
+      this.strings = new ArrayList<String>(strings);
+    }
+    this._stringsExposed = false;
+    return this;
+  }
+
+  public WithersBuilder strings(Iterable<? extends String> strings) {
+    if (strings == null) {
+      throw new NullPointerException("strings");
+    }
+    if (strings instanceof Collection) {
+      return strings((Collection<? extends String>) strings);
+    }
+    return strings(strings.iterator());
+  }
+
+  public WithersBuilder strings(Iterator<? extends String> strings) {
+    if (strings == null) {
+      throw new NullPointerException("strings");
+    }
+    this.strings = new ArrayList<String>();
+    this._stringsExposed = false;
+    while (strings.hasNext()) {
+      String item = strings.next();
+      if (item == null) {
+        throw new NullPointerException("strings: null item");
+      }
+      this.strings.add(item);
+    }
+    return this;
+  }
+
+  public WithersBuilder strings(String... strings) {
+    if (strings == null) {
+      throw new NullPointerException("strings");
+    }
+    return strings(Arrays.asList(strings));
+  }
+
+  public WithersBuilder addString(String string) {
+    if (string == null) {
+      throw new NullPointerException("string");
+    }
+    _ownedStrings().add(string);
+    return this;
+  }
+
+  public WithersBuilder ensureStringsCapacity(int capacity) {
+    _ownedStrings().ensureCapacity(capacity);
+    return this;
+  }
+
+  private ArrayList<String> _ownedStrings() {
+    if (!(this.strings instanceof ArrayList)) {
+      this.strings = (this.strings == null) ? new ArrayList<String>() : new ArrayList<String>(this.strings);
+    }
+    return (ArrayList<String>) this.strings;
+  }
+
+  public WithersBuilder clear() {
+    this.foo = 0;
+    this.bar = null;
+    if (this.strings instanceof ArrayList && !this._stringsExposed) {
+      this.strings.clear();
+    } else {
+      this.strings = null;
+      this._stringsExposed = false;
+    }
+    return this;
+  }
+
+  public Withers build() {
+    return new Value(foo, bar, strings);
+  }
+
+  public static WithersBuilder from(Withers v) {
+    if (v instanceof Value) {
+      return new WithersBuilder((Value) v);
+    }
+    return new WithersBuilder(v);
+  }
+
+  public static WithersBuilder from(WithersBuilder v) {
+    return new WithersBuilder(v);
+  }
+
+  private static final class Value
+      implements Withers {
+
+    private final int foo;
+    private final String bar;
+    private final List<String> strings;
+
+    private Value(@AutoMatter.Field("foo") int foo,
+                  @AutoMatter.Field("bar") String bar,
+                  @AutoMatter.Field("strings") List<String> strings) {
+      if (bar == null) {
+        throw new NullPointerException("bar");
+      }
+      this.foo = foo;
+      this.bar = bar;
+      this.strings = (strings != null) ? CompactList.copyOf(strings) : Collections.<String>emptyList();
+    }
+
+    @AutoMatter.Field
+    @Override
+    public int foo() {
+      return foo;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public String bar() {
+      return bar;
+    }
+
+    @AutoMatter.Field
+    @Override
+    public List<String> strings() {
+      return strings;
+    }
+
+    @Override
+    public Withers withFoo(int foo) {
+      return new Value(foo, bar, strings);
+    }
+
+    @Override
+    public Withers withBar(String bar) {
+      return new Value(foo, bar, strings);
+    }
+
+    @Override
+    public Withers withStrings(List<String> strings) {
+      return new WithersBuilder(this).strings(strings).build();
+    }
+
+    public WithersBuilder builder() {
+      return new WithersBuilder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Withers)) {
+        return false;
+      }
+
+      final Withers that = (Withers) o;
+
+      if (foo != that.foo()) {
+        return false;
+      }
+      if (bar != null ? !bar.equals(that.bar()) : that.bar() != null) {
+        return false;
+      }
+      if (strings != null ? !strings.equals(that.strings()) : that.strings() != null) {
+        return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = 1;
+      long temp;
+      result = 31 * result + foo;
+      result = 31 * result + (bar != null ? bar.hashCode() : 0);
+      result = 31 * result + (strings != null ? strings.hashCode() : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "Withers{" +
+             "foo=" + foo +
+             ", bar=" + bar +
+             ", strings=" + strings +
+             '}';
+    }
+  }
+}
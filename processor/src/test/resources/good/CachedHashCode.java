@@ -0,0 +1,9 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(cacheHashCode = true)
+public interface CachedHashCode {
+  int foo();
+  String bar();
+}
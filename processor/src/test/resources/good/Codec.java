@@ -0,0 +1,27 @@
+package foo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(codec = true)
+public interface Codec {
+  enum Kind {
+    FOO, BAR
+  }
+
+  int id();
+  double score();
+  boolean active();
+  String name();
+  @Nullable String description();
+  Optional<Long> version();
+  Kind kind();
+  byte[] payload();
+  List<Integer> counts();
+  Map<String, List<String>> tags();
+}
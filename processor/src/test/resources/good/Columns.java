@@ -0,0 +1,14 @@
+package foo;
+
+import java.util.List;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(columns = true)
+public interface Columns {
+  long id();
+  double px();
+  String sym();
+  List<String> tags();
+  int[] counts();
+}
@@ -0,0 +1,13 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(flyweight = true)
+public interface Flyweight {
+  boolean active();
+  int count();
+  long id();
+  char grade();
+  double price();
+  Flyweight withPrice(double price);
+}
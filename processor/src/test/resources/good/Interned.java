@@ -0,0 +1,9 @@
+package foo;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(intern = true)
+public interface Interned {
+  int foo();
+  String bar();
+}
@@ -0,0 +1,28 @@
+package foo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter(jackson = true)
+public interface JacksonFields {
+  int a();
+  double b();
+  boolean aCamelCaseField();
+  char c();
+  String name();
+  @Nullable String note();
+  Date date();
+  List<String> tags();
+  Set<Integer> numbers();
+  Map<Long, Date> dates();
+  @Nullable List<String> aliases();
+  @JsonProperty("foobar") boolean isReallyFoobar();
+}
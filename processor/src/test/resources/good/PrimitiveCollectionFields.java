@@ -0,0 +1,16 @@
+package foo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface PrimitiveCollectionFields {
+  List<Long> longs();
+  Set<Integer> ints();
+  List<Long> timestamps();
+  Set<Integer> tags();
+  Map<String, Long> counts();
+}
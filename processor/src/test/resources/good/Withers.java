@@ -0,0 +1,16 @@
+package foo;
+
+import java.util.List;
+
+import io.norberg.automatter.AutoMatter;
+
+@AutoMatter
+public interface Withers {
+  int foo();
+  String bar();
+  List<String> strings();
+
+  Withers withFoo(int foo);
+  Withers withBar(String bar);
+  Withers withStrings(List<String> strings);
+}
@@ -0,0 +1,268 @@
+package io.norberg.automatter;
+
+import com.google.common.base.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import io.norberg.automatter.BuilderTest.Foobar;
+import io.norberg.automatter.FlyweightTest.Tick;
+import io.norberg.automatter.ListFieldBuilderTest.Lists;
+
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks allocation budgets of generated code for the fixtures of the other tests, by comparing the bytes allocated
+ * per operation with hand-written equivalents, e.g. a single object with the same number of fields for
+ * {@code build()}.
+ */
+public class AllocationTest {
+
+  private static final int WARMUP = 20000;
+  private static final int ITERATIONS = 10000;
+  private static final int ROUNDS = 5;
+
+  /**
+   * Allowed bytes per operation above the budget, for allocations by the JVM itself on the measuring thread. Less
+   * than the smallest object, so that any extra allocation per operation still fails.
+   */
+  private static final long TOLERANCE = 8;
+
+  private static final class Reference {
+    final Object a;
+    final Object b;
+    final Object c;
+    final Object d;
+
+    Reference(final Object a, final Object b, final Object c, final Object d) {
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      this.d = d;
+    }
+  }
+
+  // Written by each operation, so that results escape and are not optimized away.
+  static Object sink;
+
+  com.sun.management.ThreadMXBean threads;
+
+  @Before
+  public void setUp() {
+    final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+    this.threads = (com.sun.management.ThreadMXBean) threads;
+    assumeTrue(this.threads.isThreadAllocatedMemorySupported());
+    this.threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test
+  public void verifyScalarSettersDoNotAllocate() {
+    final FoobarBuilder builder = new FoobarBuilder();
+    final String bar = "bar";
+    assertDoesNotAllocate(new Runnable() {
+      int i;
+
+      @Override
+      public void run() {
+        builder.foo(i++).bar(bar).quux(bar);
+      }
+    });
+  }
+
+  @Test
+  public void verifyScalarBuildAllocatesOneObject() {
+    final FoobarBuilder builder = new FoobarBuilder().foo(17).bar("bar").quux("quux");
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = builder.build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new Reference(17, "bar", "quux", null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyNullableBuildAllocatesOneObject() {
+    final FoobarBuilder builder = new FoobarBuilder().foo(17).bar("bar").quux(null);
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = builder.build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new Reference(17, "bar", null, null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyOptionalSettersDoNotAllocate() {
+    final GuavaOptionalsBuilder builder = new GuavaOptionalsBuilder();
+    final Optional<String> foo = Optional.of("foo");
+    final Optional<List<String>> bar = Optional.of(Arrays.asList("bar"));
+    assertDoesNotAllocate(new Runnable() {
+      @Override
+      public void run() {
+        builder.foo(foo).bar(bar).baz(foo);
+      }
+    });
+  }
+
+  @Test
+  public void verifyOptionalBuildAllocatesOneObject() {
+    final GuavaOptionalsBuilder builder = new GuavaOptionalsBuilder().foo("foo").baz(Optional.of("baz"));
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = builder.build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new Reference("foo", null, "baz", null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyCollectionBuildOnlyCopiesCollections() {
+    final ListsBuilder builder = listsBuilder();
+    final Object item = "foo";
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = builder.build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new Reference(Arrays.asList(item, item), Arrays.asList(item, item), Arrays.asList(item, item, item),
+                             null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyCollectionToBuilderDoesNotCopy() {
+    final Lists value = listsBuilder().build();
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = ListsBuilder.from(value).build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new ListsBuilder();
+        sink = new Reference(null, null, null, null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyClearedBuilderReusesCollections() {
+    final ListsBuilder builder = new ListsBuilder();
+    assertAllocatesAtMost(new Runnable() {
+      @Override
+      public void run() {
+        sink = builder.clear().addApple("foo").addApple("bar").build();
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        sink = new Reference(Arrays.asList("foo", "bar"), null, null, null);
+      }
+    });
+  }
+
+  @Test
+  public void verifyRepeatedEnsureCapacityDoesNotAllocate() {
+    final SetsBuilder builder = new SetsBuilder().addApple("foo").ensureApplesCapacity(100);
+    assertDoesNotAllocate(new Runnable() {
+      @Override
+      public void run() {
+        builder.ensureApplesCapacity(100).ensureApplesCapacity(10);
+      }
+    });
+  }
+
+  @Test
+  public void verifyColumnsAddBuilderDoesNotAllocate() {
+    final TradeColumns columns = new TradeColumns();
+    final TradeBuilder builder = new TradeBuilder().id(17).price(0.5).symbol("foo");
+    assertDoesNotAllocate(new Runnable() {
+      @Override
+      public void run() {
+        columns.clear();
+        columns.add(builder);
+      }
+    });
+  }
+
+  @Test
+  public void verifyFlyweightEqualsAndHashCodeDoNotAllocate() {
+    final ByteBuffer buffer = ByteBuffer.allocate(2 * TickFlyweight.SIZE);
+    final Tick tick = new TickBuilder().time(17).price(0.5).side('B').build();
+    TickFlyweight.write(tick, buffer, 0);
+    TickFlyweight.write(tick, buffer, TickFlyweight.SIZE);
+    final TickFlyweight a = new TickFlyweight(buffer, 0);
+    final TickFlyweight b = new TickFlyweight(buffer, TickFlyweight.SIZE);
+    assertDoesNotAllocate(new Runnable() {
+      int hashCode;
+
+      @Override
+      public void run() {
+        hashCode += a.equals(b) ? a.hashCode() : 0;
+      }
+    });
+  }
+
+  private static ListsBuilder listsBuilder() {
+    return new ListsBuilder()
+        .apples(Arrays.asList("foo", "bar"))
+        .oxen(Arrays.asList(17, 4711))
+        .serial(Arrays.asList(1, 2, 3));
+  }
+
+  private void assertDoesNotAllocate(final Runnable operation) {
+    assertThat(bytesPerOperation(operation), is(lessThanOrEqualTo(TOLERANCE)));
+  }
+
+  private void assertAllocatesAtMost(final Runnable operation, final Runnable reference) {
+    assertThat(bytesPerOperation(operation), is(lessThanOrEqualTo(bytesPerOperation(reference) + TOLERANCE)));
+  }
+
+  /**
+   * The fewest bytes allocated per operation in a number of rounds, after warming up.
+   */
+  private long bytesPerOperation(final Runnable operation) {
+    for (int i = 0; i < WARMUP; i++) {
+      operation.run();
+    }
+    final long thread = Thread.currentThread().getId();
+    long min = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      final long start = threads.getThreadAllocatedBytes(thread);
+      for (int i = 0; i < ITERATIONS; i++) {
+        operation.run();
+      }
+      min = Math.min(min, (threads.getThreadAllocatedBytes(thread) - start) / ITERATIONS);
+    }
+    return min;
+  }
+}
@@ -59,6 +59,21 @@ public class BuilderTest {
     builder.bar(null);
   }
 
+  @Test
+  public void testClear() {
+    final Foobar foobar = builder
+        .foo(17)
+        .bar("bar")
+        .quux("quux")
+        .build();
+    builder.clear();
+    assertThat(builder.foo(), is(0));
+    assertThat(builder.bar(), is(nullValue()));
+    assertThat(builder.quux(), is(nullValue()));
+    assertThat(builder.bar("bar").build(), is(new FoobarBuilder().bar("bar").build()));
+    assertThat(foobar.foo(), is(17));
+  }
+
   @Test
   public void testAccessors() {
     assertThat(builder.foo(), is(0));
@@ -0,0 +1,75 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+public class CachedHashCodeTest {
+
+  @AutoMatter(cacheHashCode = true)
+  interface Cached {
+    int foo();
+    String bar();
+    List<String> baz();
+    int[] quux();
+  }
+
+  @Test
+  public void verifyHashCodeMatchesArraysHashCode() {
+    final Cached cached = new CachedBuilder()
+        .foo(17)
+        .bar("hello")
+        .baz("a", "b", "c")
+        .quux(new int[]{1, 2, 3})
+        .build();
+
+    final int expected = Arrays.hashCode(new Object[]{
+        cached.foo(),
+        cached.bar(),
+        cached.baz(),
+        Arrays.hashCode(cached.quux())
+    });
+
+    assertThat(cached.hashCode(), is(expected));
+    assertThat(cached.hashCode(), is(expected));
+  }
+
+  @Test
+  public void verifyHashCodeIsComputedOnce() {
+    final int[] quux = {1, 2, 3};
+    final Cached cached = new CachedBuilder()
+        .bar("hello")
+        .quux(quux)
+        .build();
+
+    final int hashCode = cached.hashCode();
+
+    // Arrays are mutable, so this is the only way to observe that the hash code was cached.
+    quux[0] = 4711;
+    assertThat(cached.hashCode(), is(hashCode));
+  }
+
+  @Test
+  public void testEquals() {
+    final CachedBuilder builder = new CachedBuilder()
+        .foo(17)
+        .bar("hello")
+        .baz(asList("a", "b"))
+        .quux(new int[0]);
+
+    final Cached cached1 = builder.build();
+    final Cached cached2 = builder.build();
+    final Cached cached3 = builder.foo(18).build();
+
+    assertThat(cached1, is(cached2));
+    assertThat(cached2, is(cached1));
+    assertThat(cached1, is(not(cached3)));
+    assertThat(cached3, is(not(cached1)));
+  }
+}
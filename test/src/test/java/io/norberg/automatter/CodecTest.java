@@ -0,0 +1,240 @@
+package io.norberg.automatter;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class CodecTest {
+
+  enum Side {
+    BUY, SELL
+  }
+
+  @AutoMatter(codec = true)
+  interface Order {
+    long id();
+    int quantity();
+    short venue();
+    byte flags();
+    char type();
+    boolean open();
+    float weight();
+    double price();
+    Integer lots();
+    String symbol();
+    @Nullable String note();
+    Optional<String> account();
+    @Nullable Optional<String> desk();
+    Side side();
+    byte[] payload();
+    int[] fills();
+    String[] routes();
+    List<Long> amendments();
+    Set<Side> sides();
+    Map<String, List<Integer>> legs();
+    Map<List<String>, List<String>> groups();
+  }
+
+  @AutoMatter(codec = true)
+  interface Blob {
+    byte[] data();
+  }
+
+  @AutoMatter(codec = true)
+  interface Basket {
+    @Nullable List<String> items();
+    Side side();
+  }
+
+  private static OrderBuilder order() {
+    return new OrderBuilder()
+        .id(Long.MIN_VALUE)
+        .quantity(-17)
+        .venue(Short.MAX_VALUE)
+        .flags((byte) -1)
+        .type('é')
+        .open(true)
+        .weight(0.5f)
+        .price(-4711.25)
+        .lots(Integer.MAX_VALUE)
+        .symbol("FÖÖ")
+        .side(Side.SELL)
+        .payload(new byte[]{1, 2, 3})
+        .fills(new int[]{-1, 0, 1})
+        .routes(new String[]{"a", "b"})
+        .amendments(asList(1L, -1L, Long.MAX_VALUE))
+        .sides(ImmutableSet.of(Side.BUY, Side.SELL))
+        .legs(ImmutableMap.of("x", asList(1, 2), "y", asList(3)))
+        .groups(ImmutableMap.of(asList("a", "b"), asList("c"), asList("d"), asList("e", "f")));
+  }
+
+  @Test
+  public void testByteBufferRoundTrip() throws Exception {
+    final Order first = order().build();
+    final Order second = order()
+        .id(1)
+        .note("hello")
+        .account("main")
+        .desk(Optional.<String>absent())
+        .build();
+    final Order third = order()
+        .desk(Optional.of("fx"))
+        .build();
+
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    OrderCodec.writeTo(first, buffer);
+    OrderCodec.writeTo(second, buffer);
+    OrderCodec.writeTo(third, buffer);
+    buffer.flip();
+
+    assertThat(OrderCodec.readFrom(buffer), is(first));
+    assertThat(OrderCodec.readFrom(buffer), is(second));
+    assertThat(OrderCodec.readFrom(buffer), is(third));
+    assertThat(buffer.remaining(), is(0));
+  }
+
+  @Test
+  public void testStreamRoundTrip() throws Exception {
+    final Order first = order().build();
+    final Order second = order().note("hello").build();
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OrderCodec.writeTo(first, out);
+    OrderCodec.writeTo(second, out);
+
+    final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertThat(OrderCodec.readFrom(in), is(first));
+    assertThat(OrderCodec.readFrom(in), is(second));
+    assertThat(in.available(), is(0));
+  }
+
+  @Test
+  public void testPresence() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    OrderCodec.writeTo(order().build(), buffer);
+    buffer.flip();
+
+    final Order order = OrderCodec.readFrom(buffer);
+    assertThat(order.note(), is(nullValue()));
+    assertThat(order.account(), is(Optional.<String>absent()));
+    assertThat(order.desk(), is(nullValue()));
+  }
+
+  @Test
+  public void verifyWriteToFullBufferWritesNothing() {
+    final ByteBuffer buffer = ByteBuffer.allocate(8);
+    try {
+      OrderCodec.writeTo(order().build(), buffer);
+    } catch (BufferOverflowException e) {
+      assertThat(buffer.position(), is(0));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test(expected = EOFException.class)
+  public void verifyTruncatedStreamFails() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OrderCodec.writeTo(order().build(), out);
+    final byte[] bytes = out.toByteArray();
+    OrderCodec.readFrom(new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+  }
+
+  @Test(expected = EOFException.class)
+  public void verifyTruncatedBufferFails() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    OrderCodec.writeTo(order().build(), buffer);
+    buffer.flip();
+    buffer.limit(buffer.limit() - 1);
+    OrderCodec.readFrom(buffer);
+  }
+
+  @Test(expected = EOFException.class)
+  public void verifyLengthBeyondBufferFails() throws Exception {
+    // Length prefix of Integer.MAX_VALUE followed by a single byte
+    final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1});
+    BlobCodec.readFrom(buffer);
+  }
+
+  @Test(expected = EOFException.class)
+  public void verifyLengthBeyondStreamFails() throws Exception {
+    final byte[] bytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1};
+    BlobCodec.readFrom(new ByteArrayInputStream(bytes));
+  }
+
+  @Test
+  public void verifyNegativeLengthFails() throws Exception {
+    // Length prefix of -1
+    final byte[] bytes = new byte[10];
+    Arrays.fill(bytes, 0, 9, (byte) 0xFF);
+    bytes[9] = 0x01;
+    try {
+      BlobCodec.readFrom(ByteBuffer.wrap(bytes));
+    } catch (EOFException e) {
+      throw new AssertionError(e);
+    } catch (IOException e) {
+      assertThat(e.getMessage(), is("Invalid length: -1"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void verifyUnknownEnumConstantFails() throws Exception {
+    // No items, then the side "BAD"
+    final byte[] bytes = {0, 3, 'B', 'A', 'D'};
+    try {
+      BasketCodec.readFrom(ByteBuffer.wrap(bytes));
+    } catch (IOException e) {
+      assertThat(e.getMessage(), is("Invalid Side: BAD"));
+      return;
+    }
+    throw new AssertionError();
+  }
+
+  @Test
+  public void testRoundTripEmptyNullableCollection() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    for (Basket basket : asList(new BasketBuilder().side(Side.BUY).build(),
+                                new BasketBuilder().items(new ArrayList<String>()).side(Side.BUY).build(),
+                                new BasketBuilder().items("a", "b").side(Side.SELL).build())) {
+      buffer.clear();
+      BasketCodec.writeTo(basket, buffer);
+      buffer.flip();
+      assertThat(BasketCodec.readFrom(buffer), is(basket));
+    }
+  }
+
+  @Test
+  public void testLargeStreamRoundTrip() throws Exception {
+    final byte[] data = new byte[100000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    final Blob blob = new BlobBuilder().data(data).build();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BlobCodec.writeTo(blob, out);
+    assertThat(BlobCodec.readFrom(new ByteArrayInputStream(out.toByteArray())).data(), is(data));
+  }
+}
@@ -0,0 +1,105 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class ColumnsTest {
+
+  @AutoMatter(columns = true)
+  interface Trade {
+    long id();
+    double price();
+    String symbol();
+    List<String> tags();
+    Trade withPrice(double price);
+  }
+
+  @Test
+  public void testAddAndGet() {
+    final TradeColumns columns = new TradeColumns(1);
+    for (int i = 0; i < 100; i++) {
+      columns.add(new TradeBuilder()
+                      .id(i)
+                      .price(i * 0.5)
+                      .symbol("S" + i)
+                      .tags("t" + i));
+    }
+
+    assertThat(columns.size(), is(100));
+    for (int i = 0; i < 100; i++) {
+      assertThat(columns.id(i), is((long) i));
+      assertThat(columns.price(i), is(i * 0.5));
+      assertThat(columns.symbol(i), is("S" + i));
+      assertThat(columns.tags(i), contains("t" + i));
+    }
+
+    final Trade expected = new TradeBuilder()
+        .id(17)
+        .price(8.5)
+        .symbol("S17")
+        .tags("t17")
+        .build();
+    assertThat(columns.get(17), is(expected));
+    assertThat(columns.view(17), is(expected));
+    assertThat(expected, is(columns.view(17)));
+    assertThat(columns.view(17).hashCode(), is(expected.hashCode()));
+    assertThat(columns.view(17).toString(), is(expected.toString()));
+    assertThat(columns.view(17).withPrice(1.0), is(expected.withPrice(1.0)));
+  }
+
+  @Test
+  public void testClear() {
+    final TradeColumns columns = new TradeColumns()
+        .add(new TradeBuilder().id(1).symbol("A").tags(asList("a")).build());
+    columns.clear();
+    assertThat(columns.size(), is(0));
+    columns.add(new TradeBuilder().id(2).symbol("B"));
+    assertThat(columns.size(), is(1));
+    assertThat(columns.symbol(0), is("B"));
+  }
+
+  @Test
+  public void verifyAddBuilderCopiesCollections() {
+    final TradeBuilder builder = new TradeBuilder().symbol("A").addTag("a");
+    final TradeColumns columns = new TradeColumns().add(builder);
+    builder.addTag("b");
+    assertThat(columns.tags(0), contains("a"));
+  }
+
+  @Test
+  public void testViewEquality() {
+    final TradeColumns columns = new TradeColumns()
+        .add(new TradeBuilder().id(1).price(0.5).symbol("A"))
+        .add(new TradeBuilder().id(1).price(0.5).symbol("B"))
+        .add(new TradeBuilder().id(1).price(0.5).symbol("A"));
+    assertThat(columns.view(0).equals(columns.view(1)), is(false));
+    assertThat(columns.view(0), is(columns.view(2)));
+    assertThat(columns.view(0).hashCode(), is(columns.view(2).hashCode()));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void verifyGetterChecksSize() {
+    new TradeColumns().add(new TradeBuilder().symbol("A")).symbol(1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void verifyGetterChecksNegativeIndex() {
+    new TradeColumns().add(new TradeBuilder().symbol("A")).id(-1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void verifyGetChecksNegativeIndex() {
+    new TradeColumns().add(new TradeBuilder().symbol("A")).get(-1);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void verifyAddBuilderValidates() {
+    new TradeColumns().add(new TradeBuilder());
+  }
+}
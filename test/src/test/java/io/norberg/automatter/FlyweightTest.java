@@ -0,0 +1,85 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class FlyweightTest {
+
+  @AutoMatter(flyweight = true)
+  interface Tick {
+    long time();
+    double price();
+    int volume();
+    short venue();
+    char side();
+    byte flags();
+    boolean last();
+    float weight();
+    Tick withPrice(double price);
+  }
+
+  private static Tick tick(final int i) {
+    return new TickBuilder()
+        .time(1000L + i)
+        .price(i * 0.25)
+        .volume(i)
+        .venue((short) (i % 7))
+        .side(i % 2 == 0 ? 'B' : 'S')
+        .flags((byte) i)
+        .last(i % 3 == 0)
+        .weight(i * 0.5f)
+        .build();
+  }
+
+  @Test
+  public void testWriteAndRead() {
+    assertThat(TickFlyweight.SIZE, is(8 + 8 + 4 + 4 + 2 + 2 + 1 + 1));
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(100 * TickFlyweight.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < 100; i++) {
+      TickFlyweight.write(tick(i), buffer, i * TickFlyweight.SIZE);
+    }
+
+    final TickFlyweight flyweight = new TickFlyweight();
+    for (int i = 0; i < 100; i++) {
+      final Tick expected = tick(i);
+      flyweight.wrap(buffer, i * TickFlyweight.SIZE);
+      assertThat(flyweight.time(), is(expected.time()));
+      assertThat(flyweight.price(), is(expected.price()));
+      assertThat(flyweight.volume(), is(expected.volume()));
+      assertThat(flyweight.venue(), is(expected.venue()));
+      assertThat(flyweight.side(), is(expected.side()));
+      assertThat(flyweight.flags(), is(expected.flags()));
+      assertThat(flyweight.last(), is(expected.last()));
+      assertThat(flyweight.weight(), is(expected.weight()));
+      assertThat(flyweight, is(expected));
+      assertThat(expected, is((Tick) flyweight));
+      assertThat(flyweight.hashCode(), is(expected.hashCode()));
+      assertThat(flyweight.toString(), is(expected.toString()));
+    }
+  }
+
+  @Test
+  public void testWither() {
+    final ByteBuffer buffer = ByteBuffer.allocate(TickFlyweight.SIZE);
+    TickFlyweight.write(tick(3), buffer, 0);
+    final TickFlyweight flyweight = new TickFlyweight(buffer, 0);
+    assertThat(flyweight.withPrice(17), is(tick(3).withPrice(17)));
+    assertThat(flyweight.price(), is(0.75));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void verifyWrapChecksBounds() {
+    new TickFlyweight(ByteBuffer.allocate(TickFlyweight.SIZE), 1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void verifyWriteChecksBounds() {
+    TickFlyweight.write(tick(1), ByteBuffer.allocate(TickFlyweight.SIZE - 1), 0);
+  }
+}
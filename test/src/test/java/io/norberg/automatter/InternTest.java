@@ -0,0 +1,106 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InternTest {
+
+  @AutoMatter(intern = true)
+  interface Endpoint {
+    String host();
+    int port();
+    List<String> tags();
+  }
+
+  static class ManualEndpoint implements Endpoint {
+
+    @Override
+    public String host() {
+      return "example.com";
+    }
+
+    @Override
+    public int port() {
+      return 443;
+    }
+
+    @Override
+    public List<String> tags() {
+      return singletonList("manual");
+    }
+  }
+
+  @Test
+  public void verifyEqualValuesAreInternedToSameInstance() {
+    final EndpointBuilder builder = new EndpointBuilder()
+        .host("example.com")
+        .port(80)
+        .tags("a", "b");
+
+    final Endpoint endpoint1 = builder.buildInterned();
+    final Endpoint endpoint2 = builder.buildInterned();
+    final Endpoint endpoint3 = EndpointBuilder.intern(builder.build());
+
+    assertThat(endpoint2, is(sameInstance(endpoint1)));
+    assertThat(endpoint3, is(sameInstance(endpoint1)));
+    assertThat(EndpointBuilder.intern(endpoint1), is(sameInstance(endpoint1)));
+  }
+
+  @Test
+  public void verifyDifferentValuesAreNotInternedToSameInstance() {
+    final EndpointBuilder builder = new EndpointBuilder()
+        .host("example.com")
+        .port(80);
+
+    final Endpoint endpoint1 = builder.buildInterned();
+    final Endpoint endpoint2 = builder.port(8080).buildInterned();
+
+    assertThat(endpoint2, is(not(sameInstance(endpoint1))));
+    assertThat(endpoint1, is(not(endpoint2)));
+    assertThat(endpoint2, is(not(endpoint1)));
+  }
+
+  @Test
+  public void verifyInternedValueEqualsNonInternedValue() {
+    final EndpointBuilder builder = new EndpointBuilder()
+        .host("example.com")
+        .port(80);
+
+    final Endpoint interned = builder.buildInterned();
+    final Endpoint value = builder.build();
+
+    assertThat(interned, is(value));
+    assertThat(value, is(interned));
+  }
+
+  @Test
+  public void verifyInternDoesNotPublishArgument() {
+    final Endpoint value = new EndpointBuilder()
+        .host("intern.example.com")
+        .port(7)
+        .build();
+
+    final Endpoint interned = EndpointBuilder.intern(value);
+
+    assertThat(interned, is(not(sameInstance(value))));
+    assertThat(interned, is(value));
+    assertThat(EndpointBuilder.intern(value), is(sameInstance(interned)));
+  }
+
+  @Test
+  public void testInternOtherImplementation() {
+    final Endpoint manual = new ManualEndpoint();
+    final Endpoint interned = EndpointBuilder.intern(manual);
+
+    assertThat(interned, is(not(sameInstance(manual))));
+    assertThat(interned, is(manual));
+    assertThat(EndpointBuilder.intern(new ManualEndpoint()), is(sameInstance(interned)));
+  }
+}
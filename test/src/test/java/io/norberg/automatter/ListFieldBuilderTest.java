@@ -7,12 +7,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.emptyCollectionOf;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class ListFieldBuilderTest {
@@ -63,6 +67,119 @@ public class ListFieldBuilderTest {
     assertThat(lists2.apples(), is(asList("red", "green")));
   }
 
+  @Test
+  public void verifyMutatingBuilderListAfterBuildDoesNotChangeValue() {
+    final Lists lists1 = builder
+        .addApple("red")
+        .build();
+    builder.apples().add("green");
+    final Lists lists2 = builder.build();
+    builder.addApple("blue");
+    assertThat(lists1.apples(), is(asList("red")));
+    assertThat(lists2.apples(), is(asList("red", "green")));
+    assertThat(builder.build().apples(), is(asList("red", "green", "blue")));
+  }
+
+  @Test
+  public void verifyMutatingExposedBuilderListDoesNotChangeValue() {
+    final List<String> apples = builder.addApple("red").apples();
+    final Lists lists1 = builder.build();
+    apples.add("green");
+    final Lists lists2 = builder.build();
+    assertThat(lists1.apples(), is(asList("red")));
+    assertThat(lists2.apples(), is(asList("red", "green")));
+  }
+
+  @Test
+  public void verifyBuilderFromValueSharesListUntilMutated() {
+    final Lists lists1 = builder
+        .apples("red")
+        .build();
+    final Lists lists2 = ListsBuilder.from(lists1).build();
+    assertThat(lists2.apples(), is(sameInstance(lists1.apples())));
+  }
+
+  @Test
+  public void verifyMutatingBuilderFromValueDoesNotChangeValue() {
+    final Lists lists1 = builder
+        .apples("red")
+        .build();
+    final Lists lists2 = ListsBuilder.from(lists1)
+        .addApple("green")
+        .build();
+    final ListsBuilder builder2 = ListsBuilder.from(lists1);
+    builder2.apples().add("blue");
+    assertThat(lists1.apples(), is(asList("red")));
+    assertThat(lists2.apples(), is(asList("red", "green")));
+    assertThat(builder2.build().apples(), is(asList("red", "blue")));
+  }
+
+  @Test
+  public void verifyValueListIsCompact() {
+    assertThat(builder.build().apples(), is(sameInstance(Collections.<String>emptyList())));
+    assertThat(builder.addApple("red").build().apples(),
+               is(instanceOf(Collections.singletonList("red").getClass())));
+  }
+
+  @Test
+  public void testEnsureCapacity() {
+    final Lists lists1 = builder
+        .addApple("red")
+        .build();
+    final List<String> apples = builder
+        .ensureApplesCapacity(100)
+        .addApple("green")
+        .apples();
+    builder.ensureApplesCapacity(1000);
+    apples.add("blue");
+    assertThat(lists1.apples(), is(asList("red")));
+    assertThat(builder.build().apples(), is(asList("red", "green", "blue")));
+  }
+
+  @Test
+  public void verifyImmutableListIsShared() {
+    final List<String> apples = ImmutableList.of("red", "green");
+    final Lists lists = builder.apples(apples).build();
+    assertThat(lists.apples(), is(sameInstance(apples)));
+    final Lists lists2 = builder.addApple("blue").build();
+    assertThat(lists.apples(), is(asList("red", "green")));
+    assertThat(lists2.apples(), is(asList("red", "green", "blue")));
+  }
+
+  @Test
+  public void verifyValueListIsShared() {
+    final Lists lists = builder.apples("red", "green").build();
+    final Lists lists2 = new ListsBuilder().apples(lists.apples()).build();
+    assertThat(lists2.apples(), is(sameInstance(lists.apples())));
+  }
+
+  @Test
+  public void verifySingletonListWithNullIsRejected() {
+    expectedException.expect(NullPointerException.class);
+    builder.apples(Collections.<String>singletonList(null));
+  }
+
+  @Test
+  public void verifyMutableListIsCopied() {
+    final List<String> apples = new ArrayList<String>(asList("red", "green"));
+    final Lists lists = builder.apples(apples).build();
+    apples.add("blue");
+    assertThat(lists.apples(), is(asList("red", "green")));
+  }
+
+  @Test
+  public void testClear() {
+    final Lists lists1 = builder
+        .addApple("red")
+        .build();
+    final List<String> apples = builder.apples();
+    builder.clear();
+    apples.add("green");
+    assertThat(builder.build().apples(), is(emptyCollectionOf(String.class)));
+    assertThat(builder.addApple("blue").clear().addApple("green").build().apples(), is(asList("green")));
+    assertThat(lists1.apples(), is(asList("red")));
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void verifyValueListIsImmutable1() {
     final Lists lists = builder
@@ -8,11 +8,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static java.util.Collections.singletonMap;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
@@ -64,6 +67,61 @@ public class MapFieldBuilderTest {
     assertEquals(ImmutableMap.of("apple", 17, "orange", 18), maps2.prices());
   }
 
+  @Test
+  public void verifyMutatingExposedBuilderMapDoesNotChangeValue() {
+    final Map<String, Integer> prices = builder.putPrice("apple", 17).prices();
+    final Maps maps1 = builder.build();
+    prices.put("orange", 18);
+    final Maps maps2 = builder.build();
+    builder.putPrice("banana", 19);
+    assertThat(maps1.prices(), is(singletonMap("apple", 17)));
+    assertEquals(ImmutableMap.of("apple", 17, "orange", 18), maps2.prices());
+    assertEquals(ImmutableMap.of("apple", 17, "orange", 18, "banana", 19), builder.build().prices());
+  }
+
+  @Test
+  public void verifyMutatingBuilderFromValueDoesNotChangeValue() {
+    final Maps maps1 = builder
+        .prices("apple", 17)
+        .build();
+    final Maps maps2 = MapsBuilder.from(maps1)
+        .putPrice("orange", 18)
+        .build();
+    assertThat(maps1.prices(), is(singletonMap("apple", 17)));
+    assertEquals(ImmutableMap.of("apple", 17, "orange", 18), maps2.prices());
+  }
+
+  @Test
+  public void testEnsureCapacity() {
+    final Maps maps1 = builder
+        .putPrice("apple", 17)
+        .build();
+    final Maps maps2 = builder
+        .ensurePricesCapacity(100)
+        .putPrice("orange", 18)
+        .build();
+    final Map<String, Integer> prices = builder.prices();
+    builder.ensurePricesCapacity(1000);
+    prices.put("banana", 19);
+    assertThat(maps1.prices(), is(singletonMap("apple", 17)));
+    assertEquals(ImmutableMap.of("apple", 17, "orange", 18), maps2.prices());
+    assertEquals(ImmutableMap.of("apple", 17, "orange", 18, "banana", 19), builder.build().prices());
+  }
+
+  @Test
+  public void verifyImmutableMapIsShared() {
+    final Map<String, Integer> prices = ImmutableMap.of("apple", 17, "orange", 18);
+    final Maps maps = builder.prices(prices).build();
+    assertThat(maps.prices(), is(sameInstance(prices)));
+  }
+
+  @Test
+  public void verifyValueMapIsShared() {
+    final Maps maps = builder.putPrice("apple", 17).putPrice("orange", 18).build();
+    final Maps maps2 = new MapsBuilder().prices(maps.prices()).build();
+    assertThat(maps2.prices(), is(sameInstance(maps.prices())));
+  }
+
   @Test
   public void testPuttingMultipleEntries() {
     builder.prices("a", 1);
@@ -137,6 +195,22 @@ public class MapFieldBuilderTest {
     maps.prices().clear();
   }
 
+  @Test
+  public void verifyValueMapIsCompact() {
+    final Map<String, Integer> expected = new HashMap<String, Integer>();
+    for (int i = 0; i < 100; i++) {
+      expected.put("apple" + i, i);
+      builder.putPrice("apple" + i, i);
+    }
+    final Map<String, Integer> prices = builder.build().prices();
+    assertThat(prices, is(expected));
+    assertThat(prices.hashCode(), is(expected.hashCode()));
+    assertThat(new HashMap<String, Integer>(prices), is(expected));
+    assertThat(prices.get("apple17"), is(17));
+    assertThat(prices.containsKey("pear"), is(false));
+    assertThat(prices.get(null), is(nullValue()));
+  }
+
   @Test
   public void testEnglishPlurals() {
     final Maps maps = builder.putOx(17, "foo").putOx(4711, "bar").build();
@@ -48,6 +48,13 @@ public class NullableListFieldBuilderTest {
     assertThat(lists.apples(), is(asList("red", "green")));
   }
 
+  @Test
+  public void testEnsuringCapacityInstantiatesList() {
+    builder.ensureApplesCapacity(10);
+    final NullableLists lists = builder.build();
+    assertThat(lists.apples(), is(empty()));
+  }
+
   @Test
   public void testAddingNullItems() {
     builder.apples("red", null, "green", null);
@@ -51,6 +51,13 @@ public class NullableMapFieldBuilderTest {
                                                                        "green", 18)));
   }
 
+  @Test
+  public void testEnsuringCapacityInstantiatesMap() {
+    builder.ensurePricesCapacity(10);
+    final NullableMap map = builder.build();
+    assertThat(map.prices(), is((Map<String, Integer>) ImmutableMap.<String, Integer>of()));
+  }
+
   @Test
   public void testAddingNullEntries() {
     builder.prices("red", 17,
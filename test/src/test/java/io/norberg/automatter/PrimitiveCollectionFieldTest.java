@@ -0,0 +1,169 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PrimitiveCollectionFieldTest {
+
+  @AutoMatter
+  interface Samples {
+    List<Long> timestamps();
+    List<Double> values();
+    Set<Integer> tags();
+    Map<String, Long> counts();
+  }
+
+  @Test
+  public void testPrimitiveArraySetters() {
+    final long[] timestamps = {1, 2, 3};
+    final Samples samples = new SamplesBuilder()
+        .timestamps(timestamps)
+        .values(new double[]{0.5, 1.5})
+        .build();
+    timestamps[0] = 4711;
+    assertThat(samples.timestamps(), is(asList(1L, 2L, 3L)));
+    assertThat(samples.values(), is(asList(0.5, 1.5)));
+  }
+
+  @Test
+  public void verifyPrimitiveListEqualsBoxedList() {
+    final Samples samples = new SamplesBuilder()
+        .addTimestamp(1L)
+        .addTimestamp(2L)
+        .addTimestamp(3L)
+        .build();
+    final Samples other = new SamplesBuilder()
+        .timestamps(new long[]{1, 2, 3})
+        .build();
+    assertThat(samples.timestamps(), is(asList(1L, 2L, 3L)));
+    assertThat(samples.timestamps().hashCode(), is(asList(1L, 2L, 3L).hashCode()));
+    assertThat(samples, is(other));
+    assertThat(samples.toString(), is(other.toString()));
+  }
+
+  @Test
+  public void verifyPrimitiveSetEqualsBoxedSet() {
+    final Set<Integer> expected = new HashSet<Integer>(asList(17, -1, 4711));
+    final Samples samples = new SamplesBuilder()
+        .addTag(4711)
+        .addTag(17)
+        .addTag(-1)
+        .build();
+    assertThat(samples.tags(), is(expected));
+    assertThat(samples.tags().hashCode(), is(expected.hashCode()));
+    assertThat(samples.tags().contains(17), is(true));
+    assertThat(samples.tags().contains(18), is(false));
+    assertThat(samples.tags().contains(17L), is(false));
+    assertThat(samples.tags(), contains(-1, 17, 4711));
+  }
+
+  @Test
+  public void testPrimitiveSetArraySetter() {
+    final int[] tags = {3, 1, 2, 1};
+    final Samples samples = new SamplesBuilder()
+        .tags(tags)
+        .build();
+    tags[0] = 4711;
+    assertThat(samples.tags(), is((Set<Integer>) new HashSet<Integer>(asList(1, 2, 3))));
+  }
+
+  @Test
+  public void verifyPrimitiveMapEqualsBoxedMap() {
+    final Map<String, Long> expected = new HashMap<String, Long>();
+    expected.put("apple", 17L);
+    expected.put("orange", 18L);
+    expected.put("pear", 4711L);
+    final Samples samples = new SamplesBuilder()
+        .putCount("apple", 17L)
+        .putCount("orange", 1L)
+        .putCount("orange", 18L)
+        .putCount("pear", 4711L)
+        .build();
+    assertThat(samples.counts(), is(expected));
+    assertThat(samples.counts().hashCode(), is(expected.hashCode()));
+    assertThat(samples.counts().get("orange"), is(18L));
+    assertThat(samples.counts().containsKey("banana"), is(false));
+    assertThat(new SamplesBuilder().counts(expected).build(), is(samples));
+  }
+
+  @Test
+  public void verifyExposedBuilderCollectionsCanBeMutated() {
+    final SamplesBuilder builder = new SamplesBuilder()
+        .tags(1, 2, 3)
+        .putCount("apple", 17L)
+        .putCount("orange", 18L);
+    final Iterator<Integer> tags = builder.tags().iterator();
+    while (tags.hasNext()) {
+      if (tags.next() == 2) {
+        tags.remove();
+      }
+    }
+    builder.addTag(4);
+    for (Map.Entry<String, Long> entry : builder.counts().entrySet()) {
+      entry.setValue(entry.getValue() + 1);
+    }
+    builder.counts().remove("apple");
+    final Samples samples = builder.build();
+    assertThat(samples.tags(), contains(1, 3, 4));
+    assertThat(samples.counts().size(), is(1));
+    assertThat(samples.counts().get("orange"), is(19L));
+  }
+
+  @Test
+  public void verifyBuilderFromValueCanBeMutated() {
+    final Samples samples = new SamplesBuilder()
+        .timestamps(new long[]{1, 2})
+        .build();
+    final Samples samples2 = SamplesBuilder.from(samples)
+        .addTimestamp(3L)
+        .build();
+    assertThat(samples.timestamps(), is(asList(1L, 2L)));
+    assertThat(samples2.timestamps(), is(asList(1L, 2L, 3L)));
+  }
+
+  @Test
+  public void verifyBuilderFromValueCanBeMutatedWithPrimitiveSetAndMap() {
+    final Samples samples = new SamplesBuilder()
+        .tags(1, 2)
+        .putCount("apple", 17L)
+        .putCount("orange", 18L)
+        .build();
+    final Samples samples2 = SamplesBuilder.from(samples)
+        .addTag(3)
+        .putCount("apple", 4711L)
+        .build();
+    assertThat(samples.tags(), contains(1, 2));
+    assertThat(samples.counts().get("apple"), is(17L));
+    assertThat(samples2.tags(), contains(1, 2, 3));
+    assertThat(samples2.counts().get("apple"), is(4711L));
+    assertThat(samples2.counts().get("orange"), is(18L));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void verifyPrimitiveListIsImmutable() {
+    final Samples samples = new SamplesBuilder()
+        .timestamps(Arrays.asList(1L, 2L))
+        .build();
+    samples.timestamps().set(0, 3L);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void verifyPrimitiveSetIsImmutable() {
+    final Samples samples = new SamplesBuilder()
+        .tags(1, 2)
+        .build();
+    samples.tags().remove(1);
+  }
+}
@@ -0,0 +1,131 @@
+package io.norberg.automatter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SerializationTest {
+
+  enum Color {
+    RED, GREEN, BLUE
+  }
+
+  @AutoMatter
+  interface Document extends Serializable {
+    String title();
+    List<String> lines();
+    Set<Color> colors();
+    Map<Color, String> names();
+  }
+
+  @AutoMatter
+  interface Measurement extends Serializable {
+    List<Long> timestamps();
+    Set<Integer> ports();
+    Map<String, Double> weights();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final Document document = new DocumentBuilder()
+        .title("palette")
+        .lines("foo", "bar", "baz")
+        .colors(Color.RED, Color.GREEN, Color.BLUE)
+        .names(Color.RED, "red", Color.GREEN, "green", Color.BLUE, "blue")
+        .build();
+
+    final Document copy = roundTrip(document);
+
+    assertThat(copy, is(document));
+    assertThat(copy.hashCode(), is(document.hashCode()));
+    assertThat(copy.toString(), is(document.toString()));
+    assertThat(copy.colors().contains(Color.GREEN), is(true));
+    assertThat(copy.names().get(Color.BLUE), is("blue"));
+  }
+
+  @Test
+  public void testRoundTripEmptyAndSingletonCollections() throws Exception {
+    final Document document = new DocumentBuilder()
+        .title("empty")
+        .addLine("foo")
+        .build();
+
+    assertThat(roundTrip(document), is(document));
+  }
+
+  @Test
+  public void verifyDeserializedCollectionsAreImmutable() throws Exception {
+    final Document document = new DocumentBuilder()
+        .title("palette")
+        .lines("foo", "bar")
+        .build();
+
+    final Document copy = roundTrip(document);
+    final Document modified = DocumentBuilder.from(copy).addLine("baz").build();
+
+    assertThat(copy.lines(), contains("foo", "bar"));
+    assertThat(modified.lines(), is(asList("foo", "bar", "baz")));
+  }
+
+  @Test
+  public void testRoundTripPrimitiveCollections() throws Exception {
+    final Measurement measurement = new MeasurementBuilder()
+        .timestamps(1L, 2L, 3L)
+        .ports(80, 443, 8080)
+        .putWeight("foo", 0.5)
+        .putWeight("bar", Double.NaN)
+        .build();
+
+    final Measurement copy = roundTrip(measurement);
+
+    assertThat(copy, is(measurement));
+    assertThat(copy.hashCode(), is(measurement.hashCode()));
+    assertThat(copy.ports().contains(443), is(true));
+    assertThat(copy.weights().get("bar"), is(Double.NaN));
+  }
+
+  @Test
+  public void testRoundTripBuilderCollections() throws Exception {
+    final MeasurementBuilder builder = new MeasurementBuilder()
+        .addTimestamp(17L)
+        .addPort(80)
+        .putWeight("foo", 0.5);
+
+    final List<Long> timestamps = roundTrip(builder.timestamps());
+    final Set<Integer> ports = roundTrip(builder.ports());
+    final Map<String, Double> weights = roundTrip(builder.weights());
+    timestamps.add(4711L);
+    ports.add(443);
+    weights.put("bar", 1.0);
+
+    assertThat(timestamps, contains(17L, 4711L));
+    assertThat(ports, containsInAnyOrder(80, 443));
+    assertThat(weights.size(), is(2));
+    assertThat(weights.get("foo"), is(0.5));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T roundTrip(final T value) throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+}
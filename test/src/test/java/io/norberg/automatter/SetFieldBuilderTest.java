@@ -84,6 +84,21 @@ public class SetFieldBuilderTest {
     lists.apples().clear();
   }
 
+  @Test
+  public void verifyValueSetIsCompact() {
+    final Set<String> expected = new HashSet<String>();
+    for (int i = 0; i < 100; i++) {
+      expected.add("apple" + i);
+      builder.addApple("apple" + i);
+    }
+    final Set<String> apples = builder.build().apples();
+    assertThat(apples, is(expected));
+    assertThat(apples.hashCode(), is(expected.hashCode()));
+    assertThat(new HashSet<String>(apples), is(expected));
+    assertThat(apples.contains("pear"), is(false));
+    assertThat(apples.contains(null), is(false));
+  }
+
   @Test
   public void testEnglishPlurals() {
     final Sets lists = builder.addOx(17).addOx(4711).build();
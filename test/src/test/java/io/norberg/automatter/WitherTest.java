@@ -0,0 +1,69 @@
+package io.norberg.automatter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class WitherTest {
+
+  public @Rule ExpectedException expectedException = ExpectedException.none();
+
+  @AutoMatter
+  interface Withered {
+    int foo();
+    String bar();
+    List<String> baz();
+
+    Withered withFoo(int foo);
+    Withered withBar(String bar);
+    Withered withBaz(List<String> baz);
+  }
+
+  final Withered original = new WitheredBuilder()
+      .foo(17)
+      .bar("hello")
+      .baz("a", "b")
+      .build();
+
+  @Test
+  public void testWither() {
+    final Withered foobar = original.withFoo(18);
+    assertThat(foobar, is(new WitheredBuilder()
+                              .foo(18)
+                              .bar("hello")
+                              .baz("a", "b")
+                              .build()));
+    assertThat(original.foo(), is(17));
+  }
+
+  @Test
+  public void verifyWitherSharesOtherFields() {
+    final Withered foobar = original.withBar("world");
+    assertThat(foobar.bar(), is("world"));
+    assertThat(foobar.baz(), is(sameInstance(original.baz())));
+  }
+
+  @Test
+  public void verifyCollectionWitherCopies() {
+    final List<String> baz = new ArrayList<String>(asList("c"));
+    final Withered foobar = original.withBaz(baz);
+    baz.add("d");
+    assertThat(foobar.baz(), is(asList("c")));
+    assertThat(original.baz(), is(asList("a", "b")));
+  }
+
+  @Test
+  public void verifyWitherWithNullThrowsNPE() {
+    expectedException.expect(NullPointerException.class);
+    expectedException.expectMessage("bar");
+    original.withBar(null);
+  }
+}